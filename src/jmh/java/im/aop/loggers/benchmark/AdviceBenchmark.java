@@ -0,0 +1,347 @@
+package im.aop.loggers.benchmark;
+
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.EnableAspectJAutoProxy;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.env.MapPropertySource;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.OutputStreamAppender;
+import ch.qos.logback.core.helpers.NOPAppender;
+import im.aop.loggers.AopLoggersAutoConfiguration;
+import im.aop.loggers.AopLoggersProperties;
+import im.aop.loggers.advice.after.returning.LogAfterReturning;
+import im.aop.loggers.advice.after.throwing.LogAfterThrowing;
+import im.aop.loggers.advice.around.LogAround;
+import im.aop.loggers.advice.before.LogBefore;
+
+/**
+ * Measures the overhead per call of every advice, for a varying number of parameters and size of
+ * return value.
+ *
+ * <p>Run with {@code -prof gc} to also report bytes allocated per call.
+ *
+ * @author Andy Lian
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AdviceBenchmark {
+
+  private static final String PATTERN =
+      "%d{yyyy-MM-dd HH:mm:ss.SSS} %5p [%15.15t] %-40.40logger{39} : %m%n";
+
+  public enum LoggingState {
+    /** {@code im.aop.loggers.enabled=false} */
+    DISABLED,
+
+    /** Logger of the target is not enabled for any level used by the advices */
+    LOGGER_LEVEL_DISABLED,
+
+    /** Enabled, with an appender that discards every event */
+    NOOP_APPENDER,
+
+    /** Enabled, with an appender formatting every event with a typical pattern */
+    PATTERN_APPENDER
+  }
+
+  @Param
+  private LoggingState loggingState;
+
+  @Param({"0", "1", "4"})
+  private int parameterCount;
+
+  @Param({"1", "100"})
+  private int returnValueSize;
+
+  private AnnotationConfigApplicationContext context;
+
+  private Appender<ILoggingEvent> appender;
+
+  private LogBeforeTarget logBeforeTarget;
+
+  private LogAfterReturningTarget logAfterReturningTarget;
+
+  private LogAfterThrowingTarget logAfterThrowingTarget;
+
+  private LogAroundTarget logAroundTarget;
+
+  @Configuration(proxyBeanMethods = false)
+  @EnableAspectJAutoProxy(proxyTargetClass = true)
+  @Import(AopLoggersAutoConfiguration.class)
+  static class BenchmarkConfiguration {
+
+    @Bean
+    public LogBeforeTarget logBeforeTarget() {
+      return new LogBeforeTarget();
+    }
+
+    @Bean
+    public LogAfterReturningTarget logAfterReturningTarget() {
+      return new LogAfterReturningTarget();
+    }
+
+    @Bean
+    public LogAfterThrowingTarget logAfterThrowingTarget() {
+      return new LogAfterThrowingTarget();
+    }
+
+    @Bean
+    public LogAroundTarget logAroundTarget() {
+      return new LogAroundTarget();
+    }
+  }
+
+  abstract static class Target {
+
+    private List<String> returnValue;
+
+    void setReturnValueSize(final int returnValueSize) {
+      final List<String> returnValue = new ArrayList<String>(returnValueSize);
+      for (int index = 0; index < returnValueSize; index++) {
+        returnValue.add("value-" + index);
+      }
+      this.returnValue = Collections.unmodifiableList(returnValue);
+    }
+
+    List<String> result() {
+      return returnValue;
+    }
+
+    public abstract List<String> call0();
+
+    public abstract List<String> call1(String foo);
+
+    public abstract List<String> call4(String foo, String bar, Integer baz, Long qux);
+  }
+
+  @LogBefore
+  public static class LogBeforeTarget extends Target {
+
+    @Override
+    public List<String> call0() {
+      return result();
+    }
+
+    @Override
+    public List<String> call1(final String foo) {
+      return result();
+    }
+
+    @Override
+    public List<String> call4(
+        final String foo, final String bar, final Integer baz, final Long qux) {
+      return result();
+    }
+  }
+
+  @LogAfterReturning
+  public static class LogAfterReturningTarget extends Target {
+
+    @Override
+    public List<String> call0() {
+      return result();
+    }
+
+    @Override
+    public List<String> call1(final String foo) {
+      return result();
+    }
+
+    @Override
+    public List<String> call4(
+        final String foo, final String bar, final Integer baz, final Long qux) {
+      return result();
+    }
+  }
+
+  @LogAfterThrowing
+  public static class LogAfterThrowingTarget extends Target {
+
+    private final IllegalStateException exception = new IllegalStateException("foo");
+
+    @Override
+    public List<String> call0() {
+      throw exception;
+    }
+
+    @Override
+    public List<String> call1(final String foo) {
+      throw exception;
+    }
+
+    @Override
+    public List<String> call4(
+        final String foo, final String bar, final Integer baz, final Long qux) {
+      throw exception;
+    }
+  }
+
+  @LogAround
+  public static class LogAroundTarget extends Target {
+
+    @Override
+    public List<String> call0() {
+      return result();
+    }
+
+    @Override
+    public List<String> call1(final String foo) {
+      return result();
+    }
+
+    @Override
+    public List<String> call4(
+        final String foo, final String bar, final Integer baz, final Long qux) {
+      return result();
+    }
+  }
+
+  @Setup
+  public void setup() {
+    configureLogging();
+
+    context = new AnnotationConfigApplicationContext();
+    context
+        .getEnvironment()
+        .getPropertySources()
+        .addFirst(
+            new MapPropertySource(
+                "benchmark",
+                Collections.<String, Object>singletonMap(
+                    AopLoggersProperties.PREFIX + ".enabled",
+                    loggingState != LoggingState.DISABLED)));
+    context.register(BenchmarkConfiguration.class);
+    context.refresh();
+
+    logBeforeTarget = target(LogBeforeTarget.class);
+    logAfterReturningTarget = target(LogAfterReturningTarget.class);
+    logAfterThrowingTarget = target(LogAfterThrowingTarget.class);
+    logAroundTarget = target(LogAroundTarget.class);
+  }
+
+  private <T extends Target> T target(final Class<T> type) {
+    final T target = context.getBean(type);
+    target.setReturnValueSize(returnValueSize);
+    return target;
+  }
+
+  private void configureLogging() {
+    final LoggerContext loggerContext = (LoggerContext) LoggerFactory.getILoggerFactory();
+    loggerContext.reset();
+    loggerContext.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME).setLevel(Level.WARN);
+
+    final Logger logger = loggerContext.getLogger(getClass().getPackage().getName());
+    logger.setAdditive(false);
+
+    switch (loggingState) {
+      case LOGGER_LEVEL_DISABLED:
+        logger.setLevel(Level.OFF);
+        appender = new NOPAppender<ILoggingEvent>();
+        break;
+      case PATTERN_APPENDER:
+        appender = patternAppender(loggerContext);
+        logger.setLevel(Level.DEBUG);
+        break;
+      default:
+        appender = new NOPAppender<ILoggingEvent>();
+        logger.setLevel(Level.DEBUG);
+        break;
+    }
+
+    appender.setContext(loggerContext);
+    appender.start();
+    logger.addAppender(appender);
+  }
+
+  private Appender<ILoggingEvent> patternAppender(final LoggerContext loggerContext) {
+    final PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+    encoder.setContext(loggerContext);
+    encoder.setPattern(PATTERN);
+    encoder.start();
+
+    final OutputStreamAppender<ILoggingEvent> appender =
+        new OutputStreamAppender<ILoggingEvent>();
+    appender.setEncoder(encoder);
+    appender.setOutputStream(
+        new OutputStream() {
+
+          @Override
+          public void write(final int b) {}
+
+          @Override
+          public void write(final byte[] b, final int off, final int len) {}
+        });
+    return appender;
+  }
+
+  @TearDown
+  public void tearDown() {
+    context.close();
+    appender.stop();
+  }
+
+  private Object call(final Target target) {
+    try {
+      switch (parameterCount) {
+        case 0:
+          return target.call0();
+        case 1:
+          return target.call1("foo");
+        default:
+          return target.call4("foo", "bar", 1, 2L);
+      }
+    } catch (IllegalStateException e) {
+      return e;
+    }
+  }
+
+  @Benchmark
+  public Object logBefore() {
+    return call(logBeforeTarget);
+  }
+
+  @Benchmark
+  public Object logAfterReturning() {
+    return call(logAfterReturningTarget);
+  }
+
+  @Benchmark
+  public Object logAfterThrowing() {
+    return call(logAfterThrowingTarget);
+  }
+
+  @Benchmark
+  public Object logAround() {
+    return call(logAroundTarget);
+  }
+}
@@ -0,0 +1,133 @@
+package im.aop.loggers.benchmark;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.logging.LogLevel;
+import org.springframework.boot.logging.LoggingSystem;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.EnableAspectJAutoProxy;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.env.MapPropertySource;
+
+import im.aop.loggers.AopLoggersAutoConfiguration;
+import im.aop.loggers.AopLoggersProperties;
+import im.aop.loggers.advice.around.LogAround;
+
+/**
+ * Compares a {@link LogAround} method that cannot log anything, or only its exited abnormally
+ * message, against the same call without the advice.
+ *
+ * @author Andy Lian
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LogAroundDisabledBenchmark {
+
+  public enum Disabled {
+    /** {@code im.aop.loggers.enabled=false} */
+    PROPERTY,
+
+    /** Logger of the target is not enabled for any level used by the advice */
+    LOGGER_LEVEL,
+
+    /**
+     * Logger of the target is at INFO with default levels, so only the exited abnormally message
+     * could be logged
+     */
+    LOGGER_LEVEL_INFO
+  }
+
+  @Param
+  private Disabled disabled;
+
+  private AnnotationConfigApplicationContext context;
+
+  private Foo unproxied;
+
+  private Foo proxied;
+
+  @Configuration(proxyBeanMethods = false)
+  @EnableAspectJAutoProxy(proxyTargetClass = true)
+  @Import(AopLoggersAutoConfiguration.class)
+  static class BenchmarkConfiguration {
+
+    @Bean
+    public Foo foo() {
+      return new Foo();
+    }
+  }
+
+  public static class Foo {
+
+    public String unadvised(final String foo) {
+      return foo;
+    }
+
+    @LogAround
+    public String advised(final String foo) {
+      return foo;
+    }
+  }
+
+  @Setup
+  public void setup() {
+    context = new AnnotationConfigApplicationContext();
+    context
+        .getEnvironment()
+        .getPropertySources()
+        .addFirst(
+            new MapPropertySource(
+                "benchmark",
+                Collections.<String, Object>singletonMap(
+                    AopLoggersProperties.PREFIX + ".enabled", disabled != Disabled.PROPERTY)));
+    context.register(BenchmarkConfiguration.class);
+    context.refresh();
+
+    LoggingSystem.get(getClass().getClassLoader())
+        .setLogLevel(
+            Foo.class.getName(),
+            disabled == Disabled.LOGGER_LEVEL_INFO ? LogLevel.INFO : LogLevel.OFF);
+
+    unproxied = new Foo();
+    proxied = context.getBean(Foo.class);
+  }
+
+  @TearDown
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  public String direct() {
+    return unproxied.advised("foo");
+  }
+
+  @Benchmark
+  public String unadvised() {
+    return proxied.unadvised("foo");
+  }
+
+  @Benchmark
+  public String advised() {
+    return proxied.advised("foo");
+  }
+}
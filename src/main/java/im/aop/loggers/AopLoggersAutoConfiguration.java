@@ -1,6 +1,12 @@
 package im.aop.loggers;
 
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.AutoConfigureAfter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
 
@@ -8,8 +14,22 @@ import im.aop.loggers.advice.after.returning.LogAfterReturningConfiguration;
 import im.aop.loggers.advice.after.throwing.LogAfterThrowingConfiguration;
 import im.aop.loggers.advice.around.LogAroundConfiguration;
 import im.aop.loggers.advice.before.LogBeforeConfiguration;
+import im.aop.loggers.logging.DeferredLogDispatcher;
+import im.aop.loggers.logging.JsonLogDispatcher;
+import im.aop.loggers.logging.LogDispatcher;
+import im.aop.loggers.logging.OutputFormat;
+import im.aop.loggers.logging.SyncLogDispatcher;
+import im.aop.loggers.logging.async.AsyncLogDispatcher;
+import im.aop.loggers.logging.logback.LogbackConfiguration;
+import im.aop.loggers.logging.value.ValueRenderer;
+import im.aop.loggers.logging.value.ValueWriter;
+import im.aop.loggers.metrics.micrometer.MicrometerMetricsConfiguration;
 
 @Configuration(proxyBeanMethods = false)
+@AutoConfigureAfter(
+    name =
+        "org.springframework.boot.actuate.autoconfigure.metrics."
+            + "CompositeMeterRegistryAutoConfiguration")
 public class AopLoggersAutoConfiguration {
 
   @EnableConfigurationProperties({AopLoggersProperties.class})
@@ -17,7 +37,48 @@ public class AopLoggersAutoConfiguration {
     LogAfterReturningConfiguration.class,
     LogAfterThrowingConfiguration.class,
     LogAroundConfiguration.class,
-    LogBeforeConfiguration.class
+    LogBeforeConfiguration.class,
+    LogbackConfiguration.class,
+    MicrometerMetricsConfiguration.class
   })
-  static class AopLoggersConfiguration {}
+  static class AopLoggersConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean
+    public LogDispatcher logDispatcher(final AopLoggersProperties aopLoggersProperties) {
+      final LogDispatcher logDispatcher;
+      if (aopLoggersProperties.isDeferredRendering()) {
+        logDispatcher = new DeferredLogDispatcher(aopLoggersProperties.getOutputFormat());
+      } else if (aopLoggersProperties.getOutputFormat() == OutputFormat.JSON) {
+        logDispatcher = new JsonLogDispatcher();
+      } else {
+        logDispatcher = new SyncLogDispatcher();
+      }
+
+      final AopLoggersProperties.Async async = aopLoggersProperties.getAsync();
+      if (async.isEnabled() == false) {
+        return logDispatcher;
+      }
+
+      final AsyncLogDispatcher asyncLogDispatcher =
+          new AsyncLogDispatcher(
+              logDispatcher,
+              async.getBufferSize(),
+              async.getConsumers(),
+              async.getOverflowPolicy(),
+              async.getDropBelowLevel());
+      asyncLogDispatcher.registerMBean();
+      return asyncLogDispatcher;
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public ValueWriter valueWriter(
+        final AopLoggersProperties aopLoggersProperties,
+        final ObjectProvider<ValueRenderer> valueRenderers) {
+      return new ValueWriter(
+          aopLoggersProperties.getRendering(),
+          valueRenderers.orderedStream().collect(Collectors.toList()));
+    }
+  }
 }
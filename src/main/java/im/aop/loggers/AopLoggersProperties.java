@@ -1,5 +1,14 @@
 package im.aop.loggers;
 
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.validation.Valid;
+import javax.validation.constraints.DecimalMax;
+import javax.validation.constraints.DecimalMin;
+import javax.validation.constraints.Min;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
 
@@ -7,6 +16,9 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.validation.annotation.Validated;
 
 import im.aop.loggers.logging.Level;
+import im.aop.loggers.logging.OutputFormat;
+import im.aop.loggers.logging.async.OverflowPolicy;
+import im.aop.loggers.logging.exception.DuplicateExceptionPolicy;
 
 @Validated
 @ConfigurationProperties(prefix = AopLoggersProperties.PREFIX)
@@ -55,12 +67,99 @@ public class AopLoggersProperties {
   private String elapsedWarningMessage =
       "[{method}] reached elapsed time limit [{elapsed-time-limit}]";
 
+  /** Rate of calls to be logged, between 0 and 1 */
+  @DecimalMin("0.0")
+  @DecimalMax("1.0")
+  private double sampleRate = 1.0d;
+
+  /** Maximum number of logged calls per second for each method, 0 for no limit */
+  @DecimalMin("0.0")
+  private double rateLimit = 0.0d;
+
+  /**
+   * Whether to render messages only once accepted by the filters of the logging framework, as text
+   * or as JSON objects depending on the output format
+   */
+  private boolean deferredRendering = false;
+
+  /** Format of the messages logged, rendered templates or JSON objects */
+  @NotNull private OutputFormat outputFormat = OutputFormat.TEXT;
+
+  /** Whether to log the messages of a call of @LogAround only when it failed or was slow */
+  private boolean logOnlySlowOrFailed = false;
+
+  /** Whether elapsed time limits of @LogAround track a percentile of recent elapsed times */
+  private boolean adaptiveElapsedTimeLimit = false;
+
+  /** Percentile of recent elapsed times tracked by adaptive elapsed time limits */
+  @DecimalMin("0.0")
+  @DecimalMax("100.0")
+  private double elapsedTimeLimitPercentile = 99.0d;
+
+  /** Factor applied to the percentile tracked by adaptive elapsed time limits */
+  @DecimalMin(value = "0.0", inclusive = false)
+  private double elapsedTimeLimitFactor = 2.0d;
+
+  /** Window of elapsed times the adaptive elapsed time limits are derived from */
+  @NotNull private Duration elapsedTimeLimitWindow = Duration.ofMinutes(1);
+
+  /** Whether to record metrics of advised methods when Micrometer is available */
+  private boolean metricsEnabled = true;
+
+  /** Whether to only record metrics of advised methods, without logging their calls */
+  private boolean metricsOnly = false;
+
+  /** Maximum number of stack frames printed per exception, 0 for no limit */
+  @Min(0)
+  private int stackTraceMaxDepth = 0;
+
+  /** Package prefixes of the only stack frames printed, all printed if empty */
+  private String[] stackTraceIncludePackages = {};
+
+  /** Package prefixes of stack frames not printed */
+  private String[] stackTraceExcludePackages = {};
+
+  /** Whether to collapse stack frames of framework packages and generated proxy classes */
+  private boolean stackTraceCollapseFrameworkFrames = false;
+
+  /** Package prefixes of framework stack frames collapsed */
+  private String[] stackTraceFrameworkPackages = {
+    "org.springframework.",
+    "org.apache.catalina.",
+    "org.apache.coyote.",
+    "org.apache.tomcat.",
+    "net.sf.cglib.",
+    "sun.reflect.",
+    "jdk.internal.reflect.",
+    "java.lang.reflect.",
+    "com.sun.proxy.",
+    "jdk.proxy"
+  };
+
+  /** Asynchronous logging */
+  @Valid private final Async async = new Async();
+
+  /** Deduplication of exceptions logged by exited abnormally messages */
+  @Valid private final ExceptionDedup exceptionDedup = new ExceptionDedup();
+
+  /** Periodic summaries of the elapsed times of methods annotated with @LogAround */
+  @Valid private final Summary latencySummary = new Summary();
+
+  /** Accounting of the time spent by the advices themselves */
+  @Valid private final Overhead overhead = new Overhead();
+
+  /** Limits of the rendering of parameters and return values */
+  @Valid private final Rendering rendering = new Rendering();
+
+  private final AtomicInteger revision = new AtomicInteger();
+
   public boolean isEnabled() {
     return enabled;
   }
 
   public void setEnabled(boolean enabled) {
     this.enabled = enabled;
+    modified();
   }
 
   public Level getEnteringLevel() {
@@ -69,6 +168,7 @@ public class AopLoggersProperties {
 
   public void setEnteringLevel(Level enteringLevel) {
     this.enteringLevel = enteringLevel;
+    modified();
   }
 
   public String getEnteringMessage() {
@@ -77,6 +177,7 @@ public class AopLoggersProperties {
 
   public void setEnteringMessage(String enteringMessage) {
     this.enteringMessage = enteringMessage;
+    modified();
   }
 
   public Level getExitedLevel() {
@@ -85,6 +186,7 @@ public class AopLoggersProperties {
 
   public void setExitedLevel(Level exitedLevel) {
     this.exitedLevel = exitedLevel;
+    modified();
   }
 
   public String getExitedMessage() {
@@ -93,6 +195,7 @@ public class AopLoggersProperties {
 
   public void setExitedMessage(String exitedMessage) {
     this.exitedMessage = exitedMessage;
+    modified();
   }
 
   public Level getExitedAbnormallyLevel() {
@@ -101,6 +204,7 @@ public class AopLoggersProperties {
 
   public void setExitedAbnormallyLevel(Level exitedAbnormallyLevel) {
     this.exitedAbnormallyLevel = exitedAbnormallyLevel;
+    modified();
   }
 
   public String getExitedAbnormallyMessage() {
@@ -109,6 +213,7 @@ public class AopLoggersProperties {
 
   public void setExitedAbnormallyMessage(String exitedAbnormallyMessage) {
     this.exitedAbnormallyMessage = exitedAbnormallyMessage;
+    modified();
   }
 
   public Class<? extends Throwable>[] getIgnoreExceptions() {
@@ -117,6 +222,7 @@ public class AopLoggersProperties {
 
   public void setIgnoreExceptions(Class<? extends Throwable>[] ignoreExceptions) {
     this.ignoreExceptions = ignoreExceptions;
+    modified();
   }
 
   public Level getElapsedLevel() {
@@ -125,6 +231,7 @@ public class AopLoggersProperties {
 
   public void setElapsedLevel(Level elapsedLevel) {
     this.elapsedLevel = elapsedLevel;
+    modified();
   }
 
   public String getElapsedMessage() {
@@ -133,6 +240,7 @@ public class AopLoggersProperties {
 
   public void setElapsedMessage(String elapsedMessage) {
     this.elapsedMessage = elapsedMessage;
+    modified();
   }
 
   public Level getElapsedWarningLevel() {
@@ -141,6 +249,7 @@ public class AopLoggersProperties {
 
   public void setElapsedWarningLevel(Level elapsedWarningLevel) {
     this.elapsedWarningLevel = elapsedWarningLevel;
+    modified();
   }
 
   public String getElapsedWarningMessage() {
@@ -149,5 +258,502 @@ public class AopLoggersProperties {
 
   public void setElapsedWarningMessage(String elapsedWarningMessage) {
     this.elapsedWarningMessage = elapsedWarningMessage;
+    modified();
+  }
+
+  public double getSampleRate() {
+    return sampleRate;
+  }
+
+  public void setSampleRate(double sampleRate) {
+    this.sampleRate = sampleRate;
+    modified();
+  }
+
+  public double getRateLimit() {
+    return rateLimit;
+  }
+
+  public void setRateLimit(double rateLimit) {
+    this.rateLimit = rateLimit;
+    modified();
+  }
+
+  public boolean isDeferredRendering() {
+    return deferredRendering;
+  }
+
+  public void setDeferredRendering(boolean deferredRendering) {
+    this.deferredRendering = deferredRendering;
+    modified();
+  }
+
+  public OutputFormat getOutputFormat() {
+    return outputFormat;
+  }
+
+  public void setOutputFormat(OutputFormat outputFormat) {
+    this.outputFormat = outputFormat;
+    modified();
+  }
+
+  public boolean isLogOnlySlowOrFailed() {
+    return logOnlySlowOrFailed;
+  }
+
+  public void setLogOnlySlowOrFailed(boolean logOnlySlowOrFailed) {
+    this.logOnlySlowOrFailed = logOnlySlowOrFailed;
+    modified();
+  }
+
+  public boolean isAdaptiveElapsedTimeLimit() {
+    return adaptiveElapsedTimeLimit;
+  }
+
+  public void setAdaptiveElapsedTimeLimit(boolean adaptiveElapsedTimeLimit) {
+    this.adaptiveElapsedTimeLimit = adaptiveElapsedTimeLimit;
+    modified();
+  }
+
+  public double getElapsedTimeLimitPercentile() {
+    return elapsedTimeLimitPercentile;
+  }
+
+  public void setElapsedTimeLimitPercentile(double elapsedTimeLimitPercentile) {
+    this.elapsedTimeLimitPercentile = elapsedTimeLimitPercentile;
+    modified();
+  }
+
+  public double getElapsedTimeLimitFactor() {
+    return elapsedTimeLimitFactor;
+  }
+
+  public void setElapsedTimeLimitFactor(double elapsedTimeLimitFactor) {
+    this.elapsedTimeLimitFactor = elapsedTimeLimitFactor;
+    modified();
+  }
+
+  public Duration getElapsedTimeLimitWindow() {
+    return elapsedTimeLimitWindow;
+  }
+
+  public void setElapsedTimeLimitWindow(Duration elapsedTimeLimitWindow) {
+    this.elapsedTimeLimitWindow = elapsedTimeLimitWindow;
+    modified();
+  }
+
+  public boolean isMetricsEnabled() {
+    return metricsEnabled;
+  }
+
+  public void setMetricsEnabled(boolean metricsEnabled) {
+    this.metricsEnabled = metricsEnabled;
+    modified();
+  }
+
+  public boolean isMetricsOnly() {
+    return metricsOnly;
+  }
+
+  public void setMetricsOnly(boolean metricsOnly) {
+    this.metricsOnly = metricsOnly;
+    modified();
+  }
+
+  public int getStackTraceMaxDepth() {
+    return stackTraceMaxDepth;
+  }
+
+  public void setStackTraceMaxDepth(int stackTraceMaxDepth) {
+    this.stackTraceMaxDepth = stackTraceMaxDepth;
+    modified();
+  }
+
+  public String[] getStackTraceIncludePackages() {
+    return stackTraceIncludePackages;
+  }
+
+  public void setStackTraceIncludePackages(String[] stackTraceIncludePackages) {
+    this.stackTraceIncludePackages = stackTraceIncludePackages;
+    modified();
+  }
+
+  public String[] getStackTraceExcludePackages() {
+    return stackTraceExcludePackages;
+  }
+
+  public void setStackTraceExcludePackages(String[] stackTraceExcludePackages) {
+    this.stackTraceExcludePackages = stackTraceExcludePackages;
+    modified();
+  }
+
+  public boolean isStackTraceCollapseFrameworkFrames() {
+    return stackTraceCollapseFrameworkFrames;
+  }
+
+  public void setStackTraceCollapseFrameworkFrames(boolean stackTraceCollapseFrameworkFrames) {
+    this.stackTraceCollapseFrameworkFrames = stackTraceCollapseFrameworkFrames;
+    modified();
+  }
+
+  public String[] getStackTraceFrameworkPackages() {
+    return stackTraceFrameworkPackages;
+  }
+
+  public void setStackTraceFrameworkPackages(String[] stackTraceFrameworkPackages) {
+    this.stackTraceFrameworkPackages = stackTraceFrameworkPackages;
+    modified();
+  }
+
+  public Async getAsync() {
+    return async;
+  }
+
+  public ExceptionDedup getExceptionDedup() {
+    return exceptionDedup;
+  }
+
+  public Summary getLatencySummary() {
+    return latencySummary;
+  }
+
+  public Overhead getOverhead() {
+    return overhead;
+  }
+
+  public Rendering getRendering() {
+    return rendering;
+  }
+
+  /**
+   * Revision of these properties, incremented on every modification. Used to invalidate state
+   * derived from these properties.
+   *
+   * @return current revision
+   */
+  public int revision() {
+    return revision.get();
+  }
+
+  private void modified() {
+    revision.incrementAndGet();
+  }
+
+  public static class Async {
+
+    /** Whether to render and log messages on background threads */
+    private boolean enabled = false;
+
+    /** Maximum number of messages waiting to be logged, rounded up to a power of two */
+    @Min(1)
+    private int bufferSize = 8192;
+
+    /** Number of background threads logging messages */
+    @Min(1)
+    private int consumers = 1;
+
+    /** What to do with a message when the buffer is full, ERROR messages are never dropped */
+    @NotNull private OverflowPolicy overflowPolicy = OverflowPolicy.BLOCK;
+
+    /** Level below which messages are dropped when the buffer is full, with DROP_BELOW_LEVEL */
+    @NotNull private Level dropBelowLevel = Level.WARN;
+
+    public boolean isEnabled() {
+      return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+      this.enabled = enabled;
+    }
+
+    public int getBufferSize() {
+      return bufferSize;
+    }
+
+    public void setBufferSize(int bufferSize) {
+      this.bufferSize = bufferSize;
+    }
+
+    public int getConsumers() {
+      return consumers;
+    }
+
+    public void setConsumers(int consumers) {
+      this.consumers = consumers;
+    }
+
+    public OverflowPolicy getOverflowPolicy() {
+      return overflowPolicy;
+    }
+
+    public void setOverflowPolicy(OverflowPolicy overflowPolicy) {
+      this.overflowPolicy = overflowPolicy;
+    }
+
+    public Level getDropBelowLevel() {
+      return dropBelowLevel;
+    }
+
+    public void setDropBelowLevel(Level dropBelowLevel) {
+      this.dropBelowLevel = dropBelowLevel;
+    }
+  }
+
+  public static class ExceptionDedup {
+
+    /** Whether to log only the first occurrence of an exception within the window in full */
+    private boolean enabled = false;
+
+    /** Window within which later occurrences of the same exception are duplicates */
+    @NotNull private Duration window = Duration.ofMinutes(1);
+
+    /** Number of top stack frames included in the fingerprint of an exception */
+    @Min(0)
+    private int stackDepth = 5;
+
+    /** What to log for duplicates: a one-line counter, or nothing */
+    @NotNull private DuplicateExceptionPolicy duplicatePolicy = DuplicateExceptionPolicy.COUNT;
+
+    /** Maximum number of fingerprints tracked, rounded up to a power of two */
+    @Min(1)
+    private int tableSize = 1024;
+
+    /**
+     * Message logged once a window closes without its fingerprint recurring, for duplicates
+     * dropped by the DROP policy
+     */
+    @NotBlank
+    private String droppedMessage =
+        "[{method}] dropped {occurrences} duplicate occurrences of fingerprint {fingerprint}";
+
+    public boolean isEnabled() {
+      return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+      this.enabled = enabled;
+    }
+
+    public Duration getWindow() {
+      return window;
+    }
+
+    public void setWindow(Duration window) {
+      this.window = window;
+    }
+
+    public int getStackDepth() {
+      return stackDepth;
+    }
+
+    public void setStackDepth(int stackDepth) {
+      this.stackDepth = stackDepth;
+    }
+
+    public DuplicateExceptionPolicy getDuplicatePolicy() {
+      return duplicatePolicy;
+    }
+
+    public void setDuplicatePolicy(DuplicateExceptionPolicy duplicatePolicy) {
+      this.duplicatePolicy = duplicatePolicy;
+    }
+
+    public int getTableSize() {
+      return tableSize;
+    }
+
+    public void setTableSize(int tableSize) {
+      this.tableSize = tableSize;
+    }
+
+    public String getDroppedMessage() {
+      return droppedMessage;
+    }
+
+    public void setDroppedMessage(String droppedMessage) {
+      this.droppedMessage = droppedMessage;
+    }
+  }
+
+  public static class Summary {
+
+    /** Whether to log a summary of the elapsed times of each method once per interval */
+    private boolean enabled = false;
+
+    /** Interval between two summaries of a method */
+    @NotNull private Duration interval = Duration.ofMinutes(1);
+
+    /** Log Level for summary message */
+    @NotNull private Level level = Level.INFO;
+
+    /** Summary message template */
+    @NotBlank
+    private String message =
+        "[{method}] count [{count}] errors [{errors}] min [{min}] p50 [{p50}] p90 [{p90}]"
+            + " p99 [{p99}] max [{max}]";
+
+    public boolean isEnabled() {
+      return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+      this.enabled = enabled;
+    }
+
+    public Duration getInterval() {
+      return interval;
+    }
+
+    public void setInterval(Duration interval) {
+      this.interval = interval;
+    }
+
+    public Level getLevel() {
+      return level;
+    }
+
+    public void setLevel(Level level) {
+      this.level = level;
+    }
+
+    public String getMessage() {
+      return message;
+    }
+
+    public void setMessage(String message) {
+      this.message = message;
+    }
+  }
+
+  public static class Overhead {
+
+    /** Whether to count the calls and time spent by each advice, exposed as a JMX MXBean */
+    private boolean enabled = false;
+
+    /** Whether to also count the calls and time spent by each advice per advised method */
+    private boolean perMethod = false;
+
+    public boolean isEnabled() {
+      return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+      this.enabled = enabled;
+    }
+
+    public boolean isPerMethod() {
+      return perMethod;
+    }
+
+    public void setPerMethod(boolean perMethod) {
+      this.perMethod = perMethod;
+    }
+  }
+
+  public static class Rendering {
+
+    /** Maximum number of characters rendered per variable, 0 for no limit */
+    @Min(0)
+    private int maxLength = 8192;
+
+    /** Maximum number of elements rendered per collection, 0 for no limit */
+    @Min(0)
+    private int maxCollectionElements = 100;
+
+    /** Maximum number of entries rendered per map, 0 for no limit */
+    @Min(0)
+    private int maxMapEntries = 100;
+
+    /** Maximum number of elements rendered per array, 0 for no limit */
+    @Min(0)
+    private int maxArrayElements = 100;
+
+    /** Maximum number of nested collections, maps and arrays rendered, 0 for no limit */
+    @Min(0)
+    private int maxDepth = 8;
+
+    /** Whether to render byte arrays by their length only, such as byte[1024] */
+    private boolean byteArrayLengthOnly = false;
+
+    /** Types whose instances, subtypes included, are rendered by their class name only */
+    @NotNull private Class<?>[] classNameOnlyTypes = new Class<?>[0];
+
+    /** Names of the parameters and fields rendered as the mask, regardless of case */
+    @NotNull private Set<String> maskedNames = new LinkedHashSet<String>();
+
+    /** Text rendered instead of masked parameters and fields */
+    @NotNull private String mask = "******";
+
+    public int getMaxLength() {
+      return maxLength;
+    }
+
+    public void setMaxLength(int maxLength) {
+      this.maxLength = maxLength;
+    }
+
+    public int getMaxCollectionElements() {
+      return maxCollectionElements;
+    }
+
+    public void setMaxCollectionElements(int maxCollectionElements) {
+      this.maxCollectionElements = maxCollectionElements;
+    }
+
+    public int getMaxMapEntries() {
+      return maxMapEntries;
+    }
+
+    public void setMaxMapEntries(int maxMapEntries) {
+      this.maxMapEntries = maxMapEntries;
+    }
+
+    public int getMaxArrayElements() {
+      return maxArrayElements;
+    }
+
+    public void setMaxArrayElements(int maxArrayElements) {
+      this.maxArrayElements = maxArrayElements;
+    }
+
+    public int getMaxDepth() {
+      return maxDepth;
+    }
+
+    public void setMaxDepth(int maxDepth) {
+      this.maxDepth = maxDepth;
+    }
+
+    public boolean isByteArrayLengthOnly() {
+      return byteArrayLengthOnly;
+    }
+
+    public void setByteArrayLengthOnly(boolean byteArrayLengthOnly) {
+      this.byteArrayLengthOnly = byteArrayLengthOnly;
+    }
+
+    public Class<?>[] getClassNameOnlyTypes() {
+      return classNameOnlyTypes;
+    }
+
+    public void setClassNameOnlyTypes(Class<?>[] classNameOnlyTypes) {
+      this.classNameOnlyTypes = classNameOnlyTypes;
+    }
+
+    public Set<String> getMaskedNames() {
+      return maskedNames;
+    }
+
+    public void setMaskedNames(Set<String> maskedNames) {
+      this.maskedNames = maskedNames;
+    }
+
+    public String getMask() {
+      return mask;
+    }
+
+    public void setMask(String mask) {
+      this.mask = mask;
+    }
   }
 }
@@ -0,0 +1,257 @@
+package im.aop.loggers.advice;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.slf4j.Logger;
+
+import im.aop.loggers.AopLoggersProperties;
+import im.aop.loggers.logging.CachedLogger;
+import im.aop.loggers.logging.Level;
+import im.aop.loggers.logging.LoggerService;
+import im.aop.loggers.logging.exception.StackTraceRenderer;
+import im.aop.loggers.logging.message.MessageTemplate;
+
+/**
+ * Immutable plan of an advice for an advised {@link Method}, resolved once from the annotation and
+ * {@link im.aop.loggers.AopLoggersProperties}.
+ *
+ * @author Andy Lian
+ */
+public abstract class AdvicePlan<A extends Annotation> {
+
+  private static final String EMPTY_STRING = "";
+
+  private static final LoggerService LOGGER_SERVICE = new LoggerService();
+
+  /** Returned by {@link #tryAcquirePermit()} when the call is throttled by the rate limit. */
+  public static final long THROTTLED = RateLimiter.THROTTLED;
+
+  private final Method method;
+
+  private final A annotation;
+
+  private final CachedLogger logger;
+
+  private final double sampleRate;
+
+  /** Rate limiter of the method, {@code null} if not limited. */
+  private final RateLimiter rateLimiter;
+
+  protected AdvicePlan(
+      final Method method,
+      final A annotation,
+      final Class<?> declaringClass,
+      final double sampleRate,
+      final double rateLimit) {
+    this.method = method;
+    this.annotation = annotation;
+    this.logger = LOGGER_SERVICE.getCachedLogger(declaringClass, method.getDeclaringClass());
+    this.sampleRate = sampleRate;
+    this.rateLimiter = rateLimit > 0.0d ? new RateLimiter(rateLimit, System.nanoTime()) : null;
+  }
+
+  public Method getMethod() {
+    return method;
+  }
+
+  public A getAnnotation() {
+    return annotation;
+  }
+
+  /** @return Logger used by the advice, resolved from declaring class or type of the method */
+  public Logger getLogger() {
+    return logger.get();
+  }
+
+  /** @return Rate of calls to be logged, between 0 and 1 */
+  public double getSampleRate() {
+    return sampleRate;
+  }
+
+  /**
+   * Decides whether the current call is logged. Cheap enough to be made before any lookup is built
+   * or message is rendered.
+   *
+   * @return {@code true} if the current call is sampled to be logged
+   */
+  public boolean isSampled() {
+    return sampleRate >= 1.0d || ThreadLocalRandom.current().nextDouble() < sampleRate;
+  }
+
+  /** @return Whether logged calls of the method are limited in rate */
+  public boolean isRateLimited() {
+    return rateLimiter != null;
+  }
+
+  /**
+   * Takes a permit to log the current call from the rate limiter of the method. Throttled calls
+   * only cost an atomic operation.
+   *
+   * @return {@link #THROTTLED} if the call must not be logged, otherwise number of calls
+   *     suppressed since the previous permitted call
+   */
+  public long tryAcquirePermit() {
+    return rateLimiter != null ? rateLimiter.tryAcquire() : 0;
+  }
+
+  protected static Level level(final Level level, final Level defaultLevel) {
+    return level == Level.DEFAULT ? defaultLevel : level;
+  }
+
+  /**
+   * A logger enabled for a level is also enabled for all more severe levels, so no message can be
+   * logged when the logger is not enabled for the most severe of their levels.
+   *
+   * @param levels levels of messages
+   * @return Most severe of the given levels, {@code null} if all are {@link Level#DEFAULT}
+   */
+  protected static Level mostSevereLevel(final Level... levels) {
+    Level mostSevereLevel = null;
+    for (Level level : levels) {
+      if (level == Level.DEFAULT) {
+        continue;
+      }
+      if (mostSevereLevel == null || level.compareTo(mostSevereLevel) > 0) {
+        mostSevereLevel = level;
+      }
+    }
+    return mostSevereLevel;
+  }
+
+  /**
+   * @param sampleRate sample rate of the annotation, {@code 0} or less to use the default
+   * @param defaultSampleRate sample rate of the configuration properties
+   * @return Resolved sample rate, at most {@code 1}
+   */
+  protected static double sampleRate(final double sampleRate, final double defaultSampleRate) {
+    return Math.min(sampleRate > 0.0d ? sampleRate : defaultSampleRate, 1.0d);
+  }
+
+  /**
+   * @param rateLimit rate limit of the annotation, {@code 0} or less to use the default
+   * @param defaultRateLimit rate limit of the configuration properties
+   * @return Resolved rate limit, {@code 0} or less if not limited
+   */
+  protected static double rateLimit(final double rateLimit, final double defaultRateLimit) {
+    return rateLimit > 0.0d ? rateLimit : defaultRateLimit;
+  }
+
+  protected static MessageTemplate template(final String message, final String defaultMessage) {
+    final String template = message != null && message.length() > 0 ? message : defaultMessage;
+    return MessageTemplate.of(template != null ? template : EMPTY_STRING);
+  }
+
+  protected static MessageVariants messages(final String message, final String defaultMessage) {
+    return MessageVariants.of(template(message, defaultMessage));
+  }
+
+  protected static MessageVariants exitedAbnormallyMessages(
+      final String message, final String defaultMessage) {
+    return MessageVariants.ofExitedAbnormally(template(message, defaultMessage));
+  }
+
+  @SafeVarargs
+  protected static Class<? extends Throwable>[] ignoreExceptions(
+      final Class<? extends Throwable>[]... ignoreExceptions) {
+    final List<Class<? extends Throwable>> merged = new ArrayList<Class<? extends Throwable>>();
+    for (Class<? extends Throwable>[] exceptions : ignoreExceptions) {
+      if (exceptions == null) {
+        continue;
+      }
+      for (Class<? extends Throwable> exception : exceptions) {
+        if (exception != null && merged.contains(exception) == false) {
+          merged.add(exception);
+        }
+      }
+    }
+
+    @SuppressWarnings("unchecked")
+    final Class<? extends Throwable>[] mergedArray = merged.toArray(new Class[0]);
+    return mergedArray;
+  }
+
+  /**
+   * Resolves how stack traces are printed. Included packages of the annotation replace the
+   * configured ones, while excluded packages of the annotation are added to the configured ones.
+   *
+   * @param maxDepth maximum stack depth of the annotation, {@code 0} or less to use the default
+   * @param includePackages included packages of the annotation, none to use the default
+   * @param excludePackages excluded packages of the annotation
+   * @param aopLoggersProperties configuration properties
+   * @return {@link StackTraceRenderer} printing the resolved stack frames, {@code null} if every
+   *     stack frame is printed
+   */
+  protected static StackTraceRenderer stackTraceRenderer(
+      final int maxDepth,
+      final String[] includePackages,
+      final String[] excludePackages,
+      final AopLoggersProperties aopLoggersProperties) {
+    final int resolvedMaxDepth =
+        maxDepth > 0 ? maxDepth : Math.max(0, aopLoggersProperties.getStackTraceMaxDepth());
+    final String[] resolvedIncludePackages =
+        packages(
+            isEmpty(includePackages)
+                ? aopLoggersProperties.getStackTraceIncludePackages()
+                : includePackages);
+    final String[] resolvedExcludePackages =
+        packages(aopLoggersProperties.getStackTraceExcludePackages(), excludePackages);
+    final String[] frameworkPackages =
+        aopLoggersProperties.isStackTraceCollapseFrameworkFrames()
+            ? packages(aopLoggersProperties.getStackTraceFrameworkPackages())
+            : null;
+
+    if (resolvedMaxDepth == 0
+        && resolvedIncludePackages.length == 0
+        && resolvedExcludePackages.length == 0
+        && frameworkPackages == null) {
+      return null;
+    }
+    return new StackTraceRenderer(
+        resolvedMaxDepth, resolvedIncludePackages, resolvedExcludePackages, frameworkPackages);
+  }
+
+  private static boolean isEmpty(final String[] packages) {
+    return packages == null || packages.length == 0;
+  }
+
+  private static String[] packages(final String[]... packages) {
+    final List<String> merged = new ArrayList<String>();
+    for (String[] names : packages) {
+      if (names == null) {
+        continue;
+      }
+      for (String name : names) {
+        if (name != null && name.isEmpty() == false && merged.contains(name) == false) {
+          merged.add(name);
+        }
+      }
+    }
+    return merged.toArray(new String[0]);
+  }
+
+  protected static boolean matchesIgnoreExceptions(
+      final Throwable exception, final Class<? extends Throwable>[] ignoreExceptions) {
+    if (exception == null) {
+      return true;
+    }
+    for (Class<? extends Throwable> ignoreException : ignoreExceptions) {
+      if (ignoreException.isInstance(exception)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  protected static long toNanos(final Duration duration) {
+    try {
+      return duration.toNanos();
+    } catch (ArithmeticException e) {
+      return duration.isNegative() ? Long.MIN_VALUE : Long.MAX_VALUE;
+    }
+  }
+}
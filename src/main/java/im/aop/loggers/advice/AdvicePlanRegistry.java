@@ -0,0 +1,113 @@
+package im.aop.loggers.advice;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.reflect.MethodSignature;
+
+import im.aop.loggers.AopLoggersProperties;
+
+/**
+ * Lock-free registry of {@link AdvicePlan}s per advised {@link Method}.
+ *
+ * <p>Plans are created on first use and reused until {@link AopLoggersProperties} is modified,
+ * at which point all plans are dropped at once and recreated on next use. Concurrent first calls
+ * of a method share a single plan, so its rate limit and elapsed time samples are never split.
+ *
+ * @author Andy Lian
+ */
+public class AdvicePlanRegistry<A extends Annotation, P extends AdvicePlan<A>> {
+
+  /**
+   * Strategy Interface for creating {@link AdvicePlan}.
+   *
+   * @author Andy Lian
+   */
+  @FunctionalInterface
+  public interface AdvicePlanFactory<A extends Annotation, P extends AdvicePlan<A>> {
+
+    P create(Method method, A annotation);
+  }
+
+  private final AopLoggersProperties aopLoggersProperties;
+
+  private final AdvicePlanFactory<A, P> advicePlanFactory;
+
+  private final AtomicReference<Generation<A, P>> generation;
+
+  public AdvicePlanRegistry(
+      final AopLoggersProperties aopLoggersProperties,
+      final AdvicePlanFactory<A, P> advicePlanFactory) {
+    this.aopLoggersProperties = Objects.requireNonNull(aopLoggersProperties);
+    this.advicePlanFactory = Objects.requireNonNull(advicePlanFactory);
+    this.generation =
+        new AtomicReference<Generation<A, P>>(
+            new Generation<A, P>(aopLoggersProperties.revision()));
+  }
+
+  public P getPlan(final JoinPoint joinPoint, final A annotation) {
+    return getPlan(((MethodSignature) joinPoint.getSignature()).getMethod(), annotation);
+  }
+
+  public P getPlan(final Method method, final A annotation) {
+    final Generation<A, P> currentGeneration = currentGeneration();
+
+    final P plan = currentGeneration.plans.get(method);
+    if (plan != null && isPlanOf(plan, annotation)) {
+      return plan;
+    }
+
+    return currentGeneration.plans.compute(
+        method,
+        (key, existingPlan) ->
+            existingPlan != null && isPlanOf(existingPlan, annotation)
+                ? existingPlan
+                : advicePlanFactory.create(key, annotation));
+  }
+
+  /**
+   * Annotations are compared by identity first, as the same instance is usually given on every
+   * call, and then by equality, as an equal instance may come from another reflective lookup.
+   */
+  private static boolean isPlanOf(final AdvicePlan<?> plan, final Annotation annotation) {
+    return plan.getAnnotation() == annotation || plan.getAnnotation().equals(annotation);
+  }
+
+  /** Drops all plans, to be recreated on next use. */
+  public void invalidate() {
+    generation.set(new Generation<A, P>(aopLoggersProperties.revision()));
+  }
+
+  public int size() {
+    return generation.get().plans.size();
+  }
+
+  private Generation<A, P> currentGeneration() {
+    final Generation<A, P> currentGeneration = generation.get();
+    final int revision = aopLoggersProperties.revision();
+    if (currentGeneration.revision == revision) {
+      return currentGeneration;
+    }
+
+    final Generation<A, P> nextGeneration = new Generation<A, P>(revision);
+    return generation.compareAndSet(currentGeneration, nextGeneration)
+        ? nextGeneration
+        : generation.get();
+  }
+
+  private static final class Generation<A extends Annotation, P extends AdvicePlan<A>> {
+
+    private final int revision;
+
+    private final Map<Method, P> plans = new ConcurrentHashMap<Method, P>();
+
+    Generation(final int revision) {
+      this.revision = revision;
+    }
+  }
+}
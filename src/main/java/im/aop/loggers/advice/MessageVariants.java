@@ -0,0 +1,135 @@
+package im.aop.loggers.advice;
+
+import im.aop.loggers.logging.exception.ExceptionDeduplicator.Occurrence;
+import im.aop.loggers.logging.message.MessageTemplate;
+
+/**
+ * Template of a message of an {@link AdvicePlan}, along with its variants noting what a logged call
+ * adds to the message, all compiled once when the plan is built, so that logging a call only
+ * selects one of them.
+ *
+ * @author Andy Lian
+ */
+public final class MessageVariants {
+
+  private static final String SUPPRESSED_SUFFIX = " [{suppressed} calls suppressed by rate limit]";
+
+  private static final String STACK_TRACE_SUFFIX = "{stack-trace}";
+
+  /**
+   * Variants indexed by {@link Fingerprint#ordinal()} times four, plus two if followed by a stack
+   * trace, plus one if suppressed. Only the suppressed variant is compiled for messages other than
+   * exited abnormally.
+   */
+  private final MessageTemplate[] variants;
+
+  private MessageVariants(final MessageTemplate template, final boolean exitedAbnormally) {
+    if (exitedAbnormally == false) {
+      this.variants =
+          new MessageTemplate[] {
+            template, MessageTemplate.compile(template.getTemplate() + SUPPRESSED_SUFFIX)
+          };
+      return;
+    }
+
+    this.variants = new MessageTemplate[Fingerprint.values().length * 4];
+    for (Fingerprint fingerprint : Fingerprint.values()) {
+      final String fingerprinted = template.getTemplate() + fingerprint.suffix;
+      final String suppressed = fingerprinted + SUPPRESSED_SUFFIX;
+      final int index = index(fingerprint, false, false);
+      variants[index] =
+          fingerprint == Fingerprint.NONE ? template : MessageTemplate.compile(fingerprinted);
+      variants[index + 1] = MessageTemplate.compile(suppressed);
+      variants[index + 2] = MessageTemplate.compile(fingerprinted + STACK_TRACE_SUFFIX);
+      variants[index + 3] = MessageTemplate.compile(suppressed + STACK_TRACE_SUFFIX);
+    }
+  }
+
+  /**
+   * @param template template of a message
+   * @return Variants of the message, noting suppressed calls
+   */
+  public static MessageVariants of(final MessageTemplate template) {
+    return new MessageVariants(template, false);
+  }
+
+  /**
+   * @param template template of an exited abnormally message
+   * @return Variants of the message, noting suppressed calls and the fingerprint of the exception,
+   *     and followed by its stack trace
+   */
+  public static MessageVariants ofExitedAbnormally(final MessageTemplate template) {
+    return new MessageVariants(template, true);
+  }
+
+  private static int index(
+      final Fingerprint fingerprint, final boolean suppressed, final boolean stackTrace) {
+    return fingerprint.ordinal() * 4 + (stackTrace ? 2 : 0) + (suppressed ? 1 : 0);
+  }
+
+  /** @return Template of the message as is */
+  public MessageTemplate get() {
+    return variants[0];
+  }
+
+  /**
+   * @param suppressed whether calls were suppressed by the rate limit before the logged call
+   * @return Template of the message, noting the number of calls suppressed by the rate limit if
+   *     {@code suppressed}
+   */
+  public MessageTemplate get(final boolean suppressed) {
+    return variants[index(Fingerprint.NONE, suppressed, false)];
+  }
+
+  /**
+   * @param fingerprint how the fingerprint of the exception is noted, only other than {@link
+   *     Fingerprint#NONE} for variants of an exited abnormally message
+   * @param suppressed whether calls were suppressed by the rate limit before the logged call
+   * @param stackTrace whether the stack trace of the exception is printed after the message, only
+   *     {@code true} for variants of an exited abnormally message
+   * @return Template of the message, noting the fingerprint of the exception, then the number of
+   *     calls suppressed by the rate limit if {@code suppressed}, then the stack trace if {@code
+   *     stackTrace}
+   */
+  public MessageTemplate get(
+      final Fingerprint fingerprint, final boolean suppressed, final boolean stackTrace) {
+    return variants[index(fingerprint, suppressed, stackTrace)];
+  }
+
+  /** How the fingerprint of a deduplicated exception is noted by an exited abnormally message. */
+  public enum Fingerprint {
+
+    /** Exceptions are not deduplicated */
+    NONE(""),
+
+    /** First occurrence of the exception within its deduplication window */
+    FIRST_OCCURRENCE(" [fingerprint {fingerprint}]"),
+
+    /** First occurrence of the exception since duplicates of it were dropped */
+    FIRST_OCCURRENCE_AFTER_DROPPED(
+        " [fingerprint {fingerprint}, {occurrences} more occurrences since last logged]"),
+
+    /** Duplicate of the exception within its deduplication window */
+    DUPLICATE(" [occurrence {occurrences} of fingerprint {fingerprint}]");
+
+    private final String suffix;
+
+    Fingerprint(final String suffix) {
+      this.suffix = suffix;
+    }
+
+    /**
+     * @param occurrence occurrence of a deduplicated exception
+     * @param dropDuplicates whether duplicates of the exception are dropped
+     * @return How the fingerprint of the exception is noted
+     */
+    public static Fingerprint of(final Occurrence occurrence, final boolean dropDuplicates) {
+      if (occurrence.isDuplicate()) {
+        return DUPLICATE;
+      }
+      return dropDuplicates && occurrence.getPreviousDuplicates() > 0
+          ? FIRST_OCCURRENCE_AFTER_DROPPED
+          : FIRST_OCCURRENCE;
+    }
+  }
+}
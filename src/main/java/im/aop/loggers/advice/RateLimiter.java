@@ -0,0 +1,68 @@
+package im.aop.loggers.advice;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket limiting the rate of logged calls of an advised method, allowing bursts of
+ * up to one second worth of calls.
+ *
+ * <p>The bucket is tracked as the time at which it will be full again, so a single {@link
+ * AtomicLong} holds its state: taking a token moves that time forward by the interval between two
+ * tokens, and no token is left when that time is more than the burst ahead of now.
+ *
+ * @author Andy Lian
+ */
+final class RateLimiter {
+
+  static final long THROTTLED = -1;
+
+  private static final double NANOS_PER_SECOND = 1_000_000_000.0d;
+
+  /** Nanoseconds between two tokens. */
+  private final long interval;
+
+  /** Nanoseconds worth of tokens held by a full bucket. */
+  private final long burst;
+
+  private final AtomicLong fullTime;
+
+  private final AtomicLong suppressed = new AtomicLong();
+
+  /**
+   * @param rate Maximum number of permits per second, greater than 0
+   * @param now current value of {@link System#nanoTime()}
+   */
+  RateLimiter(final double rate, final long now) {
+    this.interval = Math.max(1L, (long) (NANOS_PER_SECOND / rate));
+    this.burst = Math.max(interval, (long) NANOS_PER_SECOND);
+    this.fullTime = new AtomicLong(now - burst);
+  }
+
+  long tryAcquire() {
+    return tryAcquire(System.nanoTime());
+  }
+
+  /**
+   * Takes a token from the bucket.
+   *
+   * @param now current value of {@link System#nanoTime()}
+   * @return {@link #THROTTLED} if no token is left, otherwise number of calls throttled since the
+   *     previous token was taken
+   */
+  long tryAcquire(final long now) {
+    long current = fullTime.get();
+    for (; ; ) {
+      final long next = (current - now < 0 ? now : current) + interval;
+      if (next - now > burst) {
+        suppressed.incrementAndGet();
+        return THROTTLED;
+      }
+      if (fullTime.compareAndSet(current, next)) {
+        break;
+      }
+      current = fullTime.get();
+    }
+
+    return suppressed.get() == 0 ? 0 : suppressed.getAndSet(0);
+  }
+}
@@ -26,4 +26,10 @@ public @interface LogAfterReturning {
 
   /** @return Exited message template */
   String exitedMessage() default "";
+
+  /** @return Rate of calls to be logged, between 0 and 1, 0 to use the configured sample rate */
+  double sampleRate() default 0;
+
+  /** @return Maximum number of logged calls per second, 0 to use the configured rate limit */
+  double rateLimit() default 0;
 }
@@ -1,9 +1,13 @@
 package im.aop.loggers.advice.after.returning;
 
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 import im.aop.loggers.AopLoggersProperties;
+import im.aop.loggers.logging.LogDispatcher;
+import im.aop.loggers.logging.SyncLogDispatcher;
+import im.aop.loggers.logging.value.ValueWriter;
 
 @Configuration(proxyBeanMethods = false)
 public class LogAfterReturningConfiguration {
@@ -15,7 +19,12 @@ public class LogAfterReturningConfiguration {
 
   @Bean
   public LogAfterReturningService logAfterReturningService(
-      final AopLoggersProperties aopLoggersProperties) {
-    return new LogAfterReturningService(aopLoggersProperties);
+      final AopLoggersProperties aopLoggersProperties,
+      final ObjectProvider<LogDispatcher> logDispatcher,
+      final ObjectProvider<ValueWriter> valueWriter) {
+    return new LogAfterReturningService(
+        aopLoggersProperties,
+        logDispatcher.getIfAvailable(SyncLogDispatcher::new),
+        valueWriter.getIfAvailable(() -> new ValueWriter(aopLoggersProperties.getRendering())));
   }
 }
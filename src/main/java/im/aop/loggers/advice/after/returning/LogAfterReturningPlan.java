@@ -0,0 +1,44 @@
+package im.aop.loggers.advice.after.returning;
+
+import java.lang.reflect.Method;
+
+import im.aop.loggers.AopLoggersProperties;
+import im.aop.loggers.advice.AdvicePlan;
+import im.aop.loggers.advice.MessageVariants;
+import im.aop.loggers.logging.Level;
+
+/**
+ * {@link AdvicePlan} for {@link LogAfterReturning}.
+ *
+ * @author Andy Lian
+ */
+class LogAfterReturningPlan extends AdvicePlan<LogAfterReturning> {
+
+  private final Level exitedLevel;
+
+  private final MessageVariants exitedMessage;
+
+  LogAfterReturningPlan(
+      final Method method,
+      final LogAfterReturning annotation,
+      final AopLoggersProperties aopLoggersProperties) {
+    super(
+        method,
+        annotation,
+        annotation.declaringClass(),
+        sampleRate(annotation.sampleRate(), aopLoggersProperties.getSampleRate()),
+        rateLimit(annotation.rateLimit(), aopLoggersProperties.getRateLimit()));
+
+    this.exitedLevel = level(annotation.level(), aopLoggersProperties.getExitedLevel());
+    this.exitedMessage =
+        messages(annotation.exitedMessage(), aopLoggersProperties.getExitedMessage());
+  }
+
+  Level getExitedLevel() {
+    return exitedLevel;
+  }
+
+  MessageVariants getExitedMessage() {
+    return exitedMessage;
+  }
+}
@@ -1,25 +1,26 @@
 package im.aop.loggers.advice.after.returning;
 
-import java.time.Duration;
+import java.lang.reflect.Method;
 import java.util.Objects;
 
 import org.aspectj.lang.JoinPoint;
 import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 import im.aop.loggers.AopLoggersProperties;
+import im.aop.loggers.advice.AdvicePlan;
+import im.aop.loggers.advice.AdvicePlanRegistry;
 import im.aop.loggers.logging.Level;
+import im.aop.loggers.logging.LogDispatcher;
 import im.aop.loggers.logging.LoggerService;
+import im.aop.loggers.logging.SyncLogDispatcher;
 import im.aop.loggers.logging.message.JoinPointStringSupplierRegistrar;
 import im.aop.loggers.logging.message.ReturnValueStringSupplierRegistrar;
-import im.aop.loggers.logging.message.StringSubstitutor;
 import im.aop.loggers.logging.message.StringSupplierLookup;
+import im.aop.loggers.logging.message.SuppressedStringSupplierRegistrar;
+import im.aop.loggers.logging.value.ValueWriter;
+import im.aop.loggers.metrics.AdviceOverhead;
 
-public class LogAfterReturningService {
-
-  private static final Logger LOGGER = LoggerFactory.getLogger(LogAfterReturningService.class);
-
-  private static final StringSubstitutor STRING_SUBSTITUTOR = new StringSubstitutor();
+public class LogAfterReturningService implements AutoCloseable {
 
   private static final JoinPointStringSupplierRegistrar JOIN_POINT_STRING_SUPPLIER_REGISTRAR =
       new JoinPointStringSupplierRegistrar();
@@ -29,10 +30,44 @@ public class LogAfterReturningService {
 
   private static final LoggerService LOGGER_SERVICE = new LoggerService();
 
+  private static final SuppressedStringSupplierRegistrar SUPPRESSED_STRING_SUPPLIER_REGISTRAR =
+      new SuppressedStringSupplierRegistrar();
+
   private final AopLoggersProperties aopLoggersProperties;
 
+  private final LogDispatcher logDispatcher;
+
+  /** Time spent by this advice, {@code null} if not counted. */
+  private final AdviceOverhead overhead;
+
+  private final ValueWriter valueWriter;
+
+  private final AdvicePlanRegistry<LogAfterReturning, LogAfterReturningPlan> planRegistry;
+
   public LogAfterReturningService(final AopLoggersProperties aopLoggersProperties) {
+    this(
+        aopLoggersProperties,
+        new SyncLogDispatcher(),
+        new ValueWriter(aopLoggersProperties.getRendering()));
+  }
+
+  /**
+   * @param valueWriter writer of parameters and return values
+   */
+  public LogAfterReturningService(
+      final AopLoggersProperties aopLoggersProperties,
+      final LogDispatcher logDispatcher,
+      final ValueWriter valueWriter) {
     this.aopLoggersProperties = Objects.requireNonNull(aopLoggersProperties);
+    this.logDispatcher = Objects.requireNonNull(logDispatcher);
+    this.overhead = AdviceOverhead.create("LogAfterReturning", aopLoggersProperties.getOverhead());
+    this.valueWriter = Objects.requireNonNull(valueWriter);
+    this.planRegistry = new AdvicePlanRegistry<>(aopLoggersProperties, this::createPlan);
+  }
+
+  private LogAfterReturningPlan createPlan(
+      final Method method, final LogAfterReturning annotation) {
+    return new LogAfterReturningPlan(method, annotation, aopLoggersProperties);
   }
 
   public void logAfterReturning(
@@ -41,25 +76,43 @@ public class LogAfterReturningService {
       return;
     }
 
-    final long enteringTime = System.nanoTime();
+    final long enteringTime = overhead != null ? System.nanoTime() : 0L;
 
-    final Logger logger = LOGGER_SERVICE.getLogger(annotation.declaringClass(), joinPoint);
-    final Level exitedLevel = getExitedLevel(annotation.level());
-    if (isLoggerLevelDisabled(logger, exitedLevel)) {
-      logElapsed(enteringTime);
+    final LogAfterReturningPlan plan = planRegistry.getPlan(joinPoint, annotation);
+    final Logger logger = plan.getLogger();
+    final Level exitedLevel = plan.getExitedLevel();
+    if (isLoggerLevelDisabled(logger, exitedLevel) || plan.isSampled() == false) {
+      recordOverhead(plan, enteringTime);
       return;
     }
 
-    final StringSupplierLookup stringLookup = new StringSupplierLookup();
+    final long suppressed = plan.tryAcquirePermit();
+    if (suppressed == AdvicePlan.THROTTLED) {
+      recordOverhead(plan, enteringTime);
+      return;
+    }
 
-    logExitedMessage(
-        joinPoint, exitedLevel, annotation.exitedMessage(), logger, stringLookup, returnValue);
-    logElapsed(enteringTime);
+    final StringSupplierLookup stringLookup = StringSupplierLookup.acquire(valueWriter);
+    try {
+      logExitedMessage(joinPoint, plan, logger, stringLookup, returnValue, suppressed);
+    } finally {
+      stringLookup.release();
+    }
+    recordOverhead(plan, enteringTime);
   }
 
-  private void logElapsed(long enteringTime) {
-    LOGGER.debug(
-        "[logAfterReturning] elapsed [{}]", Duration.ofNanos(System.nanoTime() - enteringTime));
+  private void recordOverhead(final LogAfterReturningPlan plan, final long enteringTime) {
+    if (overhead != null) {
+      overhead.record(plan.getMethod(), System.nanoTime() - enteringTime);
+    }
+  }
+
+  /** Stops exposing the time spent by this advice. */
+  @Override
+  public void close() {
+    if (overhead != null) {
+      overhead.close();
+    }
   }
 
   private boolean isDisabled() {
@@ -72,24 +125,19 @@ public class LogAfterReturningService {
 
   private void logExitedMessage(
       final JoinPoint joinPoint,
-      final Level exitedLevel,
-      final String exitedMessage,
+      final LogAfterReturningPlan plan,
       final Logger logger,
       final StringSupplierLookup stringLookup,
-      final Object returnValue) {
+      final Object returnValue,
+      final long suppressed) {
     JOIN_POINT_STRING_SUPPLIER_REGISTRAR.register(stringLookup, joinPoint);
     RETURN_VALUE_STRING_SUPPLIER_REGISTRAR.register(stringLookup, joinPoint, returnValue);
 
-    final String message =
-        STRING_SUBSTITUTOR.substitute(getExitedMessage(exitedMessage), stringLookup);
-    LOGGER_SERVICE.log(logger, exitedLevel, message);
-  }
-
-  private Level getExitedLevel(final Level exitedLevel) {
-    return exitedLevel == Level.DEFAULT ? aopLoggersProperties.getExitedLevel() : exitedLevel;
-  }
+    if (suppressed > 0) {
+      SUPPRESSED_STRING_SUPPLIER_REGISTRAR.register(stringLookup, suppressed);
+    }
 
-  private String getExitedMessage(final String exitedMessage) {
-    return exitedMessage.length() == 0 ? aopLoggersProperties.getExitedMessage() : exitedMessage;
+    logDispatcher.log(
+        logger, plan.getExitedLevel(), plan.getExitedMessage().get(suppressed > 0), stringLookup);
   }
 }
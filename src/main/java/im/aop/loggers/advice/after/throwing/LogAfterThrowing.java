@@ -32,4 +32,25 @@ public @interface LogAfterThrowing {
 
   /** @return Whether to print exception and its backtrace */
   boolean printStackTrace() default true;
+
+  /** @return Maximum number of stack frames printed per exception, 0 to use the configured one */
+  int stackTraceMaxDepth() default 0;
+
+  /** @return Package prefixes of the only stack frames printed, none to use the configured ones */
+  String[] stackTraceIncludePackages() default {};
+
+  /** @return Package prefixes of stack frames not printed, added to the configured ones */
+  String[] stackTraceExcludePackages() default {};
+
+  /** @return Rate of calls to be logged, between 0 and 1, 0 to use the configured sample rate */
+  double sampleRate() default 0;
+
+  /** @return Maximum number of logged calls per second, 0 to use the configured rate limit */
+  double rateLimit() default 0;
+
+  /**
+   * @return Whether to only record metrics of exceptions, without rendering or logging any message,
+   *     also enabled by the configuration properties
+   */
+  boolean metricsOnly() default false;
 }
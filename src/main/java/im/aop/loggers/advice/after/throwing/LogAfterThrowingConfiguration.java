@@ -1,9 +1,14 @@
 package im.aop.loggers.advice.after.throwing;
 
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 import im.aop.loggers.AopLoggersProperties;
+import im.aop.loggers.logging.LogDispatcher;
+import im.aop.loggers.logging.SyncLogDispatcher;
+import im.aop.loggers.logging.value.ValueWriter;
+import im.aop.loggers.metrics.MetricsRecorder;
 
 @Configuration(proxyBeanMethods = false)
 public class LogAfterThrowingConfiguration {
@@ -15,7 +20,14 @@ public class LogAfterThrowingConfiguration {
 
   @Bean
   public LogAfterThrowingService logAfterThrowingService(
-      final AopLoggersProperties aopLoggersProperties) {
-    return new LogAfterThrowingService(aopLoggersProperties);
+      final AopLoggersProperties aopLoggersProperties,
+      final ObjectProvider<LogDispatcher> logDispatcher,
+      final ObjectProvider<MetricsRecorder> metricsRecorder,
+      final ObjectProvider<ValueWriter> valueWriter) {
+    return new LogAfterThrowingService(
+        aopLoggersProperties,
+        logDispatcher.getIfAvailable(SyncLogDispatcher::new),
+        metricsRecorder.getIfAvailable(),
+        valueWriter.getIfAvailable(() -> new ValueWriter(aopLoggersProperties.getRendering())));
   }
 }
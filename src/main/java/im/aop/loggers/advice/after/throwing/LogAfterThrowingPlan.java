@@ -0,0 +1,104 @@
+package im.aop.loggers.advice.after.throwing;
+
+import java.lang.reflect.Method;
+
+import im.aop.loggers.AopLoggersProperties;
+import im.aop.loggers.advice.AdvicePlan;
+import im.aop.loggers.advice.MessageVariants;
+import im.aop.loggers.logging.Level;
+import im.aop.loggers.logging.exception.StackTraceRenderer;
+import im.aop.loggers.metrics.MethodMetrics;
+
+/**
+ * {@link AdvicePlan} for {@link LogAfterThrowing}.
+ *
+ * @author Andy Lian
+ */
+class LogAfterThrowingPlan extends AdvicePlan<LogAfterThrowing> {
+
+  private final Level exitedAbnormallyLevel;
+
+  private final MessageVariants exitedAbnormallyMessage;
+
+  private final Class<? extends Throwable>[] ignoreExceptions;
+
+  private final boolean printStackTrace;
+
+  /** Renderer of printed stack traces, {@code null} to print every stack frame. */
+  private final StackTraceRenderer stackTraceRenderer;
+
+  /** Metrics of the advised method, {@code null} if not recorded. */
+  private final MethodMetrics methodMetrics;
+
+  private final boolean metricsOnly;
+
+  LogAfterThrowingPlan(
+      final Method method,
+      final LogAfterThrowing annotation,
+      final AopLoggersProperties aopLoggersProperties) {
+    this(method, annotation, aopLoggersProperties, null);
+  }
+
+  LogAfterThrowingPlan(
+      final Method method,
+      final LogAfterThrowing annotation,
+      final AopLoggersProperties aopLoggersProperties,
+      final MethodMetrics methodMetrics) {
+    super(
+        method,
+        annotation,
+        annotation.declaringClass(),
+        sampleRate(annotation.sampleRate(), aopLoggersProperties.getSampleRate()),
+        rateLimit(annotation.rateLimit(), aopLoggersProperties.getRateLimit()));
+
+    this.exitedAbnormallyLevel =
+        level(annotation.level(), aopLoggersProperties.getExitedAbnormallyLevel());
+    this.exitedAbnormallyMessage =
+        exitedAbnormallyMessages(
+            annotation.exitedAbnormallyMessage(),
+            aopLoggersProperties.getExitedAbnormallyMessage());
+    this.ignoreExceptions =
+        ignoreExceptions(annotation.ignoreExceptions(), aopLoggersProperties.getIgnoreExceptions());
+    this.printStackTrace = annotation.printStackTrace();
+    this.stackTraceRenderer =
+        stackTraceRenderer(
+            annotation.stackTraceMaxDepth(),
+            annotation.stackTraceIncludePackages(),
+            annotation.stackTraceExcludePackages(),
+            aopLoggersProperties);
+    this.methodMetrics = methodMetrics;
+    this.metricsOnly = annotation.metricsOnly() || aopLoggersProperties.isMetricsOnly();
+  }
+
+  Level getExitedAbnormallyLevel() {
+    return exitedAbnormallyLevel;
+  }
+
+  MessageVariants getExitedAbnormallyMessage() {
+    return exitedAbnormallyMessage;
+  }
+
+  boolean isIgnoredException(final Throwable exception) {
+    return matchesIgnoreExceptions(exception, ignoreExceptions);
+  }
+
+  boolean isPrintStackTrace() {
+    return printStackTrace;
+  }
+
+  StackTraceRenderer getStackTraceRenderer() {
+    return stackTraceRenderer;
+  }
+
+  /** Records a thrown exception into the metrics of the advised method, if recorded. */
+  void recordException(final Throwable exception) {
+    if (methodMetrics != null) {
+      methodMetrics.recordException(exception);
+    }
+  }
+
+  /** @return Whether exceptions are only recorded into metrics, without logging any message */
+  boolean isMetricsOnly() {
+    return metricsOnly;
+  }
+}
@@ -1,25 +1,40 @@
 package im.aop.loggers.advice.after.throwing;
 
-import java.time.Duration;
+import java.lang.reflect.Method;
 import java.util.Objects;
 
 import org.aspectj.lang.JoinPoint;
 import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 import im.aop.loggers.AopLoggersProperties;
+import im.aop.loggers.AopLoggersProperties.ExceptionDedup;
+import im.aop.loggers.advice.AdvicePlan;
+import im.aop.loggers.advice.AdvicePlanRegistry;
+import im.aop.loggers.advice.MessageVariants;
+import im.aop.loggers.advice.MessageVariants.Fingerprint;
 import im.aop.loggers.logging.Level;
+import im.aop.loggers.logging.LogDispatcher;
 import im.aop.loggers.logging.LoggerService;
+import im.aop.loggers.logging.SyncLogDispatcher;
+import im.aop.loggers.logging.exception.DuplicateExceptionPolicy;
+import im.aop.loggers.logging.exception.ExceptionDeduplicator;
+import im.aop.loggers.logging.exception.ExceptionDeduplicator.Occurrence;
+import im.aop.loggers.logging.exception.StackTrace;
+import im.aop.loggers.logging.exception.StackTraceRenderer;
+import im.aop.loggers.logging.message.ExceptionOccurrenceStringSupplierRegistrar;
 import im.aop.loggers.logging.message.ExceptionStringSupplierRegistrar;
 import im.aop.loggers.logging.message.JoinPointStringSupplierRegistrar;
-import im.aop.loggers.logging.message.StringSubstitutor;
+import im.aop.loggers.logging.message.MessageTemplate;
+import im.aop.loggers.logging.message.MethodDescriptor;
+import im.aop.loggers.logging.message.StackTraceStringSupplierRegistrar;
 import im.aop.loggers.logging.message.StringSupplierLookup;
+import im.aop.loggers.logging.message.StringVariable;
+import im.aop.loggers.logging.message.SuppressedStringSupplierRegistrar;
+import im.aop.loggers.logging.value.ValueWriter;
+import im.aop.loggers.metrics.AdviceOverhead;
+import im.aop.loggers.metrics.MetricsRecorder;
 
-public class LogAfterThrowingService {
-
-  private static final Logger LOGGER = LoggerFactory.getLogger(LogAfterThrowingService.class);
-
-  private static final StringSubstitutor STRING_SUBSTITUTOR = new StringSubstitutor();
+public class LogAfterThrowingService implements AutoCloseable {
 
   private static final JoinPointStringSupplierRegistrar JOIN_POINT_STRING_SUPPLIER_REGISTRAR =
       new JoinPointStringSupplierRegistrar();
@@ -29,10 +44,65 @@ public class LogAfterThrowingService {
 
   private static final LoggerService LOGGER_SERVICE = new LoggerService();
 
+  private static final SuppressedStringSupplierRegistrar SUPPRESSED_STRING_SUPPLIER_REGISTRAR =
+      new SuppressedStringSupplierRegistrar();
+
+  private static final ExceptionOccurrenceStringSupplierRegistrar
+      EXCEPTION_OCCURRENCE_STRING_SUPPLIER_REGISTRAR =
+          new ExceptionOccurrenceStringSupplierRegistrar();
+
+  private static final StackTraceStringSupplierRegistrar STACK_TRACE_STRING_SUPPLIER_REGISTRAR =
+      new StackTraceStringSupplierRegistrar();
+
   private final AopLoggersProperties aopLoggersProperties;
 
+  private final LogDispatcher logDispatcher;
+
+  private final ExceptionDeduplicator<LogAfterThrowingPlan> exceptionDeduplicator;
+
+  /** Time spent by this advice, {@code null} if not counted. */
+  private final AdviceOverhead overhead;
+
+  private final ValueWriter valueWriter;
+
+  private final AdvicePlanRegistry<LogAfterThrowing, LogAfterThrowingPlan> planRegistry;
+
+  /** Recorder of metrics, {@code null} if not recorded. */
+  private final MetricsRecorder metricsRecorder;
+
   public LogAfterThrowingService(final AopLoggersProperties aopLoggersProperties) {
+    this(
+        aopLoggersProperties,
+        new SyncLogDispatcher(),
+        null,
+        new ValueWriter(aopLoggersProperties.getRendering()));
+  }
+
+  /**
+   * @param metricsRecorder recorder of metrics of advised methods, {@code null} to not record
+   *     metrics
+   * @param valueWriter writer of parameters and return values
+   */
+  public LogAfterThrowingService(
+      final AopLoggersProperties aopLoggersProperties,
+      final LogDispatcher logDispatcher,
+      final MetricsRecorder metricsRecorder,
+      final ValueWriter valueWriter) {
     this.aopLoggersProperties = Objects.requireNonNull(aopLoggersProperties);
+    this.logDispatcher = Objects.requireNonNull(logDispatcher);
+    this.metricsRecorder = metricsRecorder;
+    this.exceptionDeduplicator = exceptionDeduplicator(aopLoggersProperties.getExceptionDedup());
+    this.overhead = AdviceOverhead.create("LogAfterThrowing", aopLoggersProperties.getOverhead());
+    this.valueWriter = Objects.requireNonNull(valueWriter);
+    this.planRegistry = new AdvicePlanRegistry<>(aopLoggersProperties, this::createPlan);
+  }
+
+  private LogAfterThrowingPlan createPlan(final Method method, final LogAfterThrowing annotation) {
+    return new LogAfterThrowingPlan(
+        method,
+        annotation,
+        aopLoggersProperties,
+        metricsRecorder != null ? metricsRecorder.forMethod(method) : null);
   }
 
   public void logAfterThrowing(
@@ -41,92 +111,153 @@ public class LogAfterThrowingService {
       return;
     }
 
-    final long enteringTime = System.nanoTime();
+    final long enteringTime = overhead != null ? System.nanoTime() : 0L;
+
+    final LogAfterThrowingPlan plan = planRegistry.getPlan(joinPoint, annotation);
+    plan.recordException(exception);
+    if (plan.isMetricsOnly()) {
+      recordOverhead(plan, enteringTime);
+      return;
+    }
 
-    final Logger logger = LOGGER_SERVICE.getLogger(annotation.declaringClass(), joinPoint);
-    final Level exitedAbnormallyLevel = getExitedAbnormallyLevel(annotation.level());
+    final Logger logger = plan.getLogger();
+    final Level exitedAbnormallyLevel = plan.getExitedAbnormallyLevel();
     if (isLoggerLevelDisabled(logger, exitedAbnormallyLevel)
-        || isIgnoredException(exception, annotation.ignoreExceptions())) {
-      logElapsed(enteringTime);
+        || plan.isIgnoredException(exception)
+        || plan.isSampled() == false) {
+      recordOverhead(plan, enteringTime);
       return;
     }
 
-    final StringSupplierLookup stringLookup = new StringSupplierLookup();
+    final long suppressed = plan.tryAcquirePermit();
+    if (suppressed == AdvicePlan.THROTTLED) {
+      recordOverhead(plan, enteringTime);
+      return;
+    }
 
-    logExitedAbnormallyMessage(
-        joinPoint, exitedAbnormallyLevel, annotation, logger, stringLookup, exception);
-    logElapsed(enteringTime);
+    final StringSupplierLookup stringLookup = StringSupplierLookup.acquire(valueWriter);
+    try {
+      logExitedAbnormallyMessage(joinPoint, plan, logger, stringLookup, exception, suppressed);
+    } finally {
+      stringLookup.release();
+    }
+    recordOverhead(plan, enteringTime);
   }
 
-  private void logElapsed(long enteringTime) {
-    LOGGER.debug(
-        "[logAfterThrowing] elapsed [{}]", Duration.ofNanos(System.nanoTime() - enteringTime));
+  private void recordOverhead(final LogAfterThrowingPlan plan, final long enteringTime) {
+    if (overhead != null) {
+      overhead.record(plan.getMethod(), System.nanoTime() - enteringTime);
+    }
   }
 
-  private boolean isDisabled() {
-    return aopLoggersProperties.isEnabled() == false;
+  /** Stops exposing the time spent by this advice. */
+  @Override
+  public void close() {
+    exceptionDeduplicator.close();
+    if (overhead != null) {
+      overhead.close();
+    }
   }
 
-  private boolean isLoggerLevelDisabled(final Logger logger, final Level level) {
-    return LOGGER_SERVICE.isEnabled(logger, level) == false;
+  /**
+   * Duplicates dropped by the {@link DuplicateExceptionPolicy#DROP} policy are logged once their
+   * window closes, even if their fingerprint never recurs.
+   */
+  private ExceptionDeduplicator<LogAfterThrowingPlan> exceptionDeduplicator(
+      final ExceptionDedup exceptionDedup) {
+    if (exceptionDedup.isEnabled()
+        && exceptionDedup.getDuplicatePolicy() == DuplicateExceptionPolicy.DROP) {
+      return new ExceptionDeduplicator<LogAfterThrowingPlan>(
+          exceptionDedup.getTableSize(), exceptionDedup.getWindow(), this::logDroppedDuplicates);
+    }
+    return new ExceptionDeduplicator<LogAfterThrowingPlan>(exceptionDedup.getTableSize());
   }
 
-  private boolean isIgnoredException(
-      final Throwable exception, final Class<? extends Throwable>[] ignoredExceptions) {
-    if (exception == null) {
-      return true;
+  private void logDroppedDuplicates(final LogAfterThrowingPlan plan, final Occurrence occurrence) {
+    final ExceptionDedup exceptionDedup = aopLoggersProperties.getExceptionDedup();
+    final Logger logger = plan.getLogger();
+    final Level level = plan.getExitedAbnormallyLevel();
+    if (exceptionDedup.getDuplicatePolicy() != DuplicateExceptionPolicy.DROP
+        || isLoggerLevelDisabled(logger, level)) {
+      return;
     }
 
-    return matchesIgnoreExceptions(exception, ignoredExceptions)
-        || matchesIgnoreExceptions(exception, aopLoggersProperties.getIgnoreExceptions());
+    final StringSupplierLookup stringLookup = StringSupplierLookup.acquire();
+    try {
+      final String signature = MethodDescriptor.signature(plan.getMethod());
+      stringLookup.addStringSupplier(StringVariable.METHOD.getKey(), () -> signature);
+      EXCEPTION_OCCURRENCE_STRING_SUPPLIER_REGISTRAR.register(stringLookup, occurrence);
+      logDispatcher.log(
+          logger, level, MessageTemplate.of(exceptionDedup.getDroppedMessage()), stringLookup);
+    } finally {
+      stringLookup.release();
+    }
   }
 
-  private boolean matchesIgnoreExceptions(
-      final Throwable exception, final Class<? extends Throwable>[] ignoredExceptions) {
-    if (ignoredExceptions == null || ignoredExceptions.length == 0) {
-      return false;
-    }
-    for (Class<? extends Throwable> ignoredException : ignoredExceptions) {
-      if (ignoredException == null) {
-        continue;
-      }
-      if (ignoredException.isInstance(exception)) {
-        return true;
-      }
-    }
-    return false;
+  private boolean isDisabled() {
+    return aopLoggersProperties.isEnabled() == false;
+  }
+
+  private boolean isLoggerLevelDisabled(final Logger logger, final Level level) {
+    return LOGGER_SERVICE.isEnabled(logger, level) == false;
   }
 
   private void logExitedAbnormallyMessage(
       final JoinPoint joinPoint,
-      final Level exitedAbnormallyLevel,
-      final LogAfterThrowing annotation,
+      final LogAfterThrowingPlan plan,
       final Logger logger,
       final StringSupplierLookup stringLookup,
-      final Throwable exception) {
+      final Throwable exception,
+      final long suppressed) {
     JOIN_POINT_STRING_SUPPLIER_REGISTRAR.register(stringLookup, joinPoint);
     EXCEPTION_STRING_SUPPLIER_REGISTRAR.register(stringLookup, exception);
 
-    final String message =
-        STRING_SUBSTITUTOR.substitute(
-            getExitedAbnormallyMessage(annotation.exitedAbnormallyMessage()), stringLookup);
+    final Level exitedAbnormallyLevel = plan.getExitedAbnormallyLevel();
+    Fingerprint fingerprint = Fingerprint.NONE;
+    boolean printStackTrace = plan.isPrintStackTrace();
+
+    final ExceptionDedup exceptionDedup = aopLoggersProperties.getExceptionDedup();
+    if (exceptionDedup.isEnabled()) {
+      final Occurrence occurrence =
+          exceptionDeduplicator.record(
+              exception, exceptionDedup.getStackDepth(), exceptionDedup.getWindow(), plan);
+      final boolean dropDuplicates =
+          exceptionDedup.getDuplicatePolicy() == DuplicateExceptionPolicy.DROP;
+      if (occurrence.isDuplicate() && dropDuplicates) {
+        return;
+      }
 
-    if (annotation.printStackTrace()) {
-      LOGGER_SERVICE.logException(logger, exitedAbnormallyLevel, message, exception);
-    } else {
-      LOGGER_SERVICE.log(logger, exitedAbnormallyLevel, message);
+      EXCEPTION_OCCURRENCE_STRING_SUPPLIER_REGISTRAR.register(stringLookup, occurrence);
+      fingerprint = Fingerprint.of(occurrence, dropDuplicates);
+      if (occurrence.isDuplicate()) {
+        printStackTrace = false;
+      }
     }
-  }
 
-  private Level getExitedAbnormallyLevel(final Level exitedAbnormallyLevel) {
-    return exitedAbnormallyLevel == Level.DEFAULT
-        ? aopLoggersProperties.getExitedAbnormallyLevel()
-        : exitedAbnormallyLevel;
-  }
+    if (suppressed > 0) {
+      SUPPRESSED_STRING_SUPPLIER_REGISTRAR.register(stringLookup, suppressed);
+    }
+
+    final MessageVariants exitedAbnormallyMessage = plan.getExitedAbnormallyMessage();
+    final StackTraceRenderer stackTraceRenderer = plan.getStackTraceRenderer();
+    if (printStackTrace && stackTraceRenderer == null) {
+      logDispatcher.logException(
+          logger,
+          exitedAbnormallyLevel,
+          exitedAbnormallyMessage.get(fingerprint, suppressed > 0, false),
+          stringLookup,
+          exception);
+      return;
+    }
 
-  private String getExitedAbnormallyMessage(final String exitedAbnormallyMessage) {
-    return exitedAbnormallyMessage.length() == 0
-        ? aopLoggersProperties.getExitedAbnormallyMessage()
-        : exitedAbnormallyMessage;
+    if (printStackTrace) {
+      STACK_TRACE_STRING_SUPPLIER_REGISTRAR.register(
+          stringLookup, new StackTrace(exception, stackTraceRenderer));
+    }
+    logDispatcher.log(
+        logger,
+        exitedAbnormallyLevel,
+        exitedAbnormallyMessage.get(fingerprint, suppressed > 0, printStackTrace),
+        stringLookup);
   }
 }
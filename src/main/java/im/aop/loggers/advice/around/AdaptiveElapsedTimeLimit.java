@@ -0,0 +1,97 @@
+package im.aop.loggers.advice.around;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import im.aop.loggers.metrics.LatencyHistogram;
+
+/**
+ * Elapsed time limit of an advised method tracking a percentile of its recent elapsed times.
+ *
+ * <p>Elapsed times are recorded in a {@link LatencyHistogram} replaced at the end of every window.
+ * The limit is then derived from the replaced histogram, as the tracked percentile times the
+ * factor, and at least the minimum. Windows with too few elapsed times to tell the percentile
+ * apart keep the previous limit. Until the first window ends, the minimum is the limit.
+ *
+ * @author Andy Lian
+ */
+final class AdaptiveElapsedTimeLimit {
+
+  /** Minimum number of elapsed times in a window to derive a limit from. */
+  static final long MIN_SAMPLES = 100;
+
+  private static final long NO_LIMIT = Long.MAX_VALUE;
+
+  private final double percentile;
+
+  private final double factor;
+
+  private final long minimum;
+
+  private final long window;
+
+  private final AtomicReference<LatencyHistogram> histogram =
+      new AtomicReference<LatencyHistogram>(new LatencyHistogram());
+
+  private final AtomicLong windowStart;
+
+  /** Current limit in nanoseconds, {@link #NO_LIMIT} if none yet. */
+  private volatile long limit;
+
+  /**
+   * @param percentile percentile of elapsed times tracked, between 0 and 100
+   * @param factor factor applied to the tracked percentile
+   * @param minimum minimum limit in nanoseconds, {@code 0} for no minimum
+   * @param window nanoseconds of elapsed times the limit is derived from
+   * @param now current value of {@link System#nanoTime()}
+   */
+  AdaptiveElapsedTimeLimit(
+      final double percentile,
+      final double factor,
+      final long minimum,
+      final long window,
+      final long now) {
+    this.percentile = percentile;
+    this.factor = factor;
+    this.minimum = minimum;
+    this.window = window;
+    this.windowStart = new AtomicLong(now);
+    this.limit = minimum > 0 ? minimum : NO_LIMIT;
+  }
+
+  void record(final long elapsedTime) {
+    record(elapsedTime, System.nanoTime());
+  }
+
+  /**
+   * @param elapsedTime elapsed time in nanoseconds
+   * @param now current value of {@link System#nanoTime()}
+   */
+  void record(final long elapsedTime, final long now) {
+    histogram.get().record(elapsedTime);
+
+    final long start = windowStart.get();
+    if (now - start >= window && windowStart.compareAndSet(start, now)) {
+      final LatencyHistogram ended = histogram.getAndSet(new LatencyHistogram());
+      if (ended.getCount() >= MIN_SAMPLES) {
+        final long tracked = (long) (ended.getValueAtPercentile(percentile) * factor);
+        limit = Math.max(minimum, tracked);
+      }
+    }
+  }
+
+  /** @return Current limit, {@code null} if none yet */
+  Duration getLimit() {
+    final long current = limit;
+    return current != NO_LIMIT ? Duration.ofNanos(current) : null;
+  }
+
+  /**
+   * @param elapsedTime elapsed time in nanoseconds
+   * @return Whether the elapsed time exceeds the current limit
+   */
+  boolean isExceededBy(final long elapsedTime) {
+    return elapsedTime > limit;
+  }
+}
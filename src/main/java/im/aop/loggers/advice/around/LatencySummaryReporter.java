@@ -0,0 +1,132 @@
+package im.aop.loggers.advice.around;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import im.aop.loggers.AopLoggersProperties.Summary;
+import im.aop.loggers.logging.CachedLogger;
+import im.aop.loggers.logging.Level;
+import im.aop.loggers.logging.LogDispatcher;
+import im.aop.loggers.logging.LoggerService;
+import im.aop.loggers.logging.message.LatencySummaryStringSupplierRegistrar;
+import im.aop.loggers.logging.message.MessageTemplate;
+import im.aop.loggers.logging.message.MethodDescriptor;
+import im.aop.loggers.logging.message.StringSupplierLookup;
+import im.aop.loggers.logging.message.StringVariable;
+import im.aop.loggers.metrics.LatencyRecorder;
+import im.aop.loggers.metrics.LatencySummary;
+
+/**
+ * Logs a summary of the elapsed times of every method advised by {@link LogAround} once per
+ * interval, from a background thread.
+ *
+ * <p>Recorders are kept per {@link Method}, so they outlive the plans recreated when the
+ * configuration properties are modified. Methods not called within an interval are not logged.
+ *
+ * @author Andy Lian
+ */
+final class LatencySummaryReporter implements AutoCloseable {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(LatencySummaryReporter.class);
+
+  private static final LoggerService LOGGER_SERVICE = new LoggerService();
+
+  private static final LatencySummaryStringSupplierRegistrar
+      LATENCY_SUMMARY_STRING_SUPPLIER_REGISTRAR = new LatencySummaryStringSupplierRegistrar();
+
+  private final Summary summary;
+
+  private final LogDispatcher logDispatcher;
+
+  private final Map<Method, MethodLatency> latencies =
+      new ConcurrentHashMap<Method, MethodLatency>();
+
+  private final ScheduledExecutorService scheduler;
+
+  LatencySummaryReporter(final Summary summary, final LogDispatcher logDispatcher) {
+    final long interval = summary.getInterval().toNanos();
+    if (interval <= 0) {
+      throw new IllegalArgumentException("interval must be positive");
+    }
+
+    this.summary = summary;
+    this.logDispatcher = Objects.requireNonNull(logDispatcher);
+    this.scheduler =
+        Executors.newSingleThreadScheduledExecutor(
+            (runnable) -> {
+              final Thread thread = new Thread(runnable, "aop-loggers-latency-summary");
+              thread.setDaemon(true);
+              return thread;
+            });
+    scheduler.scheduleAtFixedRate(this::report, interval, interval, TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * @param method advised method
+   * @param declaringClass class name used as Logger's category name, {@code void.class} for the
+   *     declaring class of the method
+   * @return Recorder of the elapsed times of the method
+   */
+  LatencyRecorder recorder(final Method method, final Class<?> declaringClass) {
+    return latencies.computeIfAbsent(method, (key) -> new MethodLatency(key, declaringClass))
+        .recorder;
+  }
+
+  /** Logs the summary of every method called since the previous summary. */
+  void report() {
+    for (MethodLatency latency : latencies.values()) {
+      try {
+        report(latency);
+      } catch (RuntimeException e) {
+        LOGGER.warn("Failed to log latency summary", e);
+      }
+    }
+  }
+
+  private void report(final MethodLatency latency) {
+    final LatencySummary latencySummary = latency.recorder.summarize();
+    final Logger logger = latency.logger.get();
+    final Level level = summary.getLevel();
+    if (latencySummary.getCount() == 0 || LOGGER_SERVICE.isEnabled(logger, level) == false) {
+      return;
+    }
+
+    final StringSupplierLookup stringLookup = StringSupplierLookup.acquire();
+    try {
+      stringLookup.addStringSupplier(StringVariable.METHOD.getKey(), () -> latency.signature);
+      LATENCY_SUMMARY_STRING_SUPPLIER_REGISTRAR.register(stringLookup, latencySummary);
+      logDispatcher.log(logger, level, MessageTemplate.of(summary.getMessage()), stringLookup);
+    } finally {
+      stringLookup.release();
+    }
+  }
+
+  /** Stops logging summaries, logging the summary of the current interval. */
+  @Override
+  public void close() {
+    scheduler.shutdownNow();
+    report();
+  }
+
+  private static final class MethodLatency {
+
+    private final String signature;
+
+    private final CachedLogger logger;
+
+    private final LatencyRecorder recorder = new LatencyRecorder();
+
+    MethodLatency(final Method method, final Class<?> declaringClass) {
+      this.signature = MethodDescriptor.signature(method);
+      this.logger = LOGGER_SERVICE.getCachedLogger(declaringClass, method.getDeclaringClass());
+    }
+  }
+}
@@ -44,6 +44,15 @@ public @interface LogAround {
   /** @return Whether to print exception and its backtrace */
   boolean printStackTrace() default true;
 
+  /** @return Maximum number of stack frames printed per exception, 0 to use the configured one */
+  int stackTraceMaxDepth() default 0;
+
+  /** @return Package prefixes of the only stack frames printed, none to use the configured ones */
+  String[] stackTraceIncludePackages() default {};
+
+  /** @return Package prefixes of stack frames not printed, added to the configured ones */
+  String[] stackTraceExcludePackages() default {};
+
   /** @return Elapsed message template */
   String elapsedMessage() default "";
 
@@ -53,9 +62,56 @@ public @interface LogAround {
   /** @return Elapsed warning message template */
   String elapsedWarningMessage() default "";
 
-  /** @return Elapsed time limit to log elapsed warning message */
+  /**
+   * @return Elapsed time limit to log elapsed warning message, minimum of the limit when adaptive
+   */
   long elapsedTimeLimit() default 0;
 
   /** @return Elapsed time unit */
   ChronoUnit elapsedTimeUnit() default ChronoUnit.MILLIS;
+
+  /**
+   * @return Whether the elapsed time limit tracks a percentile of recent elapsed times, also
+   *     enabled by the configuration properties
+   */
+  boolean adaptiveElapsedTimeLimit() default false;
+
+  /**
+   * @return Percentile of recent elapsed times tracked by adaptive elapsed time limit, 0 to use
+   *     the configured percentile
+   */
+  double elapsedTimeLimitPercentile() default 0;
+
+  /**
+   * @return Factor applied to the percentile tracked by adaptive elapsed time limit, 0 to use the
+   *     configured factor
+   */
+  double elapsedTimeLimitFactor() default 0;
+
+  /** @return Rate of calls to be logged, between 0 and 1, 0 to use the configured sample rate */
+  double sampleRate() default 0;
+
+  /** @return Maximum number of logged calls per second, 0 to use the configured rate limit */
+  double rateLimit() default 0;
+
+  /** @return Whether to log failed calls and calls reaching elapsed time limit when not sampled */
+  boolean alwaysLogSlowOrFailed() default true;
+
+  /**
+   * @return Whether to log the entering, exited and elapsed messages of a call only once it failed
+   *     or reached elapsed time limit, also enabled by the configuration properties
+   */
+  boolean logOnlySlowOrFailed() default false;
+
+  /**
+   * @return Whether to only record metrics of calls, without rendering or logging any message, also
+   *     enabled by the configuration properties
+   */
+  boolean metricsOnly() default false;
+
+  /** @return Names or indices of the only parameters rendered by {parameters}, all if empty */
+  String[] includeParameters() default {};
+
+  /** @return Names or indices of parameters not rendered by {parameters} */
+  String[] excludeParameters() default {};
 }
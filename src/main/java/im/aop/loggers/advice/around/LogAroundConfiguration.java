@@ -1,9 +1,14 @@
 package im.aop.loggers.advice.around;
 
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 import im.aop.loggers.AopLoggersProperties;
+import im.aop.loggers.logging.LogDispatcher;
+import im.aop.loggers.logging.SyncLogDispatcher;
+import im.aop.loggers.logging.value.ValueWriter;
+import im.aop.loggers.metrics.MetricsRecorder;
 
 @Configuration(proxyBeanMethods = false)
 public class LogAroundConfiguration {
@@ -14,7 +19,15 @@ public class LogAroundConfiguration {
   }
 
   @Bean
-  public LogAroundService logAroundService(final AopLoggersProperties aopLoggersProperties) {
-    return new LogAroundService(aopLoggersProperties);
+  public LogAroundService logAroundService(
+      final AopLoggersProperties aopLoggersProperties,
+      final ObjectProvider<LogDispatcher> logDispatcher,
+      final ObjectProvider<MetricsRecorder> metricsRecorder,
+      final ObjectProvider<ValueWriter> valueWriter) {
+    return new LogAroundService(
+        aopLoggersProperties,
+        logDispatcher.getIfAvailable(SyncLogDispatcher::new),
+        metricsRecorder.getIfAvailable(),
+        valueWriter.getIfAvailable(() -> new ValueWriter(aopLoggersProperties.getRendering())));
   }
 }
@@ -0,0 +1,345 @@
+package im.aop.loggers.advice.around;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+
+import org.springframework.util.ClassUtils;
+
+import im.aop.loggers.AopLoggersProperties;
+import im.aop.loggers.advice.AdvicePlan;
+import im.aop.loggers.advice.MessageVariants;
+import im.aop.loggers.logging.Level;
+import im.aop.loggers.logging.exception.StackTraceRenderer;
+import im.aop.loggers.logging.message.MethodDescriptor;
+import im.aop.loggers.logging.message.ParameterSelection;
+import im.aop.loggers.logging.value.MaskingPlan;
+import im.aop.loggers.logging.value.ValueWriter;
+import im.aop.loggers.metrics.LatencyRecorder;
+import im.aop.loggers.metrics.MethodMetrics;
+
+/**
+ * {@link AdvicePlan} for {@link LogAround}.
+ *
+ * @author Andy Lian
+ */
+class LogAroundPlan extends AdvicePlan<LogAround> {
+
+  private static final boolean REACTOR_PRESENT =
+      ClassUtils.isPresent("reactor.core.publisher.Flux", LogAroundPlan.class.getClassLoader());
+
+  private final Level enteringLevel;
+
+  private final MessageVariants enteringMessage;
+
+  private final ParameterSelection parameterSelection;
+
+  private final MaskingPlan maskingPlan;
+
+  private final Level exitedLevel;
+
+  private final MessageVariants exitedMessage;
+
+  private final Level exitedAbnormallyLevel;
+
+  private final MessageVariants exitedAbnormallyMessage;
+
+  private final Class<? extends Throwable>[] ignoreExceptions;
+
+  private final boolean printStackTrace;
+
+  /** Renderer of printed stack traces, {@code null} to print every stack frame. */
+  private final StackTraceRenderer stackTraceRenderer;
+
+  private final Level elapsedLevel;
+
+  private final MessageVariants elapsedMessage;
+
+  private final Level elapsedWarningLevel;
+
+  private final MessageVariants elapsedWarningMessage;
+
+  private final Duration elapsedTimeLimit;
+
+  private final long elapsedTimeLimitNanos;
+
+  /** Adaptive elapsed time limit, {@code null} if the limit is fixed. */
+  private final AdaptiveElapsedTimeLimit adaptiveElapsedTimeLimit;
+
+  /** Recorder of elapsed times for latency summaries, {@code null} if not summarized. */
+  private final LatencyRecorder latencyRecorder;
+
+  /** Metrics of the advised method, {@code null} if not recorded. */
+  private final MethodMetrics methodMetrics;
+
+  private final Level mostSevereLevel;
+
+  private final Level mostSevereNormalExitLevel;
+
+  private final boolean alwaysLogSlowOrFailed;
+
+  private final boolean logOnlySlowOrFailed;
+
+  private final boolean metricsOnly;
+
+  /** Whether the method returns a {@code Mono} or a {@code Flux}, logged once subscribed. */
+  private final boolean reactive;
+
+  LogAroundPlan(
+      final Method method,
+      final LogAround annotation,
+      final AopLoggersProperties aopLoggersProperties) {
+    this(method, annotation, aopLoggersProperties, null, null, ValueWriter.DEFAULT);
+  }
+
+  /** @param valueWriter writer of parameters, compiling the masking plan of the method */
+  LogAroundPlan(
+      final Method method,
+      final LogAround annotation,
+      final AopLoggersProperties aopLoggersProperties,
+      final LatencyRecorder latencyRecorder,
+      final MethodMetrics methodMetrics,
+      final ValueWriter valueWriter) {
+    super(
+        method,
+        annotation,
+        annotation.declaringClass(),
+        sampleRate(annotation.sampleRate(), aopLoggersProperties.getSampleRate()),
+        rateLimit(annotation.rateLimit(), aopLoggersProperties.getRateLimit()));
+
+    this.enteringLevel = level(annotation.level(), aopLoggersProperties.getEnteringLevel());
+    this.enteringMessage =
+        messages(annotation.enteringMessage(), aopLoggersProperties.getEnteringMessage());
+    this.parameterSelection =
+        ParameterSelection.of(
+            method, annotation.includeParameters(), annotation.excludeParameters());
+    this.maskingPlan = MethodDescriptor.of(method).getMaskingPlan(valueWriter);
+    this.exitedLevel = level(annotation.level(), aopLoggersProperties.getExitedLevel());
+    this.exitedMessage =
+        messages(annotation.exitedMessage(), aopLoggersProperties.getExitedMessage());
+    this.exitedAbnormallyLevel =
+        level(annotation.exitedAbnormallyLevel(), aopLoggersProperties.getExitedAbnormallyLevel());
+    this.exitedAbnormallyMessage =
+        exitedAbnormallyMessages(
+            annotation.exitedAbnormallyMessage(),
+            aopLoggersProperties.getExitedAbnormallyMessage());
+    this.ignoreExceptions =
+        ignoreExceptions(annotation.ignoreExceptions(), aopLoggersProperties.getIgnoreExceptions());
+    this.printStackTrace = annotation.printStackTrace();
+    this.stackTraceRenderer =
+        stackTraceRenderer(
+            annotation.stackTraceMaxDepth(),
+            annotation.stackTraceIncludePackages(),
+            annotation.stackTraceExcludePackages(),
+            aopLoggersProperties);
+    this.elapsedLevel = level(annotation.level(), aopLoggersProperties.getElapsedLevel());
+    this.elapsedMessage =
+        messages(annotation.elapsedMessage(), aopLoggersProperties.getElapsedMessage());
+    this.elapsedWarningLevel =
+        level(annotation.elapsedWarningLevel(), aopLoggersProperties.getElapsedWarningLevel());
+    this.elapsedWarningMessage =
+        messages(
+            annotation.elapsedWarningMessage(), aopLoggersProperties.getElapsedWarningMessage());
+
+    if (annotation.elapsedTimeLimit() == 0) {
+      this.elapsedTimeLimit = null;
+      this.elapsedTimeLimitNanos = 0;
+    } else {
+      this.elapsedTimeLimit =
+          Duration.of(annotation.elapsedTimeLimit(), annotation.elapsedTimeUnit());
+      this.elapsedTimeLimitNanos = toNanos(elapsedTimeLimit);
+    }
+
+    if (annotation.adaptiveElapsedTimeLimit()
+        || aopLoggersProperties.isAdaptiveElapsedTimeLimit()) {
+      this.adaptiveElapsedTimeLimit =
+          new AdaptiveElapsedTimeLimit(
+              annotation.elapsedTimeLimitPercentile() > 0
+                  ? annotation.elapsedTimeLimitPercentile()
+                  : aopLoggersProperties.getElapsedTimeLimitPercentile(),
+              annotation.elapsedTimeLimitFactor() > 0
+                  ? annotation.elapsedTimeLimitFactor()
+                  : aopLoggersProperties.getElapsedTimeLimitFactor(),
+              elapsedTimeLimitNanos,
+              toNanos(aopLoggersProperties.getElapsedTimeLimitWindow()),
+              System.nanoTime());
+    } else {
+      this.adaptiveElapsedTimeLimit = null;
+    }
+
+    this.mostSevereNormalExitLevel =
+        mostSevereLevel(
+            enteringLevel,
+            exitedLevel,
+            elapsedLevel,
+            hasElapsedTimeLimit() ? elapsedWarningLevel : Level.DEFAULT);
+    this.mostSevereLevel =
+        mostSevereLevel(
+            enteringLevel,
+            exitedLevel,
+            exitedAbnormallyLevel,
+            elapsedLevel,
+            hasElapsedTimeLimit() ? elapsedWarningLevel : Level.DEFAULT);
+    this.alwaysLogSlowOrFailed = annotation.alwaysLogSlowOrFailed();
+    this.logOnlySlowOrFailed =
+        annotation.logOnlySlowOrFailed() || aopLoggersProperties.isLogOnlySlowOrFailed();
+    this.latencyRecorder = latencyRecorder;
+    this.methodMetrics = methodMetrics;
+    this.metricsOnly = annotation.metricsOnly() || aopLoggersProperties.isMetricsOnly();
+    this.reactive = REACTOR_PRESENT && ReactiveCalls.isReactive(method.getReturnType());
+  }
+
+  Level getEnteringLevel() {
+    return enteringLevel;
+  }
+
+  MessageVariants getEnteringMessage() {
+    return enteringMessage;
+  }
+
+  ParameterSelection getParameterSelection() {
+    return parameterSelection;
+  }
+
+  MaskingPlan getMaskingPlan() {
+    return maskingPlan;
+  }
+
+  Level getExitedLevel() {
+    return exitedLevel;
+  }
+
+  MessageVariants getExitedMessage() {
+    return exitedMessage;
+  }
+
+  Level getExitedAbnormallyLevel() {
+    return exitedAbnormallyLevel;
+  }
+
+  MessageVariants getExitedAbnormallyMessage() {
+    return exitedAbnormallyMessage;
+  }
+
+  boolean isIgnoredException(final Throwable exception) {
+    return matchesIgnoreExceptions(exception, ignoreExceptions);
+  }
+
+  boolean isPrintStackTrace() {
+    return printStackTrace;
+  }
+
+  StackTraceRenderer getStackTraceRenderer() {
+    return stackTraceRenderer;
+  }
+
+  Level getElapsedLevel() {
+    return elapsedLevel;
+  }
+
+  MessageVariants getElapsedMessage() {
+    return elapsedMessage;
+  }
+
+  Level getElapsedWarningLevel() {
+    return elapsedWarningLevel;
+  }
+
+  MessageVariants getElapsedWarningMessage() {
+    return elapsedWarningMessage;
+  }
+
+  boolean hasElapsedTimeLimit() {
+    return elapsedTimeLimit != null || adaptiveElapsedTimeLimit != null;
+  }
+
+  /** @return Current elapsed time limit, {@code null} if no limit */
+  Duration getElapsedTimeLimit() {
+    return adaptiveElapsedTimeLimit != null
+        ? adaptiveElapsedTimeLimit.getLimit()
+        : elapsedTimeLimit;
+  }
+
+  /** @return Whether the elapsed time limit tracks a percentile of recent elapsed times */
+  boolean isAdaptiveElapsedTimeLimit() {
+    return adaptiveElapsedTimeLimit != null;
+  }
+
+  /**
+   * @return Whether elapsed times are recorded, for the adaptive elapsed time limit, latency
+   *     summaries or metrics
+   */
+  boolean isRecordingElapsedTime() {
+    return adaptiveElapsedTimeLimit != null || latencyRecorder != null || methodMetrics != null;
+  }
+
+  /**
+   * Records the elapsed time of a call, to derive the adaptive elapsed time limit, latency
+   * summaries and metrics from.
+   *
+   * @param elapsedTime elapsed time in nanoseconds
+   * @param exception exception the call exited abnormally with, {@code null} if it exited normally
+   */
+  void recordElapsedTime(final long elapsedTime, final Throwable exception) {
+    if (adaptiveElapsedTimeLimit != null) {
+      adaptiveElapsedTimeLimit.record(elapsedTime);
+    }
+    if (latencyRecorder != null) {
+      latencyRecorder.record(elapsedTime, exception != null);
+    }
+    if (methodMetrics != null) {
+      methodMetrics.recordElapsedTime(elapsedTime, exception);
+    }
+  }
+
+  /**
+   * @return Most severe level of all messages that could be logged, {@code null} if none could be
+   *     logged
+   */
+  Level getMostSevereLevel() {
+    return mostSevereLevel;
+  }
+
+  /**
+   * @return Most severe level of all messages that could be logged for a call exiting normally,
+   *     all but the exited abnormally message, {@code null} if none could be logged
+   */
+  Level getMostSevereNormalExitLevel() {
+    return mostSevereNormalExitLevel;
+  }
+
+  /**
+   * @return Whether failed calls and calls reaching elapsed time limit are logged even when not
+   *     sampled
+   */
+  boolean isAlwaysLogSlowOrFailed() {
+    return alwaysLogSlowOrFailed;
+  }
+
+  /**
+   * @return Whether every message of a call is held back until the call exits, and logged only if
+   *     it failed or reached elapsed time limit
+   */
+  boolean isLogOnlySlowOrFailed() {
+    return logOnlySlowOrFailed;
+  }
+
+  /** @return Whether calls are only recorded into metrics, without logging any message */
+  boolean isMetricsOnly() {
+    return metricsOnly;
+  }
+
+  /**
+   * @return Whether the method returns a {@code Mono} or a {@code Flux}, whose calls end with the
+   *     terminal signal of each subscription instead of when returning
+   */
+  boolean isReactive() {
+    return reactive;
+  }
+
+  boolean exceedsElapsedTimeLimit(final long elapsedTime) {
+    if (adaptiveElapsedTimeLimit != null) {
+      return adaptiveElapsedTimeLimit.isExceededBy(elapsedTime);
+    }
+    return elapsedTimeLimit != null && elapsedTime > elapsedTimeLimitNanos;
+  }
+}
@@ -1,31 +1,46 @@
 package im.aop.loggers.advice.around;
 
-import java.time.Duration;
+import java.lang.reflect.Method;
 import java.util.Objects;
 
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 import im.aop.loggers.AopLoggersProperties;
+import im.aop.loggers.AopLoggersProperties.ExceptionDedup;
+import im.aop.loggers.advice.AdvicePlan;
+import im.aop.loggers.advice.AdvicePlanRegistry;
+import im.aop.loggers.advice.MessageVariants;
+import im.aop.loggers.advice.MessageVariants.Fingerprint;
 import im.aop.loggers.logging.Level;
+import im.aop.loggers.logging.LogDispatcher;
 import im.aop.loggers.logging.LoggerService;
+import im.aop.loggers.logging.SyncLogDispatcher;
+import im.aop.loggers.logging.exception.DuplicateExceptionPolicy;
+import im.aop.loggers.logging.exception.ExceptionDeduplicator;
+import im.aop.loggers.logging.exception.ExceptionDeduplicator.Occurrence;
+import im.aop.loggers.logging.exception.StackTrace;
+import im.aop.loggers.logging.exception.StackTraceRenderer;
 import im.aop.loggers.logging.message.ElapsedStringSupplierRegistrar;
 import im.aop.loggers.logging.message.ElapsedTimeLimitStringSupplierRegistrar;
+import im.aop.loggers.logging.message.ExceptionOccurrenceStringSupplierRegistrar;
 import im.aop.loggers.logging.message.ExceptionStringSupplierRegistrar;
 import im.aop.loggers.logging.message.JoinPointStringSupplierRegistrar;
+import im.aop.loggers.logging.message.MessageTemplate;
+import im.aop.loggers.logging.message.MethodDescriptor;
 import im.aop.loggers.logging.message.ReturnValueStringSupplierRegistrar;
-import im.aop.loggers.logging.message.StringSubstitutor;
+import im.aop.loggers.logging.message.StackTraceStringSupplierRegistrar;
 import im.aop.loggers.logging.message.StringSupplierLookup;
+import im.aop.loggers.logging.message.StringVariable;
+import im.aop.loggers.logging.message.SuppressedStringSupplierRegistrar;
+import im.aop.loggers.logging.value.ValueWriter;
+import im.aop.loggers.metrics.AdviceOverhead;
+import im.aop.loggers.metrics.MetricsRecorder;
 
-public class LogAroundService {
-
-  private static final Logger LOGGER = LoggerFactory.getLogger(LogAroundService.class);
+public class LogAroundService implements AutoCloseable {
 
   private static final LoggerService LOGGER_SERVICE = new LoggerService();
 
-  private static final StringSubstitutor STRING_SUBSTITUTOR = new StringSubstitutor();
-
   private static final JoinPointStringSupplierRegistrar JOIN_POINT_STRING_SUPPLIER_REGISTRAR =
       new JoinPointStringSupplierRegistrar();
 
@@ -41,10 +56,76 @@ public class LogAroundService {
   private static final ElapsedTimeLimitStringSupplierRegistrar
       ELAPSED_TIME_LIMIT_STRING_SUPPLIER_REGISTRAR = new ElapsedTimeLimitStringSupplierRegistrar();
 
+  private static final SuppressedStringSupplierRegistrar SUPPRESSED_STRING_SUPPLIER_REGISTRAR =
+      new SuppressedStringSupplierRegistrar();
+
+  private static final ExceptionOccurrenceStringSupplierRegistrar
+      EXCEPTION_OCCURRENCE_STRING_SUPPLIER_REGISTRAR =
+          new ExceptionOccurrenceStringSupplierRegistrar();
+
+  private static final StackTraceStringSupplierRegistrar STACK_TRACE_STRING_SUPPLIER_REGISTRAR =
+      new StackTraceStringSupplierRegistrar();
+
   private final AopLoggersProperties aopLoggersProperties;
 
+  private final LogDispatcher logDispatcher;
+
+  private final ExceptionDeduplicator<LogAroundPlan> exceptionDeduplicator;
+
+  private final AdvicePlanRegistry<LogAround, LogAroundPlan> planRegistry;
+
+  /** Reporter of latency summaries, {@code null} if not enabled. */
+  private final LatencySummaryReporter latencySummaryReporter;
+
+  /** Recorder of metrics, {@code null} if not recorded. */
+  private final MetricsRecorder metricsRecorder;
+
+  /** Time spent by this advice, {@code null} if not counted. */
+  private final AdviceOverhead overhead;
+
+  private final ValueWriter valueWriter;
+
   public LogAroundService(final AopLoggersProperties aopLoggersProperties) {
+    this(
+        aopLoggersProperties,
+        new SyncLogDispatcher(),
+        null,
+        new ValueWriter(aopLoggersProperties.getRendering()));
+  }
+
+  /**
+   * @param metricsRecorder recorder of metrics of advised methods, {@code null} to not record
+   *     metrics
+   * @param valueWriter writer of parameters and return values
+   */
+  public LogAroundService(
+      final AopLoggersProperties aopLoggersProperties,
+      final LogDispatcher logDispatcher,
+      final MetricsRecorder metricsRecorder,
+      final ValueWriter valueWriter) {
     this.aopLoggersProperties = Objects.requireNonNull(aopLoggersProperties);
+    this.logDispatcher = Objects.requireNonNull(logDispatcher);
+    this.metricsRecorder = metricsRecorder;
+    this.exceptionDeduplicator = exceptionDeduplicator(aopLoggersProperties.getExceptionDedup());
+    this.latencySummaryReporter =
+        aopLoggersProperties.getLatencySummary().isEnabled()
+            ? new LatencySummaryReporter(aopLoggersProperties.getLatencySummary(), logDispatcher)
+            : null;
+    this.overhead = AdviceOverhead.create("LogAround", aopLoggersProperties.getOverhead());
+    this.valueWriter = Objects.requireNonNull(valueWriter);
+    this.planRegistry = new AdvicePlanRegistry<>(aopLoggersProperties, this::createPlan);
+  }
+
+  private LogAroundPlan createPlan(final Method method, final LogAround annotation) {
+    return new LogAroundPlan(
+        method,
+        annotation,
+        aopLoggersProperties,
+        latencySummaryReporter != null
+            ? latencySummaryReporter.recorder(method, annotation.declaringClass())
+            : null,
+        metricsRecorder != null ? metricsRecorder.forMethod(method) : null,
+        valueWriter);
   }
 
   public Object logAround(final ProceedingJoinPoint joinPoint, final LogAround logAround)
@@ -53,12 +134,59 @@ public class LogAroundService {
       return joinPoint.proceed();
     }
 
-    final long enteringTime = System.nanoTime();
+    final long enteringTime = overhead != null ? System.nanoTime() : 0L;
+
+    final LogAroundPlan plan = planRegistry.getPlan(joinPoint, logAround);
+    if (plan.isMetricsOnly()) {
+      return proceed(joinPoint, plan, enteringTime);
+    }
 
-    final Logger logger = LOGGER_SERVICE.getLogger(logAround.declaringClass(), joinPoint);
-    final StringSupplierLookup stringLookup = new StringSupplierLookup();
+    final Logger logger = plan.getLogger();
+    if (isLoggerLevelDisabled(logger, plan.getMostSevereLevel())) {
+      return proceed(joinPoint, plan, enteringTime);
+    }
+
+    if (isLoggerLevelDisabled(logger, plan.getMostSevereNormalExitLevel())
+        && plan.isReactive() == false) {
+      return logIfFailed(joinPoint, plan, logger, enteringTime);
+    }
+
+    if (plan.isLogOnlySlowOrFailed()) {
+      return plan.isAlwaysLogSlowOrFailed() || plan.isSampled()
+          ? logCallIfSlowOrFailed(joinPoint, plan, logger, enteringTime)
+          : proceed(joinPoint, plan, enteringTime);
+    }
 
-    logEnteringMessage(joinPoint, logAround, logger, stringLookup);
+    if (plan.isSampled() == false) {
+      return plan.isAlwaysLogSlowOrFailed()
+          ? logSlowOrFailed(joinPoint, plan, logger, enteringTime)
+          : proceed(joinPoint, plan, enteringTime);
+    }
+
+    final long suppressed = plan.tryAcquirePermit();
+    if (suppressed == AdvicePlan.THROTTLED) {
+      return proceed(joinPoint, plan, enteringTime);
+    }
+
+    final StringSupplierLookup stringLookup = StringSupplierLookup.acquire(valueWriter);
+    try {
+      JOIN_POINT_STRING_SUPPLIER_REGISTRAR.register(
+          stringLookup, joinPoint, plan.getParameterSelection(), plan.getMaskingPlan());
+      registerSuppressed(stringLookup, suppressed);
+      return logAround(joinPoint, plan, logger, stringLookup, enteringTime);
+    } finally {
+      stringLookup.release();
+    }
+  }
+
+  private Object logAround(
+      final ProceedingJoinPoint joinPoint,
+      final LogAroundPlan plan,
+      final Logger logger,
+      final StringSupplierLookup stringLookup,
+      final long enteringTime)
+      throws Throwable {
+    logEnteringMessage(plan, logger, stringLookup);
     final long beforeProceedTime = System.nanoTime();
 
     try {
@@ -66,195 +194,512 @@ public class LogAroundService {
       final Object returnValue = joinPoint.proceed();
 
       final long proceedElapsedTime = System.nanoTime() - beforeProceedTime;
-      logExitedMessage(joinPoint, logAround, logger, stringLookup, returnValue);
-      logElapsedTime(joinPoint, logAround, logger, stringLookup, proceedElapsedTime);
-      logElapsedWarning(joinPoint, logAround, logger, stringLookup, proceedElapsedTime);
+      if (plan.isReactive()) {
+        recordOverhead(plan, enteringTime, proceedElapsedTime);
+        return ReactiveCalls.hook(
+            returnValue,
+            (value, exception, elapsedTime) ->
+                logReactiveExit(joinPoint, plan, logger, value, exception, elapsedTime));
+      }
+
+      plan.recordElapsedTime(proceedElapsedTime, null);
+      logExitedMessage(joinPoint, plan, logger, stringLookup, returnValue);
+      logElapsedTime(plan, logger, stringLookup, proceedElapsedTime);
+      logElapsedWarning(plan, logger, stringLookup, proceedElapsedTime);
 
-      logElapsed(enteringTime, proceedElapsedTime);
+      recordOverhead(plan, enteringTime, proceedElapsedTime);
 
       return returnValue;
 
     } catch (Throwable e) {
 
       final long proceedElapsedTime = System.nanoTime() - beforeProceedTime;
-      logExitedAbnormallyMessage(joinPoint, logAround, logger, stringLookup, e);
-      logElapsedTime(joinPoint, logAround, logger, stringLookup, proceedElapsedTime);
-      logElapsedWarning(joinPoint, logAround, logger, stringLookup, proceedElapsedTime);
+      plan.recordElapsedTime(proceedElapsedTime, e);
+      logExitedAbnormallyMessage(plan, logger, stringLookup, e);
+      logElapsedTime(plan, logger, stringLookup, proceedElapsedTime);
+      logElapsedWarning(plan, logger, stringLookup, proceedElapsedTime);
 
-      logElapsed(enteringTime, proceedElapsedTime);
+      recordOverhead(plan, enteringTime, proceedElapsedTime);
       throw e;
     }
   }
 
-  private void logElapsed(final long enteringTime, final long proceedElapsedTime) {
-    LOGGER.debug(
-        "[logAround] elapsed [{}]",
-        Duration.ofNanos(System.nanoTime() - enteringTime - proceedElapsedTime));
-  }
+  /**
+   * Logs the exit of a subscription to the publisher returned by a reactive call, whose entering
+   * message was logged when called.
+   */
+  private void logReactiveExit(
+      final ProceedingJoinPoint joinPoint,
+      final LogAroundPlan plan,
+      final Logger logger,
+      final Object returnValue,
+      final Throwable exception,
+      final long elapsedTime) {
+    plan.recordElapsedTime(elapsedTime, exception);
 
-  private boolean isDisabled() {
-    return aopLoggersProperties.isEnabled() == false;
+    final StringSupplierLookup stringLookup = StringSupplierLookup.acquire(valueWriter);
+    try {
+      JOIN_POINT_STRING_SUPPLIER_REGISTRAR.register(
+          stringLookup, joinPoint, plan.getParameterSelection(), plan.getMaskingPlan());
+      logExit(joinPoint, plan, logger, stringLookup, returnValue, exception, elapsedTime);
+    } finally {
+      stringLookup.release();
+    }
   }
 
-  private boolean isLoggerLevelDisabled(final Logger logger, final Level level) {
-    return LOGGER_SERVICE.isEnabled(logger, level) == false;
+  /**
+   * Proceeds a call of which only the exited abnormally message could be logged, without acquiring
+   * any lookup, nor reading the time unless elapsed times are recorded, until the call fails.
+   */
+  private Object logIfFailed(
+      final ProceedingJoinPoint joinPoint,
+      final LogAroundPlan plan,
+      final Logger logger,
+      final long enteringTime)
+      throws Throwable {
+    final boolean timed = plan.isRecordingElapsedTime() || overhead != null;
+    final long beforeProceedTime = timed ? System.nanoTime() : 0L;
+
+    final Object returnValue;
+    try {
+      returnValue = joinPoint.proceed();
+    } catch (Throwable e) {
+      final long proceedElapsedTime = timed ? System.nanoTime() - beforeProceedTime : 0L;
+      plan.recordElapsedTime(proceedElapsedTime, e);
+      if (plan.isIgnoredException(e) == false
+          && (plan.isAlwaysLogSlowOrFailed() || plan.isSampled())) {
+        logSlowOrFailed(joinPoint, plan, logger, e, proceedElapsedTime);
+      }
+      recordOverhead(plan, enteringTime, proceedElapsedTime);
+      throw e;
+    }
+
+    if (timed) {
+      final long proceedElapsedTime = System.nanoTime() - beforeProceedTime;
+      plan.recordElapsedTime(proceedElapsedTime, null);
+      recordOverhead(plan, enteringTime, proceedElapsedTime);
+    }
+    return returnValue;
   }
 
-  private boolean isIgnoredException(
-      final Throwable exception, final Class<? extends Throwable>[] ignoredExceptions) {
-    if (exception == null) {
-      return true;
+  /**
+   * Proceeds a call that is not sampled, only logging the exited abnormally message when it fails
+   * and the elapsed warning message when it reaches the elapsed time limit.
+   */
+  private Object logSlowOrFailed(
+      final ProceedingJoinPoint joinPoint,
+      final LogAroundPlan plan,
+      final Logger logger,
+      final long enteringTime)
+      throws Throwable {
+    final long beforeProceedTime = System.nanoTime();
+
+    final Object returnValue;
+    try {
+      returnValue = joinPoint.proceed();
+    } catch (Throwable e) {
+      final long proceedElapsedTime = System.nanoTime() - beforeProceedTime;
+      plan.recordElapsedTime(proceedElapsedTime, e);
+      logSlowOrFailed(joinPoint, plan, logger, e, proceedElapsedTime);
+      recordOverhead(plan, enteringTime, proceedElapsedTime);
+      throw e;
+    }
+
+    final long proceedElapsedTime = System.nanoTime() - beforeProceedTime;
+    if (plan.isReactive()) {
+      recordOverhead(plan, enteringTime, proceedElapsedTime);
+      return ReactiveCalls.hook(
+          returnValue,
+          (value, exception, elapsedTime) -> {
+            plan.recordElapsedTime(elapsedTime, exception);
+            if (exception != null || plan.exceedsElapsedTimeLimit(elapsedTime)) {
+              logSlowOrFailed(joinPoint, plan, logger, exception, elapsedTime);
+            }
+          });
     }
 
-    return matchesIgnoreExceptions(exception, ignoredExceptions)
-        || matchesIgnoreExceptions(exception, aopLoggersProperties.getIgnoreExceptions());
+    plan.recordElapsedTime(proceedElapsedTime, null);
+    if (plan.exceedsElapsedTimeLimit(proceedElapsedTime)) {
+      logSlowOrFailed(joinPoint, plan, logger, null, proceedElapsedTime);
+    }
+    recordOverhead(plan, enteringTime, proceedElapsedTime);
+    return returnValue;
   }
 
-  private boolean matchesIgnoreExceptions(
-      final Throwable exception, final Class<? extends Throwable>[] ignoredExceptions) {
-    if (ignoredExceptions == null || ignoredExceptions.length == 0) {
-      return false;
+  private void logSlowOrFailed(
+      final ProceedingJoinPoint joinPoint,
+      final LogAroundPlan plan,
+      final Logger logger,
+      final Throwable exception,
+      final long elapsedTime) {
+    final long suppressed = plan.tryAcquirePermit();
+    if (suppressed == AdvicePlan.THROTTLED) {
+      return;
     }
-    for (Class<? extends Throwable> ignoredException : ignoredExceptions) {
-      if (ignoredException == null) {
-        continue;
+
+    final StringSupplierLookup stringLookup = StringSupplierLookup.acquire(valueWriter);
+    try {
+      JOIN_POINT_STRING_SUPPLIER_REGISTRAR.register(
+          stringLookup, joinPoint, plan.getParameterSelection(), plan.getMaskingPlan());
+      registerSuppressed(stringLookup, suppressed);
+      if (exception != null) {
+        logExitedAbnormallyMessage(plan, logger, stringLookup, exception);
       }
-      if (ignoredException.isInstance(exception)) {
-        return true;
+      logElapsedWarning(plan, logger, stringLookup, elapsedTime);
+    } finally {
+      stringLookup.release();
+    }
+  }
+
+  /**
+   * Proceeds a call holding back all of its messages, only logging them once the call failed or
+   * reached the elapsed time limit. Nothing but the join point, referencing the arguments, is kept
+   * while proceeding, and nothing is rendered for calls exiting normally in time.
+   */
+  private Object logCallIfSlowOrFailed(
+      final ProceedingJoinPoint joinPoint,
+      final LogAroundPlan plan,
+      final Logger logger,
+      final long enteringTime)
+      throws Throwable {
+    final long beforeProceedTime = System.nanoTime();
+
+    final Object returnValue;
+    try {
+      returnValue = joinPoint.proceed();
+    } catch (Throwable e) {
+      final long proceedElapsedTime = System.nanoTime() - beforeProceedTime;
+      plan.recordElapsedTime(proceedElapsedTime, e);
+      if (plan.isIgnoredException(e) == false
+          || plan.exceedsElapsedTimeLimit(proceedElapsedTime)) {
+        logCall(joinPoint, plan, logger, null, e, proceedElapsedTime);
       }
+      recordOverhead(plan, enteringTime, proceedElapsedTime);
+      throw e;
     }
-    return false;
+
+    final long proceedElapsedTime = System.nanoTime() - beforeProceedTime;
+    if (plan.isReactive()) {
+      recordOverhead(plan, enteringTime, proceedElapsedTime);
+      return ReactiveCalls.hook(
+          returnValue,
+          (value, exception, elapsedTime) -> {
+            plan.recordElapsedTime(elapsedTime, exception);
+            if ((exception != null && plan.isIgnoredException(exception) == false)
+                || plan.exceedsElapsedTimeLimit(elapsedTime)) {
+              logCall(joinPoint, plan, logger, value, exception, elapsedTime);
+            }
+          });
+    }
+
+    plan.recordElapsedTime(proceedElapsedTime, null);
+    if (plan.exceedsElapsedTimeLimit(proceedElapsedTime)) {
+      logCall(joinPoint, plan, logger, returnValue, null, proceedElapsedTime);
+    }
+    recordOverhead(plan, enteringTime, proceedElapsedTime);
+    return returnValue;
   }
 
-  private void logEnteringMessage(
+  private void logCall(
       final ProceedingJoinPoint joinPoint,
-      final LogAround annotation,
+      final LogAroundPlan plan,
       final Logger logger,
-      final StringSupplierLookup stringLookup) {
-    final Level enteringLevel =
-        getLevel(annotation.level(), aopLoggersProperties.getEnteringLevel());
-    if (isLoggerLevelDisabled(logger, enteringLevel)) {
+      final Object returnValue,
+      final Throwable exception,
+      final long elapsedTime) {
+    final long suppressed = plan.tryAcquirePermit();
+    if (suppressed == AdvicePlan.THROTTLED) {
+      return;
+    }
+
+    final StringSupplierLookup stringLookup = StringSupplierLookup.acquire(valueWriter);
+    try {
+      JOIN_POINT_STRING_SUPPLIER_REGISTRAR.register(
+          stringLookup, joinPoint, plan.getParameterSelection(), plan.getMaskingPlan());
+      registerSuppressed(stringLookup, suppressed);
+      logEnteringMessage(plan, logger, stringLookup);
+      logExit(joinPoint, plan, logger, stringLookup, returnValue, exception, elapsedTime);
+    } finally {
+      stringLookup.release();
+    }
+  }
+
+  private void logExit(
+      final ProceedingJoinPoint joinPoint,
+      final LogAroundPlan plan,
+      final Logger logger,
+      final StringSupplierLookup stringLookup,
+      final Object returnValue,
+      final Throwable exception,
+      final long elapsedTime) {
+    if (exception != null) {
+      logExitedAbnormallyMessage(plan, logger, stringLookup, exception);
+    } else {
+      logExitedMessage(joinPoint, plan, logger, stringLookup, returnValue);
+    }
+    logElapsedTime(plan, logger, stringLookup, elapsedTime);
+    logElapsedWarning(plan, logger, stringLookup, elapsedTime);
+  }
+
+  /** Proceeds a call without logging it, only recording its elapsed time if needed. */
+  private Object proceed(
+      final ProceedingJoinPoint joinPoint, final LogAroundPlan plan, final long enteringTime)
+      throws Throwable {
+    if (plan.isRecordingElapsedTime() == false && overhead == null) {
+      return joinPoint.proceed();
+    }
+
+    final long beforeProceedTime = System.nanoTime();
+    try {
+      final Object returnValue = joinPoint.proceed();
+      final long proceedElapsedTime = System.nanoTime() - beforeProceedTime;
+      if (plan.isReactive()) {
+        recordOverhead(plan, enteringTime, proceedElapsedTime);
+        return plan.isRecordingElapsedTime()
+            ? ReactiveCalls.hook(
+                returnValue,
+                (value, exception, elapsedTime) -> plan.recordElapsedTime(elapsedTime, exception))
+            : returnValue;
+      }
+
+      plan.recordElapsedTime(proceedElapsedTime, null);
+      recordOverhead(plan, enteringTime, proceedElapsedTime);
+      return returnValue;
+    } catch (Throwable e) {
+      final long proceedElapsedTime = System.nanoTime() - beforeProceedTime;
+      plan.recordElapsedTime(proceedElapsedTime, e);
+      recordOverhead(plan, enteringTime, proceedElapsedTime);
+      throw e;
+    }
+  }
+
+  /** Records the time spent by this advice, excluding the time spent proceeding the call. */
+  private void recordOverhead(
+      final LogAroundPlan plan, final long enteringTime, final long proceedElapsedTime) {
+    if (overhead != null) {
+      overhead.record(plan.getMethod(), System.nanoTime() - enteringTime - proceedElapsedTime);
+    }
+  }
+
+  /**
+   * Stops logging latency summaries, logging the summaries of the current interval, and stops
+   * exposing the time spent by this advice.
+   */
+  @Override
+  public void close() {
+    exceptionDeduplicator.close();
+    if (latencySummaryReporter != null) {
+      latencySummaryReporter.close();
+    }
+    if (overhead != null) {
+      overhead.close();
+    }
+  }
+
+  /**
+   * Duplicates dropped by the {@link DuplicateExceptionPolicy#DROP} policy are logged once their
+   * window closes, even if their fingerprint never recurs.
+   */
+  private ExceptionDeduplicator<LogAroundPlan> exceptionDeduplicator(
+      final ExceptionDedup exceptionDedup) {
+    if (exceptionDedup.isEnabled()
+        && exceptionDedup.getDuplicatePolicy() == DuplicateExceptionPolicy.DROP) {
+      return new ExceptionDeduplicator<LogAroundPlan>(
+          exceptionDedup.getTableSize(), exceptionDedup.getWindow(), this::logDroppedDuplicates);
+    }
+    return new ExceptionDeduplicator<LogAroundPlan>(exceptionDedup.getTableSize());
+  }
+
+  private void logDroppedDuplicates(final LogAroundPlan plan, final Occurrence occurrence) {
+    final ExceptionDedup exceptionDedup = aopLoggersProperties.getExceptionDedup();
+    final Logger logger = plan.getLogger();
+    final Level level = plan.getExitedAbnormallyLevel();
+    if (exceptionDedup.getDuplicatePolicy() != DuplicateExceptionPolicy.DROP
+        || isLoggerLevelDisabled(logger, level)) {
       return;
     }
 
-    JOIN_POINT_STRING_SUPPLIER_REGISTRAR.register(stringLookup, joinPoint);
+    final StringSupplierLookup stringLookup = StringSupplierLookup.acquire();
+    try {
+      final String signature = MethodDescriptor.signature(plan.getMethod());
+      stringLookup.addStringSupplier(StringVariable.METHOD.getKey(), () -> signature);
+      EXCEPTION_OCCURRENCE_STRING_SUPPLIER_REGISTRAR.register(stringLookup, occurrence);
+      logDispatcher.log(
+          logger, level, MessageTemplate.of(exceptionDedup.getDroppedMessage()), stringLookup);
+    } finally {
+      stringLookup.release();
+    }
+  }
+
+  private boolean isDisabled() {
+    return aopLoggersProperties.isEnabled() == false;
+  }
+
+  private boolean isLoggerLevelDisabled(final Logger logger, final Level level) {
+    return level == null || LOGGER_SERVICE.isEnabled(logger, level) == false;
+  }
 
-    final String enteringMessage =
-        STRING_SUBSTITUTOR.substitute(
-            getMessage(annotation.enteringMessage(), aopLoggersProperties.getEnteringMessage()),
-            stringLookup);
-    LOGGER_SERVICE.log(logger, enteringLevel, enteringMessage);
+  private void logEnteringMessage(
+      final LogAroundPlan plan, final Logger logger, final StringSupplierLookup stringLookup) {
+    final Level enteringLevel = plan.getEnteringLevel();
+    if (isLoggerLevelDisabled(logger, enteringLevel)) {
+      return;
+    }
+
+    log(logger, enteringLevel, plan.getEnteringMessage(), stringLookup);
   }
 
   private void logElapsedTime(
-      final ProceedingJoinPoint joinPoint,
-      final LogAround annotation,
+      final LogAroundPlan plan,
       final Logger logger,
       final StringSupplierLookup stringLookup,
       final long elapsedTime) {
-    final Level elapsedLevel = getLevel(annotation.level(), aopLoggersProperties.getElapsedLevel());
+    final Level elapsedLevel = plan.getElapsedLevel();
     if (isLoggerLevelDisabled(logger, elapsedLevel)) {
       return;
     }
 
     ELAPSED_STRING_SUPPLIER_REGISTRAR.register(stringLookup, elapsedTime);
 
-    final String elapsedMessage =
-        STRING_SUBSTITUTOR.substitute(
-            getMessage(annotation.elapsedMessage(), aopLoggersProperties.getElapsedMessage()),
-            stringLookup);
-    LOGGER_SERVICE.log(logger, elapsedLevel, elapsedMessage);
+    log(logger, elapsedLevel, plan.getElapsedMessage(), stringLookup);
   }
 
   private void logElapsedWarning(
-      final ProceedingJoinPoint joinPoint,
-      final LogAround annotation,
+      final LogAroundPlan plan,
       final Logger logger,
       final StringSupplierLookup stringLookup,
       final long elapsedTime) {
-    final Level elapsedWarningLevel =
-        getLevel(annotation.elapsedWarningLevel(), aopLoggersProperties.getElapsedWarningLevel());
+    final Level elapsedWarningLevel = plan.getElapsedWarningLevel();
     if (isLoggerLevelDisabled(logger, elapsedWarningLevel)) {
       return;
     }
 
-    if (annotation.elapsedTimeLimit() == 0) {
-      return;
-    }
-    final Duration elapsedTimeLimit =
-        Duration.of(annotation.elapsedTimeLimit(), annotation.elapsedTimeUnit());
-    if (elapsedTimeLimit.minusNanos(elapsedTime).isNegative() == false) {
+    if (plan.exceedsElapsedTimeLimit(elapsedTime) == false) {
       return;
     }
 
     ELAPSED_STRING_SUPPLIER_REGISTRAR.register(stringLookup, elapsedTime);
-    ELAPSED_TIME_LIMIT_STRING_SUPPLIER_REGISTRAR.register(stringLookup, elapsedTimeLimit);
-
-    final String elapsedWarningMessage =
-        STRING_SUBSTITUTOR.substitute(
-            getMessage(
-                annotation.elapsedWarningMessage(),
-                aopLoggersProperties.getElapsedWarningMessage()),
-            stringLookup);
-    LOGGER_SERVICE.log(logger, elapsedWarningLevel, elapsedWarningMessage);
+    ELAPSED_TIME_LIMIT_STRING_SUPPLIER_REGISTRAR.register(
+        stringLookup, plan.getElapsedTimeLimit());
+
+    log(logger, elapsedWarningLevel, plan.getElapsedWarningMessage(), stringLookup);
   }
 
   private void logExitedMessage(
       final ProceedingJoinPoint joinPoint,
-      final LogAround annotation,
+      final LogAroundPlan plan,
       final Logger logger,
       final StringSupplierLookup stringLookup,
       final Object returnValue) {
-    final Level exitedLevel = getLevel(annotation.level(), aopLoggersProperties.getExitedLevel());
+    final Level exitedLevel = plan.getExitedLevel();
     if (isLoggerLevelDisabled(logger, exitedLevel)) {
       return;
     }
 
     RETURN_VALUE_STRING_SUPPLIER_REGISTRAR.register(stringLookup, joinPoint, returnValue);
 
-    final String exitedMessage =
-        STRING_SUBSTITUTOR.substitute(
-            getMessage(annotation.exitedMessage(), aopLoggersProperties.getExitedMessage()),
-            stringLookup);
-    LOGGER_SERVICE.log(logger, exitedLevel, exitedMessage);
+    log(logger, exitedLevel, plan.getExitedMessage(), stringLookup);
   }
 
   private void logExitedAbnormallyMessage(
-      final ProceedingJoinPoint joinPoint,
-      final LogAround annotation,
+      final LogAroundPlan plan,
       final Logger logger,
       final StringSupplierLookup stringLookup,
       final Throwable exception) {
-    final Level exitedAbnormallyLevel =
-        getLevel(
-            annotation.exitedAbnormallyLevel(), aopLoggersProperties.getExitedAbnormallyLevel());
+    final Level exitedAbnormallyLevel = plan.getExitedAbnormallyLevel();
     if (isLoggerLevelDisabled(logger, exitedAbnormallyLevel)
-        || isIgnoredException(exception, annotation.ignoreExceptions())) {
+        || plan.isIgnoredException(exception)) {
       return;
     }
 
     EXCEPTION_STRING_SUPPLIER_REGISTRAR.register(stringLookup, exception);
 
-    final String exitedAbnormallyMessage =
-        STRING_SUBSTITUTOR.substitute(
-            getMessage(
-                annotation.exitedAbnormallyMessage(),
-                aopLoggersProperties.getExitedAbnormallyMessage()),
-            stringLookup);
+    Fingerprint fingerprint = Fingerprint.NONE;
+    boolean printStackTrace = plan.isPrintStackTrace();
+
+    final ExceptionDedup exceptionDedup = aopLoggersProperties.getExceptionDedup();
+    if (exceptionDedup.isEnabled()) {
+      final Occurrence occurrence =
+          exceptionDeduplicator.record(
+              exception, exceptionDedup.getStackDepth(), exceptionDedup.getWindow(), plan);
+      final boolean dropDuplicates =
+          exceptionDedup.getDuplicatePolicy() == DuplicateExceptionPolicy.DROP;
+      if (occurrence.isDuplicate() && dropDuplicates) {
+        return;
+      }
 
-    if (annotation.printStackTrace()) {
-      LOGGER_SERVICE.logException(
-          logger, exitedAbnormallyLevel, exitedAbnormallyMessage, exception);
+      EXCEPTION_OCCURRENCE_STRING_SUPPLIER_REGISTRAR.register(stringLookup, occurrence);
+      fingerprint = Fingerprint.of(occurrence, dropDuplicates);
+      if (occurrence.isDuplicate()) {
+        printStackTrace = false;
+      }
+    }
+
+    final MessageVariants exitedAbnormallyMessage = plan.getExitedAbnormallyMessage();
+    final StackTraceRenderer stackTraceRenderer = plan.getStackTraceRenderer();
+    if (printStackTrace && stackTraceRenderer == null) {
+      logException(
+          logger,
+          exitedAbnormallyLevel,
+          exitedAbnormallyMessage,
+          fingerprint,
+          stringLookup,
+          exception);
+    } else if (printStackTrace) {
+      STACK_TRACE_STRING_SUPPLIER_REGISTRAR.register(
+          stringLookup, new StackTrace(exception, stackTraceRenderer));
+      log(logger, exitedAbnormallyLevel, exitedAbnormallyMessage, fingerprint, stringLookup);
+      stringLookup.removeSource(StringVariable.STACK_TRACE);
     } else {
-      LOGGER_SERVICE.log(logger, exitedAbnormallyLevel, exitedAbnormallyMessage);
+      log(logger, exitedAbnormallyLevel, exitedAbnormallyMessage, fingerprint, stringLookup);
+    }
+  }
+
+  private void registerSuppressed(final StringSupplierLookup stringLookup, final long suppressed) {
+    if (suppressed > 0) {
+      SUPPRESSED_STRING_SUPPLIER_REGISTRAR.register(stringLookup, suppressed);
     }
   }
 
-  private Level getLevel(final Level level, final Level defaultLevel) {
-    return level == Level.DEFAULT ? defaultLevel : level;
+  private void log(
+      final Logger logger,
+      final Level level,
+      final MessageVariants messages,
+      final StringSupplierLookup stringLookup) {
+    log(logger, level, messages, Fingerprint.NONE, stringLookup);
   }
 
-  private String getMessage(final String message, final String defaultMessage) {
-    return message.length() > 0 ? message : defaultMessage;
+  /**
+   * Only the first message logged for a call notes the number of calls suppressed by the rate
+   * limit before it. A registered stack trace is printed after the message.
+   */
+  private void log(
+      final Logger logger,
+      final Level level,
+      final MessageVariants messages,
+      final Fingerprint fingerprint,
+      final StringSupplierLookup stringLookup) {
+    final boolean suppressed = stringLookup.isRegistered(StringVariable.SUPPRESSED);
+    final boolean stackTrace = stringLookup.isRegistered(StringVariable.STACK_TRACE);
+    logDispatcher.log(
+        logger, level, messages.get(fingerprint, suppressed, stackTrace), stringLookup);
+    if (suppressed) {
+      stringLookup.removeSource(StringVariable.SUPPRESSED);
+    }
+  }
+
+  private void logException(
+      final Logger logger,
+      final Level level,
+      final MessageVariants messages,
+      final Fingerprint fingerprint,
+      final StringSupplierLookup stringLookup,
+      final Throwable exception) {
+    final boolean suppressed = stringLookup.isRegistered(StringVariable.SUPPRESSED);
+    logDispatcher.logException(
+        logger, level, messages.get(fingerprint, suppressed, false), stringLookup, exception);
+    if (suppressed) {
+      stringLookup.removeSource(StringVariable.SUPPRESSED);
+    }
   }
 }
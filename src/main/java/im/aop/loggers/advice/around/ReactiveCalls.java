@@ -0,0 +1,116 @@
+package im.aop.loggers.advice.around;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Hooks the {@link Mono} or {@link Flux} returned by reactive methods, whose calls return as soon
+ * as the publisher is assembled, so that each subscription is timed from subscribe to its terminal
+ * signal and passed to a {@link Terminal}. Only loaded when Reactor is on the classpath.
+ *
+ * <p>Each subscription allocates a single {@link TimedSubscription}, and elements emitted by a
+ * {@link Flux} are only counted, so nothing is allocated per element and nothing ever blocks.
+ * Cancelled subscriptions never terminate.
+ *
+ * @author Andy Lian
+ */
+final class ReactiveCalls {
+
+  private ReactiveCalls() {}
+
+  /**
+   * @param returnType return type of a method
+   * @return whether the method returns a {@link Mono} or a {@link Flux}
+   */
+  static boolean isReactive(final Class<?> returnType) {
+    return Mono.class.isAssignableFrom(returnType) || Flux.class.isAssignableFrom(returnType);
+  }
+
+  /**
+   * @param returnValue value returned by a reactive method
+   * @param terminal terminal invoked once per subscription terminated
+   * @return the returned {@link Mono} or {@link Flux} hooked, or {@code returnValue} as is if
+   *     neither
+   */
+  static Object hook(final Object returnValue, final Terminal terminal) {
+    if (returnValue instanceof Mono) {
+      return hook((Mono<?>) returnValue, terminal);
+    }
+    if (returnValue instanceof Flux) {
+      return hook((Flux<?>) returnValue, terminal);
+    }
+    return returnValue;
+  }
+
+  private static <T> Mono<T> hook(final Mono<T> mono, final Terminal terminal) {
+    return Mono.defer(
+        () -> {
+          final TimedSubscription subscription = new TimedSubscription(terminal);
+          return mono.doOnSuccess(subscription::onSuccess).doOnError(subscription::onError);
+        });
+  }
+
+  private static <T> Flux<T> hook(final Flux<T> flux, final Terminal terminal) {
+    return Flux.defer(
+        () -> {
+          final TimedSubscription subscription = new TimedSubscription(terminal);
+          return flux.doOnNext(subscription::onNext)
+              .doOnComplete(subscription::onComplete)
+              .doOnError(subscription::onError);
+        });
+  }
+
+  /** Receives the terminal signal of each subscription to a hooked publisher. */
+  @FunctionalInterface
+  interface Terminal {
+
+    /**
+     * @param value value emitted by a {@link Mono}, {@code null} if empty, or number of elements
+     *     emitted by a {@link Flux}, {@code null} if an error was signalled
+     * @param exception error signalled, {@code null} if completed
+     * @param elapsedTime elapsed time from subscribe to the terminal signal, in nanoseconds
+     */
+    void terminate(Object value, Throwable exception, long elapsedTime);
+  }
+
+  /** State of a single subscription, terminated at most once. */
+  private static final class TimedSubscription {
+
+    private final Terminal terminal;
+
+    private final long subscribedTime = System.nanoTime();
+
+    private long count;
+
+    private boolean terminated;
+
+    TimedSubscription(final Terminal terminal) {
+      this.terminal = terminal;
+    }
+
+    void onNext(final Object element) {
+      count++;
+    }
+
+    void onSuccess(final Object value) {
+      terminate(value, null);
+    }
+
+    void onComplete() {
+      terminate(count, null);
+    }
+
+    void onError(final Throwable exception) {
+      terminate(null, exception);
+    }
+
+    private void terminate(final Object value, final Throwable exception) {
+      if (terminated) {
+        return;
+      }
+
+      terminated = true;
+      terminal.terminate(value, exception, System.nanoTime() - subscribedTime);
+    }
+  }
+}
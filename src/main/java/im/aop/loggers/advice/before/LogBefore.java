@@ -26,4 +26,16 @@ public @interface LogBefore {
 
   /** @return Entering message template */
   String enteringMessage() default "";
+
+  /** @return Rate of calls to be logged, between 0 and 1, 0 to use the configured sample rate */
+  double sampleRate() default 0;
+
+  /** @return Maximum number of logged calls per second, 0 to use the configured rate limit */
+  double rateLimit() default 0;
+
+  /** @return Names or indices of the only parameters rendered by {parameters}, all if empty */
+  String[] includeParameters() default {};
+
+  /** @return Names or indices of parameters not rendered by {parameters} */
+  String[] excludeParameters() default {};
 }
@@ -1,9 +1,13 @@
 package im.aop.loggers.advice.before;
 
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 import im.aop.loggers.AopLoggersProperties;
+import im.aop.loggers.logging.LogDispatcher;
+import im.aop.loggers.logging.SyncLogDispatcher;
+import im.aop.loggers.logging.value.ValueWriter;
 
 @Configuration(proxyBeanMethods = false)
 public class LogBeforeConfiguration {
@@ -14,7 +18,13 @@ public class LogBeforeConfiguration {
   }
 
   @Bean
-  public LogBeforeService logBeforeService(final AopLoggersProperties aopLoggersProperties) {
-    return new LogBeforeService(aopLoggersProperties);
+  public LogBeforeService logBeforeService(
+      final AopLoggersProperties aopLoggersProperties,
+      final ObjectProvider<LogDispatcher> logDispatcher,
+      final ObjectProvider<ValueWriter> valueWriter) {
+    return new LogBeforeService(
+        aopLoggersProperties,
+        logDispatcher.getIfAvailable(SyncLogDispatcher::new),
+        valueWriter.getIfAvailable(() -> new ValueWriter(aopLoggersProperties.getRendering())));
   }
 }
@@ -0,0 +1,73 @@
+package im.aop.loggers.advice.before;
+
+import java.lang.reflect.Method;
+
+import im.aop.loggers.AopLoggersProperties;
+import im.aop.loggers.advice.AdvicePlan;
+import im.aop.loggers.advice.MessageVariants;
+import im.aop.loggers.logging.Level;
+import im.aop.loggers.logging.message.MethodDescriptor;
+import im.aop.loggers.logging.message.ParameterSelection;
+import im.aop.loggers.logging.value.MaskingPlan;
+import im.aop.loggers.logging.value.ValueWriter;
+
+/**
+ * {@link AdvicePlan} for {@link LogBefore}.
+ *
+ * @author Andy Lian
+ */
+class LogBeforePlan extends AdvicePlan<LogBefore> {
+
+  private final Level enteringLevel;
+
+  private final MessageVariants enteringMessage;
+
+  private final ParameterSelection parameterSelection;
+
+  private final MaskingPlan maskingPlan;
+
+  LogBeforePlan(
+      final Method method,
+      final LogBefore annotation,
+      final AopLoggersProperties aopLoggersProperties) {
+    this(method, annotation, aopLoggersProperties, ValueWriter.DEFAULT);
+  }
+
+  /** @param valueWriter writer of parameters, compiling the masking plan of the method */
+  LogBeforePlan(
+      final Method method,
+      final LogBefore annotation,
+      final AopLoggersProperties aopLoggersProperties,
+      final ValueWriter valueWriter) {
+    super(
+        method,
+        annotation,
+        annotation.declaringClass(),
+        sampleRate(annotation.sampleRate(), aopLoggersProperties.getSampleRate()),
+        rateLimit(annotation.rateLimit(), aopLoggersProperties.getRateLimit()));
+
+    this.enteringLevel = level(annotation.level(), aopLoggersProperties.getEnteringLevel());
+    this.enteringMessage =
+        messages(annotation.enteringMessage(), aopLoggersProperties.getEnteringMessage());
+    this.parameterSelection =
+        ParameterSelection.of(
+            method, annotation.includeParameters(), annotation.excludeParameters());
+    this.maskingPlan = MethodDescriptor.of(method).getMaskingPlan(valueWriter);
+  }
+
+  Level getEnteringLevel() {
+    return enteringLevel;
+  }
+
+  MessageVariants getEnteringMessage() {
+    return enteringMessage;
+  }
+
+  ParameterSelection getParameterSelection() {
+    return parameterSelection;
+  }
+
+  MaskingPlan getMaskingPlan() {
+    return maskingPlan;
+  }
+}
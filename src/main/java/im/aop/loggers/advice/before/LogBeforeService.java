@@ -1,34 +1,68 @@
 package im.aop.loggers.advice.before;
 
-import java.time.Duration;
+import java.lang.reflect.Method;
 import java.util.Objects;
 
 import org.aspectj.lang.JoinPoint;
 import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 import im.aop.loggers.AopLoggersProperties;
+import im.aop.loggers.advice.AdvicePlan;
+import im.aop.loggers.advice.AdvicePlanRegistry;
 import im.aop.loggers.logging.Level;
+import im.aop.loggers.logging.LogDispatcher;
 import im.aop.loggers.logging.LoggerService;
+import im.aop.loggers.logging.SyncLogDispatcher;
 import im.aop.loggers.logging.message.JoinPointStringSupplierRegistrar;
-import im.aop.loggers.logging.message.StringSubstitutor;
 import im.aop.loggers.logging.message.StringSupplierLookup;
+import im.aop.loggers.logging.message.SuppressedStringSupplierRegistrar;
+import im.aop.loggers.logging.value.ValueWriter;
+import im.aop.loggers.metrics.AdviceOverhead;
 
-public class LogBeforeService {
-
-  private static final Logger LOGGER = LoggerFactory.getLogger(LogBeforeService.class);
+public class LogBeforeService implements AutoCloseable {
 
   private static final LoggerService LOGGER_SERVICE = new LoggerService();
 
-  private static final StringSubstitutor STRING_SUBSTITUTOR = new StringSubstitutor();
-
   private static final JoinPointStringSupplierRegistrar JOIN_POINT_STRING_SUPPLIER_REGISTRAR =
       new JoinPointStringSupplierRegistrar();
 
+  private static final SuppressedStringSupplierRegistrar SUPPRESSED_STRING_SUPPLIER_REGISTRAR =
+      new SuppressedStringSupplierRegistrar();
+
   private final AopLoggersProperties aopLoggersProperties;
 
+  private final LogDispatcher logDispatcher;
+
+  /** Time spent by this advice, {@code null} if not counted. */
+  private final AdviceOverhead overhead;
+
+  private final ValueWriter valueWriter;
+
+  private final AdvicePlanRegistry<LogBefore, LogBeforePlan> planRegistry;
+
   public LogBeforeService(final AopLoggersProperties aopLoggersProperties) {
+    this(
+        aopLoggersProperties,
+        new SyncLogDispatcher(),
+        new ValueWriter(aopLoggersProperties.getRendering()));
+  }
+
+  /**
+   * @param valueWriter writer of parameters and return values
+   */
+  public LogBeforeService(
+      final AopLoggersProperties aopLoggersProperties,
+      final LogDispatcher logDispatcher,
+      final ValueWriter valueWriter) {
     this.aopLoggersProperties = Objects.requireNonNull(aopLoggersProperties);
+    this.logDispatcher = Objects.requireNonNull(logDispatcher);
+    this.overhead = AdviceOverhead.create("LogBefore", aopLoggersProperties.getOverhead());
+    this.valueWriter = Objects.requireNonNull(valueWriter);
+    this.planRegistry = new AdvicePlanRegistry<>(aopLoggersProperties, this::createPlan);
+  }
+
+  private LogBeforePlan createPlan(final Method method, final LogBefore annotation) {
+    return new LogBeforePlan(method, annotation, aopLoggersProperties, valueWriter);
   }
 
   public void logBefore(final JoinPoint joinPoint, final LogBefore annotation) {
@@ -36,24 +70,43 @@ public class LogBeforeService {
       return;
     }
 
-    final long enteringTime = System.nanoTime();
+    final long enteringTime = overhead != null ? System.nanoTime() : 0L;
 
-    final Logger logger = LOGGER_SERVICE.getLogger(annotation.declaringClass(), joinPoint);
-    final Level enteringLevel = getEnteringLevel(annotation.level());
-    if (isLoggerLevelDisabled(logger, enteringLevel)) {
-      logElapsed(enteringTime);
+    final LogBeforePlan plan = planRegistry.getPlan(joinPoint, annotation);
+    final Logger logger = plan.getLogger();
+    final Level enteringLevel = plan.getEnteringLevel();
+    if (isLoggerLevelDisabled(logger, enteringLevel) || plan.isSampled() == false) {
+      recordOverhead(plan, enteringTime);
       return;
     }
 
-    final StringSupplierLookup stringLookup = new StringSupplierLookup();
+    final long suppressed = plan.tryAcquirePermit();
+    if (suppressed == AdvicePlan.THROTTLED) {
+      recordOverhead(plan, enteringTime);
+      return;
+    }
+
+    final StringSupplierLookup stringLookup = StringSupplierLookup.acquire(valueWriter);
+    try {
+      logEnteringMessage(joinPoint, plan, logger, stringLookup, suppressed);
+    } finally {
+      stringLookup.release();
+    }
+    recordOverhead(plan, enteringTime);
+  }
 
-    logEnteringMessage(
-        joinPoint, enteringLevel, annotation.enteringMessage(), logger, stringLookup);
-    logElapsed(enteringTime);
+  private void recordOverhead(final LogBeforePlan plan, final long enteringTime) {
+    if (overhead != null) {
+      overhead.record(plan.getMethod(), System.nanoTime() - enteringTime);
+    }
   }
 
-  private void logElapsed(long enteringTime) {
-    LOGGER.debug("[logBefore] elapsed [{}]", Duration.ofNanos(System.nanoTime() - enteringTime));
+  /** Stops exposing the time spent by this advice. */
+  @Override
+  public void close() {
+    if (overhead != null) {
+      overhead.close();
+    }
   }
 
   private boolean isDisabled() {
@@ -66,25 +119,21 @@ public class LogBeforeService {
 
   private void logEnteringMessage(
       final JoinPoint joinPoint,
-      final Level enteringLevel,
-      final String enteringMessage,
+      final LogBeforePlan plan,
       final Logger logger,
-      final StringSupplierLookup stringLookup) {
-    JOIN_POINT_STRING_SUPPLIER_REGISTRAR.register(stringLookup, joinPoint);
+      final StringSupplierLookup stringLookup,
+      final long suppressed) {
+    JOIN_POINT_STRING_SUPPLIER_REGISTRAR.register(
+        stringLookup, joinPoint, plan.getParameterSelection(), plan.getMaskingPlan());
 
-    final String message =
-        STRING_SUBSTITUTOR.substitute(getEnteringMesage(enteringMessage), stringLookup);
-
-    LOGGER_SERVICE.log(logger, enteringLevel, message);
-  }
-
-  private Level getEnteringLevel(final Level enteringLevel) {
-    return enteringLevel == Level.DEFAULT ? aopLoggersProperties.getEnteringLevel() : enteringLevel;
-  }
+    if (suppressed > 0) {
+      SUPPRESSED_STRING_SUPPLIER_REGISTRAR.register(stringLookup, suppressed);
+    }
 
-  private String getEnteringMesage(final String enteringMessage) {
-    return enteringMessage.length() == 0
-        ? aopLoggersProperties.getEnteringMessage()
-        : enteringMessage;
+    logDispatcher.log(
+        logger,
+        plan.getEnteringLevel(),
+        plan.getEnteringMessage().get(suppressed > 0),
+        stringLookup);
   }
 }
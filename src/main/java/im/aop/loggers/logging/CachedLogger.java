@@ -0,0 +1,72 @@
+package im.aop.loggers.logging;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Holds a resolved {@link Logger}, so it is not looked up from {@link LoggerFactory} on every
+ * call.
+ *
+ * <p>Loggers are kept by the logging system across reconfiguration, so the cached {@link Logger}
+ * is only resolved again after {@link #invalidateAll()}, called when the logging system is reset.
+ * Checking for it costs two volatile reads, of the shared generation and of the cached {@link
+ * Logger}, and never touches {@link LoggerFactory}.
+ *
+ * @author Andy Lian
+ */
+public final class CachedLogger {
+
+  private static final AtomicInteger GENERATION = new AtomicInteger();
+
+  private final String name;
+
+  private volatile Resolved resolved;
+
+  public CachedLogger(final String name) {
+    this.name = Objects.requireNonNull(name);
+  }
+
+  /** Resolves every {@link CachedLogger} again on next use, such as after a logging reset. */
+  public static void invalidateAll() {
+    GENERATION.incrementAndGet();
+  }
+
+  /** @return Number of times all cached loggers were invalidated */
+  public static int getGeneration() {
+    return GENERATION.get();
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * @return Cached {@link Logger}, resolved from {@link LoggerFactory} again only if all cached
+   *     loggers were invalidated since it was resolved
+   */
+  public Logger get() {
+    final int generation = GENERATION.get();
+
+    Resolved current = resolved;
+    if (current == null || current.generation != generation) {
+      current = new Resolved(generation, LoggerFactory.getLogger(name));
+      resolved = current;
+    }
+    return current.logger;
+  }
+
+  private static final class Resolved {
+
+    private final int generation;
+
+    private final Logger logger;
+
+    Resolved(final int generation, final Logger logger) {
+      this.generation = generation;
+      this.logger = logger;
+    }
+  }
+}
@@ -0,0 +1,63 @@
+package im.aop.loggers.logging;
+
+import java.util.Objects;
+
+import org.slf4j.Logger;
+
+import im.aop.loggers.logging.message.LazyMessage;
+import im.aop.loggers.logging.message.MessageTemplate;
+import im.aop.loggers.logging.message.StringSupplierLookup;
+
+/**
+ * {@link LogDispatcher} passing a {@link LazyMessage} as argument of a parameterized message to
+ * SLF4J, so the template is only rendered if the event reaches an encoder, and not for events
+ * rejected by filters. Messages are rendered as text, or written as JSON objects like by {@link
+ * JsonLogDispatcher}.
+ *
+ * @author Andy Lian
+ */
+public class DeferredLogDispatcher implements LogDispatcher {
+
+  private static final LoggerService LOGGER_SERVICE = new LoggerService();
+
+  private static final String FORMAT = "{}";
+
+  private final OutputFormat outputFormat;
+
+  public DeferredLogDispatcher() {
+    this(OutputFormat.TEXT);
+  }
+
+  /** @param outputFormat format of the messages logged */
+  public DeferredLogDispatcher(final OutputFormat outputFormat) {
+    this.outputFormat = Objects.requireNonNull(outputFormat);
+  }
+
+  @Override
+  public void log(
+      final Logger logger,
+      final Level level,
+      final MessageTemplate template,
+      final StringSupplierLookup stringLookup) {
+    LOGGER_SERVICE.log(
+        logger,
+        level,
+        FORMAT,
+        new LazyMessage(template, stringLookup.snapshot(), outputFormat));
+  }
+
+  @Override
+  public void logException(
+      final Logger logger,
+      final Level level,
+      final MessageTemplate template,
+      final StringSupplierLookup stringLookup,
+      final Throwable exception) {
+    LOGGER_SERVICE.logException(
+        logger,
+        level,
+        FORMAT,
+        new LazyMessage(template, stringLookup.snapshot(), outputFormat),
+        exception);
+  }
+}
@@ -0,0 +1,38 @@
+package im.aop.loggers.logging;
+
+import org.slf4j.Logger;
+
+import im.aop.loggers.logging.message.JsonMessageWriter;
+import im.aop.loggers.logging.message.MessageTemplate;
+import im.aop.loggers.logging.message.StringSupplierLookup;
+
+/**
+ * {@link LogDispatcher} logging, on the calling thread, JSON objects written by {@link
+ * JsonMessageWriter} in place of rendered templates.
+ *
+ * @author Andy Lian
+ */
+public class JsonLogDispatcher implements LogDispatcher {
+
+  private static final LoggerService LOGGER_SERVICE = new LoggerService();
+
+  @Override
+  public void log(
+      final Logger logger,
+      final Level level,
+      final MessageTemplate template,
+      final StringSupplierLookup stringLookup) {
+    LOGGER_SERVICE.log(logger, level, JsonMessageWriter.write(template, stringLookup));
+  }
+
+  @Override
+  public void logException(
+      final Logger logger,
+      final Level level,
+      final MessageTemplate template,
+      final StringSupplierLookup stringLookup,
+      final Throwable exception) {
+    LOGGER_SERVICE.logException(
+        logger, level, JsonMessageWriter.write(template, stringLookup), exception);
+  }
+}
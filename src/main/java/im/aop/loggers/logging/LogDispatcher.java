@@ -0,0 +1,27 @@
+package im.aop.loggers.logging;
+
+import org.slf4j.Logger;
+
+import im.aop.loggers.logging.message.MessageTemplate;
+import im.aop.loggers.logging.message.StringSupplierLookup;
+
+/**
+ * Renders a {@link MessageTemplate} and logs it to a {@link Logger}.
+ *
+ * <p>Callers have already checked that the {@link Logger} is enabled for the {@link Level}. The
+ * given {@link StringSupplierLookup} is only valid during the call, implementations rendering it
+ * later must take a {@link StringSupplierLookup#snapshot()}.
+ *
+ * @author Andy Lian
+ */
+public interface LogDispatcher {
+
+  void log(Logger logger, Level level, MessageTemplate template, StringSupplierLookup stringLookup);
+
+  void logException(
+      Logger logger,
+      Level level,
+      MessageTemplate template,
+      StringSupplierLookup stringLookup,
+      Throwable exception);
+}
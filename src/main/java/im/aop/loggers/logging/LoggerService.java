@@ -8,11 +8,23 @@ public class LoggerService {
 
   public Logger getLogger(final Class<?> declaringClass, final JoinPoint joinPoint) {
     return LoggerFactory.getLogger(
-        declaringClass == null || declaringClass == void.class
+        isDeclaringClassAbsent(declaringClass)
             ? joinPoint.getSignature().getDeclaringType()
             : declaringClass);
   }
 
+  public CachedLogger getCachedLogger(
+      final Class<?> declaringClass, final Class<?> declaringType) {
+    return new CachedLogger(
+        isDeclaringClassAbsent(declaringClass)
+            ? declaringType.getName()
+            : declaringClass.getName());
+  }
+
+  private boolean isDeclaringClassAbsent(final Class<?> declaringClass) {
+    return declaringClass == null || declaringClass == void.class;
+  }
+
   public boolean isEnabled(final Logger logger, final Level level) {
     switch (level) {
       case TRACE:
@@ -74,4 +86,54 @@ public class LoggerService {
         break;
     }
   }
+
+  public void log(
+      final Logger logger, final Level level, final String format, final Object argument) {
+    switch (level) {
+      case TRACE:
+        logger.trace(format, argument);
+        break;
+      case DEBUG:
+        logger.debug(format, argument);
+        break;
+      case WARN:
+        logger.warn(format, argument);
+        break;
+      case INFO:
+        logger.info(format, argument);
+        break;
+      case ERROR:
+        logger.error(format, argument);
+        break;
+      default:
+        break;
+    }
+  }
+
+  public void logException(
+      final Logger logger,
+      final Level level,
+      final String format,
+      final Object argument,
+      final Throwable exception) {
+    switch (level) {
+      case TRACE:
+        logger.trace(format, argument, exception);
+        break;
+      case DEBUG:
+        logger.debug(format, argument, exception);
+        break;
+      case WARN:
+        logger.warn(format, argument, exception);
+        break;
+      case INFO:
+        logger.info(format, argument, exception);
+        break;
+      case ERROR:
+        logger.error(format, argument, exception);
+        break;
+      default:
+        break;
+    }
+  }
 }
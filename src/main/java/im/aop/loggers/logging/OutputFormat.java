@@ -0,0 +1,14 @@
+package im.aop.loggers.logging;
+
+/**
+ * Format of the messages logged.
+ *
+ * @author Andy Lian
+ */
+public enum OutputFormat {
+  /** Message templates rendered as text */
+  TEXT,
+
+  /** JSON objects with one field per variable of the message templates */
+  JSON
+}
@@ -0,0 +1,35 @@
+package im.aop.loggers.logging;
+
+import org.slf4j.Logger;
+
+import im.aop.loggers.logging.message.MessageTemplate;
+import im.aop.loggers.logging.message.StringSupplierLookup;
+
+/**
+ * {@link LogDispatcher} rendering and logging on the calling thread.
+ *
+ * @author Andy Lian
+ */
+public class SyncLogDispatcher implements LogDispatcher {
+
+  private static final LoggerService LOGGER_SERVICE = new LoggerService();
+
+  @Override
+  public void log(
+      final Logger logger,
+      final Level level,
+      final MessageTemplate template,
+      final StringSupplierLookup stringLookup) {
+    LOGGER_SERVICE.log(logger, level, template.render(stringLookup));
+  }
+
+  @Override
+  public void logException(
+      final Logger logger,
+      final Level level,
+      final MessageTemplate template,
+      final StringSupplierLookup stringLookup,
+      final Throwable exception) {
+    LOGGER_SERVICE.logException(logger, level, template.render(stringLookup), exception);
+  }
+}
@@ -0,0 +1,304 @@
+package im.aop.loggers.logging.async;
+
+import java.lang.management.ManagementFactory;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import im.aop.loggers.logging.Level;
+import im.aop.loggers.logging.LogDispatcher;
+import im.aop.loggers.logging.message.MessageTemplate;
+import im.aop.loggers.logging.message.StringSupplierLookup;
+import im.aop.loggers.metrics.AdviceOverhead;
+
+/**
+ * {@link LogDispatcher} publishing log events to a bounded {@link RingBuffer}, to be rendered and
+ * logged by background threads through a delegate {@link LogDispatcher}.
+ *
+ * <p>Events reference the arguments, return value and exception of the advised method, so these
+ * are rendered as they are when the event is consumed.
+ *
+ * <p>Idle background threads park until a published event wakes one of them up, so an idle
+ * dispatcher costs no CPU time, and publishing an event while none of them is idle only costs a
+ * volatile read per background thread.
+ *
+ * <p>The depth of the buffer and the number of dropped events are exposed as an {@link
+ * AsyncLogDispatcherMXBean} once {@link #registerMBean() registered} in the platform {@link
+ * MBeanServer}.
+ *
+ * @author Andy Lian
+ */
+public class AsyncLogDispatcher
+    implements LogDispatcher, AsyncLogDispatcherMXBean, AutoCloseable {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(AsyncLogDispatcher.class);
+
+  private static final long FULL_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(10);
+
+  private static final long CLOSE_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(5);
+
+  private final LogDispatcher delegate;
+
+  private final RingBuffer<LogEvent> ringBuffer;
+
+  private final OverflowPolicy overflowPolicy;
+
+  private final Level dropBelowLevel;
+
+  private final Consumer[] consumers;
+
+  private final LongAdder droppedEvents = new LongAdder();
+
+  private volatile boolean running = true;
+
+  /** Name registered in the platform {@link MBeanServer}, {@code null} if not registered. */
+  private ObjectName objectName;
+
+  public AsyncLogDispatcher(
+      final LogDispatcher delegate,
+      final int bufferSize,
+      final int consumerCount,
+      final OverflowPolicy overflowPolicy,
+      final Level dropBelowLevel) {
+    if (consumerCount < 1) {
+      throw new IllegalArgumentException("consumerCount must be positive");
+    }
+
+    this.delegate = Objects.requireNonNull(delegate);
+    this.ringBuffer = new RingBuffer<LogEvent>(bufferSize);
+    this.overflowPolicy = Objects.requireNonNull(overflowPolicy);
+    this.dropBelowLevel = Objects.requireNonNull(dropBelowLevel);
+
+    this.consumers = new Consumer[consumerCount];
+    for (int index = 0; index < consumerCount; index++) {
+      consumers[index] = new Consumer("aop-loggers-async-" + (index + 1));
+    }
+    for (Consumer consumer : consumers) {
+      consumer.thread.start();
+    }
+  }
+
+  @Override
+  public void log(
+      final Logger logger,
+      final Level level,
+      final MessageTemplate template,
+      final StringSupplierLookup stringLookup) {
+    publish(new LogEvent(logger, level, template, stringLookup.snapshot(), null));
+  }
+
+  @Override
+  public void logException(
+      final Logger logger,
+      final Level level,
+      final MessageTemplate template,
+      final StringSupplierLookup stringLookup,
+      final Throwable exception) {
+    publish(new LogEvent(logger, level, template, stringLookup.snapshot(), exception));
+  }
+
+  private void publish(final LogEvent event) {
+    if (running == false) {
+      event.dispatch(delegate);
+      return;
+    }
+
+    if (ringBuffer.offer(event)) {
+      published();
+      return;
+    }
+
+    if (isDroppable(event.getLevel())) {
+      droppedEvents.increment();
+      return;
+    }
+
+    while (ringBuffer.offer(event) == false) {
+      if (running == false) {
+        event.dispatch(delegate);
+        return;
+      }
+      LockSupport.parkNanos(FULL_PARK_NANOS);
+    }
+    published();
+  }
+
+  /**
+   * Wakes up an idle consumer for a published event. The dispatcher may have been closed, and its
+   * buffer drained, between checking it is running and publishing the event, so the buffer is then
+   * drained again on the calling thread for the event not to be lost.
+   */
+  private void published() {
+    if (running) {
+      wakeUpIdleConsumer();
+      return;
+    }
+
+    drain();
+  }
+
+  /**
+   * A consumer announces it is idle before polling the buffer a last time, while an event is
+   * offered to the buffer before idle consumers are looked up, so either the consumer polls the
+   * event or the publisher sees the consumer idle.
+   */
+  private void wakeUpIdleConsumer() {
+    for (Consumer consumer : consumers) {
+      if (consumer.idle) {
+        consumer.idle = false;
+        LockSupport.unpark(consumer.thread);
+        return;
+      }
+    }
+  }
+
+  private boolean isDroppable(final Level level) {
+    if (level == Level.ERROR) {
+      return false;
+    }
+
+    switch (overflowPolicy) {
+      case DROP:
+        return true;
+      case DROP_BELOW_LEVEL:
+        return level.compareTo(dropBelowLevel) < 0;
+      default:
+        return false;
+    }
+  }
+
+  private void consume(final Consumer consumer) {
+    for (; ; ) {
+      LogEvent event = ringBuffer.poll();
+      if (event == null) {
+        if (running == false) {
+          return;
+        }
+
+        consumer.idle = true;
+        event = ringBuffer.poll();
+        if (event == null && running) {
+          LockSupport.park(this);
+        }
+        consumer.idle = false;
+        if (event == null) {
+          continue;
+        }
+      }
+
+      dispatch(event);
+    }
+  }
+
+  private void dispatch(final LogEvent event) {
+    try {
+      event.dispatch(delegate);
+    } catch (RuntimeException e) {
+      LOGGER.warn("Failed to log event", e);
+    }
+  }
+
+  @Override
+  public int getQueueDepth() {
+    return ringBuffer.size();
+  }
+
+  @Override
+  public int getCapacity() {
+    return ringBuffer.capacity();
+  }
+
+  @Override
+  public long getDroppedEvents() {
+    return droppedEvents.sum();
+  }
+
+  /**
+   * Registers this as an MXBean in the platform {@link MBeanServer}. Only the first of several
+   * dispatchers, such as from several application contexts, gets registered.
+   */
+  public synchronized void registerMBean() {
+    if (objectName != null) {
+      return;
+    }
+
+    try {
+      final ObjectName name = new ObjectName(AdviceOverhead.DOMAIN + ":type=AsyncLogDispatcher");
+      ManagementFactory.getPlatformMBeanServer().registerMBean(this, name);
+      objectName = name;
+    } catch (JMException e) {
+      LOGGER.warn("Failed to register async log dispatcher MXBean", e);
+    }
+  }
+
+  /** @return Whether registered in the platform {@link MBeanServer} */
+  public synchronized boolean isMBeanRegistered() {
+    return objectName != null;
+  }
+
+  private synchronized void unregisterMBean() {
+    if (objectName == null) {
+      return;
+    }
+
+    try {
+      ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+    } catch (JMException e) {
+      LOGGER.warn("Failed to unregister async log dispatcher MXBean", e);
+    }
+    objectName = null;
+  }
+
+  /**
+   * Stops the background threads once all published events are logged. Events published
+   * afterwards are logged on the calling thread. Unregisters this from the platform {@link
+   * MBeanServer}, if registered.
+   */
+  @Override
+  public void close() {
+    running = false;
+    unregisterMBean();
+
+    for (Consumer consumer : consumers) {
+      LockSupport.unpark(consumer.thread);
+    }
+    for (Consumer consumer : consumers) {
+      try {
+        consumer.thread.join(CLOSE_TIMEOUT_MILLIS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        break;
+      }
+    }
+
+    drain();
+  }
+
+  private void drain() {
+    LogEvent event;
+    while ((event = ringBuffer.poll()) != null) {
+      dispatch(event);
+    }
+  }
+
+  /** Background thread logging events, along with whether it is parked until woken up. */
+  private final class Consumer {
+
+    private final Thread thread;
+
+    private volatile boolean idle;
+
+    Consumer(final String name) {
+      this.thread = new Thread(() -> consume(this), name);
+      thread.setDaemon(true);
+    }
+  }
+}
@@ -0,0 +1,19 @@
+package im.aop.loggers.logging.async;
+
+/**
+ * Management interface of {@link AsyncLogDispatcher}, registered as {@value
+ * im.aop.loggers.metrics.AdviceOverhead#DOMAIN}:type=AsyncLogDispatcher.
+ *
+ * @author Andy Lian
+ */
+public interface AsyncLogDispatcherMXBean {
+
+  /** @return Number of events waiting to be logged */
+  int getQueueDepth();
+
+  /** @return Maximum number of events waiting to be logged */
+  int getCapacity();
+
+  /** @return Number of events dropped because the buffer was full */
+  long getDroppedEvents();
+}
@@ -0,0 +1,52 @@
+package im.aop.loggers.logging.async;
+
+import org.slf4j.Logger;
+
+import im.aop.loggers.logging.Level;
+import im.aop.loggers.logging.LogDispatcher;
+import im.aop.loggers.logging.message.MessageTemplate;
+import im.aop.loggers.logging.message.StringSupplierLookup;
+
+/**
+ * Log event captured by {@link AsyncLogDispatcher}, holding references to the sources of the
+ * message to be rendered later.
+ *
+ * @author Andy Lian
+ */
+final class LogEvent {
+
+  private final Logger logger;
+
+  private final Level level;
+
+  private final MessageTemplate template;
+
+  private final StringSupplierLookup stringLookup;
+
+  private final Throwable exception;
+
+  LogEvent(
+      final Logger logger,
+      final Level level,
+      final MessageTemplate template,
+      final StringSupplierLookup stringLookup,
+      final Throwable exception) {
+    this.logger = logger;
+    this.level = level;
+    this.template = template;
+    this.stringLookup = stringLookup;
+    this.exception = exception;
+  }
+
+  Level getLevel() {
+    return level;
+  }
+
+  void dispatch(final LogDispatcher logDispatcher) {
+    if (exception != null) {
+      logDispatcher.logException(logger, level, template, stringLookup, exception);
+    } else {
+      logDispatcher.log(logger, level, template, stringLookup);
+    }
+  }
+}
@@ -0,0 +1,18 @@
+package im.aop.loggers.logging.async;
+
+/**
+ * What {@link AsyncLogDispatcher} does with a log event when its buffer is full. Events logged at
+ * {@link im.aop.loggers.logging.Level#ERROR} are never dropped.
+ *
+ * @author Andy Lian
+ */
+public enum OverflowPolicy {
+  /** Wait until the buffer has room for the event */
+  BLOCK,
+
+  /** Drop the event */
+  DROP,
+
+  /** Drop the event if its level is below the configured level, otherwise wait */
+  DROP_BELOW_LEVEL
+}
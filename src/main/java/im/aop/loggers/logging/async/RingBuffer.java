@@ -0,0 +1,109 @@
+package im.aop.loggers.logging.async;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded lock-free multi-producer multi-consumer queue.
+ *
+ * <p>Every slot carries a sequence telling whether it is free for the producer at a position, or
+ * filled for the consumer at a position, so producers and consumers only contend on their own
+ * cursor.
+ *
+ * @author Andy Lian
+ */
+final class RingBuffer<E> {
+
+  /** Below two slots, a filled slot cannot be told apart from a slot free for the next lap. */
+  private static final int MIN_CAPACITY = 2;
+
+  private static final int MAX_CAPACITY = 1 << 30;
+
+  private final int mask;
+
+  private final AtomicReferenceArray<E> elements;
+
+  private final AtomicLongArray sequences;
+
+  private final AtomicLong head = new AtomicLong();
+
+  private final AtomicLong tail = new AtomicLong();
+
+  /**
+   * @param capacity minimum capacity, rounded up to a power of two of at least 2
+   */
+  RingBuffer(final int capacity) {
+    if (capacity < 1) {
+      throw new IllegalArgumentException("capacity must be positive");
+    }
+
+    final int actualCapacity =
+        capacity >= MAX_CAPACITY
+            ? MAX_CAPACITY
+            : Math.max(MIN_CAPACITY, Integer.highestOneBit((capacity - 1) << 1 | 1));
+    this.mask = actualCapacity - 1;
+    this.elements = new AtomicReferenceArray<E>(actualCapacity);
+    this.sequences = new AtomicLongArray(actualCapacity);
+    for (int index = 0; index < actualCapacity; index++) {
+      sequences.set(index, index);
+    }
+  }
+
+  /**
+   * @param element element to add
+   * @return {@code false} if full
+   */
+  boolean offer(final E element) {
+    long position = tail.get();
+    for (; ; ) {
+      final int index = (int) (position & mask);
+      final long difference = sequences.get(index) - position;
+      if (difference == 0) {
+        if (tail.compareAndSet(position, position + 1)) {
+          elements.set(index, element);
+          sequences.set(index, position + 1);
+          return true;
+        }
+        position = tail.get();
+      } else if (difference < 0) {
+        return false;
+      } else {
+        position = tail.get();
+      }
+    }
+  }
+
+  /**
+   * @return oldest element, {@code null} if empty
+   */
+  E poll() {
+    long position = head.get();
+    for (; ; ) {
+      final int index = (int) (position & mask);
+      final long difference = sequences.get(index) - (position + 1);
+      if (difference == 0) {
+        if (head.compareAndSet(position, position + 1)) {
+          final E element = elements.get(index);
+          elements.set(index, null);
+          sequences.set(index, position + mask + 1);
+          return element;
+        }
+        position = head.get();
+      } else if (difference < 0) {
+        return null;
+      } else {
+        position = head.get();
+      }
+    }
+  }
+
+  int size() {
+    final long size = tail.get() - head.get();
+    return (int) Math.max(0, Math.min(size, capacity()));
+  }
+
+  int capacity() {
+    return mask + 1;
+  }
+}
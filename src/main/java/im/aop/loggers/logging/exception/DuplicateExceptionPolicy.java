@@ -0,0 +1,17 @@
+package im.aop.loggers.logging.exception;
+
+/**
+ * What is logged for an exception already logged with the same fingerprint within the
+ * deduplication window.
+ *
+ * @author Andy Lian
+ */
+public enum DuplicateExceptionPolicy {
+  /** Log a single line noting the number of occurrences, without the stack trace */
+  COUNT,
+
+  /**
+   * Log nothing, the number of dropped occurrences is noted by the next occurrence logged in full
+   */
+  DROP
+}
@@ -0,0 +1,287 @@
+package im.aop.loggers.logging.exception;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Bounded, lock-free table recording occurrences of exceptions per fingerprint within a window of
+ * time, so only the first occurrence within the window needs to be logged in full.
+ *
+ * <p>The table is direct-mapped: each fingerprint has a single slot, and a fingerprint replaces any
+ * other fingerprint found in its slot. A replaced fingerprint is seen as a first occurrence again
+ * the next time it is recorded, so the table never grows and never locks, at the cost of logging
+ * colliding exceptions in full more often.
+ *
+ * <p>A window with duplicates is closed, and its duplicates handed to a {@link
+ * DroppedDuplicatesListener}, when another fingerprint replaces it or, for a deduplicator sweeping
+ * its table, once it has been expired for another window, so duplicates dropped by the caller are
+ * reported even if their fingerprint never recurs. A fingerprint recurring sooner reports them as
+ * {@link Occurrence#getPreviousDuplicates() previous duplicates} of its next first occurrence.
+ *
+ * @param <S> source of the occurrences, kept along with the window of their fingerprint
+ * @author Andy Lian
+ */
+public final class ExceptionDeduplicator<S> implements AutoCloseable {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(ExceptionDeduplicator.class);
+
+  static final int MAX_CAPACITY = 1 << 20;
+
+  private final AtomicReferenceArray<Window<S>> windows;
+
+  private final int mask;
+
+  /** Listener of the duplicates of closed windows, {@code null} if not reported. */
+  private final DroppedDuplicatesListener<S> listener;
+
+  /** Scheduler sweeping expired windows, {@code null} if not swept. */
+  private final ScheduledExecutorService scheduler;
+
+  /** @param capacity maximum number of fingerprints tracked, rounded up to a power of two */
+  public ExceptionDeduplicator(final int capacity) {
+    this(capacity, null, null);
+  }
+
+  /**
+   * @param capacity maximum number of fingerprints tracked, rounded up to a power of two
+   * @param sweepInterval interval between two sweeps of the expired windows from a background
+   *     thread, {@code null} to not sweep
+   * @param listener listener of the duplicates of closed windows, {@code null} to not report them
+   */
+  public ExceptionDeduplicator(
+      final int capacity,
+      final Duration sweepInterval,
+      final DroppedDuplicatesListener<S> listener) {
+    if (capacity < 1) {
+      throw new IllegalArgumentException("capacity must be positive");
+    }
+
+    final int actualCapacity =
+        capacity >= MAX_CAPACITY
+            ? MAX_CAPACITY
+            : Integer.highestOneBit((capacity - 1) << 1 | 1);
+    this.windows = new AtomicReferenceArray<Window<S>>(actualCapacity);
+    this.mask = actualCapacity - 1;
+    this.listener = listener;
+    this.scheduler = sweepInterval != null && listener != null ? sweep(sweepInterval) : null;
+  }
+
+  private ScheduledExecutorService sweep(final Duration sweepInterval) {
+    final long interval = toNanos(sweepInterval);
+    if (interval <= 0) {
+      return null;
+    }
+
+    final ScheduledExecutorService scheduler =
+        Executors.newSingleThreadScheduledExecutor(
+            (runnable) -> {
+              final Thread thread = new Thread(runnable, "aop-loggers-exception-dedup");
+              thread.setDaemon(true);
+              return thread;
+            });
+    scheduler.scheduleAtFixedRate(
+        () -> closeExpiredWindows(System.nanoTime()), interval, interval, TimeUnit.NANOSECONDS);
+    return scheduler;
+  }
+
+  public int capacity() {
+    return windows.length();
+  }
+
+  /**
+   * Records an occurrence of an exception.
+   *
+   * @param exception thrown exception
+   * @param stackDepth number of top stack frames included in the fingerprint
+   * @param window deduplication window
+   * @return the recorded occurrence
+   */
+  public Occurrence record(final Throwable exception, final int stackDepth, final Duration window) {
+    return record(exception, stackDepth, window, null);
+  }
+
+  /**
+   * Records an occurrence of an exception.
+   *
+   * @param exception thrown exception
+   * @param stackDepth number of top stack frames included in the fingerprint
+   * @param window deduplication window
+   * @param source source of the occurrence, handed to the listener if it opens a window whose
+   *     duplicates are reported
+   * @return the recorded occurrence
+   */
+  public Occurrence record(
+      final Throwable exception, final int stackDepth, final Duration window, final S source) {
+    return record(exception, stackDepth, toNanos(window), System.nanoTime(), source);
+  }
+
+  /**
+   * Records an occurrence of an exception.
+   *
+   * @param exception thrown exception
+   * @param stackDepth number of top stack frames included in the fingerprint
+   * @param windowNanos length of the deduplication window, in nanoseconds
+   * @param now current value of {@link System#nanoTime()}
+   * @param source source of the occurrence
+   * @return the recorded occurrence
+   */
+  Occurrence record(
+      final Throwable exception,
+      final int stackDepth,
+      final long windowNanos,
+      final long now,
+      final S source) {
+    final long fingerprint = ExceptionFingerprint.of(exception, stackDepth);
+    final int slot = (int) (fingerprint ^ (fingerprint >>> 32)) & mask;
+
+    for (; ; ) {
+      final Window<S> window = windows.get(slot);
+      final boolean sameFingerprint = window != null && window.fingerprint == fingerprint;
+      if (sameFingerprint && now - window.start < windowNanos) {
+        return new Occurrence(fingerprint, window.occurrences.incrementAndGet(), 0);
+      }
+
+      final long previousDuplicates = sameFingerprint ? window.occurrences.get() - 1 : 0;
+      if (windows.compareAndSet(
+          slot, window, new Window<S>(fingerprint, now, windowNanos, source))) {
+        if (window != null && sameFingerprint == false) {
+          closed(window);
+        }
+        return new Occurrence(fingerprint, 1, previousDuplicates);
+      }
+    }
+  }
+
+  /**
+   * Closes the windows having duplicates and expired for another window, reporting their
+   * duplicates to the listener.
+   *
+   * @param now current value of {@link System#nanoTime()}
+   */
+  void closeExpiredWindows(final long now) {
+    for (int slot = 0; slot < windows.length(); slot++) {
+      final Window<S> window = windows.get(slot);
+      if (window != null
+          && now - window.start >= window.windowNanos
+          && now - window.start - window.windowNanos >= window.windowNanos
+          && window.occurrences.get() > 1
+          && windows.compareAndSet(slot, window, null)) {
+        closed(window);
+      }
+    }
+  }
+
+  private void closed(final Window<S> window) {
+    final long duplicates = window.occurrences.get() - 1;
+    if (listener == null || duplicates == 0) {
+      return;
+    }
+
+    try {
+      listener.dropped(window.source, new Occurrence(window.fingerprint, 1, duplicates));
+    } catch (RuntimeException e) {
+      LOGGER.warn("Failed to report dropped duplicates", e);
+    }
+  }
+
+  /** Stops sweeping the expired windows. */
+  @Override
+  public void close() {
+    if (scheduler != null) {
+      scheduler.shutdownNow();
+    }
+  }
+
+  private static long toNanos(final Duration duration) {
+    try {
+      return duration.toNanos();
+    } catch (ArithmeticException e) {
+      return duration.isNegative() ? Long.MIN_VALUE : Long.MAX_VALUE;
+    }
+  }
+
+  /**
+   * Occurrence of an exception within the deduplication window of its fingerprint.
+   *
+   * @author Andy Lian
+   */
+  public static final class Occurrence {
+
+    private final long fingerprint;
+
+    private final long count;
+
+    private final long previousDuplicates;
+
+    Occurrence(final long fingerprint, final long count, final long previousDuplicates) {
+      this.fingerprint = fingerprint;
+      this.count = count;
+      this.previousDuplicates = previousDuplicates;
+    }
+
+    public long getFingerprint() {
+      return fingerprint;
+    }
+
+    /** @return Number of occurrences within the window so far, {@code 1} for the first */
+    public long getCount() {
+      return count;
+    }
+
+    public boolean isDuplicate() {
+      return count > 1;
+    }
+
+    /**
+     * @return Number of duplicates recorded within the previous window of the same fingerprint,
+     *     only set for the first occurrence of a window
+     */
+    public long getPreviousDuplicates() {
+      return previousDuplicates;
+    }
+  }
+
+  /**
+   * Listener of the duplicates recorded within a window closed before its fingerprint recurred.
+   *
+   * @param <S> source of the occurrences
+   * @author Andy Lian
+   */
+  @FunctionalInterface
+  public interface DroppedDuplicatesListener<S> {
+
+    /**
+     * @param source source of the first occurrence of the closed window
+     * @param occurrence first occurrence of the closed window, with the number of its duplicates
+     *     as {@link Occurrence#getPreviousDuplicates() previous duplicates}
+     */
+    void dropped(S source, Occurrence occurrence);
+  }
+
+  private static final class Window<S> {
+
+    private final long fingerprint;
+
+    private final long start;
+
+    private final long windowNanos;
+
+    private final S source;
+
+    private final AtomicLong occurrences = new AtomicLong(1);
+
+    Window(final long fingerprint, final long start, final long windowNanos, final S source) {
+      this.fingerprint = fingerprint;
+      this.start = start;
+      this.windowNanos = windowNanos;
+      this.source = source;
+    }
+  }
+}
@@ -0,0 +1,93 @@
+package im.aop.loggers.logging.exception;
+
+import java.lang.ref.WeakReference;
+
+/**
+ * Fingerprint of an exception, computed from its type and the top frames of its stack trace, so
+ * the same failure thrown from the same place has the same fingerprint.
+ *
+ * <p>{@link Throwable#getStackTrace()} copies the whole stack trace on every call, so the last
+ * exception fingerprinted by each thread is remembered, and an exception recorded again as it
+ * propagates through several advised methods is fingerprinted once.
+ *
+ * @author Andy Lian
+ */
+public final class ExceptionFingerprint {
+
+  private static final long SEED = 0xcbf29ce484222325L;
+
+  private static final long MULTIPLIER = 0x100000001b3L;
+
+  private static final ThreadLocal<LastFingerprint> LAST_FINGERPRINT =
+      ThreadLocal.withInitial(LastFingerprint::new);
+
+  private ExceptionFingerprint() {}
+
+  /**
+   * @param exception exception to fingerprint
+   * @param stackDepth number of top stack frames included in the fingerprint
+   * @return Fingerprint of the exception
+   */
+  public static long of(final Throwable exception, final int stackDepth) {
+    final LastFingerprint last = LAST_FINGERPRINT.get();
+    if (last.exception.get() == exception && last.stackDepth == stackDepth) {
+      return last.fingerprint;
+    }
+
+    final long fingerprint = of(exception.getClass(), exception.getStackTrace(), stackDepth);
+    last.exception = new WeakReference<Throwable>(exception);
+    last.stackDepth = stackDepth;
+    last.fingerprint = fingerprint;
+    return fingerprint;
+  }
+
+  /**
+   * @param type type of the exception
+   * @param frames stack trace of the exception
+   * @param stackDepth number of top stack frames included in the fingerprint
+   * @return Fingerprint of the exception
+   */
+  static long of(final Class<?> type, final StackTraceElement[] frames, final int stackDepth) {
+    long fingerprint = mix(SEED, type.getName().hashCode());
+
+    final int depth = Math.min(stackDepth, frames.length);
+    for (int index = 0; index < depth; index++) {
+      final StackTraceElement frame = frames[index];
+      fingerprint = mix(fingerprint, frame.getClassName().hashCode());
+      fingerprint = mix(fingerprint, frame.getMethodName().hashCode());
+      fingerprint = mix(fingerprint, frame.getLineNumber());
+    }
+    return fingerprint;
+  }
+
+  /**
+   * @param fingerprint fingerprint of an exception
+   * @return Fingerprint as a fixed length hexadecimal String
+   */
+  public static String toString(final long fingerprint) {
+    final String hex = Long.toHexString(fingerprint);
+    if (hex.length() == 16) {
+      return hex;
+    }
+
+    final StringBuilder builder = new StringBuilder(16);
+    for (int index = hex.length(); index < 16; index++) {
+      builder.append('0');
+    }
+    return builder.append(hex).toString();
+  }
+
+  private static long mix(final long fingerprint, final int value) {
+    return (fingerprint ^ value) * MULTIPLIER;
+  }
+
+  /** Last exception fingerprinted by a thread, weakly referenced, along with its fingerprint. */
+  private static final class LastFingerprint {
+
+    private WeakReference<Throwable> exception = new WeakReference<Throwable>(null);
+
+    private int stackDepth;
+
+    private long fingerprint;
+  }
+}
@@ -0,0 +1,23 @@
+package im.aop.loggers.logging.exception;
+
+/**
+ * Stack trace of an exception, rendered by a {@link StackTraceRenderer} only when needed.
+ *
+ * @author Andy Lian
+ */
+public final class StackTrace {
+
+  private final Throwable exception;
+
+  private final StackTraceRenderer renderer;
+
+  public StackTrace(final Throwable exception, final StackTraceRenderer renderer) {
+    this.exception = exception;
+    this.renderer = renderer;
+  }
+
+  /** @return Stack trace of the exception and its causes, starting with a line separator */
+  public String render() {
+    return renderer.render(exception);
+  }
+}
@@ -0,0 +1,242 @@
+package im.aop.loggers.logging.exception;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Renders the stack trace of an exception and its causes, leaving out the frames not worth reading.
+ *
+ * <p>Suppressed exceptions and causes are rendered like {@link Throwable#printStackTrace()} does,
+ * their frames in common with the enclosing stack trace replaced by a single line counting them.
+ *
+ * <p>Frames excluded by package, or not included when included packages are given, and frames of
+ * framework packages or generated proxy classes when collapsed, are left out, each run of them
+ * replaced by a single line counting them. At most the given number of frames are rendered per
+ * exception.
+ *
+ * <p>Rendered frames are cached per stack trace in a small direct-mapped table, so exceptions
+ * thrown again from the same place only render their type and message.
+ *
+ * @author Andy Lian
+ */
+public final class StackTraceRenderer {
+
+  static final int CACHE_SIZE = 16;
+
+  private static final String LINE_SEPARATOR = System.lineSeparator();
+
+  private static final String[] NO_PACKAGES = new String[0];
+
+  private static final StackTraceElement[] NO_FRAMES = new StackTraceElement[0];
+
+  private static final String GENERATED_CLASS_SEPARATOR = "$$";
+
+  private final int maxDepth;
+
+  private final String[] includePackages;
+
+  private final String[] excludePackages;
+
+  private final String[] frameworkPackages;
+
+  private final AtomicReferenceArray<Frames> cache = new AtomicReferenceArray<Frames>(CACHE_SIZE);
+
+  /**
+   * @param maxDepth maximum number of frames rendered per exception, {@code 0} for no limit
+   * @param includePackages package prefixes of the only frames rendered, none to render all
+   * @param excludePackages package prefixes of frames not rendered
+   * @param frameworkPackages package prefixes of framework frames collapsed, together with frames
+   *     of generated proxy classes, {@code null} to not collapse framework frames
+   */
+  public StackTraceRenderer(
+      final int maxDepth,
+      final String[] includePackages,
+      final String[] excludePackages,
+      final String[] frameworkPackages) {
+    this.maxDepth = Math.max(0, maxDepth);
+    this.includePackages = includePackages != null ? includePackages.clone() : NO_PACKAGES;
+    this.excludePackages = excludePackages != null ? excludePackages.clone() : NO_PACKAGES;
+    this.frameworkPackages = frameworkPackages != null ? frameworkPackages.clone() : null;
+  }
+
+  /**
+   * @param exception exception to render
+   * @return Stack trace of the exception and its causes, starting with a line separator
+   */
+  public String render(final Throwable exception) {
+    final StringBuilder builder = new StringBuilder();
+    final Set<Throwable> rendered = Collections.newSetFromMap(new IdentityHashMap<>());
+    render(builder, exception, NO_FRAMES, "", "", rendered);
+    return builder.toString();
+  }
+
+  /**
+   * Renders an exception, then its suppressed exceptions indented by one more tab, then its cause.
+   *
+   * @param enclosingFrames stack trace of the enclosing exception, none for the top exception
+   * @param caption caption of the exception within the enclosing exception
+   * @param prefix indentation of the exception
+   * @param rendered exceptions already rendered
+   */
+  private void render(
+      final StringBuilder builder,
+      final Throwable exception,
+      final StackTraceElement[] enclosingFrames,
+      final String caption,
+      final String prefix,
+      final Set<Throwable> rendered) {
+    builder.append(LINE_SEPARATOR).append(prefix).append(caption);
+    if (rendered.add(exception) == false) {
+      builder.append("[CIRCULAR REFERENCE: ").append(exception).append(']');
+      return;
+    }
+
+    builder.append(exception);
+    final StackTraceElement[] frames = exception.getStackTrace();
+    final String renderedFrames = frames(exception.getClass(), frames, enclosingFrames);
+    builder.append(
+        prefix.isEmpty()
+            ? renderedFrames
+            : renderedFrames.replace(LINE_SEPARATOR, LINE_SEPARATOR + prefix));
+
+    for (Throwable suppressed : exception.getSuppressed()) {
+      render(builder, suppressed, frames, "Suppressed: ", prefix + "\t", rendered);
+    }
+    final Throwable cause = exception.getCause();
+    if (cause != null) {
+      render(builder, cause, frames, "Caused by: ", prefix, rendered);
+    }
+  }
+
+  /**
+   * @param exception exception to render
+   * @return Rendered stack frames of the exception, without its causes
+   */
+  String frames(final Throwable exception) {
+    return frames(exception.getClass(), exception.getStackTrace(), NO_FRAMES);
+  }
+
+  /**
+   * @param type type of the exception
+   * @param frames stack trace of the exception
+   * @param enclosingFrames stack trace of the enclosing exception
+   * @return Rendered stack frames of the exception, those in common with the enclosing stack trace
+   *     replaced by a single line counting them
+   */
+  private String frames(
+      final Class<?> type,
+      final StackTraceElement[] frames,
+      final StackTraceElement[] enclosingFrames) {
+    int uniqueFrames = frames.length;
+    int enclosingIndex = enclosingFrames.length - 1;
+    while (uniqueFrames > 0
+        && enclosingIndex >= 0
+        && frames[uniqueFrames - 1].equals(enclosingFrames[enclosingIndex])) {
+      uniqueFrames--;
+      enclosingIndex--;
+    }
+    final int commonFrames = frames.length - uniqueFrames;
+
+    final long fingerprint = ExceptionFingerprint.of(type, frames, uniqueFrames);
+    final int slot = (int) (fingerprint ^ (fingerprint >>> 32)) & (CACHE_SIZE - 1);
+
+    final Frames cached = cache.get(slot);
+    if (cached != null
+        && cached.commonFrames == commonFrames
+        && Arrays.equals(cached.frames, 0, cached.frames.length, frames, 0, uniqueFrames)) {
+      return cached.rendered;
+    }
+
+    final String rendered = renderFrames(frames, uniqueFrames, commonFrames);
+    cache.set(
+        slot,
+        new Frames(
+            commonFrames == 0 ? frames : Arrays.copyOf(frames, uniqueFrames),
+            commonFrames,
+            rendered));
+    return rendered;
+  }
+
+  private String renderFrames(
+      final StackTraceElement[] frames, final int uniqueFrames, final int commonFrames) {
+    final StringBuilder builder = new StringBuilder();
+    int renderedFrames = 0;
+    int omittedFrames = 0;
+
+    for (int index = 0; index < uniqueFrames; index++) {
+      final StackTraceElement frame = frames[index];
+      if (isOmitted(frame.getClassName())) {
+        omittedFrames++;
+        continue;
+      }
+
+      appendOmitted(builder, omittedFrames);
+      omittedFrames = 0;
+
+      if (maxDepth > 0 && renderedFrames == maxDepth) {
+        appendMore(builder, frames.length - index);
+        return builder.toString();
+      }
+
+      builder.append(LINE_SEPARATOR).append("\tat ").append(frame);
+      renderedFrames++;
+    }
+
+    appendOmitted(builder, omittedFrames);
+    if (commonFrames > 0) {
+      appendMore(builder, commonFrames);
+    }
+    return builder.toString();
+  }
+
+  private static void appendMore(final StringBuilder builder, final int moreFrames) {
+    builder.append(LINE_SEPARATOR).append("\t... ").append(moreFrames).append(" more");
+  }
+
+  private static void appendOmitted(final StringBuilder builder, final int omittedFrames) {
+    if (omittedFrames > 0) {
+      builder.append(LINE_SEPARATOR).append("\t... ").append(omittedFrames);
+      builder.append(omittedFrames == 1 ? " frame omitted" : " frames omitted");
+    }
+  }
+
+  private boolean isOmitted(final String className) {
+    if (includePackages.length > 0 && startsWithAny(className, includePackages) == false) {
+      return true;
+    }
+    if (startsWithAny(className, excludePackages)) {
+      return true;
+    }
+    return frameworkPackages != null
+        && (className.contains(GENERATED_CLASS_SEPARATOR)
+            || startsWithAny(className, frameworkPackages));
+  }
+
+  private static boolean startsWithAny(final String className, final String[] packages) {
+    for (String name : packages) {
+      if (className.startsWith(name)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static final class Frames {
+
+    /** Frames not in common with the enclosing stack trace. */
+    private final StackTraceElement[] frames;
+
+    private final int commonFrames;
+
+    private final String rendered;
+
+    Frames(final StackTraceElement[] frames, final int commonFrames, final String rendered) {
+      this.frames = frames;
+      this.commonFrames = commonFrames;
+      this.rendered = rendered;
+    }
+  }
+}
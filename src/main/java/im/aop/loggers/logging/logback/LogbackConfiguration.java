@@ -0,0 +1,19 @@
+package im.aop.loggers.logging.logback;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import ch.qos.logback.classic.LoggerContext;
+
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnClass(LoggerContext.class)
+public class LogbackConfiguration {
+
+  @Bean
+  @ConditionalOnMissingBean
+  public LogbackResetListener logbackResetListener() {
+    return new LogbackResetListener();
+  }
+}
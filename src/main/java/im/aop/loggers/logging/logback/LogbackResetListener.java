@@ -0,0 +1,69 @@
+package im.aop.loggers.logging.logback;
+
+import org.slf4j.ILoggerFactory;
+import org.slf4j.LoggerFactory;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.LoggerContextListener;
+
+import im.aop.loggers.logging.CachedLogger;
+
+/**
+ * Invalidates every {@link CachedLogger} when the Logback {@link LoggerContext} is reset, such as
+ * when Spring Boot's {@code LoggingSystem} is initialized again, so advised calls never check the
+ * logging system themselves.
+ *
+ * @author Andy Lian
+ */
+public class LogbackResetListener implements LoggerContextListener, AutoCloseable {
+
+  /** Logback logger context listened to, {@code null} if Logback is not the SLF4J binding. */
+  private final LoggerContext loggerContext;
+
+  public LogbackResetListener() {
+    this(LoggerFactory.getILoggerFactory());
+  }
+
+  LogbackResetListener(final ILoggerFactory loggerFactory) {
+    if (loggerFactory instanceof LoggerContext) {
+      this.loggerContext = (LoggerContext) loggerFactory;
+      loggerContext.addListener(this);
+    } else {
+      this.loggerContext = null;
+    }
+  }
+
+  /** @return Whether the listener is listening to a Logback {@link LoggerContext} */
+  public boolean isListening() {
+    return loggerContext != null;
+  }
+
+  /** Stops listening to the {@link LoggerContext}. */
+  @Override
+  public void close() {
+    if (loggerContext != null) {
+      loggerContext.removeListener(this);
+    }
+  }
+
+  @Override
+  public boolean isResetResistant() {
+    return true;
+  }
+
+  @Override
+  public void onReset(final LoggerContext context) {
+    CachedLogger.invalidateAll();
+  }
+
+  @Override
+  public void onStart(final LoggerContext context) {}
+
+  @Override
+  public void onStop(final LoggerContext context) {}
+
+  @Override
+  public void onLevelChange(final Logger logger, final Level level) {}
+}
@@ -0,0 +1,31 @@
+package im.aop.loggers.logging.message;
+
+import im.aop.loggers.logging.exception.ExceptionDeduplicator.Occurrence;
+import im.aop.loggers.logging.exception.ExceptionFingerprint;
+
+/**
+ * Register {@link Occurrence} to {@link StringSupplierLookup} for {@code fingerprint} and {@code
+ * occurrences} variables. {@code occurrences} is the number of occurrences so far for a duplicate,
+ * and the number of duplicates of the previous window for a first occurrence.
+ *
+ * @author Andy Lian
+ */
+public class ExceptionOccurrenceStringSupplierRegistrar
+    implements StringSupplierRegistrar<Occurrence> {
+
+  @Override
+  public void register(StringSupplierLookup stringSupplierLookup, Occurrence source) {
+    stringSupplierLookup.addSource(StringVariable.FINGERPRINT, source.getFingerprint());
+    stringSupplierLookup.addSource(
+        StringVariable.OCCURRENCES,
+        source.isDuplicate() ? source.getCount() : source.getPreviousDuplicates());
+  }
+
+  static String fingerprint(long fingerprint) {
+    return ExceptionFingerprint.toString(fingerprint);
+  }
+
+  static String occurrences(long occurrences) {
+    return Long.toString(occurrences);
+  }
+}
@@ -1,68 +1,135 @@
 package im.aop.loggers.logging.message;
 
-import java.lang.reflect.Method;
-import java.util.Objects;
-import java.util.function.Supplier;
-
 import org.aspectj.lang.JoinPoint;
 import org.aspectj.lang.reflect.MethodSignature;
 
+import im.aop.loggers.logging.value.MaskingPlan;
+import im.aop.loggers.logging.value.ValueWriter;
+
 /**
- * Register String {@link Supplier} to {@link StringSupplierLookup} for {@link JoinPoint} variables.
+ * Register {@link JoinPoint} to {@link StringSupplierLookup} for {@link JoinPoint} variables.
  *
  * @author Andy Lian
  */
 public class JoinPointStringSupplierRegistrar implements StringSupplierRegistrar<JoinPoint> {
 
-  private static final String METHOD_KEY = "method";
-
-  private static final String PARAMETERS_KEY = "parameters";
-
   private static final String NO_PARAMETERS_STRING = "none";
 
   @Override
   public void register(StringSupplierLookup stringSupplierLookup, JoinPoint source) {
-    stringSupplierLookup.addStringSupplier(
-        METHOD_KEY, () -> method(methodSignature(source).getMethod()));
-    stringSupplierLookup.addStringSupplier(PARAMETERS_KEY, () -> methodParameters(source));
+    stringSupplierLookup.addSource(StringVariable.METHOD, source);
+    stringSupplierLookup.addSource(StringVariable.PARAMETERS, source);
   }
 
-  private MethodSignature methodSignature(final JoinPoint joinPoint) {
-    return (MethodSignature) joinPoint.getSignature();
+  /**
+   * Registers the given {@link JoinPoint}, rendering only the selected parameters for the {@code
+   * parameters} variable.
+   *
+   * @param stringSupplierLookup lookup to register to
+   * @param source join point of the advised call
+   * @param parameterSelection parameters rendered
+   */
+  public void register(
+      final StringSupplierLookup stringSupplierLookup,
+      final JoinPoint source,
+      final ParameterSelection parameterSelection) {
+    register(stringSupplierLookup, source);
+    stringSupplierLookup.setParameterSelection(parameterSelection);
   }
 
-  private String method(final Method method) {
-    return method.getReturnType().getSimpleName()
-        + " "
-        + method.getName()
-        + "("
-        + methodParameterTypes(method.getParameterTypes())
-        + ")";
+  /**
+   * Registers the given {@link JoinPoint}, rendering only the selected parameters for the {@code
+   * parameters} variable, masked or excluded by the given plan.
+   *
+   * @param stringSupplierLookup lookup to register to
+   * @param source join point of the advised call
+   * @param parameterSelection parameters rendered
+   * @param maskingPlan masking plan of the parameters, kept by the advice plan of the method
+   */
+  public void register(
+      final StringSupplierLookup stringSupplierLookup,
+      final JoinPoint source,
+      final ParameterSelection parameterSelection,
+      final MaskingPlan maskingPlan) {
+    register(stringSupplierLookup, source, parameterSelection);
+    stringSupplierLookup.setMaskingPlan(maskingPlan);
   }
 
-  private String methodParameters(final JoinPoint joinPoint) {
-    final MethodSignature methodSignature = methodSignature(joinPoint);
-    final Method method = methodSignature.getMethod();
-    if (method.getParameterCount() == 0) {
+  private static MethodDescriptor methodDescriptor(final JoinPoint joinPoint) {
+    return MethodDescriptor.of((MethodSignature) joinPoint.getSignature());
+  }
+
+  static String method(final JoinPoint joinPoint) {
+    return methodDescriptor(joinPoint).getSignature();
+  }
+
+  /**
+   * @param maskingPlan masking plan of the parameters, {@code null} to get the one of the writer
+   * @return Masking plan of the parameters of the given method
+   */
+  static MaskingPlan maskingPlan(
+      final MethodDescriptor methodDescriptor,
+      final ValueWriter valueWriter,
+      final MaskingPlan maskingPlan) {
+    return maskingPlan != null ? maskingPlan : methodDescriptor.getMaskingPlan(valueWriter);
+  }
+
+  static String methodParameters(
+      final JoinPoint joinPoint,
+      final ValueWriter valueWriter,
+      final ParameterSelection parameterSelection,
+      final MaskingPlan maskingPlan) {
+    final MethodDescriptor methodDescriptor = methodDescriptor(joinPoint);
+    final int parameterCount = methodDescriptor.getParameterCount();
+    if (parameterCount == 0) {
       return NO_PARAMETERS_STRING;
     }
 
-    final String[] parameterNames = methodSignature.getParameterNames();
     final Object[] parameterValues = joinPoint.getArgs();
+    final MaskingPlan methodMaskingPlan = maskingPlan(methodDescriptor, valueWriter, maskingPlan);
 
-    final String[] parameterStrings = new String[parameterNames.length];
-    for (int index = 0; index < parameterNames.length; index++) {
-      parameterStrings[index] =
-          parameterNames[index] + "=" + Objects.toString(parameterValues[index]);
+    final StringBuilder builder = new StringBuilder();
+    final ValueWriter.Output output = valueWriter.output(builder);
+    for (int index = 0; index < parameterCount && output.isTruncated() == false; index++) {
+      if (parameterSelection.isSelected(index) == false || methodMaskingPlan.isExcluded(index)) {
+        continue;
+      }
+      if (builder.length() > 0) {
+        output.append(", ");
+      }
+      output.append(methodDescriptor.getParameterName(index));
+      output.append('=');
+      if (methodMaskingPlan.isMasked(index)) {
+        output.mask();
+      } else {
+        output.value(parameterValues[index]);
+      }
     }
-    return String.join(", ", parameterStrings);
+    return builder.length() > 0 ? builder.toString() : NO_PARAMETERS_STRING;
   }
 
-  private String methodParameterTypes(final Class<?>[] parameterTypes) {
-    final String[] parameterTypeStrings = new String[parameterTypes.length];
-    for (int index = 0; index < parameterTypes.length; index++) {
-      parameterTypeStrings[index] = parameterTypes[index].getSimpleName();
+  /**
+   * @return value of the parameter with the given name, {@code null} if there is no such parameter
+   *     or if it is excluded
+   */
+  static String methodParameter(
+      final JoinPoint joinPoint,
+      final String parameterName,
+      final ValueWriter valueWriter,
+      final MaskingPlan maskingPlan) {
+    final MethodDescriptor methodDescriptor = methodDescriptor(joinPoint);
+    final int index = methodDescriptor.indexOfParameter(parameterName);
+    if (index < 0) {
+      return null;
+    }
+
+    final MaskingPlan methodMaskingPlan = maskingPlan(methodDescriptor, valueWriter, maskingPlan);
+    if (methodMaskingPlan.isExcluded(index)) {
+      return null;
+    }
+    if (methodMaskingPlan.isMasked(index)) {
+      return valueWriter.getMask();
     }
-    return String.join(", ", parameterTypeStrings);
+    return valueWriter.write(joinPoint.getArgs()[index]);
   }
 }
@@ -0,0 +1,362 @@
+package im.aop.loggers.logging.message;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Duration;
+
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.reflect.MethodSignature;
+
+import im.aop.loggers.logging.value.MaskingPlan;
+import im.aop.loggers.logging.value.ValueWriter;
+import im.aop.loggers.metrics.LatencySummary;
+
+/**
+ * Renders a {@link MessageTemplate} as a JSON object, with one typed field per variable of the
+ * template instead of the template text, such as {@code {"method":"String foo(String)",
+ * "parameters":{"bar":"baz"}}}.
+ *
+ * <p>Fields are written straight from the sources of the {@link StringSupplierLookup} into a
+ * {@link StringBuilder} reused by the current thread, so no intermediate String is built per
+ * variable. Parameters are written as an object of parameter names to values, elapsed times in
+ * nanoseconds, and exceptions as an object of their type and message. Events with a return value
+ * or an exception also have an {@code outcome} field, {@code SUCCESS} or {@code ERROR}.
+ *
+ * @author Andy Lian
+ */
+public final class JsonMessageWriter {
+
+  static final String OUTCOME_FIELD = "outcome";
+
+  static final String SUCCESS_OUTCOME = "SUCCESS";
+
+  static final String ERROR_OUTCOME = "ERROR";
+
+  /** Capacity beyond which buffers are not kept for the next message. */
+  private static final int MAX_POOLED_CAPACITY = 64 * 1024;
+
+  private static final String[] FIELD_NAMES = fieldNames();
+
+  private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+  private static final ThreadLocal<JsonMessageWriter> WRITER =
+      ThreadLocal.withInitial(JsonMessageWriter::new);
+
+  private final StringBuilder json = new StringBuilder(256);
+
+  /** Values rendered by the {@link ValueWriter} before being escaped into {@link #json}. */
+  private final StringBuilder values = new StringBuilder(256);
+
+  private boolean writing;
+
+  private JsonMessageWriter() {}
+
+  /**
+   * @param template template whose variables are written as fields
+   * @param stringLookup sources of the variables
+   * @return JSON object
+   */
+  public static String write(
+      final MessageTemplate template, final StringSupplierLookup stringLookup) {
+    final JsonMessageWriter pooled = WRITER.get();
+    final JsonMessageWriter writer = pooled.writing ? new JsonMessageWriter() : pooled;
+    writer.writing = true;
+    try {
+      return writer.writeObject(template, stringLookup);
+    } finally {
+      writer.writing = false;
+      if (writer == pooled && writer.exceedsPooledCapacity()) {
+        WRITER.remove();
+      }
+    }
+  }
+
+  private boolean exceedsPooledCapacity() {
+    return json.capacity() > MAX_POOLED_CAPACITY || values.capacity() > MAX_POOLED_CAPACITY;
+  }
+
+  private String writeObject(
+      final MessageTemplate template, final StringSupplierLookup stringLookup) {
+    json.setLength(0);
+    values.setLength(0);
+    json.append('{');
+
+    int writtenVariables = 0;
+    for (int index = 0; index < template.getVariableCount(); index++) {
+      final StringVariable variable = template.getVariable(index);
+      if (variable == null) {
+        writeCustomField(template, index, stringLookup);
+        continue;
+      }
+
+      final int bit = 1 << variable.ordinal();
+      if ((writtenVariables & bit) == 0) {
+        writtenVariables |= bit;
+        writeField(variable, stringLookup);
+      }
+    }
+
+    if (stringLookup.isRegistered(StringVariable.EXCEPTION)) {
+      name(OUTCOME_FIELD);
+      string(ERROR_OUTCOME);
+    } else if (stringLookup.isRegistered(StringVariable.RETURN_VALUE)) {
+      name(OUTCOME_FIELD);
+      string(SUCCESS_OUTCOME);
+    }
+
+    json.append('}');
+    return json.toString();
+  }
+
+  private void writeCustomField(
+      final MessageTemplate template, final int index, final StringSupplierLookup stringLookup) {
+    final String key = template.getVariableKey(index);
+    for (int previous = 0; previous < index; previous++) {
+      if (key.equals(template.getVariableKey(previous))) {
+        return;
+      }
+    }
+
+    final String value = stringLookup.lookup(key);
+    if (value != null) {
+      name(key);
+      string(value);
+    }
+  }
+
+  private void writeField(final StringVariable variable, final StringSupplierLookup stringLookup) {
+    if (stringLookup.isRegistered(variable) == false) {
+      final String value = stringLookup.lookup(variable);
+      if (value != null) {
+        name(FIELD_NAMES[variable.ordinal()]);
+        string(value);
+      }
+      return;
+    }
+
+    final Object source = stringLookup.getSource(variable);
+    if (variable == StringVariable.RETURN_VALUE
+        && ReturnValueStringSupplierRegistrar.isReturnValue(source) == false) {
+      return;
+    }
+
+    name(FIELD_NAMES[variable.ordinal()]);
+    switch (variable) {
+      case METHOD:
+        string(JoinPointStringSupplierRegistrar.method((JoinPoint) source));
+        break;
+      case PARAMETERS:
+        parameters(
+            (JoinPoint) source,
+            stringLookup.getValueWriter(),
+            stringLookup.getParameterSelection(),
+            stringLookup.getMaskingPlan());
+        break;
+      case RETURN_VALUE:
+        value(source, stringLookup.getValueWriter().output(values));
+        break;
+      case EXCEPTION:
+        exception((Throwable) source);
+        break;
+      case ELAPSED:
+      case SUPPRESSED:
+      case OCCURRENCES:
+        json.append(((Long) source).longValue());
+        break;
+      case ELAPSED_TIME_LIMIT:
+        json.append(((Duration) source).toNanos());
+        break;
+      case FINGERPRINT:
+        string(ExceptionOccurrenceStringSupplierRegistrar.fingerprint((Long) source));
+        break;
+      case STACK_TRACE:
+        stackTrace(stringLookup.lookup(variable));
+        break;
+      case COUNT:
+        json.append(((LatencySummary) source).getCount());
+        break;
+      case ERRORS:
+        json.append(((LatencySummary) source).getErrors());
+        break;
+      case MIN:
+        json.append(((LatencySummary) source).getMin());
+        break;
+      case P50:
+        json.append(((LatencySummary) source).getP50());
+        break;
+      case P90:
+        json.append(((LatencySummary) source).getP90());
+        break;
+      case P99:
+        json.append(((LatencySummary) source).getP99());
+        break;
+      case MAX:
+        json.append(((LatencySummary) source).getMax());
+        break;
+      default:
+        string(stringLookup.lookup(variable));
+        break;
+    }
+  }
+
+  private void parameters(
+      final JoinPoint joinPoint,
+      final ValueWriter valueWriter,
+      final ParameterSelection parameterSelection,
+      final MaskingPlan maskingPlan) {
+    final MethodDescriptor methodDescriptor =
+        MethodDescriptor.of((MethodSignature) joinPoint.getSignature());
+    final Object[] parameterValues = joinPoint.getArgs();
+    final MaskingPlan methodMaskingPlan =
+        JoinPointStringSupplierRegistrar.maskingPlan(methodDescriptor, valueWriter, maskingPlan);
+
+    final ValueWriter.Output output = valueWriter.output(values);
+    json.append('{');
+    for (int index = 0;
+        index < methodDescriptor.getParameterCount() && output.isTruncated() == false;
+        index++) {
+      if (parameterSelection.isSelected(index) == false || methodMaskingPlan.isExcluded(index)) {
+        continue;
+      }
+      name(methodDescriptor.getParameterName(index));
+      if (methodMaskingPlan.isMasked(index)) {
+        string(valueWriter.getMask());
+      } else {
+        value(parameterValues[index], output);
+      }
+    }
+    json.append('}');
+  }
+
+  /** Writes the given value as a JSON literal if it is one, or as a String rendered by output. */
+  private void value(final Object value, final ValueWriter.Output output) {
+    if (value == null) {
+      json.append("null");
+    } else if (value instanceof Boolean || isNumber(value)) {
+      json.append(value);
+    } else {
+      final int start = values.length();
+      output.value(value);
+      string(values, start, values.length());
+    }
+  }
+
+  private static boolean isNumber(final Object value) {
+    if (value instanceof Double) {
+      return Double.isFinite((Double) value);
+    }
+    if (value instanceof Float) {
+      return Float.isFinite((Float) value);
+    }
+    return value instanceof Integer
+        || value instanceof Long
+        || value instanceof Short
+        || value instanceof Byte
+        || value instanceof BigInteger
+        || value instanceof BigDecimal;
+  }
+
+  /** Writes the given stack trace without the line separators leading it in text messages. */
+  private void stackTrace(final String stackTrace) {
+    int start = 0;
+    while (start < stackTrace.length()
+        && (stackTrace.charAt(start) == '\n' || stackTrace.charAt(start) == '\r')) {
+      start++;
+    }
+    string(stackTrace, start, stackTrace.length());
+  }
+
+  private void exception(final Throwable exception) {
+    json.append('{');
+    name("type");
+    string(exception.getClass().getName());
+    name("message");
+    final String message = exception.getMessage();
+    if (message != null) {
+      string(message);
+    } else {
+      json.append("null");
+    }
+    json.append('}');
+  }
+
+  /** Writes the given field name, preceded by a comma unless first within its object. */
+  private void name(final String name) {
+    final char last = json.charAt(json.length() - 1);
+    if (last != '{') {
+      json.append(',');
+    }
+    string(name);
+    json.append(':');
+  }
+
+  private void string(final CharSequence chars) {
+    string(chars, 0, chars.length());
+  }
+
+  private void string(final CharSequence chars, final int start, final int end) {
+    json.append('"');
+    for (int index = start; index < end; index++) {
+      final char c = chars.charAt(index);
+      switch (c) {
+        case '"':
+          json.append("\\\"");
+          break;
+        case '\\':
+          json.append("\\\\");
+          break;
+        case '\n':
+          json.append("\\n");
+          break;
+        case '\r':
+          json.append("\\r");
+          break;
+        case '\t':
+          json.append("\\t");
+          break;
+        default:
+          if (c < 0x20) {
+            json.append("\\u00").append(HEX_DIGITS[c >> 4]).append(HEX_DIGITS[c & 0xF]);
+          } else {
+            json.append(c);
+          }
+          break;
+      }
+    }
+    json.append('"');
+  }
+
+  private static String[] fieldNames() {
+    final StringVariable[] variables = StringVariable.values();
+    final String[] fieldNames = new String[variables.length];
+    for (StringVariable variable : variables) {
+      fieldNames[variable.ordinal()] = fieldName(variable);
+    }
+    return fieldNames;
+  }
+
+  static String fieldName(final StringVariable variable) {
+    switch (variable) {
+      case RETURN_VALUE:
+        return "returnValue";
+      case ELAPSED:
+        return "elapsedNanos";
+      case ELAPSED_TIME_LIMIT:
+        return "elapsedTimeLimitNanos";
+      case STACK_TRACE:
+        return "stackTrace";
+      case MIN:
+        return "minNanos";
+      case P50:
+        return "p50Nanos";
+      case P90:
+        return "p90Nanos";
+      case P99:
+        return "p99Nanos";
+      case MAX:
+        return "maxNanos";
+      default:
+        return variable.getKey();
+    }
+  }
+}
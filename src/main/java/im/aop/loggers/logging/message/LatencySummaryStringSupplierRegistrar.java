@@ -0,0 +1,52 @@
+package im.aop.loggers.logging.message;
+
+import im.aop.loggers.metrics.LatencySummary;
+
+/**
+ * Register {@link LatencySummary} to {@link StringSupplierLookup} for {@code count}, {@code
+ * errors}, {@code min}, {@code p50}, {@code p90}, {@code p99} and {@code max} variables.
+ *
+ * @author Andy Lian
+ */
+public class LatencySummaryStringSupplierRegistrar
+    implements StringSupplierRegistrar<LatencySummary> {
+
+  @Override
+  public void register(StringSupplierLookup stringSupplierLookup, LatencySummary source) {
+    stringSupplierLookup.addSource(StringVariable.COUNT, source);
+    stringSupplierLookup.addSource(StringVariable.ERRORS, source);
+    stringSupplierLookup.addSource(StringVariable.MIN, source);
+    stringSupplierLookup.addSource(StringVariable.P50, source);
+    stringSupplierLookup.addSource(StringVariable.P90, source);
+    stringSupplierLookup.addSource(StringVariable.P99, source);
+    stringSupplierLookup.addSource(StringVariable.MAX, source);
+  }
+
+  static String count(final LatencySummary latencySummary) {
+    return Long.toString(latencySummary.getCount());
+  }
+
+  static String errors(final LatencySummary latencySummary) {
+    return Long.toString(latencySummary.getErrors());
+  }
+
+  static String min(final LatencySummary latencySummary) {
+    return ElapsedStringSupplierRegistrar.elapsed(latencySummary.getMin());
+  }
+
+  static String p50(final LatencySummary latencySummary) {
+    return ElapsedStringSupplierRegistrar.elapsed(latencySummary.getP50());
+  }
+
+  static String p90(final LatencySummary latencySummary) {
+    return ElapsedStringSupplierRegistrar.elapsed(latencySummary.getP90());
+  }
+
+  static String p99(final LatencySummary latencySummary) {
+    return ElapsedStringSupplierRegistrar.elapsed(latencySummary.getP99());
+  }
+
+  static String max(final LatencySummary latencySummary) {
+    return ElapsedStringSupplierRegistrar.elapsed(latencySummary.getMax());
+  }
+}
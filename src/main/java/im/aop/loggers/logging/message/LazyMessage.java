@@ -0,0 +1,67 @@
+package im.aop.loggers.logging.message;
+
+import im.aop.loggers.logging.OutputFormat;
+
+/**
+ * Message rendering its {@link MessageTemplate}, or writing it as a JSON object, only when {@link
+ * #toString()} is first called, e.g. by the encoder of a logging framework once the event passed
+ * all filters.
+ *
+ * @author Andy Lian
+ */
+public final class LazyMessage {
+
+  private final MessageTemplate template;
+
+  private final OutputFormat outputFormat;
+
+  private StringSupplierLookup stringLookup;
+
+  private String message;
+
+  /**
+   * @param template template of the message
+   * @param stringLookup lookup used to render the template, kept until rendered, so must not be a
+   *     pooled lookup that may be released before
+   */
+  public LazyMessage(final MessageTemplate template, final StringSupplierLookup stringLookup) {
+    this(template, stringLookup, OutputFormat.TEXT);
+  }
+
+  /**
+   * @param template template of the message
+   * @param stringLookup lookup used to render the template, kept until rendered, so must not be a
+   *     pooled lookup that may be released before
+   * @param outputFormat format of the message, the rendered template or a JSON object written by
+   *     {@link JsonMessageWriter}
+   */
+  public LazyMessage(
+      final MessageTemplate template,
+      final StringSupplierLookup stringLookup,
+      final OutputFormat outputFormat) {
+    this.template = template;
+    this.stringLookup = stringLookup;
+    this.outputFormat = outputFormat;
+  }
+
+  public MessageTemplate getTemplate() {
+    return template;
+  }
+
+  /** @return Whether the message was already rendered */
+  public synchronized boolean isRendered() {
+    return message != null;
+  }
+
+  @Override
+  public synchronized String toString() {
+    if (message == null) {
+      message =
+          outputFormat == OutputFormat.JSON
+              ? JsonMessageWriter.write(template, stringLookup)
+              : template.render(stringLookup);
+      stringLookup = null;
+    }
+    return message;
+  }
+}
@@ -0,0 +1,217 @@
+package im.aop.loggers.logging.message;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Pre-compiled message template, parsed once into literal and variable segments.
+ *
+ * <p>Compiled templates are cached per template String, so rendering a template only walks its
+ * segments instead of re-parsing the template String on every call.
+ *
+ * @author Andy Lian
+ */
+public final class MessageTemplate {
+
+  private static final char VARIABLE_START_CHAR = '{';
+
+  private static final char VARIABLE_END_CHAR = '}';
+
+  private static final String EMPTY_STRING = "";
+
+  private static final int MAX_CACHED_TEMPLATES = 1024;
+
+  private static final Map<String, MessageTemplate> CACHE =
+      new ConcurrentHashMap<String, MessageTemplate>();
+
+  private final String template;
+
+  /** Literal segments, always one more than {@link #keys}. */
+  private final String[] literals;
+
+  /** Variable keys, where key at index i follows literal at index i. */
+  private final String[] keys;
+
+  /** Variables resolved from {@link #keys}, {@code null} for unsupported keys. */
+  private final StringVariable[] variables;
+
+  private final int literalsLength;
+
+  private MessageTemplate(final String template, final String[] literals, final String[] keys) {
+    this.template = template;
+    this.literals = literals;
+    this.keys = keys;
+    this.variables = new StringVariable[keys.length];
+    for (int index = 0; index < keys.length; index++) {
+      variables[index] = StringVariable.of(keys[index]);
+    }
+
+    int length = 0;
+    for (String literal : literals) {
+      length += literal.length();
+    }
+    this.literalsLength = length;
+  }
+
+  /**
+   * Returns the compiled {@link MessageTemplate} for the given template, compiling and caching it
+   * on first use.
+   *
+   * @param template template String
+   * @return compiled template
+   */
+  public static MessageTemplate of(final String template) {
+    final MessageTemplate cached = CACHE.get(template);
+    if (cached != null) {
+      return cached;
+    }
+
+    final MessageTemplate compiled = compile(template);
+    if (CACHE.size() < MAX_CACHED_TEMPLATES) {
+      CACHE.putIfAbsent(template, compiled);
+    }
+    return compiled;
+  }
+
+  /**
+   * Compiles the given template without caching it.
+   *
+   * @param template template String
+   * @return compiled template
+   */
+  public static MessageTemplate compile(final String template) {
+    final List<String> literals = new ArrayList<String>();
+    final List<String> keys = new ArrayList<String>();
+
+    int templateCursor = 0;
+    do {
+      final int variableEndCursor = nextEndTokenCursor(template, templateCursor);
+      if (variableEndCursor < 0) {
+        break;
+      }
+      final int variableStartCursor =
+          nextStartVariableCursor(template, templateCursor, variableEndCursor);
+      if (variableStartCursor < 0) {
+        break;
+      }
+
+      literals.add(template.substring(templateCursor, variableStartCursor));
+      keys.add(template.substring(variableStartCursor + 1, variableEndCursor));
+
+      templateCursor = variableEndCursor + 1;
+    } while (templateCursor < template.length());
+
+    literals.add(template.substring(templateCursor));
+
+    return new MessageTemplate(
+        template, literals.toArray(new String[0]), keys.toArray(new String[0]));
+  }
+
+  private static int nextEndTokenCursor(final String template, final int variableStartCursor) {
+    return template.indexOf(VARIABLE_END_CHAR, variableStartCursor + 1);
+  }
+
+  private static int nextStartVariableCursor(
+      final String template, final int templateCursor, final int variableEndCursor) {
+    for (int cursor = variableEndCursor - 1; cursor >= templateCursor; cursor--) {
+      if (template.charAt(cursor) == VARIABLE_START_CHAR) {
+        return cursor;
+      }
+    }
+
+    return -1;
+  }
+
+  public String getTemplate() {
+    return template;
+  }
+
+  public int getVariableCount() {
+    return keys.length;
+  }
+
+  public String getVariableKey(final int index) {
+    return keys[index];
+  }
+
+  /**
+   * @param index index of variable
+   * @return resolved {@link StringVariable}, or {@code null} if not supported
+   */
+  public StringVariable getVariable(final int index) {
+    return variables[index];
+  }
+
+  /**
+   * Renders this template, substituting variables with values from the given {@link
+   * StringLookup}. Variables not found are substituted with empty String.
+   *
+   * @param stringLookup lookup for variable values
+   * @return rendered String
+   */
+  public String render(final StringLookup stringLookup) {
+    if (keys.length == 0) {
+      return literals[0];
+    }
+
+    final StringBuilder builder = new StringBuilder(literalsLength + keys.length * 16);
+    renderTo(builder, stringLookup);
+    return builder.toString();
+  }
+
+  /**
+   * Renders this template, substituting variables by slot with values from the given {@link
+   * StringSupplierLookup}.
+   *
+   * @param stringLookup lookup for variable values
+   * @return rendered String
+   */
+  public String render(final StringSupplierLookup stringLookup) {
+    if (keys.length == 0) {
+      return literals[0];
+    }
+
+    final StringBuilder builder = new StringBuilder(literalsLength + keys.length * 16);
+    renderTo(builder, stringLookup);
+    return builder.toString();
+  }
+
+  /**
+   * Renders this template into the given {@link StringBuilder}, substituting variables by slot.
+   *
+   * @param builder target builder
+   * @param stringLookup lookup for variable values
+   */
+  public void renderTo(final StringBuilder builder, final StringSupplierLookup stringLookup) {
+    for (int index = 0; index < keys.length; index++) {
+      builder.append(literals[index]);
+      final StringVariable variable = variables[index];
+      final String value =
+          variable != null ? stringLookup.lookup(variable) : stringLookup.lookup(keys[index]);
+      builder.append(value != null ? value : EMPTY_STRING);
+    }
+    builder.append(literals[keys.length]);
+  }
+
+  /**
+   * Renders this template into the given {@link StringBuilder}.
+   *
+   * @param builder target builder
+   * @param stringLookup lookup for variable values
+   */
+  public void renderTo(final StringBuilder builder, final StringLookup stringLookup) {
+    for (int index = 0; index < keys.length; index++) {
+      builder.append(literals[index]);
+      final String value = stringLookup.lookup(keys[index]);
+      builder.append(value != null ? value : EMPTY_STRING);
+    }
+    builder.append(literals[keys.length]);
+  }
+
+  @Override
+  public String toString() {
+    return template;
+  }
+}
@@ -0,0 +1,156 @@
+package im.aop.loggers.logging.message;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.ParameterNameDiscoverer;
+
+import im.aop.loggers.logging.value.MaskingPlan;
+import im.aop.loggers.logging.value.ValueWriter;
+
+/**
+ * Pre-rendered description of a {@link Method}, cached per {@link Method}.
+ *
+ * <p>Descriptors are cached per declaring class in a {@link ClassValue}, so they live as long as
+ * their class and do not prevent redeployed or regenerated classes from being unloaded.
+ *
+ * @author Andy Lian
+ */
+public final class MethodDescriptor {
+
+  private static final ClassValue<Map<Method, MethodDescriptor>> CACHE =
+      new ClassValue<Map<Method, MethodDescriptor>>() {
+
+        @Override
+        protected Map<Method, MethodDescriptor> computeValue(final Class<?> declaringClass) {
+          return new ConcurrentHashMap<Method, MethodDescriptor>();
+        }
+      };
+
+  private static final ParameterNameDiscoverer PARAMETER_NAME_DISCOVERER =
+      new DefaultParameterNameDiscoverer();
+
+  private final Method method;
+
+  private final String signature;
+
+  private final String[] parameterNames;
+
+  private final int parameterCount;
+
+  private MethodDescriptor(final Method method, final String[] parameterNames) {
+    this.method = method;
+    this.signature = signature(method);
+    this.parameterNames = parameterNames;
+    this.parameterCount = parameterNames.length;
+  }
+
+  /**
+   * Returns the {@link MethodDescriptor} for the {@link Method} of the given {@link
+   * MethodSignature}, creating and caching it on first use.
+   *
+   * @param methodSignature method signature
+   * @return method descriptor
+   */
+  public static MethodDescriptor of(final MethodSignature methodSignature) {
+    final Method method = methodSignature.getMethod();
+    final MethodDescriptor cached = CACHE.get(method.getDeclaringClass()).get(method);
+    return cached != null ? cached : cache(method, methodSignature.getParameterNames());
+  }
+
+  /**
+   * Returns the {@link MethodDescriptor} for the given {@link Method}, creating and caching it on
+   * first use.
+   *
+   * @param method method to describe
+   * @return method descriptor
+   */
+  public static MethodDescriptor of(final Method method) {
+    final MethodDescriptor cached = CACHE.get(method.getDeclaringClass()).get(method);
+    return cached != null
+        ? cached
+        : cache(method, PARAMETER_NAME_DISCOVERER.getParameterNames(method));
+  }
+
+  private static MethodDescriptor cache(final Method method, final String[] parameterNames) {
+    return CACHE
+        .get(method.getDeclaringClass())
+        .computeIfAbsent(
+            method, (key) -> new MethodDescriptor(key, parameterNames(key, parameterNames)));
+  }
+
+  private static String[] parameterNames(final Method method, final String[] parameterNames) {
+    if (parameterNames != null && parameterNames.length == method.getParameterCount()) {
+      return parameterNames;
+    }
+
+    final Parameter[] parameters = method.getParameters();
+    final String[] reflectedParameterNames = new String[parameters.length];
+    for (int index = 0; index < parameters.length; index++) {
+      reflectedParameterNames[index] = parameters[index].getName();
+    }
+    return reflectedParameterNames;
+  }
+
+  /**
+   * @param method method to describe
+   * @return Method signature in the form of {@code ReturnType name(ParameterTypes)}
+   */
+  public static String signature(final Method method) {
+    final Class<?>[] parameterTypes = method.getParameterTypes();
+
+    final StringBuilder builder = new StringBuilder();
+    builder.append(method.getReturnType().getSimpleName()).append(' ');
+    builder.append(method.getName()).append('(');
+    for (int index = 0; index < parameterTypes.length; index++) {
+      if (index > 0) {
+        builder.append(", ");
+      }
+      builder.append(parameterTypes[index].getSimpleName());
+    }
+    builder.append(')');
+    return builder.toString();
+  }
+
+  public Method getMethod() {
+    return method;
+  }
+
+  /** @return Method signature in the form of {@code ReturnType name(ParameterTypes)} */
+  public String getSignature() {
+    return signature;
+  }
+
+  public String getParameterName(final int index) {
+    return parameterNames[index];
+  }
+
+  public int getParameterCount() {
+    return parameterCount;
+  }
+
+  /**
+   * @param parameterName name of a parameter
+   * @return index of the parameter with the given name, -1 if none
+   */
+  public int indexOfParameter(final String parameterName) {
+    for (int index = 0; index < parameterCount; index++) {
+      if (parameterNames[index].equals(parameterName)) {
+        return index;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * @param valueWriter writer of the parameters
+   * @return Masking plan of the parameters, compiled and kept by the given writer
+   */
+  public MaskingPlan getMaskingPlan(final ValueWriter valueWriter) {
+    return valueWriter.getMaskingPlan(method, parameterNames);
+  }
+}
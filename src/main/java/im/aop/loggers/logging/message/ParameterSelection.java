@@ -0,0 +1,89 @@
+package im.aop.loggers.logging.message;
+
+import java.lang.reflect.Method;
+
+/**
+ * Parameters of a method rendered by the {@code parameters} variable, resolved once per method
+ * from parameter names or indices into a bitmask, so parameters not selected are never read.
+ *
+ * <p>Bit {@code i} selects the parameter at index {@code i}, and the last bit selects every
+ * parameter from index 63 on.
+ *
+ * @author Andy Lian
+ */
+public final class ParameterSelection {
+
+  /** Selection of all parameters. */
+  public static final ParameterSelection ALL = new ParameterSelection(-1L);
+
+  private static final int LAST_BIT = Long.SIZE - 1;
+
+  private final long mask;
+
+  private ParameterSelection(final long mask) {
+    this.mask = mask;
+  }
+
+  /**
+   * Resolves the parameters selected of the given method. Names or indices matching no parameter
+   * are ignored.
+   *
+   * @param method method whose parameters are selected
+   * @param includeParameters names or indices of the only parameters selected, all if empty
+   * @param excludeParameters names or indices of parameters not selected
+   * @return selection of the parameters of {@code method}
+   */
+  public static ParameterSelection of(
+      final Method method, final String[] includeParameters, final String[] excludeParameters) {
+    if (isEmpty(includeParameters) && isEmpty(excludeParameters)) {
+      return ALL;
+    }
+
+    final MethodDescriptor methodDescriptor = MethodDescriptor.of(method);
+    final long mask =
+        (isEmpty(includeParameters) ? -1L : mask(methodDescriptor, includeParameters))
+            & ~mask(methodDescriptor, excludeParameters);
+    return mask == -1L ? ALL : new ParameterSelection(mask);
+  }
+
+  private static boolean isEmpty(final String[] parameters) {
+    return parameters == null || parameters.length == 0;
+  }
+
+  private static long mask(final MethodDescriptor methodDescriptor, final String[] parameters) {
+    if (isEmpty(parameters)) {
+      return 0L;
+    }
+
+    long mask = 0L;
+    for (String parameter : parameters) {
+      final int index = indexOf(methodDescriptor, parameter.trim());
+      if (index >= 0) {
+        mask |= 1L << Math.min(index, LAST_BIT);
+      }
+    }
+    return mask;
+  }
+
+  private static int indexOf(final MethodDescriptor methodDescriptor, final String parameter) {
+    final int namedIndex = methodDescriptor.indexOfParameter(parameter);
+    if (namedIndex >= 0) {
+      return namedIndex;
+    }
+
+    try {
+      final int index = Integer.parseInt(parameter);
+      return index < methodDescriptor.getParameterCount() ? index : -1;
+    } catch (NumberFormatException e) {
+      return -1;
+    }
+  }
+
+  /**
+   * @param index index of a parameter
+   * @return whether the parameter at the given index is selected
+   */
+  public boolean isSelected(final int index) {
+    return (mask & (1L << Math.min(index, LAST_BIT))) != 0;
+  }
+}
@@ -1,42 +1,42 @@
 package im.aop.loggers.logging.message;
 
-import java.util.Arrays;
-import java.util.function.Supplier;
-
 import org.aspectj.lang.JoinPoint;
 import org.aspectj.lang.reflect.MethodSignature;
 
+import im.aop.loggers.logging.value.ValueWriter;
+
 /**
- * Register String {@link Supplier} to {@link StringSupplierLookup} for returned value.
+ * Register returned value to {@link StringSupplierLookup} for returned value variable.
  *
  * @author Andy Lian
  */
 public class ReturnValueStringSupplierRegistrar {
 
-  private static final String RETURN_VALUE_KEY = "return-value";
-
   private static final String NO_RETURN_VALUE_STRING = "none";
 
-  private static final String NULL_RETURN_VALUE_STRING = "null";
+  /** Source registered in place of the returned value for methods returning {@code void}. */
+  private static final Object NO_RETURN_VALUE = new Object();
 
   public void register(
       StringSupplierLookup stringSupplierLookup, JoinPoint joinPoint, Object source) {
-    stringSupplierLookup.addStringSupplier(
-        RETURN_VALUE_KEY, () -> returnedValue(methodSignature(joinPoint), source));
+    stringSupplierLookup.addSource(
+        StringVariable.RETURN_VALUE,
+        void.class.equals(methodSignature(joinPoint).getReturnType()) ? NO_RETURN_VALUE : source);
   }
 
-  private String returnedValue(final MethodSignature methodSignature, final Object returnValue) {
-    if (void.class.equals(methodSignature.getReturnType())) {
+  static String returnedValue(final Object returnValue, final ValueWriter valueWriter) {
+    if (returnValue == NO_RETURN_VALUE) {
       return NO_RETURN_VALUE_STRING;
     }
+    return valueWriter.write(returnValue);
+  }
 
-    if (returnValue == null) {
-      return NULL_RETURN_VALUE_STRING;
-    }
-    if (returnValue.getClass().isArray()) {
-      return Arrays.deepToString((Object[]) returnValue);
-    }
-    return returnValue.toString();
+  /**
+   * @param source registered source
+   * @return whether the source is a returned value, and not registered for a {@code void} method
+   */
+  static boolean isReturnValue(final Object source) {
+    return source != NO_RETURN_VALUE;
   }
 
   private MethodSignature methodSignature(final JoinPoint joinPoint) {
@@ -0,0 +1,20 @@
+package im.aop.loggers.logging.message;
+
+import im.aop.loggers.logging.exception.StackTrace;
+
+/**
+ * Register {@link StackTrace} to {@link StringSupplierLookup} for {@code stack-trace} variable.
+ *
+ * @author Andy Lian
+ */
+public class StackTraceStringSupplierRegistrar implements StringSupplierRegistrar<StackTrace> {
+
+  @Override
+  public void register(StringSupplierLookup stringSupplierLookup, StackTrace source) {
+    stringSupplierLookup.addSource(StringVariable.STACK_TRACE, source);
+  }
+
+  static String stackTrace(final StackTrace stackTrace) {
+    return stackTrace.render();
+  }
+}
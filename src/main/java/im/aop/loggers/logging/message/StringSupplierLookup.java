@@ -1,24 +1,288 @@
 package im.aop.loggers.logging.message;
 
+import java.time.Duration;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Objects;
 import java.util.function.Supplier;
 
+import org.aspectj.lang.JoinPoint;
+
+import im.aop.loggers.logging.exception.StackTrace;
+import im.aop.loggers.logging.value.MaskingPlan;
+import im.aop.loggers.logging.value.ValueWriter;
+import im.aop.loggers.metrics.LatencySummary;
+
 /**
  * Default {@link StringLookup} used by {@link StringSubstitutor} to lookup for String value by key.
  *
+ * <p>Sources of {@link StringVariable}s are kept in a fixed array indexed by the variable, and
+ * rendered only when looked up. Instances obtained from {@link #acquire()} are reused per thread
+ * and must be given back with {@link #release()}.
+ *
  * @author Andy Lian
  */
 public class StringSupplierLookup implements StringLookup {
 
-  private final Map<String, Supplier<String>> map = new HashMap<String, Supplier<String>>();
+  private static final StringVariable[] VARIABLES = StringVariable.values();
+
+  private static final int MAX_POOLED_LOOKUPS = 8;
+
+  /** Prefix of the keys of single parameters, such as {@code parameters.foo}. */
+  private static final String PARAMETER_KEY_PREFIX = StringVariable.PARAMETERS.getKey() + ".";
+
+  private static final ThreadLocal<Pool> POOL = ThreadLocal.withInitial(Pool::new);
+
+  private final Object[] sources = new Object[VARIABLES.length];
+
+  private final Pool pool;
+
+  private int registeredVariables;
+
+  private Map<String, Supplier<String>> map;
+
+  private ValueWriter valueWriter = ValueWriter.DEFAULT;
+
+  private ParameterSelection parameterSelection = ParameterSelection.ALL;
+
+  /** Masking plan of the parameters, {@code null} to resolve it from {@link #valueWriter}. */
+  private MaskingPlan maskingPlan;
+
+  public StringSupplierLookup() {
+    this(null);
+  }
+
+  private StringSupplierLookup(final Pool pool) {
+    this.pool = pool;
+  }
+
+  /**
+   * Returns a cleared {@link StringSupplierLookup} reused by the current thread. Nested calls on
+   * the same thread get distinct instances.
+   *
+   * @return lookup to be given back with {@link #release()}
+   */
+  public static StringSupplierLookup acquire() {
+    return POOL.get().acquire();
+  }
+
+  /**
+   * Returns a cleared {@link StringSupplierLookup} reused by the current thread, rendering
+   * parameters and return values with the given {@link ValueWriter}.
+   *
+   * @param valueWriter writer of parameters and return values
+   * @return lookup to be given back with {@link #release()}
+   */
+  public static StringSupplierLookup acquire(final ValueWriter valueWriter) {
+    final StringSupplierLookup lookup = acquire();
+    lookup.setValueWriter(valueWriter);
+    return lookup;
+  }
+
+  /** Clears this lookup and gives it back to the pool of the current thread, if pooled. */
+  public void release() {
+    clear();
+    if (pool != null) {
+      pool.release(this);
+    }
+  }
+
+  /**
+   * Returns an unpooled copy of this lookup, still valid after this lookup is released. Sources are
+   * copied by reference.
+   *
+   * @return copy of this lookup
+   */
+  public StringSupplierLookup snapshot() {
+    final StringSupplierLookup snapshot = new StringSupplierLookup();
+    System.arraycopy(sources, 0, snapshot.sources, 0, sources.length);
+    snapshot.registeredVariables = registeredVariables;
+    snapshot.valueWriter = valueWriter;
+    snapshot.parameterSelection = parameterSelection;
+    snapshot.maskingPlan = maskingPlan;
+    if (map != null) {
+      snapshot.map = new HashMap<String, Supplier<String>>(map);
+    }
+    return snapshot;
+  }
 
   @Override
   public String lookup(final String key) {
-    return map.containsKey(key) ? map.get(key).get() : null;
+    final StringVariable variable = StringVariable.of(key);
+    if (variable != null && isRegistered(variable)) {
+      return supply(variable);
+    }
+    if (variable == null
+        && key.startsWith(PARAMETER_KEY_PREFIX)
+        && isRegistered(StringVariable.PARAMETERS)
+        && (map == null || map.containsKey(key) == false)) {
+      return JoinPointStringSupplierRegistrar.methodParameter(
+          (JoinPoint) getSource(StringVariable.PARAMETERS),
+          key.substring(PARAMETER_KEY_PREFIX.length()),
+          valueWriter,
+          maskingPlan);
+    }
+    return lookupStringSupplier(key);
+  }
+
+  public String lookup(final StringVariable variable) {
+    if (isRegistered(variable)) {
+      return supply(variable);
+    }
+    return lookupStringSupplier(variable.getKey());
+  }
+
+  public ValueWriter getValueWriter() {
+    return valueWriter;
+  }
+
+  /** @param valueWriter writer of parameters and return values, until this lookup is released */
+  public void setValueWriter(final ValueWriter valueWriter) {
+    this.valueWriter = Objects.requireNonNull(valueWriter);
+  }
+
+  public ParameterSelection getParameterSelection() {
+    return parameterSelection;
+  }
+
+  /**
+   * @param parameterSelection parameters rendered by the {@code parameters} variable, until this
+   *     lookup is released
+   */
+  public void setParameterSelection(final ParameterSelection parameterSelection) {
+    this.parameterSelection = Objects.requireNonNull(parameterSelection);
+  }
+
+  /**
+   * @return Masking plan of the parameters, {@code null} if resolved from the {@link ValueWriter}
+   */
+  public MaskingPlan getMaskingPlan() {
+    return maskingPlan;
+  }
+
+  /**
+   * @param maskingPlan masking plan of the parameters of the advised method, kept by its advice
+   *     plan, until this lookup is released
+   */
+  public void setMaskingPlan(final MaskingPlan maskingPlan) {
+    this.maskingPlan = Objects.requireNonNull(maskingPlan);
+  }
+
+  public void addSource(final StringVariable variable, final Object source) {
+    sources[variable.ordinal()] = source;
+    registeredVariables |= 1 << variable.ordinal();
+  }
+
+  public void removeSource(final StringVariable variable) {
+    sources[variable.ordinal()] = null;
+    registeredVariables &= ~(1 << variable.ordinal());
+  }
+
+  public Object getSource(final StringVariable variable) {
+    return sources[variable.ordinal()];
+  }
+
+  public boolean isRegistered(final StringVariable variable) {
+    return (registeredVariables & (1 << variable.ordinal())) != 0;
   }
 
   public void addStringSupplier(final String key, final Supplier<String> stringSupplier) {
+    if (map == null) {
+      map = new HashMap<String, Supplier<String>>();
+    }
     map.put(key, stringSupplier);
+
+    final StringVariable variable = StringVariable.of(key);
+    if (variable != null) {
+      registeredVariables &= ~(1 << variable.ordinal());
+    }
+  }
+
+  private String lookupStringSupplier(final String key) {
+    if (map == null) {
+      return null;
+    }
+    final Supplier<String> stringSupplier = map.get(key);
+    return stringSupplier != null ? stringSupplier.get() : null;
+  }
+
+  private String supply(final StringVariable variable) {
+    final Object source = sources[variable.ordinal()];
+    switch (variable) {
+      case METHOD:
+        return JoinPointStringSupplierRegistrar.method((JoinPoint) source);
+      case PARAMETERS:
+        return JoinPointStringSupplierRegistrar.methodParameters(
+            (JoinPoint) source, valueWriter, parameterSelection, maskingPlan);
+      case RETURN_VALUE:
+        return ReturnValueStringSupplierRegistrar.returnedValue(source, valueWriter);
+      case EXCEPTION:
+        return ExceptionStringSupplierRegistrar.exception((Throwable) source);
+      case ELAPSED:
+        return ElapsedStringSupplierRegistrar.elapsed((Long) source);
+      case ELAPSED_TIME_LIMIT:
+        return ElapsedTimeLimitStringSupplierRegistrar.elapsedTimeLimit((Duration) source);
+      case SUPPRESSED:
+        return SuppressedStringSupplierRegistrar.suppressed((Long) source);
+      case FINGERPRINT:
+        return ExceptionOccurrenceStringSupplierRegistrar.fingerprint((Long) source);
+      case OCCURRENCES:
+        return ExceptionOccurrenceStringSupplierRegistrar.occurrences((Long) source);
+      case STACK_TRACE:
+        return StackTraceStringSupplierRegistrar.stackTrace((StackTrace) source);
+      case COUNT:
+        return LatencySummaryStringSupplierRegistrar.count((LatencySummary) source);
+      case ERRORS:
+        return LatencySummaryStringSupplierRegistrar.errors((LatencySummary) source);
+      case MIN:
+        return LatencySummaryStringSupplierRegistrar.min((LatencySummary) source);
+      case P50:
+        return LatencySummaryStringSupplierRegistrar.p50((LatencySummary) source);
+      case P90:
+        return LatencySummaryStringSupplierRegistrar.p90((LatencySummary) source);
+      case P99:
+        return LatencySummaryStringSupplierRegistrar.p99((LatencySummary) source);
+      case MAX:
+        return LatencySummaryStringSupplierRegistrar.max((LatencySummary) source);
+      default:
+        return null;
+    }
+  }
+
+  private void clear() {
+    Arrays.fill(sources, null);
+    registeredVariables = 0;
+    map = null;
+    valueWriter = ValueWriter.DEFAULT;
+    parameterSelection = ParameterSelection.ALL;
+    maskingPlan = null;
+  }
+
+  private static final class Pool {
+
+    private final StringSupplierLookup[] lookups = new StringSupplierLookup[MAX_POOLED_LOOKUPS];
+
+    private int depth;
+
+    StringSupplierLookup acquire() {
+      if (depth == MAX_POOLED_LOOKUPS) {
+        return new StringSupplierLookup();
+      }
+
+      StringSupplierLookup lookup = lookups[depth];
+      if (lookup == null) {
+        lookup = new StringSupplierLookup(this);
+        lookups[depth] = lookup;
+      }
+      depth++;
+      return lookup;
+    }
+
+    void release(final StringSupplierLookup lookup) {
+      if (depth > 0 && lookups[depth - 1] == lookup) {
+        depth--;
+      }
+    }
   }
 }
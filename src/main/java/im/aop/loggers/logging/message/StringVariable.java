@@ -0,0 +1,73 @@
+package im.aop.loggers.logging.message;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Template variables supported by {@link StringSupplierLookup}, where {@link #ordinal()} is the
+ * slot of the variable within the lookup.
+ *
+ * @author Andy Lian
+ */
+public enum StringVariable {
+  METHOD("method"),
+
+  PARAMETERS("parameters"),
+
+  RETURN_VALUE("return-value"),
+
+  EXCEPTION("exception"),
+
+  ELAPSED("elapsed"),
+
+  ELAPSED_TIME_LIMIT("elapsed-time-limit"),
+
+  SUPPRESSED("suppressed"),
+
+  FINGERPRINT("fingerprint"),
+
+  OCCURRENCES("occurrences"),
+
+  STACK_TRACE("stack-trace"),
+
+  COUNT("count"),
+
+  ERRORS("errors"),
+
+  MIN("min"),
+
+  P50("p50"),
+
+  P90("p90"),
+
+  P99("p99"),
+
+  MAX("max");
+
+  private static final Map<String, StringVariable> VARIABLES =
+      new HashMap<String, StringVariable>();
+
+  static {
+    for (StringVariable variable : values()) {
+      VARIABLES.put(variable.key, variable);
+    }
+  }
+
+  private final String key;
+
+  StringVariable(final String key) {
+    this.key = key;
+  }
+
+  public String getKey() {
+    return key;
+  }
+
+  /**
+   * @param key variable key used within template
+   * @return {@link StringVariable} for the given key, or {@code null} if not supported
+   */
+  public static StringVariable of(final String key) {
+    return VARIABLES.get(key);
+  }
+}
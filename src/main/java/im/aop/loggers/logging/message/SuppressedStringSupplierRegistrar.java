@@ -0,0 +1,13 @@
+package im.aop.loggers.logging.message;
+
+public class SuppressedStringSupplierRegistrar implements StringSupplierRegistrar<Long> {
+
+  @Override
+  public void register(StringSupplierLookup stringSupplierLookup, Long source) {
+    stringSupplierLookup.addSource(StringVariable.SUPPRESSED, source);
+  }
+
+  static String suppressed(long suppressed) {
+    return Long.toString(suppressed);
+  }
+}
@@ -0,0 +1,17 @@
+package im.aop.loggers.logging.value;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Leave the annotated parameter or field out of rendered parameters and values.
+ *
+ * @author Andy Lian
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.PARAMETER, ElementType.FIELD})
+@Documented
+public @interface LogExclude {}
@@ -0,0 +1,17 @@
+package im.aop.loggers.logging.value;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Render the annotated parameter or field as the configured mask instead of its value.
+ *
+ * @author Andy Lian
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.PARAMETER, ElementType.FIELD})
+@Documented
+public @interface LogMask {}
@@ -0,0 +1,153 @@
+package im.aop.loggers.logging.value;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Renders instances of types with masked or excluded fields field by field instead of with their
+ * {@code toString()}, which would render the fields in clear, such as {@code Foo[bar=1,
+ * password=******]}.
+ *
+ * <p>The fields rendered and masked are compiled once per type into a {@link FieldPlan}, so
+ * rendering a field only costs reading it. Types whose fields cannot be made accessible are
+ * rendered by their class name only.
+ *
+ * @author Andy Lian
+ */
+final class MaskedFieldRenderer implements ValueRenderer {
+
+  /** Plan of types without masked or excluded fields, rendered by other renderers. */
+  private static final FieldPlan NOT_MASKED = new FieldPlan(new Field[0], new boolean[0]);
+
+  /** Plan of types with inaccessible fields, rendered by their class name only. */
+  private static final FieldPlan INACCESSIBLE = new FieldPlan(null, null);
+
+  private final Set<String> maskedNames;
+
+  private final ClassValue<FieldPlan> planByType =
+      new ClassValue<FieldPlan>() {
+
+        @Override
+        protected FieldPlan computeValue(final Class<?> type) {
+          return compile(type);
+        }
+      };
+
+  /** @param maskedNames lower-case names of the fields masked */
+  MaskedFieldRenderer(final Set<String> maskedNames) {
+    this.maskedNames = maskedNames;
+  }
+
+  @Override
+  public boolean supports(final Class<?> type) {
+    return planByType.get(type) != NOT_MASKED;
+  }
+
+  @Override
+  public void render(final Object value, final ValueWriter.Output output) {
+    final FieldPlan plan = planByType.get(value.getClass());
+    final String simpleName = value.getClass().getSimpleName();
+    output.append(simpleName.isEmpty() ? value.getClass().getName() : simpleName);
+    if (plan == INACCESSIBLE) {
+      return;
+    }
+    if (output.exceedsMaxDepth()) {
+      output.append('[').append(ValueWriter.ELLIPSIS).append(']');
+      return;
+    }
+
+    output.append('[');
+    for (int index = 0;
+        index < plan.fields.length && output.element(index, Integer.MAX_VALUE);
+        index++) {
+      output.append(plan.fields[index].getName()).append('=');
+      if (plan.masked[index]) {
+        output.mask();
+        continue;
+      }
+
+      final Object fieldValue = read(plan.fields[index], value);
+      if (fieldValue == value) {
+        output.append("(this Object)");
+      } else {
+        output.value(fieldValue);
+      }
+    }
+    output.append(']');
+  }
+
+  private static Object read(final Field field, final Object value) {
+    try {
+      return field.get(value);
+    } catch (IllegalAccessException e) {
+      throw new IllegalStateException("Field " + field + " is not accessible", e);
+    }
+  }
+
+  private FieldPlan compile(final Class<?> type) {
+    if (type.isArray() || type.isPrimitive()) {
+      return NOT_MASKED;
+    }
+
+    final Deque<Class<?>> hierarchy = new ArrayDeque<Class<?>>();
+    for (Class<?> current = type; current != null && current != Object.class; ) {
+      hierarchy.push(current);
+      current = current.getSuperclass();
+    }
+
+    final List<Field> fields = new ArrayList<Field>();
+    final List<Boolean> masked = new ArrayList<Boolean>();
+    boolean maskedOrExcluded = false;
+    for (Class<?> declaringClass : hierarchy) {
+      for (Field field : declaringClass.getDeclaredFields()) {
+        if (Modifier.isStatic(field.getModifiers()) || field.isSynthetic()) {
+          continue;
+        }
+
+        final byte policy = MaskingPlan.policy(field, field.getName(), maskedNames);
+        if (policy != MaskingPlan.RENDERED) {
+          maskedOrExcluded = true;
+        }
+        if (policy != MaskingPlan.EXCLUDED) {
+          fields.add(field);
+          masked.add(policy == MaskingPlan.MASKED);
+        }
+      }
+    }
+    if (maskedOrExcluded == false) {
+      return NOT_MASKED;
+    }
+
+    try {
+      for (Field field : fields) {
+        field.setAccessible(true);
+      }
+    } catch (RuntimeException e) {
+      return INACCESSIBLE;
+    }
+
+    final boolean[] maskedFields = new boolean[masked.size()];
+    for (int index = 0; index < maskedFields.length; index++) {
+      maskedFields[index] = masked.get(index);
+    }
+    return new FieldPlan(fields.toArray(new Field[0]), maskedFields);
+  }
+
+  /** Fields rendered of a type, and whether each one is masked. */
+  private static final class FieldPlan {
+
+    private final Field[] fields;
+
+    private final boolean[] masked;
+
+    FieldPlan(final Field[] fields, final boolean[] masked) {
+      this.fields = fields;
+      this.masked = masked;
+    }
+  }
+}
@@ -0,0 +1,81 @@
+package im.aop.loggers.logging.value;
+
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Parameter;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Which parameters of a method are masked or excluded, compiled once per method from {@link
+ * LogMask} and {@link LogExclude} annotations and the configured masked names, so rendering a
+ * parameter only costs an array index check.
+ *
+ * @author Andy Lian
+ */
+public final class MaskingPlan {
+
+  static final byte RENDERED = 0;
+
+  static final byte MASKED = 1;
+
+  static final byte EXCLUDED = 2;
+
+  /** Plan of methods without masked or excluded parameters. */
+  static final MaskingPlan NONE = new MaskingPlan(null);
+
+  /** Policy per parameter, {@code null} if all parameters are rendered. */
+  private final byte[] policies;
+
+  private MaskingPlan(final byte[] policies) {
+    this.policies = policies;
+  }
+
+  static MaskingPlan of(
+      final Parameter[] parameters, final String[] parameterNames, final Set<String> maskedNames) {
+    byte[] policies = null;
+    for (int index = 0; index < parameters.length; index++) {
+      final byte policy = policy(parameters[index], parameterNames[index], maskedNames);
+      if (policy != RENDERED) {
+        if (policies == null) {
+          policies = new byte[parameters.length];
+        }
+        policies[index] = policy;
+      }
+    }
+    return policies != null ? new MaskingPlan(policies) : NONE;
+  }
+
+  /**
+   * @param element annotated parameter or field
+   * @param name name of the parameter or field
+   * @param maskedNames lower-case names of the parameters and fields masked
+   * @return policy of the parameter or field
+   */
+  static byte policy(
+      final AnnotatedElement element, final String name, final Set<String> maskedNames) {
+    if (element.isAnnotationPresent(LogExclude.class)) {
+      return EXCLUDED;
+    }
+    if (element.isAnnotationPresent(LogMask.class)
+        || maskedNames.contains(name.toLowerCase(Locale.ROOT))) {
+      return MASKED;
+    }
+    return RENDERED;
+  }
+
+  /**
+   * @param index index of a parameter
+   * @return whether the parameter at the given index is rendered as the mask
+   */
+  public boolean isMasked(final int index) {
+    return policies != null && policies[index] == MASKED;
+  }
+
+  /**
+   * @param index index of a parameter
+   * @return whether the parameter at the given index is left out
+   */
+  public boolean isExcluded(final int index) {
+    return policies != null && policies[index] == EXCLUDED;
+  }
+}
@@ -0,0 +1,30 @@
+package im.aop.loggers.logging.value;
+
+/**
+ * Renders parameters and return values of the types it supports into a {@link
+ * ValueWriter.Output}, such as to avoid expensive {@code toString()} methods or to render types
+ * without one.
+ *
+ * <p>Renderers registered as Spring beans take precedence over the built-in ones of {@link
+ * ValueRenderers}, in their order. The renderer of a runtime class is resolved once by {@link
+ * #supports(Class)} and cached, so whether a renderer supports a class must not change.
+ *
+ * @author Andy Lian
+ */
+public interface ValueRenderer {
+
+  /**
+   * @param type runtime class of a value
+   * @return whether this renderer renders values of the given class
+   */
+  boolean supports(Class<?> type);
+
+  /**
+   * Renders the given value, appending nested values with {@link ValueWriter.Output#value(Object)}
+   * so they are rendered within the limits.
+   *
+   * @param value non-null value of a supported class
+   * @param output output to append to
+   */
+  void render(Object value, ValueWriter.Output output);
+}
@@ -0,0 +1,373 @@
+package im.aop.loggers.logging.value;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Built-in {@link ValueRenderer}s of {@link ValueWriter}, rendering values in the format of their
+ * {@code toString()}, or {@link java.util.Arrays#toString} for arrays, within the limits of the
+ * {@link ValueWriter.Output}.
+ *
+ * @author Andy Lian
+ */
+public final class ValueRenderers {
+
+  private static final ValueRenderer CHAR_SEQUENCES = new CharSequenceRenderer();
+
+  private static final ValueRenderer COLLECTIONS = new CollectionRenderer();
+
+  private static final ValueRenderer MAPS = new MapRenderer();
+
+  private static final ValueRenderer OPTIONALS = new OptionalRenderer();
+
+  private static final ValueRenderer OBJECT_ARRAYS = new ObjectArrayRenderer();
+
+  private static final ValueRenderer PRIMITIVE_ARRAYS = new PrimitiveArrayRenderer();
+
+  private static final ValueRenderer BYTE_ARRAYS = new ByteArrayRenderer();
+
+  private static final ValueRenderer BYTE_ARRAY_LENGTHS = new ByteArrayLengthRenderer();
+
+  private static final ValueRenderer TO_STRINGS = new ToStringRenderer();
+
+  private ValueRenderers() {}
+
+  /** @return renderer of {@link CharSequence}s, cut at the remaining number of characters */
+  public static ValueRenderer charSequences() {
+    return CHAR_SEQUENCES;
+  }
+
+  /** @return renderer of {@link Collection}s, up to the maximum number of collection elements */
+  public static ValueRenderer collections() {
+    return COLLECTIONS;
+  }
+
+  /** @return renderer of {@link Map}s, up to the maximum number of map entries */
+  public static ValueRenderer maps() {
+    return MAPS;
+  }
+
+  /** @return renderer of {@link Optional}s, such as {@code Optional[foo]} */
+  public static ValueRenderer optionals() {
+    return OPTIONALS;
+  }
+
+  /** @return renderer of object arrays, up to the maximum number of array elements */
+  public static ValueRenderer objectArrays() {
+    return OBJECT_ARRAYS;
+  }
+
+  /** @return renderer of primitive arrays, without boxing their elements */
+  public static ValueRenderer primitiveArrays() {
+    return PRIMITIVE_ARRAYS;
+  }
+
+  /** @return renderer of {@code byte[]}, without boxing their elements */
+  public static ValueRenderer byteArrays() {
+    return BYTE_ARRAYS;
+  }
+
+  /** @return renderer of {@code byte[]} as their length only, such as {@code byte[1024]} */
+  public static ValueRenderer byteArrayLengths() {
+    return BYTE_ARRAY_LENGTHS;
+  }
+
+  /**
+   * Returns a renderer of the instances of the given types, subtypes included, as their class name
+   * only, such as for values whose {@code toString()} is expensive or sensitive.
+   *
+   * @param types types whose instances are rendered as their class name
+   * @return renderer of the instances of {@code types}
+   */
+  public static ValueRenderer classNameOnly(final Class<?>... types) {
+    return new ClassNameOnlyRenderer(types.clone());
+  }
+
+  /** @return renderer of any value with its {@code toString()} */
+  public static ValueRenderer toStrings() {
+    return TO_STRINGS;
+  }
+
+  private static final class CharSequenceRenderer implements ValueRenderer {
+
+    @Override
+    public boolean supports(final Class<?> type) {
+      return CharSequence.class.isAssignableFrom(type);
+    }
+
+    @Override
+    public void render(final Object value, final ValueWriter.Output output) {
+      output.append((CharSequence) value);
+    }
+  }
+
+  private static final class CollectionRenderer implements ValueRenderer {
+
+    @Override
+    public boolean supports(final Class<?> type) {
+      return Collection.class.isAssignableFrom(type);
+    }
+
+    @Override
+    public void render(final Object value, final ValueWriter.Output output) {
+      if (output.exceedsMaxDepth()) {
+        output.append('[').append(ValueWriter.ELLIPSIS).append(']');
+        return;
+      }
+
+      output.append('[');
+      final Iterator<?> iterator = ((Collection<?>) value).iterator();
+      for (int index = 0;
+          iterator.hasNext() && output.element(index, output.maxCollectionElements());
+          index++) {
+        final Object element = iterator.next();
+        if (element == value) {
+          output.append("(this Collection)");
+        } else {
+          output.value(element);
+        }
+      }
+      output.append(']');
+    }
+  }
+
+  private static final class MapRenderer implements ValueRenderer {
+
+    @Override
+    public boolean supports(final Class<?> type) {
+      return Map.class.isAssignableFrom(type);
+    }
+
+    @Override
+    public void render(final Object value, final ValueWriter.Output output) {
+      if (output.exceedsMaxDepth()) {
+        output.append('{').append(ValueWriter.ELLIPSIS).append('}');
+        return;
+      }
+
+      output.append('{');
+      final Iterator<? extends Map.Entry<?, ?>> iterator =
+          ((Map<?, ?>) value).entrySet().iterator();
+      for (int index = 0;
+          iterator.hasNext() && output.element(index, output.maxMapEntries());
+          index++) {
+        final Map.Entry<?, ?> entry = iterator.next();
+        mapValue(value, entry.getKey(), output);
+        output.append('=');
+        mapValue(value, entry.getValue(), output);
+      }
+      output.append('}');
+    }
+
+    private static void mapValue(
+        final Object map, final Object value, final ValueWriter.Output output) {
+      if (value == map) {
+        output.append("(this Map)");
+      } else {
+        output.value(value);
+      }
+    }
+  }
+
+  private static final class OptionalRenderer implements ValueRenderer {
+
+    @Override
+    public boolean supports(final Class<?> type) {
+      return type == Optional.class;
+    }
+
+    @Override
+    public void render(final Object value, final ValueWriter.Output output) {
+      final Optional<?> optional = (Optional<?>) value;
+      if (optional.isPresent()) {
+        output.append("Optional[").value(optional.get()).append(']');
+      } else {
+        output.append("Optional.empty");
+      }
+    }
+  }
+
+  private static final class ObjectArrayRenderer implements ValueRenderer {
+
+    @Override
+    public boolean supports(final Class<?> type) {
+      return Object[].class.isAssignableFrom(type);
+    }
+
+    @Override
+    public void render(final Object value, final ValueWriter.Output output) {
+      if (output.exceedsMaxDepth()) {
+        output.append('[').append(ValueWriter.ELLIPSIS).append(']');
+        return;
+      }
+
+      final Object[] array = (Object[]) value;
+      output.append('[');
+      for (int index = 0; index < array.length && output.arrayElement(index); index++) {
+        if (array[index] == array) {
+          output.append('[').append(ValueWriter.ELLIPSIS).append(']');
+        } else {
+          output.value(array[index]);
+        }
+      }
+      output.append(']');
+    }
+  }
+
+  private static final class ByteArrayRenderer implements ValueRenderer {
+
+    @Override
+    public boolean supports(final Class<?> type) {
+      return type == byte[].class;
+    }
+
+    @Override
+    public void render(final Object value, final ValueWriter.Output output) {
+      if (output.exceedsMaxDepth()) {
+        output.append('[').append(ValueWriter.ELLIPSIS).append(']');
+        return;
+      }
+
+      final byte[] array = (byte[]) value;
+      output.append('[');
+      for (int index = 0; index < array.length && output.arrayElement(index); index++) {
+        output.number(array[index]);
+      }
+      output.append(']');
+    }
+  }
+
+  private static final class ByteArrayLengthRenderer implements ValueRenderer {
+
+    @Override
+    public boolean supports(final Class<?> type) {
+      return type == byte[].class;
+    }
+
+    @Override
+    public void render(final Object value, final ValueWriter.Output output) {
+      output.append("byte[");
+      output.number(((byte[]) value).length);
+      output.append(']');
+    }
+  }
+
+  private static final class PrimitiveArrayRenderer implements ValueRenderer {
+
+    @Override
+    public boolean supports(final Class<?> type) {
+      return type.isArray() && type.getComponentType().isPrimitive();
+    }
+
+    @Override
+    public void render(final Object value, final ValueWriter.Output output) {
+      if (value instanceof byte[]) {
+        BYTE_ARRAYS.render(value, output);
+        return;
+      }
+      if (output.exceedsMaxDepth()) {
+        output.append('[').append(ValueWriter.ELLIPSIS).append(']');
+        return;
+      }
+
+      output.append('[');
+      if (value instanceof int[]) {
+        intArray((int[]) value, output);
+      } else if (value instanceof long[]) {
+        longArray((long[]) value, output);
+      } else if (value instanceof short[]) {
+        shortArray((short[]) value, output);
+      } else if (value instanceof char[]) {
+        charArray((char[]) value, output);
+      } else if (value instanceof boolean[]) {
+        booleanArray((boolean[]) value, output);
+      } else if (value instanceof float[]) {
+        floatArray((float[]) value, output);
+      } else {
+        doubleArray((double[]) value, output);
+      }
+      output.append(']');
+    }
+
+    private static void intArray(final int[] array, final ValueWriter.Output output) {
+      for (int index = 0; index < array.length && output.arrayElement(index); index++) {
+        output.number(array[index]);
+      }
+    }
+
+    private static void longArray(final long[] array, final ValueWriter.Output output) {
+      for (int index = 0; index < array.length && output.arrayElement(index); index++) {
+        output.number(array[index]);
+      }
+    }
+
+    private static void shortArray(final short[] array, final ValueWriter.Output output) {
+      for (int index = 0; index < array.length && output.arrayElement(index); index++) {
+        output.number(array[index]);
+      }
+    }
+
+    private static void charArray(final char[] array, final ValueWriter.Output output) {
+      for (int index = 0; index < array.length && output.arrayElement(index); index++) {
+        output.append(array[index]);
+      }
+    }
+
+    private static void booleanArray(final boolean[] array, final ValueWriter.Output output) {
+      for (int index = 0; index < array.length && output.arrayElement(index); index++) {
+        output.append(array[index] ? "true" : "false");
+      }
+    }
+
+    private static void floatArray(final float[] array, final ValueWriter.Output output) {
+      for (int index = 0; index < array.length && output.arrayElement(index); index++) {
+        output.number(array[index]);
+      }
+    }
+
+    private static void doubleArray(final double[] array, final ValueWriter.Output output) {
+      for (int index = 0; index < array.length && output.arrayElement(index); index++) {
+        output.number(array[index]);
+      }
+    }
+  }
+
+  private static final class ClassNameOnlyRenderer implements ValueRenderer {
+
+    private final Class<?>[] types;
+
+    ClassNameOnlyRenderer(final Class<?>[] types) {
+      this.types = types;
+    }
+
+    @Override
+    public boolean supports(final Class<?> type) {
+      for (Class<?> supportedType : types) {
+        if (supportedType.isAssignableFrom(type)) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    @Override
+    public void render(final Object value, final ValueWriter.Output output) {
+      output.append(value.getClass().getName());
+    }
+  }
+
+  private static final class ToStringRenderer implements ValueRenderer {
+
+    @Override
+    public boolean supports(final Class<?> type) {
+      return true;
+    }
+
+    @Override
+    public void render(final Object value, final ValueWriter.Output output) {
+      output.append(value.toString());
+    }
+  }
+}
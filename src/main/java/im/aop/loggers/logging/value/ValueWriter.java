@@ -0,0 +1,391 @@
+package im.aop.loggers.logging.value;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import im.aop.loggers.AopLoggersProperties.Rendering;
+
+/**
+ * Writes parameters and return values into a {@link StringBuilder}, within limits on the number of
+ * characters, elements, entries and nesting levels written.
+ *
+ * <p>Each value is rendered by the first {@link ValueRenderer} supporting its runtime class: the
+ * given renderers first, then the built-in ones of {@link ValueRenderers}, and finally its {@code
+ * toString()}. The renderer of each class is resolved once and cached in a {@link ClassValue}.
+ *
+ * <p>Collections, maps and arrays are walked element by element in the format of their {@code
+ * toString()}, or {@link java.util.Arrays#toString} for arrays, and the walk stops as soon as a
+ * limit is reached, so elements beyond the limits are never rendered. Elements of primitive arrays
+ * are appended without boxing. Other values are rendered with their {@code toString()}, cut at the
+ * remaining number of characters. Whatever is left out is replaced by {@code ...}.
+ *
+ * <p>Parameters and fields annotated with {@link LogMask}, or named as one of the configured
+ * masked names, are rendered as the configured mask, and those annotated with {@link LogExclude}
+ * are left out. Which ones are masked or excluded is compiled once per method into a {@link
+ * MaskingPlan}, and once per type with such fields, rendered field by field instead of with their
+ * {@code toString()}.
+ *
+ * @author Andy Lian
+ */
+public final class ValueWriter {
+
+  /** Writer with the default limits and the built-in renderers. */
+  public static final ValueWriter DEFAULT = new ValueWriter(new Rendering());
+
+  static final String ELLIPSIS = "...";
+
+  /** Maximum number of characters of an {@code int}, {@code short} or {@code byte}. */
+  private static final int MAX_INT_LENGTH = 11;
+
+  /** Maximum number of characters of a {@code long}. */
+  private static final int MAX_LONG_LENGTH = 20;
+
+  /** Maximum number of characters of a {@code float}, such as {@code -1.17549435E-38}. */
+  private static final int MAX_FLOAT_LENGTH = 15;
+
+  /** Maximum number of characters of a {@code double}, such as {@code -2.2250738585072014E-308}. */
+  private static final int MAX_DOUBLE_LENGTH = 24;
+
+  private final int maxLength;
+
+  private final int maxCollectionElements;
+
+  private final int maxMapEntries;
+
+  private final int maxArrayElements;
+
+  private final int maxDepth;
+
+  private final String mask;
+
+  /** Lower-case names of the parameters and fields masked. */
+  private final Set<String> maskedNames;
+
+  private final ValueRenderer[] renderers;
+
+  private final ClassValue<ValueRenderer> rendererByType =
+      new ClassValue<ValueRenderer>() {
+
+        @Override
+        protected ValueRenderer computeValue(final Class<?> type) {
+          return resolveRenderer(type);
+        }
+      };
+
+  /** Masking plans of the parameters of methods, per declaring class. */
+  private final ClassValue<Map<Method, MaskingPlan>> maskingPlansByClass =
+      new ClassValue<Map<Method, MaskingPlan>>() {
+
+        @Override
+        protected Map<Method, MaskingPlan> computeValue(final Class<?> type) {
+          return new ConcurrentHashMap<Method, MaskingPlan>();
+        }
+      };
+
+  public ValueWriter(final Rendering rendering) {
+    this(rendering, Collections.<ValueRenderer>emptyList());
+  }
+
+  /**
+   * @param rendering limits and built-in renderers of the rendering
+   * @param renderers renderers taking precedence over the built-in ones, in order
+   */
+  public ValueWriter(final Rendering rendering, final List<? extends ValueRenderer> renderers) {
+    this.maxLength = limit(rendering.getMaxLength());
+    this.maxCollectionElements = limit(rendering.getMaxCollectionElements());
+    this.maxMapEntries = limit(rendering.getMaxMapEntries());
+    this.maxArrayElements = limit(rendering.getMaxArrayElements());
+    this.maxDepth = limit(rendering.getMaxDepth());
+    this.mask = Objects.requireNonNull(rendering.getMask());
+    this.maskedNames = maskedNames(rendering.getMaskedNames());
+    this.renderers = renderers(rendering, renderers, maskedNames);
+  }
+
+  private static int limit(final int limit) {
+    return limit > 0 ? limit : Integer.MAX_VALUE;
+  }
+
+  private static Set<String> maskedNames(final Set<String> names) {
+    final Set<String> maskedNames = new HashSet<String>();
+    for (String name : names) {
+      maskedNames.add(name.toLowerCase(Locale.ROOT));
+    }
+    return maskedNames;
+  }
+
+  private static ValueRenderer[] renderers(
+      final Rendering rendering,
+      final List<? extends ValueRenderer> renderers,
+      final Set<String> maskedNames) {
+    final List<ValueRenderer> allRenderers = new ArrayList<ValueRenderer>(renderers.size() + 8);
+    for (ValueRenderer renderer : renderers) {
+      allRenderers.add(Objects.requireNonNull(renderer));
+    }
+    if (rendering.getClassNameOnlyTypes().length > 0) {
+      allRenderers.add(ValueRenderers.classNameOnly(rendering.getClassNameOnlyTypes()));
+    }
+    allRenderers.add(
+        rendering.isByteArrayLengthOnly()
+            ? ValueRenderers.byteArrayLengths()
+            : ValueRenderers.byteArrays());
+    allRenderers.add(ValueRenderers.charSequences());
+    allRenderers.add(ValueRenderers.collections());
+    allRenderers.add(ValueRenderers.maps());
+    allRenderers.add(ValueRenderers.optionals());
+    allRenderers.add(ValueRenderers.objectArrays());
+    allRenderers.add(ValueRenderers.primitiveArrays());
+    allRenderers.add(new MaskedFieldRenderer(maskedNames));
+    return allRenderers.toArray(new ValueRenderer[0]);
+  }
+
+  private ValueRenderer resolveRenderer(final Class<?> type) {
+    for (ValueRenderer renderer : renderers) {
+      if (renderer.supports(type)) {
+        return renderer;
+      }
+    }
+    return ValueRenderers.toStrings();
+  }
+
+  /**
+   * @param type runtime class of values
+   * @return renderer of the values of the given class
+   */
+  public ValueRenderer getRenderer(final Class<?> type) {
+    return rendererByType.get(type);
+  }
+
+  /**
+   * Returns the {@link MaskingPlan} of the parameters of the given method, compiled on first use
+   * and kept by this writer, per declaring class of the method.
+   *
+   * @param method method whose parameters are rendered
+   * @param parameterNames names of the parameters of {@code method}
+   * @return masking plan of the parameters
+   */
+  public MaskingPlan getMaskingPlan(final Method method, final String[] parameterNames) {
+    final Map<Method, MaskingPlan> maskingPlans =
+        maskingPlansByClass.get(method.getDeclaringClass());
+    final MaskingPlan maskingPlan = maskingPlans.get(method);
+    if (maskingPlan != null) {
+      return maskingPlan;
+    }
+    return maskingPlans.computeIfAbsent(
+        method, (key) -> compileMaskingPlan(key, parameterNames));
+  }
+
+  /**
+   * Compiles the {@link MaskingPlan} of the parameters of the given method, without keeping it.
+   *
+   * @param method method whose parameters are rendered
+   * @param parameterNames names of the parameters of {@code method}
+   * @return masking plan of the parameters
+   */
+  public MaskingPlan compileMaskingPlan(final Method method, final String[] parameterNames) {
+    return MaskingPlan.of(method.getParameters(), parameterNames, maskedNames);
+  }
+
+  /** @return text rendered instead of masked parameters and fields */
+  public String getMask() {
+    return mask;
+  }
+
+  /**
+   * Returns an {@link Output} appending to the given builder at most the maximum number of
+   * characters, shared by everything written to it.
+   *
+   * @param builder builder to append to
+   * @return output appending to {@code builder}
+   */
+  public Output output(final StringBuilder builder) {
+    return new Output(builder);
+  }
+
+  /**
+   * @param value value to render, may be {@code null}
+   * @return rendered value
+   */
+  public String write(final Object value) {
+    final StringBuilder builder = new StringBuilder();
+    output(builder).value(value);
+    return builder.toString();
+  }
+
+  /** Appends to a {@link StringBuilder} until the maximum number of characters is reached. */
+  public final class Output {
+
+    private final StringBuilder builder;
+
+    private final long limit;
+
+    private boolean truncated;
+
+    /** Nesting level of the value being rendered, 1 for the values given to this output. */
+    private int depth;
+
+    Output(final StringBuilder builder) {
+      this.builder = Objects.requireNonNull(builder);
+      this.limit = (long) builder.length() + maxLength;
+    }
+
+    /** @return whether the maximum number of characters was reached */
+    public boolean isTruncated() {
+      return truncated;
+    }
+
+    /**
+     * @return whether the value being rendered is nested deeper than the maximum depth, in which
+     *     case its elements are not to be rendered
+     */
+    public boolean exceedsMaxDepth() {
+      return depth > maxDepth;
+    }
+
+    public Output append(final char c) {
+      if (truncated) {
+        return this;
+      }
+      if (builder.length() < limit) {
+        builder.append(c);
+      } else {
+        truncate();
+      }
+      return this;
+    }
+
+    public Output append(final CharSequence chars) {
+      if (truncated) {
+        return this;
+      }
+      final long remaining = limit - builder.length();
+      if (chars.length() <= remaining) {
+        builder.append(chars);
+        return this;
+      }
+
+      int end = (int) remaining;
+      if (end > 0 && Character.isHighSurrogate(chars.charAt(end - 1))) {
+        end--;
+      }
+      builder.append(chars, 0, end);
+      truncate();
+      return this;
+    }
+
+    /**
+     * Appends the mask instead of a masked value.
+     *
+     * @return this output
+     */
+    public Output mask() {
+      return append(mask);
+    }
+
+    /**
+     * Appends the given value with the renderer of its runtime class, one nesting level deeper
+     * than the value being rendered.
+     *
+     * @param value value to append, may be {@code null}
+     * @return this output
+     */
+    public Output value(final Object value) {
+      if (truncated) {
+        return this;
+      }
+      if (value == null) {
+        return append("null");
+      }
+
+      depth++;
+      try {
+        rendererByType.get(value.getClass()).render(value, this);
+      } finally {
+        depth--;
+      }
+      return this;
+    }
+
+    int maxCollectionElements() {
+      return maxCollectionElements;
+    }
+
+    int maxMapEntries() {
+      return maxMapEntries;
+    }
+
+    /**
+     * Appends the separator before the element at the given index of an array.
+     *
+     * @return whether the element is to be appended
+     */
+    boolean arrayElement(final int index) {
+      return element(index, maxArrayElements);
+    }
+
+    /**
+     * Appends the separator before the element at the given index, or {@code ...} instead of the
+     * element once the maximum number of elements is reached.
+     *
+     * @return whether the element is to be appended
+     */
+    boolean element(final int index, final int maxElements) {
+      if (index > 0) {
+        append(", ");
+      }
+      if (index == maxElements) {
+        append(ELLIPSIS);
+        return false;
+      }
+      return truncated == false;
+    }
+
+    /** Appends the given number, without allocating when it fits in the remaining characters. */
+    void number(final int number) {
+      if (limit - builder.length() < MAX_INT_LENGTH) {
+        append(Integer.toString(number));
+      } else {
+        builder.append(number);
+      }
+    }
+
+    /** Appends the given number, without allocating when it fits in the remaining characters. */
+    void number(final long number) {
+      if (limit - builder.length() < MAX_LONG_LENGTH) {
+        append(Long.toString(number));
+      } else {
+        builder.append(number);
+      }
+    }
+
+    /** Appends the given number, without allocating when it fits in the remaining characters. */
+    void number(final float number) {
+      if (limit - builder.length() < MAX_FLOAT_LENGTH) {
+        append(Float.toString(number));
+      } else {
+        builder.append(number);
+      }
+    }
+
+    /** Appends the given number, without allocating when it fits in the remaining characters. */
+    void number(final double number) {
+      if (limit - builder.length() < MAX_DOUBLE_LENGTH) {
+        append(Double.toString(number));
+      } else {
+        builder.append(number);
+      }
+    }
+
+    private void truncate() {
+      builder.append(ELLIPSIS);
+      truncated = true;
+    }
+  }
+}
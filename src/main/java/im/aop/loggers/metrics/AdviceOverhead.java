@@ -0,0 +1,172 @@
+package im.aop.loggers.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import im.aop.loggers.AopLoggersProperties;
+import im.aop.loggers.logging.message.MethodDescriptor;
+
+/**
+ * Cumulative number of calls and time spent by an advice itself, excluding the time spent by the
+ * advised method, optionally per advised method.
+ *
+ * <p>Counts are exposed as an {@link AdviceOverheadMXBean} once {@link #registerMBean()
+ * registered} in the platform {@link MBeanServer}, so the cost of logging can be watched in
+ * production without logging anything.
+ *
+ * @author Andy Lian
+ */
+public final class AdviceOverhead implements AdviceOverheadMXBean, AutoCloseable {
+
+  public static final String DOMAIN = "im.aop.loggers";
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(AdviceOverhead.class);
+
+  private final String advice;
+
+  private final OverheadCounter total = new OverheadCounter();
+
+  /** Counters per advised method, {@code null} if not counted per method. */
+  private final Map<Method, OverheadCounter> methods;
+
+  /** Name registered in the platform {@link MBeanServer}, {@code null} if not registered. */
+  private ObjectName objectName;
+
+  /**
+   * @param advice name of the advice
+   * @param perMethod whether to also count per advised method
+   */
+  public AdviceOverhead(final String advice, final boolean perMethod) {
+    this.advice = advice;
+    this.methods = perMethod ? new ConcurrentHashMap<Method, OverheadCounter>() : null;
+  }
+
+  /**
+   * Creates the time spent by an advice, registered as an MXBean, if enabled by the given
+   * properties.
+   *
+   * @param advice name of the advice
+   * @param properties overhead accounting properties
+   * @return Time spent by the advice, {@code null} if not enabled
+   */
+  public static AdviceOverhead create(
+      final String advice, final AopLoggersProperties.Overhead properties) {
+    if (properties.isEnabled() == false) {
+      return null;
+    }
+
+    final AdviceOverhead overhead = new AdviceOverhead(advice, properties.isPerMethod());
+    overhead.registerMBean();
+    return overhead;
+  }
+
+  /**
+   * @param method advised method
+   * @param overhead time spent by the advice in nanoseconds
+   */
+  public void record(final Method method, final long overhead) {
+    total.record(overhead);
+    if (methods != null) {
+      methods.computeIfAbsent(method, key -> new OverheadCounter()).record(overhead);
+    }
+  }
+
+  @Override
+  public String getAdvice() {
+    return advice;
+  }
+
+  @Override
+  public long getCalls() {
+    return total.getCalls();
+  }
+
+  @Override
+  public long getTotalOverheadNanos() {
+    return total.getTotalOverheadNanos();
+  }
+
+  @Override
+  public long getMaxOverheadNanos() {
+    return total.getMaxOverheadNanos();
+  }
+
+  @Override
+  public double getMeanOverheadNanos() {
+    final long calls = total.getCalls();
+    return calls == 0 ? 0.0d : (double) total.getTotalOverheadNanos() / calls;
+  }
+
+  @Override
+  public Map<String, OverheadCounter> getMethodOverheads() {
+    if (methods == null) {
+      return Collections.emptyMap();
+    }
+
+    final Map<String, OverheadCounter> methodOverheads =
+        new LinkedHashMap<String, OverheadCounter>();
+    methods.forEach(
+        (method, counter) ->
+            methodOverheads.put(
+                method.getDeclaringClass().getName() + " " + MethodDescriptor.signature(method),
+                counter));
+    return methodOverheads;
+  }
+
+  @Override
+  public void reset() {
+    total.reset();
+    if (methods != null) {
+      methods.clear();
+    }
+  }
+
+  /**
+   * Registers this as an MXBean in the platform {@link MBeanServer}. Only the first of several
+   * counts of the same advice, such as from several application contexts, gets registered.
+   */
+  public synchronized void registerMBean() {
+    if (objectName != null) {
+      return;
+    }
+
+    try {
+      final ObjectName name = new ObjectName(DOMAIN + ":type=AdviceOverhead,advice=" + advice);
+      ManagementFactory.getPlatformMBeanServer().registerMBean(this, name);
+      objectName = name;
+    } catch (JMException e) {
+      LOGGER.warn("Failed to register overhead MXBean of [{}]", advice, e);
+    }
+  }
+
+  /** @return Whether registered in the platform {@link MBeanServer} */
+  public synchronized boolean isMBeanRegistered() {
+    return objectName != null;
+  }
+
+  /** Unregisters this from the platform {@link MBeanServer}, if registered. */
+  @Override
+  public synchronized void close() {
+    if (objectName == null) {
+      return;
+    }
+
+    try {
+      ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+    } catch (JMException e) {
+      LOGGER.warn("Failed to unregister overhead MXBean of [{}]", advice, e);
+    }
+    objectName = null;
+  }
+}
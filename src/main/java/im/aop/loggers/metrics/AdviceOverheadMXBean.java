@@ -0,0 +1,36 @@
+package im.aop.loggers.metrics;
+
+import java.util.Map;
+
+/**
+ * Management interface of {@link AdviceOverhead}, registered as {@value
+ * AdviceOverhead#DOMAIN}:type=AdviceOverhead,advice=&lt;advice&gt;.
+ *
+ * @author Andy Lian
+ */
+public interface AdviceOverheadMXBean {
+
+  /** @return Name of the advice */
+  String getAdvice();
+
+  /** @return Number of calls of the advice */
+  long getCalls();
+
+  /** @return Total time spent by the advice in nanoseconds */
+  long getTotalOverheadNanos();
+
+  /** @return Highest time spent by a single call of the advice in nanoseconds */
+  long getMaxOverheadNanos();
+
+  /** @return Mean time spent by a call of the advice in nanoseconds, 0 if not called */
+  double getMeanOverheadNanos();
+
+  /**
+   * @return Time spent by the advice per advised method, keyed by declaring class and signature,
+   *     empty if not counted per method
+   */
+  Map<String, OverheadCounter> getMethodOverheads();
+
+  /** Resets all counts of the advice. */
+  void reset();
+}
@@ -0,0 +1,146 @@
+package im.aop.loggers.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free histogram of latencies in nanoseconds, with a fixed memory footprint.
+ *
+ * <p>Values are counted in log-linear buckets: every power of two is split into {@value
+ * #SUB_BUCKET_COUNT} buckets of equal width, so a value is known within about 6% of itself. Values
+ * beyond {@link #MAX_TRACKABLE_VALUE} are counted in the last bucket. Recording a value only costs
+ * an atomic increment, plus a compare-and-set when it is a new minimum or maximum.
+ *
+ * @author Andy Lian
+ */
+public final class LatencyHistogram {
+
+  static final int SUB_BUCKET_BITS = 4;
+
+  static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+  /** Highest power of two counted in its own buckets, about 9.8 hours in nanoseconds. */
+  private static final int MAX_EXPONENT = 44;
+
+  static final int BUCKET_COUNT = SUB_BUCKET_COUNT * (MAX_EXPONENT - SUB_BUCKET_BITS + 2);
+
+  /** Highest value counted in its own bucket. */
+  public static final long MAX_TRACKABLE_VALUE = (1L << (MAX_EXPONENT + 1)) - 1;
+
+  private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+
+  private final AtomicLong min = new AtomicLong(Long.MAX_VALUE);
+
+  private final AtomicLong max = new AtomicLong(Long.MIN_VALUE);
+
+  /** @param value latency in nanoseconds, negative values are recorded as {@code 0} */
+  public void record(final long value) {
+    final long latency = Math.max(0, value);
+    buckets.incrementAndGet(bucketIndex(latency));
+    updateMin(latency);
+    updateMax(latency);
+  }
+
+  /**
+   * Adds the values recorded by another histogram to this histogram.
+   *
+   * @param other histogram whose values are added
+   */
+  void add(final LatencyHistogram other) {
+    for (int index = 0; index < BUCKET_COUNT; index++) {
+      final long count = other.buckets.get(index);
+      if (count != 0) {
+        buckets.addAndGet(index, count);
+      }
+    }
+    updateMin(other.min.get());
+    updateMax(other.max.get());
+  }
+
+  private void updateMin(final long value) {
+    long current = min.get();
+    while (value < current && min.compareAndSet(current, value) == false) {
+      current = min.get();
+    }
+  }
+
+  private void updateMax(final long value) {
+    long current = max.get();
+    while (value > current && max.compareAndSet(current, value) == false) {
+      current = max.get();
+    }
+  }
+
+  /** @return Number of recorded values */
+  public long getCount() {
+    long count = 0;
+    for (int index = 0; index < BUCKET_COUNT; index++) {
+      count += buckets.get(index);
+    }
+    return count;
+  }
+
+  /** @return Lowest recorded value, {@code 0} if none */
+  public long getMin() {
+    final long value = min.get();
+    return value == Long.MAX_VALUE ? 0 : value;
+  }
+
+  /** @return Highest recorded value, {@code 0} if none */
+  public long getMax() {
+    final long value = max.get();
+    return value == Long.MIN_VALUE ? 0 : value;
+  }
+
+  /**
+   * @param percentile percentile between 0 and 100
+   * @return Highest value of the bucket holding the given percentile, at most the highest recorded
+   *     value, {@code 0} if none
+   */
+  public long getValueAtPercentile(final double percentile) {
+    final long[] counts = new long[BUCKET_COUNT];
+    long count = 0;
+    for (int index = 0; index < BUCKET_COUNT; index++) {
+      counts[index] = buckets.get(index);
+      count += counts[index];
+    }
+    if (count == 0) {
+      return 0;
+    }
+
+    final double boundedPercentile = Math.min(Math.max(percentile, 0.0d), 100.0d);
+    final long rank = Math.max(1, (long) Math.ceil(boundedPercentile / 100.0d * count));
+    long seen = 0;
+    for (int index = 0; index < BUCKET_COUNT; index++) {
+      seen += counts[index];
+      if (seen >= rank) {
+        return Math.min(highestValue(index), getMax());
+      }
+    }
+    return getMax();
+  }
+
+  static int bucketIndex(final long value) {
+    if (value < SUB_BUCKET_COUNT) {
+      return (int) value;
+    }
+    if (value > MAX_TRACKABLE_VALUE) {
+      return BUCKET_COUNT - 1;
+    }
+
+    final int exponent = 63 - Long.numberOfLeadingZeros(value);
+    final int shift = exponent - SUB_BUCKET_BITS;
+    final int subBucket = (int) (value >>> shift) - SUB_BUCKET_COUNT;
+    return SUB_BUCKET_COUNT * (shift + 1) + subBucket;
+  }
+
+  static long highestValue(final int index) {
+    if (index < SUB_BUCKET_COUNT) {
+      return index;
+    }
+
+    final int shift = index / SUB_BUCKET_COUNT - 1;
+    final long subBucket = SUB_BUCKET_COUNT + index % SUB_BUCKET_COUNT;
+    return ((subBucket + 1) << shift) - 1;
+  }
+}
@@ -0,0 +1,81 @@
+package im.aop.loggers.metrics;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records the latencies of the calls of an advised method, summarized once per interval.
+ *
+ * <p>Threads record into one of a few {@link LatencyHistogram} stripes picked by thread id, so
+ * concurrent calls rarely contend on the same counters. Stripes are only allocated once a thread
+ * records into them. {@link #summarize()} starts a new interval and merges the stripes of the
+ * ended one, a value recorded while the interval ends may be left out of both intervals.
+ *
+ * @author Andy Lian
+ */
+public final class LatencyRecorder {
+
+  private static final int MAX_STRIPES = 8;
+
+  static final int STRIPES =
+      Math.min(
+          MAX_STRIPES,
+          Integer.highestOneBit((Runtime.getRuntime().availableProcessors() - 1) << 1 | 1));
+
+  private final AtomicReference<Interval> interval = new AtomicReference<Interval>(new Interval());
+
+  /**
+   * @param elapsedTime elapsed time of the call in nanoseconds
+   * @param failed whether the call exited abnormally
+   */
+  public void record(final long elapsedTime, final boolean failed) {
+    interval.get().record(elapsedTime, failed);
+  }
+
+  /**
+   * Ends the current interval.
+   *
+   * @return Latencies recorded within the ended interval
+   */
+  public LatencySummary summarize() {
+    return interval.getAndSet(new Interval()).summarize();
+  }
+
+  private static final class Interval {
+
+    private final AtomicReferenceArray<LatencyHistogram> stripes =
+        new AtomicReferenceArray<LatencyHistogram>(STRIPES);
+
+    private final LongAdder errors = new LongAdder();
+
+    void record(final long elapsedTime, final boolean failed) {
+      stripe().record(elapsedTime);
+      if (failed) {
+        errors.increment();
+      }
+    }
+
+    private LatencyHistogram stripe() {
+      final int index = (int) Thread.currentThread().getId() & (STRIPES - 1);
+      final LatencyHistogram stripe = stripes.get(index);
+      if (stripe != null) {
+        return stripe;
+      }
+
+      final LatencyHistogram created = new LatencyHistogram();
+      return stripes.compareAndSet(index, null, created) ? created : stripes.get(index);
+    }
+
+    LatencySummary summarize() {
+      final LatencyHistogram merged = new LatencyHistogram();
+      for (int index = 0; index < STRIPES; index++) {
+        final LatencyHistogram stripe = stripes.get(index);
+        if (stripe != null) {
+          merged.add(stripe);
+        }
+      }
+      return new LatencySummary(merged, errors.sum());
+    }
+  }
+}
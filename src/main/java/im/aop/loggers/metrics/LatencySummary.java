@@ -0,0 +1,64 @@
+package im.aop.loggers.metrics;
+
+/**
+ * Latencies of the calls of an advised method recorded by a {@link LatencyRecorder} within an
+ * interval, in nanoseconds.
+ *
+ * @author Andy Lian
+ */
+public final class LatencySummary {
+
+  private final long count;
+
+  private final long errors;
+
+  private final long min;
+
+  private final long p50;
+
+  private final long p90;
+
+  private final long p99;
+
+  private final long max;
+
+  LatencySummary(final LatencyHistogram histogram, final long errors) {
+    this.count = histogram.getCount();
+    this.errors = errors;
+    this.min = histogram.getMin();
+    this.p50 = histogram.getValueAtPercentile(50.0d);
+    this.p90 = histogram.getValueAtPercentile(90.0d);
+    this.p99 = histogram.getValueAtPercentile(99.0d);
+    this.max = histogram.getMax();
+  }
+
+  /** @return Number of calls */
+  public long getCount() {
+    return count;
+  }
+
+  /** @return Number of calls exited abnormally */
+  public long getErrors() {
+    return errors;
+  }
+
+  public long getMin() {
+    return min;
+  }
+
+  public long getP50() {
+    return p50;
+  }
+
+  public long getP90() {
+    return p90;
+  }
+
+  public long getP99() {
+    return p99;
+  }
+
+  public long getMax() {
+    return max;
+  }
+}
@@ -0,0 +1,25 @@
+package im.aop.loggers.metrics;
+
+/**
+ * Metrics of an advised method, recorded on every call regardless of level, sampling and rate
+ * limit.
+ *
+ * @author Andy Lian
+ */
+public interface MethodMetrics {
+
+  /**
+   * Records a call advised by {@code @LogAround}, including the exception it exited with.
+   *
+   * @param elapsedTime elapsed time of the call in nanoseconds
+   * @param exception exception the call exited abnormally with, {@code null} if it exited normally
+   */
+  void recordElapsedTime(long elapsedTime, Throwable exception);
+
+  /**
+   * Records an exception thrown by a call advised by {@code @LogAfterThrowing}.
+   *
+   * @param exception exception thrown
+   */
+  void recordException(Throwable exception);
+}
@@ -0,0 +1,20 @@
+package im.aop.loggers.metrics;
+
+import java.lang.reflect.Method;
+
+/**
+ * Strategy Interface for recording metrics of advised methods, alongside or instead of logging
+ * their calls.
+ *
+ * @author Andy Lian
+ */
+public interface MetricsRecorder {
+
+  /**
+   * Called once per advised method and advice, when the plan of the method is created.
+   *
+   * @param method advised method
+   * @return Metrics of the advised method
+   */
+  MethodMetrics forMethod(Method method);
+}
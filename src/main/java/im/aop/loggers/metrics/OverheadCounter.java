@@ -0,0 +1,54 @@
+package im.aop.loggers.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cumulative number of calls and time spent by an advice, in nanoseconds.
+ *
+ * <p>Calls and total time are counted in {@link LongAdder}s, so concurrent calls rarely contend.
+ * The maximum is only written when exceeded, which becomes rare once calls warmed up.
+ *
+ * @author Andy Lian
+ */
+public final class OverheadCounter {
+
+  private final LongAdder calls = new LongAdder();
+
+  private final LongAdder totalOverhead = new LongAdder();
+
+  private final AtomicLong maxOverhead = new AtomicLong();
+
+  /** @param overhead time spent by the advice in nanoseconds */
+  public void record(final long overhead) {
+    calls.increment();
+    totalOverhead.add(overhead);
+
+    long max = maxOverhead.get();
+    while (overhead > max && maxOverhead.compareAndSet(max, overhead) == false) {
+      max = maxOverhead.get();
+    }
+  }
+
+  /** @return Number of calls */
+  public long getCalls() {
+    return calls.sum();
+  }
+
+  /** @return Total time spent in nanoseconds */
+  public long getTotalOverheadNanos() {
+    return totalOverhead.sum();
+  }
+
+  /** @return Highest time spent by a single call in nanoseconds */
+  public long getMaxOverheadNanos() {
+    return maxOverhead.get();
+  }
+
+  /** Resets the counts, calls recorded concurrently may be partially reset. */
+  public void reset() {
+    calls.reset();
+    totalOverhead.reset();
+    maxOverhead.set(0);
+  }
+}
@@ -0,0 +1,51 @@
+package im.aop.loggers.metrics.micrometer;
+
+import java.util.Objects;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import im.aop.loggers.logging.LogDispatcher;
+import im.aop.loggers.logging.async.AsyncLogDispatcher;
+
+/**
+ * Publishes the depth and capacity of the buffer of an {@link AsyncLogDispatcher} as gauges, and
+ * the number of events it dropped as a counter, to a {@link MeterRegistry}. Nothing is published
+ * for any other {@link LogDispatcher}.
+ *
+ * @author Andy Lian
+ */
+public class AsyncLogDispatcherMetrics {
+
+  public static final String QUEUE_DEPTH_METRIC = "aop.loggers.async.queue.depth";
+
+  public static final String CAPACITY_METRIC = "aop.loggers.async.capacity";
+
+  public static final String DROPPED_EVENTS_METRIC = "aop.loggers.async.dropped.events";
+
+  private final LogDispatcher logDispatcher;
+
+  public AsyncLogDispatcherMetrics(final LogDispatcher logDispatcher) {
+    this.logDispatcher = Objects.requireNonNull(logDispatcher);
+  }
+
+  /** @param meterRegistry registry to publish the meters to */
+  public void bindTo(final MeterRegistry meterRegistry) {
+    if (logDispatcher instanceof AsyncLogDispatcher == false) {
+      return;
+    }
+
+    final AsyncLogDispatcher asyncLogDispatcher = (AsyncLogDispatcher) logDispatcher;
+    Gauge.builder(QUEUE_DEPTH_METRIC, asyncLogDispatcher, AsyncLogDispatcher::getQueueDepth)
+        .description("Number of log events waiting to be logged")
+        .register(meterRegistry);
+    Gauge.builder(CAPACITY_METRIC, asyncLogDispatcher, AsyncLogDispatcher::getCapacity)
+        .description("Maximum number of log events waiting to be logged")
+        .register(meterRegistry);
+    FunctionCounter.builder(
+            DROPPED_EVENTS_METRIC, asyncLogDispatcher, AsyncLogDispatcher::getDroppedEvents)
+        .description("Number of log events dropped because the buffer was full")
+        .register(meterRegistry);
+  }
+}
@@ -0,0 +1,125 @@
+package im.aop.loggers.metrics.micrometer;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+
+import im.aop.loggers.metrics.MethodMetrics;
+
+/**
+ * {@link MethodMetrics} of an advised method registered by {@link MicrometerMetricsRecorder}.
+ *
+ * <p>Meters are registered once they are first recorded into, so methods never exiting abnormally
+ * do not report an empty error timer.
+ *
+ * @author Andy Lian
+ */
+final class MicrometerMethodMetrics implements MethodMetrics {
+
+  private final MeterRegistry meterRegistry;
+
+  private final Tags tags;
+
+  private final Map<Class<?>, Counter> exceptionCounters =
+      new ConcurrentHashMap<Class<?>, Counter>();
+
+  private volatile Timer successTimer;
+
+  private volatile Timer errorTimer;
+
+  private volatile Counter otherExceptionCounter;
+
+  MicrometerMethodMetrics(final MeterRegistry meterRegistry, final Method method) {
+    this.meterRegistry = meterRegistry;
+    this.tags =
+        Tags.of(
+            MicrometerMetricsRecorder.CLASS_TAG,
+            method.getDeclaringClass().getName(),
+            MicrometerMetricsRecorder.METHOD_TAG,
+            method.getName());
+  }
+
+  @Override
+  public void recordElapsedTime(final long elapsedTime, final Throwable exception) {
+    if (exception == null) {
+      successTimer().record(elapsedTime, TimeUnit.NANOSECONDS);
+      return;
+    }
+
+    errorTimer().record(elapsedTime, TimeUnit.NANOSECONDS);
+    recordException(exception);
+  }
+
+  @Override
+  public void recordException(final Throwable exception) {
+    exceptionCounter(exception.getClass()).increment();
+  }
+
+  private Timer successTimer() {
+    Timer timer = successTimer;
+    if (timer == null) {
+      timer = timer(MicrometerMetricsRecorder.SUCCESS_OUTCOME);
+      successTimer = timer;
+    }
+    return timer;
+  }
+
+  private Timer errorTimer() {
+    Timer timer = errorTimer;
+    if (timer == null) {
+      timer = timer(MicrometerMetricsRecorder.ERROR_OUTCOME);
+      errorTimer = timer;
+    }
+    return timer;
+  }
+
+  /** Registering is idempotent, threads racing to register get the same timer. */
+  private Timer timer(final String outcome) {
+    return Timer.builder(MicrometerMetricsRecorder.CALLS_METRIC)
+        .tags(tags)
+        .tag(MicrometerMetricsRecorder.OUTCOME_TAG, outcome)
+        .register(meterRegistry);
+  }
+
+  private Counter exceptionCounter(final Class<?> exceptionType) {
+    final Counter counter = exceptionCounters.get(exceptionType);
+    if (counter != null) {
+      return counter;
+    }
+
+    // Threads racing on a new exception type may each add one past the limit
+    if (exceptionCounters.size() >= MicrometerMetricsRecorder.MAX_EXCEPTION_TYPES) {
+      return otherExceptionCounter();
+    }
+
+    return exceptionCounters.computeIfAbsent(exceptionType, type -> counter(exceptionName(type)));
+  }
+
+  /** Anonymous exception types have no simple name. */
+  private static String exceptionName(final Class<?> exceptionType) {
+    final String simpleName = exceptionType.getSimpleName();
+    return simpleName.isEmpty() ? exceptionType.getName() : simpleName;
+  }
+
+  private Counter otherExceptionCounter() {
+    Counter counter = otherExceptionCounter;
+    if (counter == null) {
+      counter = counter(MicrometerMetricsRecorder.OTHER_EXCEPTION);
+      otherExceptionCounter = counter;
+    }
+    return counter;
+  }
+
+  private Counter counter(final String exception) {
+    return Counter.builder(MicrometerMetricsRecorder.EXCEPTIONS_METRIC)
+        .tags(tags)
+        .tag(MicrometerMetricsRecorder.EXCEPTION_TAG, exception)
+        .register(meterRegistry);
+  }
+}
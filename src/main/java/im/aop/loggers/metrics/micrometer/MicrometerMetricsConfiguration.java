@@ -0,0 +1,41 @@
+package im.aop.loggers.metrics.micrometer;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import im.aop.loggers.AopLoggersProperties;
+import im.aop.loggers.logging.LogDispatcher;
+import im.aop.loggers.metrics.MetricsRecorder;
+
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnClass(MeterRegistry.class)
+@ConditionalOnProperty(
+    prefix = AopLoggersProperties.PREFIX,
+    name = "metrics-enabled",
+    matchIfMissing = true)
+public class MicrometerMetricsConfiguration {
+
+  @Bean
+  @ConditionalOnBean(MeterRegistry.class)
+  @ConditionalOnMissingBean
+  public MetricsRecorder metricsRecorder(final MeterRegistry meterRegistry) {
+    return new MicrometerMetricsRecorder(meterRegistry);
+  }
+
+  @Bean
+  @ConditionalOnBean(MeterRegistry.class)
+  @ConditionalOnProperty(prefix = AopLoggersProperties.PREFIX, name = "async.enabled")
+  @ConditionalOnMissingBean
+  public AsyncLogDispatcherMetrics asyncLogDispatcherMetrics(
+      final MeterRegistry meterRegistry, final LogDispatcher logDispatcher) {
+    final AsyncLogDispatcherMetrics asyncLogDispatcherMetrics =
+        new AsyncLogDispatcherMetrics(logDispatcher);
+    asyncLogDispatcherMetrics.bindTo(meterRegistry);
+    return asyncLogDispatcherMetrics;
+  }
+}
@@ -0,0 +1,55 @@
+package im.aop.loggers.metrics.micrometer;
+
+import java.lang.reflect.Method;
+import java.util.Objects;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import im.aop.loggers.metrics.MethodMetrics;
+import im.aop.loggers.metrics.MetricsRecorder;
+
+/**
+ * {@link MetricsRecorder} registering a {@code Timer} of calls and a {@code Counter} of exceptions
+ * per advised method in a {@link MeterRegistry}.
+ *
+ * <p>Meters are tagged with the {@value #CLASS_TAG} and {@value #METHOD_TAG} of the advised
+ * method, timers with the {@value #OUTCOME_TAG} of the call and counters with the simple name of
+ * the {@value #EXCEPTION_TAG} type. At most {@value #MAX_EXCEPTION_TYPES} exception types are
+ * tagged per method, any further type is counted as {@value #OTHER_EXCEPTION}, keeping the number
+ * of meters bounded by the number of advised methods.
+ *
+ * @author Andy Lian
+ */
+public class MicrometerMetricsRecorder implements MetricsRecorder {
+
+  public static final String CALLS_METRIC = "aop.loggers.calls";
+
+  public static final String EXCEPTIONS_METRIC = "aop.loggers.exceptions";
+
+  public static final String CLASS_TAG = "class";
+
+  public static final String METHOD_TAG = "method";
+
+  public static final String OUTCOME_TAG = "outcome";
+
+  public static final String EXCEPTION_TAG = "exception";
+
+  public static final String SUCCESS_OUTCOME = "SUCCESS";
+
+  public static final String ERROR_OUTCOME = "ERROR";
+
+  public static final String OTHER_EXCEPTION = "Other";
+
+  public static final int MAX_EXCEPTION_TYPES = 16;
+
+  private final MeterRegistry meterRegistry;
+
+  public MicrometerMetricsRecorder(final MeterRegistry meterRegistry) {
+    this.meterRegistry = Objects.requireNonNull(meterRegistry);
+  }
+
+  @Override
+  public MethodMetrics forMethod(final Method method) {
+    return new MicrometerMethodMetrics(meterRegistry, method);
+  }
+}
@@ -2,6 +2,8 @@ package im.aop.loggers;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.autoconfigure.AutoConfigurations;
 import org.springframework.boot.test.context.runner.ApplicationContextRunner;
@@ -14,6 +16,16 @@ import im.aop.loggers.advice.around.LogAroundAdvice;
 import im.aop.loggers.advice.around.LogAroundService;
 import im.aop.loggers.advice.before.LogBeforeAdvice;
 import im.aop.loggers.advice.before.LogBeforeService;
+import im.aop.loggers.logging.DeferredLogDispatcher;
+import im.aop.loggers.logging.JsonLogDispatcher;
+import im.aop.loggers.logging.LogDispatcher;
+import im.aop.loggers.logging.SyncLogDispatcher;
+import im.aop.loggers.logging.async.AsyncLogDispatcher;
+import im.aop.loggers.logging.value.ValueRenderer;
+import im.aop.loggers.logging.value.ValueRenderers;
+import im.aop.loggers.logging.value.ValueWriter;
+import im.aop.loggers.metrics.MetricsRecorder;
+import im.aop.loggers.metrics.micrometer.MicrometerMetricsRecorder;
 
 /**
  * Tests for {@link AopLoggersAutoConfiguration}.
@@ -115,4 +127,109 @@ class AopLoggersAutoConfigurationTests {
               .isExactlyInstanceOf(LogBeforeService.class);
         });
   }
+
+  @Test
+  void logDispatcher() {
+    runner.run(
+        (context) -> {
+          assertThat(context.getBean(LogDispatcher.class))
+              .isNotNull()
+              .isExactlyInstanceOf(SyncLogDispatcher.class);
+        });
+  }
+
+  @Test
+  void logDispatcher_whenAsyncEnabled() {
+    runner
+        .withPropertyValues(AopLoggersProperties.PREFIX + ".async.enabled=true")
+        .run(
+            (context) -> {
+              assertThat(context.getBean(LogDispatcher.class))
+                  .isNotNull()
+                  .isExactlyInstanceOf(AsyncLogDispatcher.class);
+              assertThat(context.getBean(AsyncLogDispatcher.class).isMBeanRegistered()).isTrue();
+            });
+  }
+
+  @Test
+  void logDispatcher_whenDeferredRendering() {
+    runner
+        .withPropertyValues(AopLoggersProperties.PREFIX + ".deferred-rendering=true")
+        .run(
+            (context) -> {
+              assertThat(context.getBean(LogDispatcher.class))
+                  .isNotNull()
+                  .isExactlyInstanceOf(DeferredLogDispatcher.class);
+            });
+  }
+
+  @Test
+  void logDispatcher_whenJsonOutputFormat() {
+    runner
+        .withPropertyValues(AopLoggersProperties.PREFIX + ".output-format=JSON")
+        .run(
+            (context) -> {
+              assertThat(context.getBean(LogDispatcher.class))
+                  .isNotNull()
+                  .isExactlyInstanceOf(JsonLogDispatcher.class);
+            });
+  }
+
+  @Test
+  void logDispatcher_whenJsonOutputFormatAndDeferredRendering() {
+    runner
+        .withPropertyValues(
+            AopLoggersProperties.PREFIX + ".output-format=JSON",
+            AopLoggersProperties.PREFIX + ".deferred-rendering=true")
+        .run(
+            (context) -> {
+              assertThat(context.getBean(LogDispatcher.class))
+                  .isNotNull()
+                  .isExactlyInstanceOf(DeferredLogDispatcher.class);
+            });
+  }
+
+  @Test
+  void valueWriter() {
+    runner.run(
+        (context) -> {
+          assertThat(context.getBean(ValueWriter.class))
+              .isNotNull()
+              .isExactlyInstanceOf(ValueWriter.class);
+        });
+  }
+
+  @Test
+  void valueWriter_withValueRendererBean() {
+    runner
+        .withBean(
+            "stringValueRenderer",
+            ValueRenderer.class,
+            () -> ValueRenderers.classNameOnly(String.class))
+        .run(
+            (context) -> {
+              assertThat(context.getBean(ValueWriter.class).write("foo"))
+                  .isEqualTo("java.lang.String");
+            });
+  }
+
+  @Test
+  void metricsRecorder() {
+    runner
+        .withBean(MeterRegistry.class, SimpleMeterRegistry::new)
+        .run(
+            (context) -> {
+              assertThat(context.getBean(MetricsRecorder.class))
+                  .isNotNull()
+                  .isExactlyInstanceOf(MicrometerMetricsRecorder.class);
+            });
+  }
+
+  @Test
+  void metricsRecorder_whenMeterRegistryMissing() {
+    runner.run(
+        (context) -> {
+          assertThat(context).doesNotHaveBean(MetricsRecorder.class);
+        });
+  }
 }
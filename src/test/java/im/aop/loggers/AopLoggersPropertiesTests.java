@@ -2,12 +2,18 @@ package im.aop.loggers;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.io.InputStream;
+import java.time.Duration;
+
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.boot.test.context.runner.ApplicationContextRunner;
 
 import im.aop.loggers.logging.Level;
+import im.aop.loggers.logging.OutputFormat;
+import im.aop.loggers.logging.async.OverflowPolicy;
+import im.aop.loggers.logging.exception.DuplicateExceptionPolicy;
 
 /**
  * Tests for {@link AopLoggersProperties}.
@@ -268,4 +274,437 @@ class AopLoggersPropertiesTests {
               assertThat(properties.getElapsedWarningMessage()).isEqualTo("foo");
             });
   }
+
+  @Test
+  void revision_incrementedWhenModified() {
+    final AopLoggersProperties properties = new AopLoggersProperties();
+    final int revision = properties.revision();
+
+    properties.setEnteringMessage("foo");
+
+    assertThat(properties.revision()).isGreaterThan(revision);
+  }
+
+  @Test
+  void sampleRate_defaultValue() {
+    runner.run(
+        (context) -> {
+          final AopLoggersProperties properties = context.getBean(AopLoggersProperties.class);
+          assertThat(properties.getSampleRate()).isEqualTo(1.0d);
+        });
+  }
+
+  @Test
+  void sampleRate_givenPropertyValue() {
+    runner
+        .withPropertyValues(AopLoggersProperties.PREFIX + ".sample-rate=0.1")
+        .run(
+            (context) -> {
+              final AopLoggersProperties properties = context.getBean(AopLoggersProperties.class);
+              assertThat(properties.getSampleRate()).isEqualTo(0.1d);
+            });
+  }
+
+  @Test
+  void sampleRate_outOfRange() {
+    runner
+        .withPropertyValues(AopLoggersProperties.PREFIX + ".sample-rate=1.5")
+        .run((context) -> assertThat(context).hasFailed());
+  }
+
+  @Test
+  void rateLimit_defaultValue() {
+    runner.run(
+        (context) -> {
+          final AopLoggersProperties properties = context.getBean(AopLoggersProperties.class);
+          assertThat(properties.getRateLimit()).isZero();
+        });
+  }
+
+  @Test
+  void rateLimit_givenPropertyValue() {
+    runner
+        .withPropertyValues(AopLoggersProperties.PREFIX + ".rate-limit=100")
+        .run(
+            (context) -> {
+              final AopLoggersProperties properties = context.getBean(AopLoggersProperties.class);
+              assertThat(properties.getRateLimit()).isEqualTo(100.0d);
+            });
+  }
+
+  @Test
+  void rateLimit_negative() {
+    runner
+        .withPropertyValues(AopLoggersProperties.PREFIX + ".rate-limit=-1")
+        .run((context) -> assertThat(context).hasFailed());
+  }
+
+  @Test
+  void deferredRendering_defaultValue() {
+    runner.run(
+        (context) -> {
+          final AopLoggersProperties properties = context.getBean(AopLoggersProperties.class);
+          assertThat(properties.isDeferredRendering()).isFalse();
+        });
+  }
+
+  @Test
+  void deferredRendering_givenPropertyValue() {
+    runner
+        .withPropertyValues(AopLoggersProperties.PREFIX + ".deferred-rendering=true")
+        .run(
+            (context) -> {
+              final AopLoggersProperties properties = context.getBean(AopLoggersProperties.class);
+              assertThat(properties.isDeferredRendering()).isTrue();
+            });
+  }
+
+  @Test
+  void logOnlySlowOrFailed_defaultValue() {
+    runner.run(
+        (context) -> {
+          final AopLoggersProperties properties = context.getBean(AopLoggersProperties.class);
+          assertThat(properties.isLogOnlySlowOrFailed()).isFalse();
+        });
+  }
+
+  @Test
+  void logOnlySlowOrFailed_givenPropertyValue() {
+    runner
+        .withPropertyValues(AopLoggersProperties.PREFIX + ".log-only-slow-or-failed=true")
+        .run(
+            (context) -> {
+              final AopLoggersProperties properties = context.getBean(AopLoggersProperties.class);
+              assertThat(properties.isLogOnlySlowOrFailed()).isTrue();
+            });
+  }
+
+  @Test
+  void overhead_defaultValues() {
+    runner.run(
+        (context) -> {
+          final AopLoggersProperties properties = context.getBean(AopLoggersProperties.class);
+          assertThat(properties.getOverhead().isEnabled()).isFalse();
+          assertThat(properties.getOverhead().isPerMethod()).isFalse();
+        });
+  }
+
+  @Test
+  void overhead_givenPropertyValues() {
+    runner
+        .withPropertyValues(
+            AopLoggersProperties.PREFIX + ".overhead.enabled=true",
+            AopLoggersProperties.PREFIX + ".overhead.per-method=true")
+        .run(
+            (context) -> {
+              final AopLoggersProperties properties = context.getBean(AopLoggersProperties.class);
+              assertThat(properties.getOverhead().isEnabled()).isTrue();
+              assertThat(properties.getOverhead().isPerMethod()).isTrue();
+            });
+  }
+
+  @Test
+  void outputFormat_defaultValue() {
+    runner.run(
+        (context) -> {
+          final AopLoggersProperties properties = context.getBean(AopLoggersProperties.class);
+          assertThat(properties.getOutputFormat()).isEqualTo(OutputFormat.TEXT);
+        });
+  }
+
+  @Test
+  void outputFormat_givenPropertyValue() {
+    runner
+        .withPropertyValues(AopLoggersProperties.PREFIX + ".output-format=JSON")
+        .run(
+            (context) -> {
+              final AopLoggersProperties properties = context.getBean(AopLoggersProperties.class);
+              assertThat(properties.getOutputFormat()).isEqualTo(OutputFormat.JSON);
+            });
+  }
+
+  @Test
+  void rendering_defaultValues() {
+    runner.run(
+        (context) -> {
+          final AopLoggersProperties properties = context.getBean(AopLoggersProperties.class);
+          assertThat(properties.getRendering().getMaxLength()).isEqualTo(8192);
+          assertThat(properties.getRendering().getMaxCollectionElements()).isEqualTo(100);
+          assertThat(properties.getRendering().getMaxMapEntries()).isEqualTo(100);
+          assertThat(properties.getRendering().getMaxArrayElements()).isEqualTo(100);
+          assertThat(properties.getRendering().getMaxDepth()).isEqualTo(8);
+          assertThat(properties.getRendering().isByteArrayLengthOnly()).isFalse();
+          assertThat(properties.getRendering().getClassNameOnlyTypes()).isEmpty();
+          assertThat(properties.getRendering().getMaskedNames()).isEmpty();
+          assertThat(properties.getRendering().getMask()).isEqualTo("******");
+        });
+  }
+
+  @Test
+  void rendering_givenPropertyValues() {
+    runner
+        .withPropertyValues(
+            AopLoggersProperties.PREFIX + ".rendering.max-length=1",
+            AopLoggersProperties.PREFIX + ".rendering.max-collection-elements=2",
+            AopLoggersProperties.PREFIX + ".rendering.max-map-entries=3",
+            AopLoggersProperties.PREFIX + ".rendering.max-array-elements=4",
+            AopLoggersProperties.PREFIX + ".rendering.max-depth=5",
+            AopLoggersProperties.PREFIX + ".rendering.byte-array-length-only=true",
+            AopLoggersProperties.PREFIX + ".rendering.class-name-only-types=java.io.InputStream",
+            AopLoggersProperties.PREFIX + ".rendering.masked-names=password,token",
+            AopLoggersProperties.PREFIX + ".rendering.mask=***")
+        .run(
+            (context) -> {
+              final AopLoggersProperties properties = context.getBean(AopLoggersProperties.class);
+              assertThat(properties.getRendering().getMaxLength()).isEqualTo(1);
+              assertThat(properties.getRendering().getMaxCollectionElements()).isEqualTo(2);
+              assertThat(properties.getRendering().getMaxMapEntries()).isEqualTo(3);
+              assertThat(properties.getRendering().getMaxArrayElements()).isEqualTo(4);
+              assertThat(properties.getRendering().getMaxDepth()).isEqualTo(5);
+              assertThat(properties.getRendering().isByteArrayLengthOnly()).isTrue();
+              assertThat(properties.getRendering().getClassNameOnlyTypes())
+                  .containsExactly(InputStream.class);
+              assertThat(properties.getRendering().getMaskedNames())
+                  .containsExactly("password", "token");
+              assertThat(properties.getRendering().getMask()).isEqualTo("***");
+            });
+  }
+
+  @Test
+  void metrics_defaultValues() {
+    runner.run(
+        (context) -> {
+          final AopLoggersProperties properties = context.getBean(AopLoggersProperties.class);
+          assertThat(properties.isMetricsEnabled()).isTrue();
+          assertThat(properties.isMetricsOnly()).isFalse();
+        });
+  }
+
+  @Test
+  void metrics_givenPropertyValues() {
+    runner
+        .withPropertyValues(
+            AopLoggersProperties.PREFIX + ".metrics-enabled=false",
+            AopLoggersProperties.PREFIX + ".metrics-only=true")
+        .run(
+            (context) -> {
+              final AopLoggersProperties properties = context.getBean(AopLoggersProperties.class);
+              assertThat(properties.isMetricsEnabled()).isFalse();
+              assertThat(properties.isMetricsOnly()).isTrue();
+            });
+  }
+
+  @Test
+  void adaptiveElapsedTimeLimit_defaultValues() {
+    runner.run(
+        (context) -> {
+          final AopLoggersProperties properties = context.getBean(AopLoggersProperties.class);
+          assertThat(properties.isAdaptiveElapsedTimeLimit()).isFalse();
+          assertThat(properties.getElapsedTimeLimitPercentile()).isEqualTo(99.0d);
+          assertThat(properties.getElapsedTimeLimitFactor()).isEqualTo(2.0d);
+          assertThat(properties.getElapsedTimeLimitWindow()).isEqualTo(Duration.ofMinutes(1));
+        });
+  }
+
+  @Test
+  void adaptiveElapsedTimeLimit_givenPropertyValues() {
+    runner
+        .withPropertyValues(
+            AopLoggersProperties.PREFIX + ".adaptive-elapsed-time-limit=true",
+            AopLoggersProperties.PREFIX + ".elapsed-time-limit-percentile=95",
+            AopLoggersProperties.PREFIX + ".elapsed-time-limit-factor=1.5",
+            AopLoggersProperties.PREFIX + ".elapsed-time-limit-window=30s")
+        .run(
+            (context) -> {
+              final AopLoggersProperties properties = context.getBean(AopLoggersProperties.class);
+              assertThat(properties.isAdaptiveElapsedTimeLimit()).isTrue();
+              assertThat(properties.getElapsedTimeLimitPercentile()).isEqualTo(95.0d);
+              assertThat(properties.getElapsedTimeLimitFactor()).isEqualTo(1.5d);
+              assertThat(properties.getElapsedTimeLimitWindow())
+                  .isEqualTo(Duration.ofSeconds(30));
+            });
+  }
+
+  @Test
+  void elapsedTimeLimitPercentile_outOfRange() {
+    runner
+        .withPropertyValues(AopLoggersProperties.PREFIX + ".elapsed-time-limit-percentile=101")
+        .run((context) -> assertThat(context).hasFailed());
+  }
+
+  @Test
+  void elapsedTimeLimitFactor_zero() {
+    runner
+        .withPropertyValues(AopLoggersProperties.PREFIX + ".elapsed-time-limit-factor=0")
+        .run((context) -> assertThat(context).hasFailed());
+  }
+
+  @Test
+  void latencySummary_defaultValues() {
+    runner.run(
+        (context) -> {
+          final AopLoggersProperties.Summary latencySummary =
+              context.getBean(AopLoggersProperties.class).getLatencySummary();
+          assertThat(latencySummary.isEnabled()).isFalse();
+          assertThat(latencySummary.getInterval()).isEqualTo(Duration.ofMinutes(1));
+          assertThat(latencySummary.getLevel()).isEqualTo(Level.INFO);
+          assertThat(latencySummary.getMessage())
+              .isEqualTo(
+                  "[{method}] count [{count}] errors [{errors}] min [{min}] p50 [{p50}]"
+                      + " p90 [{p90}] p99 [{p99}] max [{max}]");
+        });
+  }
+
+  @Test
+  void latencySummary_givenPropertyValues() {
+    runner
+        .withPropertyValues(
+            AopLoggersProperties.PREFIX + ".latency-summary.enabled=true",
+            AopLoggersProperties.PREFIX + ".latency-summary.interval=10s",
+            AopLoggersProperties.PREFIX + ".latency-summary.level=WARN",
+            AopLoggersProperties.PREFIX + ".latency-summary.message=foo")
+        .run(
+            (context) -> {
+              final AopLoggersProperties.Summary latencySummary =
+                  context.getBean(AopLoggersProperties.class).getLatencySummary();
+              assertThat(latencySummary.isEnabled()).isTrue();
+              assertThat(latencySummary.getInterval()).isEqualTo(Duration.ofSeconds(10));
+              assertThat(latencySummary.getLevel()).isEqualTo(Level.WARN);
+              assertThat(latencySummary.getMessage()).isEqualTo("foo");
+            });
+  }
+
+  @Test
+  void latencySummary_blankMessage() {
+    runner
+        .withPropertyValues(AopLoggersProperties.PREFIX + ".latency-summary.message= ")
+        .run((context) -> assertThat(context).hasFailed());
+  }
+
+  @Test
+  void async_defaultValues() {
+    runner.run(
+        (context) -> {
+          final AopLoggersProperties.Async async =
+              context.getBean(AopLoggersProperties.class).getAsync();
+          assertThat(async.isEnabled()).isFalse();
+          assertThat(async.getBufferSize()).isEqualTo(8192);
+          assertThat(async.getConsumers()).isEqualTo(1);
+          assertThat(async.getOverflowPolicy()).isEqualTo(OverflowPolicy.BLOCK);
+          assertThat(async.getDropBelowLevel()).isEqualTo(Level.WARN);
+        });
+  }
+
+  @Test
+  void async_givenPropertyValues() {
+    runner
+        .withPropertyValues(
+            AopLoggersProperties.PREFIX + ".async.enabled=true",
+            AopLoggersProperties.PREFIX + ".async.buffer-size=16",
+            AopLoggersProperties.PREFIX + ".async.consumers=2",
+            AopLoggersProperties.PREFIX + ".async.overflow-policy=DROP_BELOW_LEVEL",
+            AopLoggersProperties.PREFIX + ".async.drop-below-level=ERROR")
+        .run(
+            (context) -> {
+              final AopLoggersProperties.Async async =
+                  context.getBean(AopLoggersProperties.class).getAsync();
+              assertThat(async.isEnabled()).isTrue();
+              assertThat(async.getBufferSize()).isEqualTo(16);
+              assertThat(async.getConsumers()).isEqualTo(2);
+              assertThat(async.getOverflowPolicy()).isEqualTo(OverflowPolicy.DROP_BELOW_LEVEL);
+              assertThat(async.getDropBelowLevel()).isEqualTo(Level.ERROR);
+            });
+  }
+
+  @Test
+  void exceptionDedup_defaultValues() {
+    runner.run(
+        (context) -> {
+          final AopLoggersProperties.ExceptionDedup exceptionDedup =
+              context.getBean(AopLoggersProperties.class).getExceptionDedup();
+          assertThat(exceptionDedup.isEnabled()).isFalse();
+          assertThat(exceptionDedup.getWindow()).isEqualTo(Duration.ofMinutes(1));
+          assertThat(exceptionDedup.getStackDepth()).isEqualTo(5);
+          assertThat(exceptionDedup.getDuplicatePolicy())
+              .isEqualTo(DuplicateExceptionPolicy.COUNT);
+          assertThat(exceptionDedup.getTableSize()).isEqualTo(1024);
+          assertThat(exceptionDedup.getDroppedMessage())
+              .isEqualTo(
+                  "[{method}] dropped {occurrences} duplicate occurrences of fingerprint"
+                      + " {fingerprint}");
+        });
+  }
+
+  @Test
+  void exceptionDedup_givenPropertyValues() {
+    runner
+        .withPropertyValues(
+            AopLoggersProperties.PREFIX + ".exception-dedup.enabled=true",
+            AopLoggersProperties.PREFIX + ".exception-dedup.window=10s",
+            AopLoggersProperties.PREFIX + ".exception-dedup.stack-depth=2",
+            AopLoggersProperties.PREFIX + ".exception-dedup.duplicate-policy=DROP",
+            AopLoggersProperties.PREFIX + ".exception-dedup.table-size=64",
+            AopLoggersProperties.PREFIX + ".exception-dedup.dropped-message=foo")
+        .run(
+            (context) -> {
+              final AopLoggersProperties.ExceptionDedup exceptionDedup =
+                  context.getBean(AopLoggersProperties.class).getExceptionDedup();
+              assertThat(exceptionDedup.isEnabled()).isTrue();
+              assertThat(exceptionDedup.getWindow()).isEqualTo(Duration.ofSeconds(10));
+              assertThat(exceptionDedup.getStackDepth()).isEqualTo(2);
+              assertThat(exceptionDedup.getDuplicatePolicy())
+                  .isEqualTo(DuplicateExceptionPolicy.DROP);
+              assertThat(exceptionDedup.getTableSize()).isEqualTo(64);
+              assertThat(exceptionDedup.getDroppedMessage()).isEqualTo("foo");
+            });
+  }
+
+  @Test
+  void exceptionDedup_invalidTableSize() {
+    runner
+        .withPropertyValues(AopLoggersProperties.PREFIX + ".exception-dedup.table-size=0")
+        .run((context) -> assertThat(context).hasFailed());
+  }
+
+  @Test
+  void stackTrace_defaultValues() {
+    runner.run(
+        (context) -> {
+          final AopLoggersProperties properties = context.getBean(AopLoggersProperties.class);
+          assertThat(properties.getStackTraceMaxDepth()).isZero();
+          assertThat(properties.getStackTraceIncludePackages()).isEmpty();
+          assertThat(properties.getStackTraceExcludePackages()).isEmpty();
+          assertThat(properties.isStackTraceCollapseFrameworkFrames()).isFalse();
+          assertThat(properties.getStackTraceFrameworkPackages())
+              .contains("org.springframework.", "org.apache.catalina.");
+        });
+  }
+
+  @Test
+  void stackTrace_givenPropertyValues() {
+    runner
+        .withPropertyValues(
+            AopLoggersProperties.PREFIX + ".stack-trace-max-depth=10",
+            AopLoggersProperties.PREFIX + ".stack-trace-include-packages=im.aop.,com.foo.",
+            AopLoggersProperties.PREFIX + ".stack-trace-exclude-packages=org.junit.",
+            AopLoggersProperties.PREFIX + ".stack-trace-collapse-framework-frames=true",
+            AopLoggersProperties.PREFIX + ".stack-trace-framework-packages=io.netty.")
+        .run(
+            (context) -> {
+              final AopLoggersProperties properties = context.getBean(AopLoggersProperties.class);
+              assertThat(properties.getStackTraceMaxDepth()).isEqualTo(10);
+              assertThat(properties.getStackTraceIncludePackages())
+                  .containsExactly("im.aop.", "com.foo.");
+              assertThat(properties.getStackTraceExcludePackages()).containsExactly("org.junit.");
+              assertThat(properties.isStackTraceCollapseFrameworkFrames()).isTrue();
+              assertThat(properties.getStackTraceFrameworkPackages()).containsExactly("io.netty.");
+            });
+  }
+
+  @Test
+  void stackTraceMaxDepth_negative() {
+    runner
+        .withPropertyValues(AopLoggersProperties.PREFIX + ".stack-trace-max-depth=-1")
+        .run((context) -> assertThat(context).hasFailed());
+  }
 }
@@ -0,0 +1,179 @@
+package im.aop.loggers.advice;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.annotation.AnnotationUtils;
+
+import im.aop.loggers.AopLoggersProperties;
+import im.aop.loggers.advice.before.LogBefore;
+
+/**
+ * Tests for {@link AdvicePlanRegistry}.
+ *
+ * @author Andy Lian
+ */
+class AdvicePlanRegistryTests {
+
+  static class Foo {
+
+    void foo() {}
+
+    void bar() {}
+  }
+
+  static class TestPlan extends AdvicePlan<LogBefore> {
+
+    TestPlan(final Method method, final LogBefore annotation) {
+      super(method, annotation, annotation.declaringClass(), 1.0d, 0.0d);
+    }
+  }
+
+  private AopLoggersProperties aopLoggersProperties;
+
+  private AdvicePlanRegistry<LogBefore, TestPlan> registry;
+
+  private Method foo;
+
+  private Method bar;
+
+  @BeforeEach
+  void beforeEach() throws NoSuchMethodException {
+    aopLoggersProperties = new AopLoggersProperties();
+    registry = new AdvicePlanRegistry<>(aopLoggersProperties, TestPlan::new);
+    foo = Foo.class.getDeclaredMethod("foo");
+    bar = Foo.class.getDeclaredMethod("bar");
+  }
+
+  @Test
+  void getPlan_createsPlanOnFirstUse() {
+    final LogBefore annotation = mock(LogBefore.class);
+
+    final TestPlan plan = registry.getPlan(foo, annotation);
+    assertThat(plan.getMethod()).isEqualTo(foo);
+    assertThat(plan.getAnnotation()).isSameAs(annotation);
+    assertThat(plan.getLogger().getName()).isEqualTo(Foo.class.getName());
+    assertThat(registry.size()).isEqualTo(1);
+  }
+
+  @Test
+  void getPlan_reusesPlan() {
+    final LogBefore annotation = mock(LogBefore.class);
+
+    assertThat(registry.getPlan(foo, annotation)).isSameAs(registry.getPlan(foo, annotation));
+  }
+
+  @Test
+  void getPlan_perMethod() {
+    final LogBefore annotation = mock(LogBefore.class);
+
+    assertThat(registry.getPlan(foo, annotation)).isNotSameAs(registry.getPlan(bar, annotation));
+    assertThat(registry.size()).isEqualTo(2);
+  }
+
+  @Test
+  void getPlan_reusesPlanForEqualAnnotation() {
+    final LogBefore annotation = AnnotationUtils.synthesizeAnnotation(LogBefore.class);
+    final LogBefore equalAnnotation = AnnotationUtils.synthesizeAnnotation(LogBefore.class);
+
+    assertThat(equalAnnotation).isNotSameAs(annotation).isEqualTo(annotation);
+    assertThat(registry.getPlan(foo, equalAnnotation))
+        .isSameAs(registry.getPlan(foo, annotation));
+  }
+
+  @Test
+  void getPlan_createsSinglePlanForConcurrentFirstCalls() throws Exception {
+    final AtomicInteger createdPlans = new AtomicInteger();
+    final AdvicePlanRegistry<LogBefore, TestPlan> countingRegistry =
+        new AdvicePlanRegistry<LogBefore, TestPlan>(
+            aopLoggersProperties,
+            (method, annotation) -> {
+              createdPlans.incrementAndGet();
+              return new TestPlan(method, annotation);
+            });
+    final LogBefore annotation = mock(LogBefore.class);
+    final int threads = 8;
+    final CountDownLatch start = new CountDownLatch(1);
+    final ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      final List<Future<TestPlan>> plans = new ArrayList<Future<TestPlan>>();
+      for (int thread = 0; thread < threads; thread++) {
+        plans.add(
+            executor.submit(
+                () -> {
+                  start.await();
+                  return countingRegistry.getPlan(foo, annotation);
+                }));
+      }
+      start.countDown();
+
+      final TestPlan plan = plans.get(0).get(10, TimeUnit.SECONDS);
+      for (Future<TestPlan> otherPlan : plans) {
+        assertThat(otherPlan.get(10, TimeUnit.SECONDS)).isSameAs(plan);
+      }
+      assertThat(createdPlans.get()).isEqualTo(1);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  void getPlan_recreatesPlanForDifferentAnnotation() {
+    final TestPlan plan = registry.getPlan(foo, mock(LogBefore.class));
+    final LogBefore annotation = mock(LogBefore.class);
+
+    final TestPlan recreatedPlan = registry.getPlan(foo, annotation);
+    assertThat(recreatedPlan).isNotSameAs(plan);
+    assertThat(recreatedPlan.getAnnotation()).isSameAs(annotation);
+    assertThat(registry.size()).isEqualTo(1);
+  }
+
+  @Test
+  void getPlan_recreatesPlanWhenPropertiesModified() {
+    final LogBefore annotation = mock(LogBefore.class);
+    final TestPlan plan = registry.getPlan(foo, annotation);
+    registry.getPlan(bar, annotation);
+
+    aopLoggersProperties.setEnteringMessage("foo");
+
+    assertThat(registry.getPlan(foo, annotation)).isNotSameAs(plan);
+    assertThat(registry.size()).isEqualTo(1);
+  }
+
+  @Test
+  void getPlan_byJoinPoint() {
+    final MethodSignature methodSignature = mock(MethodSignature.class);
+    when(methodSignature.getMethod()).thenReturn(foo);
+    final JoinPoint joinPoint = mock(JoinPoint.class);
+    when(joinPoint.getSignature()).thenReturn(methodSignature);
+    final LogBefore annotation = mock(LogBefore.class);
+
+    assertThat(registry.getPlan(joinPoint, annotation)).isSameAs(registry.getPlan(foo, annotation));
+  }
+
+  @Test
+  void invalidate_dropsAllPlans() {
+    final LogBefore annotation = mock(LogBefore.class);
+    final TestPlan plan = registry.getPlan(foo, annotation);
+
+    registry.invalidate();
+
+    assertThat(registry.size()).isZero();
+    assertThat(registry.getPlan(foo, annotation)).isNotSameAs(plan);
+  }
+}
@@ -0,0 +1,244 @@
+package im.aop.loggers.advice;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+
+import im.aop.loggers.AopLoggersProperties;
+import im.aop.loggers.advice.before.LogBefore;
+import im.aop.loggers.logging.Level;
+
+/**
+ * Tests for {@link AdvicePlan}.
+ *
+ * @author Andy Lian
+ */
+class AdvicePlanTests {
+
+  @Test
+  void level_default() {
+    assertThat(AdvicePlan.level(Level.DEFAULT, Level.DEBUG)).isEqualTo(Level.DEBUG);
+  }
+
+  @Test
+  void level_custom() {
+    assertThat(AdvicePlan.level(Level.INFO, Level.DEBUG)).isEqualTo(Level.INFO);
+  }
+
+  @Test
+  void mostSevereLevel() {
+    assertThat(AdvicePlan.mostSevereLevel(Level.DEBUG, Level.WARN, Level.INFO))
+        .isEqualTo(Level.WARN);
+  }
+
+  @Test
+  void mostSevereLevel_ignoresDefault() {
+    assertThat(AdvicePlan.mostSevereLevel(Level.DEFAULT, Level.TRACE)).isEqualTo(Level.TRACE);
+    assertThat(AdvicePlan.mostSevereLevel(Level.DEFAULT, Level.DEFAULT)).isNull();
+  }
+
+  @Test
+  void sampleRate_default() {
+    assertThat(AdvicePlan.sampleRate(0.0d, 0.5d)).isEqualTo(0.5d);
+    assertThat(AdvicePlan.sampleRate(-1.0d, 0.5d)).isEqualTo(0.5d);
+  }
+
+  @Test
+  void sampleRate_custom() {
+    assertThat(AdvicePlan.sampleRate(0.25d, 0.5d)).isEqualTo(0.25d);
+  }
+
+  @Test
+  void sampleRate_atMostOne() {
+    assertThat(AdvicePlan.sampleRate(2.0d, 0.5d)).isEqualTo(1.0d);
+  }
+
+  @Test
+  void isSampled_always() throws NoSuchMethodException {
+    final AdvicePlan<LogBefore> plan = plan(1.0d);
+    for (int index = 0; index < 100; index++) {
+      assertThat(plan.isSampled()).isTrue();
+    }
+  }
+
+  @Test
+  void isSampled_never() throws NoSuchMethodException {
+    final AdvicePlan<LogBefore> plan = plan(0.0d);
+    for (int index = 0; index < 100; index++) {
+      assertThat(plan.isSampled()).isFalse();
+    }
+  }
+
+  @Test
+  void isSampled_atSampleRate() throws NoSuchMethodException {
+    final AdvicePlan<LogBefore> plan = plan(0.5d);
+    int sampled = 0;
+    for (int index = 0; index < 10000; index++) {
+      if (plan.isSampled()) {
+        sampled++;
+      }
+    }
+    assertThat(sampled).isBetween(4000, 6000);
+  }
+
+  @Test
+  void rateLimit_default() {
+    assertThat(AdvicePlan.rateLimit(0.0d, 5.0d)).isEqualTo(5.0d);
+  }
+
+  @Test
+  void rateLimit_custom() {
+    assertThat(AdvicePlan.rateLimit(2.0d, 5.0d)).isEqualTo(2.0d);
+  }
+
+  @Test
+  void tryAcquirePermit_withoutRateLimit() throws NoSuchMethodException {
+    final AdvicePlan<LogBefore> plan = plan(1.0d, 0.0d);
+    assertThat(plan.isRateLimited()).isFalse();
+    for (int index = 0; index < 100; index++) {
+      assertThat(plan.tryAcquirePermit()).isZero();
+    }
+  }
+
+  @Test
+  void tryAcquirePermit_withRateLimit() throws NoSuchMethodException {
+    final AdvicePlan<LogBefore> plan = plan(1.0d, 1.0d);
+    assertThat(plan.isRateLimited()).isTrue();
+    assertThat(plan.tryAcquirePermit()).isZero();
+    assertThat(plan.tryAcquirePermit()).isEqualTo(AdvicePlan.THROTTLED);
+  }
+
+  @Test
+  void stackTraceRenderer_nothingConfigured() {
+    assertThat(AdvicePlan.stackTraceRenderer(0, null, null, new AopLoggersProperties())).isNull();
+    assertThat(
+            AdvicePlan.stackTraceRenderer(
+                0, new String[0], new String[] {""}, new AopLoggersProperties()))
+        .isNull();
+  }
+
+  @Test
+  void stackTraceRenderer_givenMaxDepth() {
+    final AopLoggersProperties aopLoggersProperties = new AopLoggersProperties();
+    aopLoggersProperties.setStackTraceMaxDepth(1);
+
+    final String stackTrace =
+        AdvicePlan.stackTraceRenderer(0, null, null, aopLoggersProperties)
+            .render(new RuntimeException("foo"));
+    assertThat(stackTrace).contains("\tat ").contains(" more");
+    assertThat(stackTrace.split("\tat ")).hasSize(2);
+  }
+
+  @Test
+  void stackTraceRenderer_annotationMaxDepthOverridesProperty() {
+    final AopLoggersProperties aopLoggersProperties = new AopLoggersProperties();
+    aopLoggersProperties.setStackTraceMaxDepth(1);
+
+    final String stackTrace =
+        AdvicePlan.stackTraceRenderer(2, null, null, aopLoggersProperties)
+            .render(new RuntimeException("foo"));
+    assertThat(stackTrace.split("\tat ")).hasSize(3);
+  }
+
+  @Test
+  void stackTraceRenderer_annotationIncludePackagesOverrideProperty() {
+    final AopLoggersProperties aopLoggersProperties = new AopLoggersProperties();
+    aopLoggersProperties.setStackTraceIncludePackages(new String[] {"org.junit."});
+
+    final String stackTrace =
+        AdvicePlan.stackTraceRenderer(0, new String[] {"im.aop."}, null, aopLoggersProperties)
+            .render(new RuntimeException("foo"));
+    assertThat(stackTrace).contains("\tat im.aop.").doesNotContain("\tat org.junit.");
+  }
+
+  @Test
+  void stackTraceRenderer_mergesExcludePackages() {
+    final AopLoggersProperties aopLoggersProperties = new AopLoggersProperties();
+    aopLoggersProperties.setStackTraceExcludePackages(new String[] {"org.junit."});
+
+    final String stackTrace =
+        AdvicePlan.stackTraceRenderer(
+                0, null, new String[] {"im.aop.", "org.junit."}, aopLoggersProperties)
+            .render(new RuntimeException("foo"));
+    assertThat(stackTrace).doesNotContain("\tat im.aop.").doesNotContain("\tat org.junit.");
+  }
+
+  @Test
+  void stackTraceRenderer_collapseFrameworkFrames() {
+    final AopLoggersProperties aopLoggersProperties = new AopLoggersProperties();
+    aopLoggersProperties.setStackTraceCollapseFrameworkFrames(true);
+    aopLoggersProperties.setStackTraceFrameworkPackages(new String[] {"org.junit."});
+
+    final String stackTrace =
+        AdvicePlan.stackTraceRenderer(0, null, null, aopLoggersProperties)
+            .render(new RuntimeException("foo"));
+    assertThat(stackTrace).contains("\tat im.aop.").doesNotContain("\tat org.junit.");
+  }
+
+  private AdvicePlan<LogBefore> plan(final double sampleRate) throws NoSuchMethodException {
+    return plan(sampleRate, 0.0d);
+  }
+
+  private AdvicePlan<LogBefore> plan(final double sampleRate, final double rateLimit)
+      throws NoSuchMethodException {
+    final Method method = Object.class.getDeclaredMethod("toString");
+    return new AdvicePlan<LogBefore>(
+        method, mock(LogBefore.class), void.class, sampleRate, rateLimit) {};
+  }
+
+  @Test
+  void template_default() {
+    assertThat(AdvicePlan.template("", "foo").getTemplate()).isEqualTo("foo");
+  }
+
+  @Test
+  void template_custom() {
+    assertThat(AdvicePlan.template("bar", "foo").getTemplate()).isEqualTo("bar");
+  }
+
+  @Test
+  void template_null() {
+    assertThat(AdvicePlan.template(null, null).getTemplate()).isEmpty();
+  }
+
+  @Test
+  void ignoreExceptions_merged() {
+    @SuppressWarnings("unchecked")
+    final Class<? extends Throwable>[] ignoreExceptions =
+        AdvicePlan.ignoreExceptions(
+            new Class[] {IllegalArgumentException.class, null},
+            null,
+            new Class[] {IllegalStateException.class, IllegalArgumentException.class});
+
+    assertThat(ignoreExceptions)
+        .containsExactly(IllegalArgumentException.class, IllegalStateException.class);
+  }
+
+  @Test
+  void matchesIgnoreExceptions() {
+    @SuppressWarnings("unchecked")
+    final Class<? extends Throwable>[] ignoreExceptions =
+        new Class[] {IllegalArgumentException.class};
+
+    assertThat(AdvicePlan.matchesIgnoreExceptions(null, ignoreExceptions)).isTrue();
+    assertThat(
+            AdvicePlan.matchesIgnoreExceptions(
+                new NumberFormatException(), ignoreExceptions))
+        .isTrue();
+    assertThat(AdvicePlan.matchesIgnoreExceptions(new RuntimeException(), ignoreExceptions))
+        .isFalse();
+  }
+
+  @Test
+  void toNanos() {
+    assertThat(AdvicePlan.toNanos(Duration.ofMillis(1))).isEqualTo(1000000L);
+    assertThat(AdvicePlan.toNanos(Duration.ofDays(Long.MAX_VALUE / 86400)))
+        .isEqualTo(Long.MAX_VALUE);
+    assertThat(AdvicePlan.toNanos(Duration.ofDays(Long.MIN_VALUE / 86400)))
+        .isEqualTo(Long.MIN_VALUE);
+  }
+}
@@ -0,0 +1,112 @@
+package im.aop.loggers.advice;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+
+import im.aop.loggers.advice.MessageVariants.Fingerprint;
+import im.aop.loggers.logging.exception.ExceptionDeduplicator;
+import im.aop.loggers.logging.exception.ExceptionDeduplicator.Occurrence;
+import im.aop.loggers.logging.message.MessageTemplate;
+
+/**
+ * Tests for {@link MessageVariants}.
+ *
+ * @author Andy Lian
+ */
+class MessageVariantsTests {
+
+  private static final Duration WINDOW = Duration.ofMillis(200);
+
+  @Test
+  void get() {
+    final MessageTemplate template = MessageTemplate.of("foo");
+    final MessageVariants messages = MessageVariants.of(template);
+
+    assertThat(messages.get()).isSameAs(template);
+    assertThat(messages.get(false)).isSameAs(template);
+  }
+
+  @Test
+  void get_suppressed() {
+    final MessageVariants messages = MessageVariants.of(MessageTemplate.of("foo"));
+
+    assertThat(messages.get(true).getTemplate())
+        .isEqualTo("foo [{suppressed} calls suppressed by rate limit]");
+    assertThat(messages.get(true)).isSameAs(messages.get(true));
+  }
+
+  @Test
+  void get_fingerprint() {
+    final MessageVariants messages = MessageVariants.ofExitedAbnormally(MessageTemplate.of("foo"));
+
+    assertThat(messages.get(Fingerprint.NONE, false, false)).isSameAs(messages.get());
+    assertThat(messages.get(Fingerprint.FIRST_OCCURRENCE, false, false).getTemplate())
+        .isEqualTo("foo [fingerprint {fingerprint}]");
+    assertThat(messages.get(Fingerprint.FIRST_OCCURRENCE_AFTER_DROPPED, false, false).getTemplate())
+        .isEqualTo(
+            "foo [fingerprint {fingerprint}, {occurrences} more occurrences since last logged]");
+    assertThat(messages.get(Fingerprint.DUPLICATE, false, false).getTemplate())
+        .isEqualTo("foo [occurrence {occurrences} of fingerprint {fingerprint}]");
+  }
+
+  @Test
+  void get_fingerprintAndSuppressed() {
+    final MessageVariants messages = MessageVariants.ofExitedAbnormally(MessageTemplate.of("foo"));
+
+    assertThat(messages.get(Fingerprint.NONE, true, false)).isSameAs(messages.get(true));
+    assertThat(messages.get(Fingerprint.DUPLICATE, true, false).getTemplate())
+        .isEqualTo(
+            "foo [occurrence {occurrences} of fingerprint {fingerprint}]"
+                + " [{suppressed} calls suppressed by rate limit]");
+  }
+
+  @Test
+  void get_stackTrace() {
+    final MessageVariants messages = MessageVariants.ofExitedAbnormally(MessageTemplate.of("foo"));
+
+    assertThat(messages.get(Fingerprint.NONE, false, true).getTemplate())
+        .isEqualTo("foo{stack-trace}");
+    assertThat(messages.get(Fingerprint.FIRST_OCCURRENCE, true, true).getTemplate())
+        .isEqualTo(
+            "foo [fingerprint {fingerprint}]"
+                + " [{suppressed} calls suppressed by rate limit]{stack-trace}");
+  }
+
+  @Test
+  void fingerprint_firstOccurrence() {
+    final Occurrence occurrence =
+        new ExceptionDeduplicator<Object>(16).record(new IllegalStateException("foo"), 5, WINDOW);
+
+    assertThat(Fingerprint.of(occurrence, false)).isEqualTo(Fingerprint.FIRST_OCCURRENCE);
+    assertThat(Fingerprint.of(occurrence, true)).isEqualTo(Fingerprint.FIRST_OCCURRENCE);
+  }
+
+  @Test
+  void fingerprint_firstOccurrenceAfterDropped() throws InterruptedException {
+    final ExceptionDeduplicator<Object> deduplicator = new ExceptionDeduplicator<Object>(16);
+    final Throwable exception = new IllegalStateException("foo");
+    deduplicator.record(exception, 5, WINDOW);
+    deduplicator.record(exception, 5, WINDOW);
+    Thread.sleep(WINDOW.toMillis() + 1);
+
+    final Occurrence occurrence = deduplicator.record(exception, 5, WINDOW);
+
+    assertThat(Fingerprint.of(occurrence, true))
+        .isEqualTo(Fingerprint.FIRST_OCCURRENCE_AFTER_DROPPED);
+    assertThat(Fingerprint.of(occurrence, false)).isEqualTo(Fingerprint.FIRST_OCCURRENCE);
+  }
+
+  @Test
+  void fingerprint_duplicate() {
+    final ExceptionDeduplicator<Object> deduplicator = new ExceptionDeduplicator<Object>(16);
+    final Throwable exception = new IllegalStateException("foo");
+    deduplicator.record(exception, 5, WINDOW);
+
+    final Occurrence occurrence = deduplicator.record(exception, 5, WINDOW);
+
+    assertThat(Fingerprint.of(occurrence, false)).isEqualTo(Fingerprint.DUPLICATE);
+  }
+}
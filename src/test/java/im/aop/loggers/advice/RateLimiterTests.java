@@ -0,0 +1,123 @@
+package im.aop.loggers.advice;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link RateLimiter}.
+ *
+ * @author Andy Lian
+ */
+class RateLimiterTests {
+
+  private static final long NOW = 1_000_000_000L;
+
+  private static final long SECOND = Duration.ofSeconds(1).toNanos();
+
+  @Test
+  void tryAcquire_allowsBurstOfOneSecond() {
+    final RateLimiter rateLimiter = new RateLimiter(5, NOW);
+
+    for (int index = 0; index < 5; index++) {
+      assertThat(rateLimiter.tryAcquire(NOW)).isZero();
+    }
+    assertThat(rateLimiter.tryAcquire(NOW)).isEqualTo(RateLimiter.THROTTLED);
+  }
+
+  @Test
+  void tryAcquire_refillsAtRate() {
+    final RateLimiter rateLimiter = new RateLimiter(5, NOW);
+    for (int index = 0; index < 5; index++) {
+      rateLimiter.tryAcquire(NOW);
+    }
+
+    assertThat(rateLimiter.tryAcquire(NOW + SECOND / 5 - 1)).isEqualTo(RateLimiter.THROTTLED);
+    assertThat(rateLimiter.tryAcquire(NOW + SECOND / 5)).isEqualTo(1);
+    assertThat(rateLimiter.tryAcquire(NOW + SECOND / 5)).isEqualTo(RateLimiter.THROTTLED);
+  }
+
+  @Test
+  void tryAcquire_doesNotAccumulateMoreThanBurst() {
+    final RateLimiter rateLimiter = new RateLimiter(2, NOW);
+    final long later = NOW + 60 * SECOND;
+
+    assertThat(rateLimiter.tryAcquire(later)).isZero();
+    assertThat(rateLimiter.tryAcquire(later)).isZero();
+    assertThat(rateLimiter.tryAcquire(later)).isEqualTo(RateLimiter.THROTTLED);
+  }
+
+  @Test
+  void tryAcquire_returnsSuppressedSincePreviousPermit() {
+    final RateLimiter rateLimiter = new RateLimiter(1, NOW);
+    rateLimiter.tryAcquire(NOW);
+    rateLimiter.tryAcquire(NOW);
+    rateLimiter.tryAcquire(NOW);
+
+    assertThat(rateLimiter.tryAcquire(NOW + SECOND)).isEqualTo(2);
+    assertThat(rateLimiter.tryAcquire(NOW + 2 * SECOND)).isZero();
+  }
+
+  @Test
+  void tryAcquire_belowOnePerSecond() {
+    final RateLimiter rateLimiter = new RateLimiter(0.5d, NOW);
+
+    assertThat(rateLimiter.tryAcquire(NOW)).isZero();
+    assertThat(rateLimiter.tryAcquire(NOW + SECOND)).isEqualTo(RateLimiter.THROTTLED);
+    assertThat(rateLimiter.tryAcquire(NOW + 2 * SECOND)).isEqualTo(1);
+  }
+
+  @Test
+  void tryAcquire_acrossNanoTimeOverflow() {
+    final RateLimiter rateLimiter = new RateLimiter(1, Long.MAX_VALUE);
+
+    assertThat(rateLimiter.tryAcquire(Long.MAX_VALUE)).isZero();
+    assertThat(rateLimiter.tryAcquire(Long.MAX_VALUE + 1)).isEqualTo(RateLimiter.THROTTLED);
+    assertThat(rateLimiter.tryAcquire(Long.MAX_VALUE + SECOND)).isEqualTo(1);
+  }
+
+  @Test
+  void tryAcquire_concurrently() throws Exception {
+    final RateLimiter rateLimiter = new RateLimiter(100, NOW);
+    final int threads = 4;
+    final int calls = 1000;
+    final CountDownLatch start = new CountDownLatch(1);
+    final ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      final List<Future<Integer>> futures = new ArrayList<Future<Integer>>();
+      for (int thread = 0; thread < threads; thread++) {
+        final Callable<Integer> task =
+            () -> {
+              start.await();
+              int permits = 0;
+              for (int call = 0; call < calls; call++) {
+                if (rateLimiter.tryAcquire(NOW) != RateLimiter.THROTTLED) {
+                  permits++;
+                }
+              }
+              return permits;
+            };
+        futures.add(executor.submit(task));
+      }
+      start.countDown();
+
+      int permits = 0;
+      for (Future<Integer> future : futures) {
+        permits += future.get();
+      }
+      assertThat(permits).isEqualTo(100);
+      assertThat(rateLimiter.tryAcquire(NOW + SECOND / 100)).isEqualTo(threads * calls - 100);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+}
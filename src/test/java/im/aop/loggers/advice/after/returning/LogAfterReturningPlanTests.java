@@ -0,0 +1,113 @@
+package im.aop.loggers.advice.after.returning;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.lang.reflect.Method;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import im.aop.loggers.AopLoggersProperties;
+import im.aop.loggers.logging.Level;
+
+/**
+ * Tests for {@link LogAfterReturningPlan}.
+ *
+ * @author Andy Lian
+ */
+class LogAfterReturningPlanTests {
+
+  static class Foo {
+
+    void foo() {}
+  }
+
+  private Method method;
+
+  private AopLoggersProperties aopLoggersProperties;
+
+  @BeforeEach
+  void beforeEach() throws NoSuchMethodException {
+    method = Foo.class.getDeclaredMethod("foo");
+    aopLoggersProperties = new AopLoggersProperties();
+  }
+
+  @Test
+  void defaultValues() {
+    final LogAfterReturningPlan plan =
+        new LogAfterReturningPlan(
+            method, mockLogAfterReturning(Level.DEFAULT, ""), aopLoggersProperties);
+
+    assertThat(plan.getExitedLevel()).isEqualTo(aopLoggersProperties.getExitedLevel());
+    assertThat(plan.getExitedMessage().get().getTemplate())
+        .isEqualTo(aopLoggersProperties.getExitedMessage());
+  }
+
+  @Test
+  void customValues() {
+    final LogAfterReturningPlan plan =
+        new LogAfterReturningPlan(
+            method, mockLogAfterReturning(Level.INFO, "foo"), aopLoggersProperties);
+
+    assertThat(plan.getExitedLevel()).isEqualTo(Level.INFO);
+    assertThat(plan.getExitedMessage().get().getTemplate()).isEqualTo("foo");
+    assertThat(plan.getExitedMessage().get(true).getTemplate())
+        .isEqualTo("foo [{suppressed} calls suppressed by rate limit]");
+  }
+
+  @Test
+  void sampleRate_defaultValue() {
+    aopLoggersProperties.setSampleRate(0.5d);
+
+    final LogAfterReturningPlan plan =
+        new LogAfterReturningPlan(
+            method, mockLogAfterReturning(Level.INFO, "foo"), aopLoggersProperties);
+
+    assertThat(plan.getSampleRate()).isEqualTo(0.5d);
+  }
+
+  @Test
+  void sampleRate_customValue() {
+    final LogAfterReturning annotation = mockLogAfterReturning(Level.INFO, "foo");
+    when(annotation.sampleRate()).thenReturn(0.25d);
+    aopLoggersProperties.setSampleRate(0.5d);
+
+    final LogAfterReturningPlan plan =
+        new LogAfterReturningPlan(method, annotation, aopLoggersProperties);
+
+    assertThat(plan.getSampleRate()).isEqualTo(0.25d);
+  }
+
+  @Test
+  void rateLimit_defaultValue() {
+    aopLoggersProperties.setRateLimit(10.0d);
+
+    final LogAfterReturningPlan plan =
+        new LogAfterReturningPlan(
+            method, mockLogAfterReturning(Level.INFO, "foo"), aopLoggersProperties);
+
+    assertThat(plan.isRateLimited()).isTrue();
+  }
+
+  @Test
+  void rateLimit_customValue() {
+    final LogAfterReturning annotation = mockLogAfterReturning(Level.INFO, "foo");
+    when(annotation.rateLimit()).thenReturn(10.0d);
+
+    final LogAfterReturningPlan plan =
+        new LogAfterReturningPlan(method, annotation, aopLoggersProperties);
+
+    assertThat(plan.isRateLimited()).isTrue();
+  }
+
+  private LogAfterReturning mockLogAfterReturning(final Level level, final String message) {
+    final LogAfterReturning annotation = mock(LogAfterReturning.class);
+
+    when(annotation.level()).thenReturn(level);
+    when(annotation.exitedMessage()).thenReturn(message);
+
+    return annotation;
+  }
+}
@@ -1,14 +1,27 @@
 package im.aop.loggers.advice.after.returning;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
 import org.aspectj.lang.JoinPoint;
 import org.aspectj.lang.reflect.MethodSignature;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.slf4j.Logger;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.boot.logging.LogLevel;
 import org.springframework.boot.logging.LoggingSystem;
@@ -16,9 +29,16 @@ import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.boot.test.context.runner.ApplicationContextRunner;
 import org.springframework.boot.test.system.CapturedOutput;
 import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.util.StringUtils;
 
 import im.aop.loggers.AopLoggersProperties;
 import im.aop.loggers.logging.Level;
+import im.aop.loggers.logging.LogDispatcher;
+import im.aop.loggers.logging.SyncLogDispatcher;
+import im.aop.loggers.logging.message.StringSupplierLookup;
+import im.aop.loggers.logging.value.ValueRenderers;
+import im.aop.loggers.logging.value.ValueWriter;
+import im.aop.loggers.metrics.AdviceOverhead;
 
 /**
  * Tests for {@link LogAfterReturningService}.
@@ -31,7 +51,7 @@ class LogAfterReturningServiceTests {
   private final ApplicationContextRunner runner =
       new ApplicationContextRunner()
           .withUserConfiguration(AopLoggersPropertiesTestConfiguration.class)
-          .withBean(LogAfterReturningService.class);
+          .withUserConfiguration(LogAfterReturningConfiguration.class);
 
   @TestConfiguration(proxyBeanMethods = false)
   @EnableConfigurationProperties({AopLoggersProperties.class})
@@ -85,6 +105,52 @@ class LogAfterReturningServiceTests {
         });
   }
 
+  @Test
+  void logExitedMessage_renderingLimits(final CapturedOutput capturedOutput) {
+    runner
+        .withPropertyValues(AopLoggersProperties.PREFIX + ".rendering.max-collection-elements=1")
+        .run(
+            (context) -> {
+              final LogAfterReturning annotation =
+                  mockLogAfterReturning(Level.INFO, "{return-value}");
+              LoggingSystem.get(ClassLoader.getSystemClassLoader())
+                  .setLogLevel(Foo.class.getName(), LogLevel.INFO);
+
+              final LogAfterReturningService service =
+                  context.getBean(LogAfterReturningService.class);
+              service.logAfterReturning(joinPoint, annotation, Arrays.asList("foo", "bar"));
+
+              assertThat(capturedOutput)
+                  .contains("INFO " + Foo.class.getName() + " - [foo, ...]");
+            });
+  }
+
+  @Test
+  void logExitedMessage_givenValueWriter(final CapturedOutput capturedOutput) {
+    runner
+        .withBean(LogDispatcher.class, SyncLogDispatcher::new)
+        .withBean(
+            ValueWriter.class,
+            () ->
+                new ValueWriter(
+                    new AopLoggersProperties.Rendering(),
+                    Collections.singletonList(ValueRenderers.classNameOnly(List.class))))
+        .run(
+            (context) -> {
+              final LogAfterReturning annotation =
+                  mockLogAfterReturning(Level.INFO, "{return-value}");
+              LoggingSystem.get(ClassLoader.getSystemClassLoader())
+                  .setLogLevel(Foo.class.getName(), LogLevel.INFO);
+
+              final LogAfterReturningService service =
+                  context.getBean(LogAfterReturningService.class);
+              service.logAfterReturning(joinPoint, annotation, Arrays.asList("foo", "bar"));
+
+              assertThat(capturedOutput)
+                  .contains("INFO " + Foo.class.getName() + " - java.util.Arrays$ArrayList");
+            });
+  }
+
   @Test
   void logExitedMessage_defaultLevel(final CapturedOutput capturedOutput) {
     runner
@@ -155,57 +221,120 @@ class LogAfterReturningServiceTests {
   }
 
   @Test
-  void doesNotLogElapsed_whenDisabled(final CapturedOutput capturedOutput) {
+  void doesNotLogExitedMessage_whenNotSampled(final CapturedOutput capturedOutput) {
     runner
-        .withPropertyValues(AopLoggersProperties.PREFIX + ".enabled=false")
+        .withPropertyValues(AopLoggersProperties.PREFIX + ".sample-rate=0")
         .run(
             (context) -> {
               final LogAfterReturning annotation = mockLogAfterReturning(Level.INFO, "foo");
               LoggingSystem.get(ClassLoader.getSystemClassLoader())
                   .setLogLevel(Foo.class.getName(), LogLevel.INFO);
+
+              final LogAfterReturningService service =
+                  context.getBean(LogAfterReturningService.class);
+              service.logAfterReturning(joinPoint, annotation, "foo");
+
+              assertThat(capturedOutput).doesNotContain("INFO " + Foo.class.getName() + " - foo");
+            });
+  }
+
+  @Test
+  void logExitedMessage_whenSampledByAnnotation(final CapturedOutput capturedOutput) {
+    runner
+        .withPropertyValues(AopLoggersProperties.PREFIX + ".sample-rate=0")
+        .run(
+            (context) -> {
+              final LogAfterReturning annotation = mockLogAfterReturning(Level.INFO, "foo");
+              when(annotation.sampleRate()).thenReturn(1.0d);
               LoggingSystem.get(ClassLoader.getSystemClassLoader())
-                  .setLogLevel(LogAfterReturningService.class.getName(), LogLevel.DEBUG);
+                  .setLogLevel(Foo.class.getName(), LogLevel.INFO);
 
               final LogAfterReturningService service =
                   context.getBean(LogAfterReturningService.class);
               service.logAfterReturning(joinPoint, annotation, "foo");
 
-              assertThat(capturedOutput).doesNotContain("[logAfterReturning] elapsed [");
+              assertThat(capturedOutput).contains("INFO " + Foo.class.getName() + " - foo");
             });
   }
 
   @Test
-  void logElapsed_whenLoggerLevelDisabled(final CapturedOutput capturedOutput) {
-    runner.run(
-        (context) -> {
-          final LogAfterReturning annotation = mockLogAfterReturning(Level.DEBUG, "foo");
-          LoggingSystem.get(ClassLoader.getSystemClassLoader())
-              .setLogLevel(Foo.class.getName(), LogLevel.INFO);
-          LoggingSystem.get(ClassLoader.getSystemClassLoader())
-              .setLogLevel(LogAfterReturningService.class.getName(), LogLevel.DEBUG);
+  void doesNotLogExitedMessage_whenThrottled(final CapturedOutput capturedOutput) {
+    runner
+        .withPropertyValues(AopLoggersProperties.PREFIX + ".rate-limit=1")
+        .run(
+            (context) -> {
+              final LogAfterReturning annotation = mockLogAfterReturning(Level.INFO, "foo");
+              LoggingSystem.get(ClassLoader.getSystemClassLoader())
+                  .setLogLevel(Foo.class.getName(), LogLevel.INFO);
 
-          final LogAfterReturningService service = context.getBean(LogAfterReturningService.class);
-          service.logAfterReturning(joinPoint, annotation, "foo");
+              final LogAfterReturningService service =
+                  context.getBean(LogAfterReturningService.class);
+              service.logAfterReturning(joinPoint, annotation, "foo");
+              service.logAfterReturning(joinPoint, annotation, "foo");
 
-          assertThat(capturedOutput).contains("[logAfterReturning] elapsed [");
-        });
+              assertThat(
+                      StringUtils.countOccurrencesOf(
+                          capturedOutput.toString(), "INFO " + Foo.class.getName() + " - foo"))
+                  .isEqualTo(1);
+            });
   }
 
   @Test
-  void logElapsed_whenEnabled(final CapturedOutput capturedOutput) {
-    runner.run(
-        (context) -> {
-          final LogAfterReturning annotation = mockLogAfterReturning(Level.INFO, "foo");
-          LoggingSystem.get(ClassLoader.getSystemClassLoader())
-              .setLogLevel(Foo.class.getName(), LogLevel.INFO);
-          LoggingSystem.get(ClassLoader.getSystemClassLoader())
-              .setLogLevel(LogAfterReturningService.class.getName(), LogLevel.DEBUG);
+  void doesNotRecordOverhead_whenDisabled() {
+    runner
+        .withPropertyValues(
+            AopLoggersProperties.PREFIX + ".enabled=false",
+            AopLoggersProperties.PREFIX + ".overhead.enabled=true")
+        .run(
+            (context) -> {
+              final LogAfterReturning annotation = mockLogAfterReturning(Level.INFO, "foo");
+              LoggingSystem.get(ClassLoader.getSystemClassLoader())
+                  .setLogLevel(Foo.class.getName(), LogLevel.INFO);
 
-          final LogAfterReturningService service = context.getBean(LogAfterReturningService.class);
-          service.logAfterReturning(joinPoint, annotation, "foo");
+              final LogAfterReturningService service =
+                  context.getBean(LogAfterReturningService.class);
+              service.logAfterReturning(joinPoint, annotation, "foo");
 
-          assertThat(capturedOutput).contains("[logAfterReturning] elapsed [");
-        });
+              assertThat(overheadCalls("LogAfterReturning")).isEqualTo(0L);
+            });
+  }
+
+  @Test
+  void recordOverhead_whenLoggerLevelDisabled() {
+    runner
+        .withPropertyValues(AopLoggersProperties.PREFIX + ".overhead.enabled=true")
+        .run(
+            (context) -> {
+              final LogAfterReturning annotation = mockLogAfterReturning(Level.DEBUG, "foo");
+              LoggingSystem.get(ClassLoader.getSystemClassLoader())
+                  .setLogLevel(Foo.class.getName(), LogLevel.INFO);
+
+              final LogAfterReturningService service =
+
+                  context.getBean(LogAfterReturningService.class);
+              service.logAfterReturning(joinPoint, annotation, "foo");
+
+              assertThat(overheadCalls("LogAfterReturning")).isEqualTo(1L);
+            });
+  }
+
+  @Test
+  void recordOverhead_whenEnabled() {
+    runner
+        .withPropertyValues(AopLoggersProperties.PREFIX + ".overhead.enabled=true")
+        .run(
+            (context) -> {
+              final LogAfterReturning annotation = mockLogAfterReturning(Level.INFO, "foo");
+              LoggingSystem.get(ClassLoader.getSystemClassLoader())
+                  .setLogLevel(Foo.class.getName(), LogLevel.INFO);
+
+              final LogAfterReturningService service =
+
+                  context.getBean(LogAfterReturningService.class);
+              service.logAfterReturning(joinPoint, annotation, "foo");
+
+              assertThat(overheadCalls("LogAfterReturning")).isEqualTo(1L);
+            });
   }
 
   private MethodSignature mockMethodSignature(
@@ -229,6 +358,31 @@ class LogAfterReturningServiceTests {
     return joinPoint;
   }
 
+  @Test
+  void logExitedMessage_withLogDispatcher() {
+    final LogDispatcher logDispatcher = mock(LogDispatcher.class);
+    runner
+        .withBean(LogDispatcher.class, () -> logDispatcher)
+        .run(
+            (context) -> {
+              final LogAfterReturning annotation = mockLogAfterReturning(Level.INFO, "foo");
+              LoggingSystem.get(ClassLoader.getSystemClassLoader())
+                  .setLogLevel(Foo.class.getName(), LogLevel.INFO);
+
+              final LogAfterReturningService service =
+
+                  context.getBean(LogAfterReturningService.class);
+              service.logAfterReturning(joinPoint, annotation, "foo");
+
+              verify(logDispatcher)
+                  .log(
+                      any(Logger.class),
+                      eq(Level.INFO),
+                      argThat((template) -> "foo".equals(template.getTemplate())),
+                      any(StringSupplierLookup.class));
+            });
+  }
+
   private LogAfterReturning mockLogAfterReturning(final Level level, final String message) {
     final LogAfterReturning annotation = mock(LogAfterReturning.class);
 
@@ -237,4 +391,12 @@ class LogAfterReturningServiceTests {
 
     return annotation;
   }
+
+  private static long overheadCalls(final String advice) throws JMException {
+    return (Long)
+        ManagementFactory.getPlatformMBeanServer()
+            .getAttribute(
+                new ObjectName(AdviceOverhead.DOMAIN + ":type=AdviceOverhead,advice=" + advice),
+                "Calls");
+  }
 }
@@ -67,4 +67,40 @@ class LogAfterReturningThrowingTests {
     final LogAfterReturning annotation = Local.class.getAnnotation(LogAfterReturning.class);
     assertThat(annotation.exitedMessage()).isEqualTo("foo");
   }
+
+  @Test
+  void sampleRate_defaultValue() {
+    @LogAfterReturning
+    class Local {};
+
+    final LogAfterReturning annotation = Local.class.getAnnotation(LogAfterReturning.class);
+    assertThat(annotation.sampleRate()).isZero();
+  }
+
+  @Test
+  void sampleRate_givenAttributeValue() {
+    @LogAfterReturning(sampleRate = 0.5d)
+    class Local {};
+
+    final LogAfterReturning annotation = Local.class.getAnnotation(LogAfterReturning.class);
+    assertThat(annotation.sampleRate()).isEqualTo(0.5d);
+  }
+
+  @Test
+  void rateLimit_defaultValue() {
+    @LogAfterReturning
+    class Local {};
+
+    final LogAfterReturning annotation = Local.class.getAnnotation(LogAfterReturning.class);
+    assertThat(annotation.rateLimit()).isZero();
+  }
+
+  @Test
+  void rateLimit_givenAttributeValue() {
+    @LogAfterReturning(rateLimit = 10)
+    class Local {};
+
+    final LogAfterReturning annotation = Local.class.getAnnotation(LogAfterReturning.class);
+    assertThat(annotation.rateLimit()).isEqualTo(10.0d);
+  }
 }
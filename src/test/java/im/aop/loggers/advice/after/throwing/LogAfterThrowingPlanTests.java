@@ -0,0 +1,204 @@
+package im.aop.loggers.advice.after.throwing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.lang.reflect.Method;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import im.aop.loggers.AopLoggersProperties;
+import im.aop.loggers.logging.Level;
+import im.aop.loggers.metrics.MethodMetrics;
+
+/**
+ * Tests for {@link LogAfterThrowingPlan}.
+ *
+ * @author Andy Lian
+ */
+class LogAfterThrowingPlanTests {
+
+  static class Foo {
+
+    void foo() {}
+  }
+
+  private Method method;
+
+  private AopLoggersProperties aopLoggersProperties;
+
+  @BeforeEach
+  void beforeEach() throws NoSuchMethodException {
+    method = Foo.class.getDeclaredMethod("foo");
+    aopLoggersProperties = new AopLoggersProperties();
+  }
+
+  @Test
+  void defaultValues() {
+    final LogAfterThrowingPlan plan =
+        new LogAfterThrowingPlan(
+            method, mockLogAfterThrowing(Level.DEFAULT, ""), aopLoggersProperties);
+
+    assertThat(plan.getExitedAbnormallyLevel())
+        .isEqualTo(aopLoggersProperties.getExitedAbnormallyLevel());
+    assertThat(plan.getExitedAbnormallyMessage().get().getTemplate())
+        .isEqualTo(aopLoggersProperties.getExitedAbnormallyMessage());
+    assertThat(plan.isPrintStackTrace()).isTrue();
+  }
+
+  @Test
+  void customValues() {
+    final LogAfterThrowingPlan plan =
+        new LogAfterThrowingPlan(
+            method, mockLogAfterThrowing(Level.INFO, "foo"), aopLoggersProperties);
+
+    assertThat(plan.getExitedAbnormallyLevel()).isEqualTo(Level.INFO);
+    assertThat(plan.getExitedAbnormallyMessage().get().getTemplate()).isEqualTo("foo");
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void isIgnoredException_mergesAnnotationAndProperties() {
+    final LogAfterThrowing annotation = mockLogAfterThrowing(Level.INFO, "foo");
+    when(annotation.ignoreExceptions()).thenReturn(new Class[] {IllegalArgumentException.class});
+    aopLoggersProperties.setIgnoreExceptions(new Class[] {IllegalStateException.class});
+
+    final LogAfterThrowingPlan plan =
+        new LogAfterThrowingPlan(method, annotation, aopLoggersProperties);
+
+    assertThat(plan.isIgnoredException(new IllegalArgumentException())).isTrue();
+    assertThat(plan.isIgnoredException(new IllegalStateException())).isTrue();
+    assertThat(plan.isIgnoredException(new RuntimeException())).isFalse();
+  }
+
+  @Test
+  void sampleRate_defaultValue() {
+    aopLoggersProperties.setSampleRate(0.5d);
+
+    final LogAfterThrowingPlan plan =
+        new LogAfterThrowingPlan(
+            method, mockLogAfterThrowing(Level.INFO, "foo"), aopLoggersProperties);
+
+    assertThat(plan.getSampleRate()).isEqualTo(0.5d);
+  }
+
+  @Test
+  void sampleRate_customValue() {
+    final LogAfterThrowing annotation = mockLogAfterThrowing(Level.INFO, "foo");
+    when(annotation.sampleRate()).thenReturn(0.25d);
+    aopLoggersProperties.setSampleRate(0.5d);
+
+    final LogAfterThrowingPlan plan =
+        new LogAfterThrowingPlan(method, annotation, aopLoggersProperties);
+
+    assertThat(plan.getSampleRate()).isEqualTo(0.25d);
+  }
+
+  @Test
+  void rateLimit_defaultValue() {
+    aopLoggersProperties.setRateLimit(10.0d);
+
+    final LogAfterThrowingPlan plan =
+        new LogAfterThrowingPlan(
+            method, mockLogAfterThrowing(Level.INFO, "foo"), aopLoggersProperties);
+
+    assertThat(plan.isRateLimited()).isTrue();
+  }
+
+  @Test
+  void rateLimit_customValue() {
+    final LogAfterThrowing annotation = mockLogAfterThrowing(Level.INFO, "foo");
+    when(annotation.rateLimit()).thenReturn(10.0d);
+
+    final LogAfterThrowingPlan plan =
+        new LogAfterThrowingPlan(method, annotation, aopLoggersProperties);
+
+    assertThat(plan.isRateLimited()).isTrue();
+  }
+
+  @Test
+  void stackTraceRenderer_defaultValue() {
+    final LogAfterThrowingPlan plan =
+        new LogAfterThrowingPlan(
+            method, mockLogAfterThrowing(Level.INFO, "foo"), aopLoggersProperties);
+
+    assertThat(plan.getStackTraceRenderer()).isNull();
+  }
+
+  @Test
+  void stackTraceRenderer_customValue() {
+    final LogAfterThrowing annotation = mockLogAfterThrowing(Level.INFO, "foo");
+    when(annotation.stackTraceMaxDepth()).thenReturn(10);
+
+    final LogAfterThrowingPlan plan =
+        new LogAfterThrowingPlan(method, annotation, aopLoggersProperties);
+
+    assertThat(plan.getStackTraceRenderer()).isNotNull();
+  }
+
+  @Test
+  void metricsOnly_defaultValue() {
+    final LogAfterThrowingPlan plan =
+        new LogAfterThrowingPlan(
+            method, mockLogAfterThrowing(Level.INFO, "foo"), aopLoggersProperties);
+
+    assertThat(plan.isMetricsOnly()).isFalse();
+  }
+
+  @Test
+  void metricsOnly_givenAnnotation() {
+    final LogAfterThrowing annotation = mockLogAfterThrowing(Level.INFO, "foo");
+    when(annotation.metricsOnly()).thenReturn(true);
+
+    final LogAfterThrowingPlan plan =
+        new LogAfterThrowingPlan(method, annotation, aopLoggersProperties);
+
+    assertThat(plan.isMetricsOnly()).isTrue();
+  }
+
+  @Test
+  void metricsOnly_givenProperty() {
+    aopLoggersProperties.setMetricsOnly(true);
+
+    final LogAfterThrowingPlan plan =
+        new LogAfterThrowingPlan(
+            method, mockLogAfterThrowing(Level.INFO, "foo"), aopLoggersProperties);
+
+    assertThat(plan.isMetricsOnly()).isTrue();
+  }
+
+  @Test
+  void recordException_givenMethodMetrics() {
+    final MethodMetrics methodMetrics = mock(MethodMetrics.class);
+    final LogAfterThrowingPlan plan =
+        new LogAfterThrowingPlan(
+            method, mockLogAfterThrowing(Level.INFO, "foo"), aopLoggersProperties, methodMetrics);
+    final IllegalStateException exception = new IllegalStateException();
+
+    plan.recordException(exception);
+
+    verify(methodMetrics).recordException(exception);
+  }
+
+  @Test
+  void recordException_withoutMethodMetrics() {
+    final LogAfterThrowingPlan plan =
+        new LogAfterThrowingPlan(
+            method, mockLogAfterThrowing(Level.INFO, "foo"), aopLoggersProperties);
+
+    plan.recordException(new IllegalStateException());
+  }
+
+  private LogAfterThrowing mockLogAfterThrowing(final Level level, final String message) {
+    final LogAfterThrowing annotation = mock(LogAfterThrowing.class);
+
+    when(annotation.level()).thenReturn(level);
+    when(annotation.exitedAbnormallyMessage()).thenReturn(message);
+    when(annotation.printStackTrace()).thenReturn(true);
+
+    return annotation;
+  }
+}
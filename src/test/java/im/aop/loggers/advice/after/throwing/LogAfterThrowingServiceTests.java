@@ -1,15 +1,28 @@
 package im.aop.loggers.advice.after.throwing;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.aspectj.lang.JoinPoint;
 import org.aspectj.lang.reflect.MethodSignature;
 import org.assertj.core.util.Arrays;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.slf4j.Logger;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.boot.logging.LogLevel;
 import org.springframework.boot.logging.LoggingSystem;
@@ -17,10 +30,17 @@ import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.boot.test.context.runner.ApplicationContextRunner;
 import org.springframework.boot.test.system.CapturedOutput;
 import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.util.StringUtils;
 
 import im.aop.loggers.AopLoggersProperties;
 import im.aop.loggers.advice.after.returning.LogAfterReturningService;
 import im.aop.loggers.logging.Level;
+import im.aop.loggers.logging.LogDispatcher;
+import im.aop.loggers.logging.SyncLogDispatcher;
+import im.aop.loggers.logging.message.StringSupplierLookup;
+import im.aop.loggers.metrics.AdviceOverhead;
+import im.aop.loggers.metrics.MetricsRecorder;
+import im.aop.loggers.metrics.micrometer.MicrometerMetricsRecorder;
 
 /**
  * Tests for {@link LogAfterReturningService}.
@@ -33,7 +53,7 @@ class LogAfterThrowingServiceTests {
   private final ApplicationContextRunner runner =
       new ApplicationContextRunner()
           .withUserConfiguration(AopLoggersPropertiesTestConfiguration.class)
-          .withBean(LogAfterThrowingService.class);
+          .withUserConfiguration(LogAfterThrowingConfiguration.class);
 
   @TestConfiguration(proxyBeanMethods = false)
   @EnableConfigurationProperties({AopLoggersProperties.class})
@@ -259,96 +279,209 @@ class LogAfterThrowingServiceTests {
   }
 
   @Test
-  void doesNotLogElapsed_whenDisabled(final CapturedOutput capturedOutput) {
+  void doesNotLogExitedAbnormallyMessage_whenNotSampled(final CapturedOutput capturedOutput) {
     runner
-        .withPropertyValues(AopLoggersProperties.PREFIX + ".enabled=false")
+        .withPropertyValues(AopLoggersProperties.PREFIX + ".sample-rate=0")
         .run(
             (context) -> {
-              final LogAfterThrowing annotation = mockLogAfterThrowing(Level.ERROR, "foo", null);
+              final LogAfterThrowing annotation = mockLogAfterThrowing(Level.INFO, "foo", null);
               LoggingSystem.get(ClassLoader.getSystemClassLoader())
-                  .setLogLevel(Foo.class.getName(), LogLevel.ERROR);
+                  .setLogLevel(Foo.class.getName(), LogLevel.INFO);
+
+              final LogAfterThrowingService service =
+                  context.getBean(LogAfterThrowingService.class);
+              service.logAfterThrowing(joinPoint, annotation, new RuntimeException("foo"));
+
+              assertThat(capturedOutput).doesNotContain("INFO " + Foo.class.getName() + " - foo");
+            });
+  }
+
+  @Test
+  void logExitedAbnormallyMessage_whenSampledByAnnotation(final CapturedOutput capturedOutput) {
+    runner
+        .withPropertyValues(AopLoggersProperties.PREFIX + ".sample-rate=0")
+        .run(
+            (context) -> {
+              final LogAfterThrowing annotation = mockLogAfterThrowing(Level.INFO, "foo", null);
+              when(annotation.sampleRate()).thenReturn(1.0d);
               LoggingSystem.get(ClassLoader.getSystemClassLoader())
-                  .setLogLevel(LogAfterThrowingService.class.getName(), LogLevel.DEBUG);
+                  .setLogLevel(Foo.class.getName(), LogLevel.INFO);
 
               final LogAfterThrowingService service =
                   context.getBean(LogAfterThrowingService.class);
               service.logAfterThrowing(joinPoint, annotation, new RuntimeException("foo"));
 
-              assertThat(capturedOutput).doesNotContain("[logAfterThrowing] elapsed [");
+              assertThat(capturedOutput).contains("INFO " + Foo.class.getName() + " - foo");
             });
   }
 
   @Test
-  void logElapsed_whenLoggerLevelDisabled(final CapturedOutput capturedOutput) {
+  void doesNotLogExitedAbnormallyMessage_whenThrottled(final CapturedOutput capturedOutput) {
+    runner
+        .withPropertyValues(AopLoggersProperties.PREFIX + ".rate-limit=1")
+        .run(
+            (context) -> {
+              final LogAfterThrowing annotation = mockLogAfterThrowing(Level.INFO, "foo", null);
+              LoggingSystem.get(ClassLoader.getSystemClassLoader())
+                  .setLogLevel(Foo.class.getName(), LogLevel.INFO);
+
+              final LogAfterThrowingService service =
+                  context.getBean(LogAfterThrowingService.class);
+              service.logAfterThrowing(joinPoint, annotation, new RuntimeException("foo"));
+              service.logAfterThrowing(joinPoint, annotation, new RuntimeException("foo"));
+
+              assertThat(
+                      StringUtils.countOccurrencesOf(
+                          capturedOutput.toString(), "INFO " + Foo.class.getName() + " - foo"))
+                  .isEqualTo(1);
+            });
+  }
+
+  @Test
+  void logExitedAbnormallyMessage_withSuppressedCount(final CapturedOutput capturedOutput) {
     runner.run(
         (context) -> {
-          final LogAfterThrowing annotation = mockLogAfterThrowing(Level.ERROR, "foo", null);
-          LoggingSystem.get(ClassLoader.getSystemClassLoader())
-              .setLogLevel(Foo.class.getName(), LogLevel.ERROR);
+          final LogAfterThrowing annotation = mockLogAfterThrowing(Level.INFO, "foo", null);
+          when(annotation.rateLimit()).thenReturn(1.0d);
           LoggingSystem.get(ClassLoader.getSystemClassLoader())
-              .setLogLevel(LogAfterThrowingService.class.getName(), LogLevel.DEBUG);
+              .setLogLevel(Foo.class.getName(), LogLevel.INFO);
 
-          final LogAfterThrowingService service = context.getBean(LogAfterThrowingService.class);
+          final LogAfterThrowingService service =
+              context.getBean(LogAfterThrowingService.class);
+          service.logAfterThrowing(joinPoint, annotation, new RuntimeException("foo"));
+          service.logAfterThrowing(joinPoint, annotation, new RuntimeException("foo"));
+          service.logAfterThrowing(joinPoint, annotation, new RuntimeException("foo"));
+          Thread.sleep(1100);
           service.logAfterThrowing(joinPoint, annotation, new RuntimeException("foo"));
 
-          assertThat(capturedOutput).contains("[logAfterThrowing] elapsed [");
+          assertThat(capturedOutput)
+              .contains(
+                  "INFO " + Foo.class.getName() + " - foo [2 calls suppressed by rate limit]");
         });
   }
 
   @Test
-  void logElapsed_whenMatchPropertyIgnoreExceptions(final CapturedOutput capturedOutput) {
+  void doesNotRecordOverhead_whenDisabled() {
     runner
         .withPropertyValues(
-            AopLoggersProperties.PREFIX + ".ignore-exceptions=java.lang.RuntimeException")
+            AopLoggersProperties.PREFIX + ".enabled=false",
+            AopLoggersProperties.PREFIX + ".overhead.enabled=true")
+        .run(
+            (context) -> {
+              final LogAfterThrowing annotation = mockLogAfterThrowing(Level.ERROR, "foo", null);
+              LoggingSystem.get(ClassLoader.getSystemClassLoader())
+                  .setLogLevel(Foo.class.getName(), LogLevel.ERROR);
+
+              final LogAfterThrowingService service =
+                  context.getBean(LogAfterThrowingService.class);
+              service.logAfterThrowing(joinPoint, annotation, new RuntimeException("foo"));
+
+              assertThat(overheadCalls("LogAfterThrowing")).isEqualTo(0L);
+            });
+  }
+
+  @Test
+  void recordOverhead_whenLoggerLevelDisabled() {
+    runner
+        .withPropertyValues(AopLoggersProperties.PREFIX + ".overhead.enabled=true")
         .run(
             (context) -> {
               final LogAfterThrowing annotation = mockLogAfterThrowing(Level.ERROR, "foo", null);
               LoggingSystem.get(ClassLoader.getSystemClassLoader())
                   .setLogLevel(Foo.class.getName(), LogLevel.ERROR);
+
+              final LogAfterThrowingService service =
+
+                  context.getBean(LogAfterThrowingService.class);
+              service.logAfterThrowing(joinPoint, annotation, new RuntimeException("foo"));
+
+              assertThat(overheadCalls("LogAfterThrowing")).isEqualTo(1L);
+            });
+  }
+
+  @Test
+  void recordOverhead_whenMatchPropertyIgnoreExceptions() {
+    runner
+        .withPropertyValues(
+            AopLoggersProperties.PREFIX + ".ignore-exceptions=java.lang.RuntimeException",
+            AopLoggersProperties.PREFIX + ".overhead.enabled=true")
+        .run(
+            (context) -> {
+              final LogAfterThrowing annotation = mockLogAfterThrowing(Level.ERROR, "foo", null);
               LoggingSystem.get(ClassLoader.getSystemClassLoader())
-                  .setLogLevel(LogAfterThrowingService.class.getName(), LogLevel.DEBUG);
+                  .setLogLevel(Foo.class.getName(), LogLevel.ERROR);
 
               final LogAfterThrowingService service =
                   context.getBean(LogAfterThrowingService.class);
               service.logAfterThrowing(joinPoint, annotation, new RuntimeException());
 
-              assertThat(capturedOutput).contains("[logAfterThrowing] elapsed [");
+              assertThat(overheadCalls("LogAfterThrowing")).isEqualTo(1L);
             });
   }
 
   @Test
-  void logElapsed_whenMatchAttributeIgnoreExceptions(final CapturedOutput capturedOutput) {
-    runner.run(
-        (context) -> {
-          final LogAfterThrowing annotation =
-              mockLogAfterThrowing(Level.ERROR, "foo", Arrays.array(RuntimeException.class));
-          LoggingSystem.get(ClassLoader.getSystemClassLoader())
-              .setLogLevel(Foo.class.getName(), LogLevel.ERROR);
-          LoggingSystem.get(ClassLoader.getSystemClassLoader())
-              .setLogLevel(LogAfterThrowingService.class.getName(), LogLevel.DEBUG);
+  void recordOverhead_whenMatchAttributeIgnoreExceptions() {
+    runner
+        .withPropertyValues(AopLoggersProperties.PREFIX + ".overhead.enabled=true")
+        .run(
+            (context) -> {
+              final LogAfterThrowing annotation =
+                  mockLogAfterThrowing(Level.ERROR, "foo", Arrays.array(RuntimeException.class));
+              LoggingSystem.get(ClassLoader.getSystemClassLoader())
+                  .setLogLevel(Foo.class.getName(), LogLevel.ERROR);
 
-          final LogAfterThrowingService service = context.getBean(LogAfterThrowingService.class);
-          service.logAfterThrowing(joinPoint, annotation, new RuntimeException());
+              final LogAfterThrowingService service =
 
-          assertThat(capturedOutput).contains("[logAfterThrowing] elapsed [");
-        });
+                  context.getBean(LogAfterThrowingService.class);
+              service.logAfterThrowing(joinPoint, annotation, new RuntimeException());
+
+              assertThat(overheadCalls("LogAfterThrowing")).isEqualTo(1L);
+            });
   }
 
   @Test
-  void logElapsed_whenEnabled(final CapturedOutput capturedOutput) {
-    runner.run(
-        (context) -> {
-          final LogAfterThrowing annotation = mockLogAfterThrowing(Level.ERROR, "foo", null);
-          LoggingSystem.get(ClassLoader.getSystemClassLoader())
-              .setLogLevel(Foo.class.getName(), LogLevel.ERROR);
-          LoggingSystem.get(ClassLoader.getSystemClassLoader())
-              .setLogLevel(LogAfterThrowingService.class.getName(), LogLevel.DEBUG);
+  void recordOverhead_whenEnabled() {
+    runner
+        .withPropertyValues(AopLoggersProperties.PREFIX + ".overhead.enabled=true")
+        .run(
+            (context) -> {
+              final LogAfterThrowing annotation = mockLogAfterThrowing(Level.ERROR, "foo", null);
+              LoggingSystem.get(ClassLoader.getSystemClassLoader())
+                  .setLogLevel(Foo.class.getName(), LogLevel.ERROR);
 
-          final LogAfterThrowingService service = context.getBean(LogAfterThrowingService.class);
-          service.logAfterThrowing(joinPoint, annotation, new RuntimeException("foo"));
+              final LogAfterThrowingService service =
 
-          assertThat(capturedOutput).contains("[logAfterThrowing] elapsed [");
-        });
+                  context.getBean(LogAfterThrowingService.class);
+              service.logAfterThrowing(joinPoint, annotation, new RuntimeException("foo"));
+
+              assertThat(overheadCalls("LogAfterThrowing")).isEqualTo(1L);
+            });
+  }
+
+  @Test
+  void logExitedAbnormallyMessage_withLogDispatcher() {
+    final LogDispatcher logDispatcher = mock(LogDispatcher.class);
+    runner
+        .withBean(LogDispatcher.class, () -> logDispatcher)
+        .run(
+            (context) -> {
+              final LogAfterThrowing annotation = mockLogAfterThrowing(Level.INFO, "foo", null);
+              LoggingSystem.get(ClassLoader.getSystemClassLoader())
+                  .setLogLevel(Foo.class.getName(), LogLevel.INFO);
+
+              final LogAfterThrowingService service =
+
+                  context.getBean(LogAfterThrowingService.class);
+              service.logAfterThrowing(joinPoint, annotation, new RuntimeException());
+
+              verify(logDispatcher)
+                  .logException(
+                      any(Logger.class),
+                      eq(Level.INFO),
+                      argThat((template) -> "foo".equals(template.getTemplate())),
+                      any(StringSupplierLookup.class),
+                      any(RuntimeException.class));
+            });
   }
 
   private LogAfterThrowing mockLogAfterThrowing(
@@ -400,6 +533,227 @@ class LogAfterThrowingServiceTests {
         });
   }
 
+  @Test
+  void logExitedAbnormallyMessage_withFingerprint(final CapturedOutput capturedOutput) {
+    runner
+        .withPropertyValues(AopLoggersProperties.PREFIX + ".exception-dedup.enabled=true")
+        .run(
+            (context) -> {
+              final LogAfterThrowing annotation = mockLogAfterThrowing(Level.INFO, "foo", true);
+              LoggingSystem.get(ClassLoader.getSystemClassLoader())
+                  .setLogLevel(Foo.class.getName(), LogLevel.INFO);
+
+              final LogAfterThrowingService service =
+                  context.getBean(LogAfterThrowingService.class);
+              final RuntimeException exception = new RuntimeException("foo");
+              service.logAfterThrowing(joinPoint, annotation, exception);
+              service.logAfterThrowing(joinPoint, annotation, exception);
+
+              assertThat(capturedOutput)
+                  .containsSubsequence(
+                      "INFO " + Foo.class.getName() + " - foo [fingerprint ",
+                      "java.lang.RuntimeException: foo",
+                      "INFO " + Foo.class.getName() + " - foo [occurrence 2 of fingerprint ");
+              assertThat(
+                      StringUtils.countOccurrencesOf(
+                          capturedOutput.toString(), "java.lang.RuntimeException: foo"))
+                  .isEqualTo(1);
+            });
+  }
+
+  @Test
+  void doesNotLogDuplicateExitedAbnormallyMessage_whenDropDuplicates(
+      final CapturedOutput capturedOutput) {
+    runner
+        .withPropertyValues(
+            AopLoggersProperties.PREFIX + ".exception-dedup.enabled=true",
+            AopLoggersProperties.PREFIX + ".exception-dedup.duplicate-policy=DROP")
+        .run(
+            (context) -> {
+              final LogAfterThrowing annotation = mockLogAfterThrowing(Level.INFO, "foo", false);
+              LoggingSystem.get(ClassLoader.getSystemClassLoader())
+                  .setLogLevel(Foo.class.getName(), LogLevel.INFO);
+
+              final LogAfterThrowingService service =
+                  context.getBean(LogAfterThrowingService.class);
+              final RuntimeException exception = new RuntimeException("foo");
+              service.logAfterThrowing(joinPoint, annotation, exception);
+              service.logAfterThrowing(joinPoint, annotation, exception);
+
+              assertThat(
+                      StringUtils.countOccurrencesOf(
+                          capturedOutput.toString(), "INFO " + Foo.class.getName() + " - foo"))
+                  .isEqualTo(1);
+            });
+  }
+
+  @Test
+  void logDroppedDuplicates_onFirstOccurrenceOfNextWindow(final CapturedOutput capturedOutput) {
+    runner
+        .withPropertyValues(
+            AopLoggersProperties.PREFIX + ".exception-dedup.enabled=true",
+            AopLoggersProperties.PREFIX + ".exception-dedup.duplicate-policy=DROP",
+            AopLoggersProperties.PREFIX + ".exception-dedup.window=200ms")
+        .run(
+            (context) -> {
+              final LogAfterThrowing annotation = mockLogAfterThrowing(Level.INFO, "foo", false);
+              LoggingSystem.get(ClassLoader.getSystemClassLoader())
+                  .setLogLevel(Foo.class.getName(), LogLevel.INFO);
+
+              final LogAfterThrowingService service =
+                  context.getBean(LogAfterThrowingService.class);
+              final RuntimeException exception = new RuntimeException("foo");
+              service.logAfterThrowing(joinPoint, annotation, exception);
+              service.logAfterThrowing(joinPoint, annotation, exception);
+              service.logAfterThrowing(joinPoint, annotation, exception);
+              Thread.sleep(300);
+              service.logAfterThrowing(joinPoint, annotation, exception);
+
+              assertThat(capturedOutput)
+                  .contains(", 2 more occurrences since last logged]");
+            });
+  }
+
+  @Test
+  void logDroppedDuplicates_whenWindowCloses(final CapturedOutput capturedOutput) {
+    runner
+        .withPropertyValues(
+            AopLoggersProperties.PREFIX + ".exception-dedup.enabled=true",
+            AopLoggersProperties.PREFIX + ".exception-dedup.duplicate-policy=DROP",
+            AopLoggersProperties.PREFIX + ".exception-dedup.window=50ms")
+        .run(
+            (context) -> {
+              final LogAfterThrowing annotation = mockLogAfterThrowing(Level.INFO, "foo", false);
+              LoggingSystem.get(ClassLoader.getSystemClassLoader())
+                  .setLogLevel(Foo.class.getName(), LogLevel.INFO);
+
+              final LogAfterThrowingService service =
+                  context.getBean(LogAfterThrowingService.class);
+              final RuntimeException exception = new RuntimeException("foo");
+              service.logAfterThrowing(joinPoint, annotation, exception);
+              service.logAfterThrowing(joinPoint, annotation, exception);
+
+              final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+              while (capturedOutput.toString().contains(" dropped 1 duplicate occurrences") == false
+                  && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+              }
+              assertThat(capturedOutput)
+                  .contains("INFO " + Foo.class.getName() + " - [")
+                  .contains("] dropped 1 duplicate occurrences of fingerprint ");
+            });
+  }
+
+  @Test
+  void logCompactStackTrace_whenStackTraceMaxDepth(final CapturedOutput capturedOutput) {
+    runner
+        .withPropertyValues(AopLoggersProperties.PREFIX + ".stack-trace-max-depth=1")
+        .run(
+            (context) -> {
+              final LogAfterThrowing annotation = mockLogAfterThrowing(Level.INFO, "foo", true);
+              LoggingSystem.get(ClassLoader.getSystemClassLoader())
+                  .setLogLevel(Foo.class.getName(), LogLevel.INFO);
+
+              final LogAfterThrowingService service =
+                  context.getBean(LogAfterThrowingService.class);
+              service.logAfterThrowing(joinPoint, annotation, new RuntimeException("foo"));
+
+              assertThat(capturedOutput)
+                  .containsSubsequence(
+                      "INFO " + Foo.class.getName() + " - foo" + System.lineSeparator(),
+                      "java.lang.RuntimeException: foo" + System.lineSeparator(),
+                      "\tat " + getClass().getName(),
+                      System.lineSeparator() + "\t... ",
+                      " more");
+              final String output = capturedOutput.toString();
+              final int stackTraceStart = output.indexOf("java.lang.RuntimeException: foo");
+              final String stackTrace =
+                  output.substring(stackTraceStart, output.indexOf(" more", stackTraceStart));
+              assertThat(StringUtils.countOccurrencesOf(stackTrace, "\tat ")).isEqualTo(1);
+            });
+  }
+
+  @Test
+  void recordExceptionMetric(final CapturedOutput capturedOutput) {
+    final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    runner
+        .withBean(LogDispatcher.class, SyncLogDispatcher::new)
+        .withBean(MetricsRecorder.class, () -> new MicrometerMetricsRecorder(meterRegistry))
+        .run(
+            (context) -> {
+              final LogAfterThrowing annotation = mockLogAfterThrowing(Level.INFO, "foo", false);
+              LoggingSystem.get(ClassLoader.getSystemClassLoader())
+                  .setLogLevel(Foo.class.getName(), LogLevel.INFO);
+
+              final LogAfterThrowingService service =
+                  context.getBean(LogAfterThrowingService.class);
+              service.logAfterThrowing(joinPoint, annotation, new RuntimeException("foo"));
+
+              assertThat(capturedOutput).contains("INFO " + Foo.class.getName() + " - foo");
+              assertThat(
+                      meterRegistry
+                          .get(MicrometerMetricsRecorder.EXCEPTIONS_METRIC)
+                          .tag(MicrometerMetricsRecorder.METHOD_TAG, "foo")
+                          .tag(MicrometerMetricsRecorder.EXCEPTION_TAG, "RuntimeException")
+                          .counter()
+                          .count())
+                  .isEqualTo(1.0d);
+            });
+  }
+
+  @Test
+  void recordExceptionMetric_whenLoggerLevelDisabled() {
+    final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    runner
+        .withBean(LogDispatcher.class, SyncLogDispatcher::new)
+        .withBean(MetricsRecorder.class, () -> new MicrometerMetricsRecorder(meterRegistry))
+        .run(
+            (context) -> {
+              final LogAfterThrowing annotation = mockLogAfterThrowing(Level.DEBUG, "foo", false);
+              LoggingSystem.get(ClassLoader.getSystemClassLoader())
+                  .setLogLevel(Foo.class.getName(), LogLevel.INFO);
+
+              final LogAfterThrowingService service =
+                  context.getBean(LogAfterThrowingService.class);
+              service.logAfterThrowing(joinPoint, annotation, new RuntimeException("foo"));
+
+              assertThat(
+                      meterRegistry
+                          .get(MicrometerMetricsRecorder.EXCEPTIONS_METRIC)
+                          .counter()
+                          .count())
+                  .isEqualTo(1.0d);
+            });
+  }
+
+  @Test
+  void doesNotLogExitedAbnormallyMessage_whenMetricsOnly() {
+    final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    final LogDispatcher logDispatcher = mock(LogDispatcher.class);
+    runner
+        .withPropertyValues(AopLoggersProperties.PREFIX + ".metrics-only=true")
+        .withBean(LogDispatcher.class, () -> logDispatcher)
+        .withBean(MetricsRecorder.class, () -> new MicrometerMetricsRecorder(meterRegistry))
+        .run(
+            (context) -> {
+              final LogAfterThrowing annotation = mockLogAfterThrowing(Level.INFO, "foo", true);
+              LoggingSystem.get(ClassLoader.getSystemClassLoader())
+                  .setLogLevel(Foo.class.getName(), LogLevel.INFO);
+
+              final LogAfterThrowingService service =
+                  context.getBean(LogAfterThrowingService.class);
+              service.logAfterThrowing(joinPoint, annotation, new RuntimeException("foo"));
+
+              verifyNoInteractions(logDispatcher);
+              assertThat(
+                      meterRegistry
+                          .get(MicrometerMetricsRecorder.EXCEPTIONS_METRIC)
+                          .counter()
+                          .count())
+                  .isEqualTo(1.0d);
+            });
+  }
+
   private LogAfterThrowing mockLogAfterThrowing(
       final Level level, final String message, final boolean printStackTrace) {
     final LogAfterThrowing annotation = mock(LogAfterThrowing.class);
@@ -432,4 +786,12 @@ class LogAfterThrowingServiceTests {
 
     return joinPoint;
   }
+
+  private static long overheadCalls(final String advice) throws JMException {
+    return (Long)
+        ManagementFactory.getPlatformMBeanServer()
+            .getAttribute(
+                new ObjectName(AdviceOverhead.DOMAIN + ":type=AdviceOverhead,advice=" + advice),
+                "Calls");
+  }
 }
@@ -103,4 +103,112 @@ class LogAfterThrowingThrowingTests {
     final LogAfterThrowing annotation = Local.class.getAnnotation(LogAfterThrowing.class);
     assertThat(annotation.printStackTrace()).isFalse();
   }
+
+  @Test
+  void sampleRate_defaultValue() {
+    @LogAfterThrowing
+    class Local {};
+
+    final LogAfterThrowing annotation = Local.class.getAnnotation(LogAfterThrowing.class);
+    assertThat(annotation.sampleRate()).isZero();
+  }
+
+  @Test
+  void sampleRate_givenAttributeValue() {
+    @LogAfterThrowing(sampleRate = 0.5d)
+    class Local {};
+
+    final LogAfterThrowing annotation = Local.class.getAnnotation(LogAfterThrowing.class);
+    assertThat(annotation.sampleRate()).isEqualTo(0.5d);
+  }
+
+  @Test
+  void rateLimit_defaultValue() {
+    @LogAfterThrowing
+    class Local {};
+
+    final LogAfterThrowing annotation = Local.class.getAnnotation(LogAfterThrowing.class);
+    assertThat(annotation.rateLimit()).isZero();
+  }
+
+  @Test
+  void rateLimit_givenAttributeValue() {
+    @LogAfterThrowing(rateLimit = 10)
+    class Local {};
+
+    final LogAfterThrowing annotation = Local.class.getAnnotation(LogAfterThrowing.class);
+    assertThat(annotation.rateLimit()).isEqualTo(10.0d);
+  }
+
+  @Test
+  void stackTraceMaxDepth_defaultValue() {
+    @LogAfterThrowing
+    class Local {};
+
+    final LogAfterThrowing annotation = Local.class.getAnnotation(LogAfterThrowing.class);
+    assertThat(annotation.stackTraceMaxDepth()).isZero();
+  }
+
+  @Test
+  void stackTraceMaxDepth_givenAttributeValue() {
+    @LogAfterThrowing(stackTraceMaxDepth = 10)
+    class Local {};
+
+    final LogAfterThrowing annotation = Local.class.getAnnotation(LogAfterThrowing.class);
+    assertThat(annotation.stackTraceMaxDepth()).isEqualTo(10);
+  }
+
+  @Test
+  void stackTraceIncludePackages_defaultValue() {
+    @LogAfterThrowing
+    class Local {};
+
+    final LogAfterThrowing annotation = Local.class.getAnnotation(LogAfterThrowing.class);
+    assertThat(annotation.stackTraceIncludePackages()).isEmpty();
+  }
+
+  @Test
+  void stackTraceIncludePackages_givenAttributeValue() {
+    @LogAfterThrowing(stackTraceIncludePackages = "im.aop.")
+    class Local {};
+
+    final LogAfterThrowing annotation = Local.class.getAnnotation(LogAfterThrowing.class);
+    assertThat(annotation.stackTraceIncludePackages()).containsExactly("im.aop.");
+  }
+
+  @Test
+  void stackTraceExcludePackages_defaultValue() {
+    @LogAfterThrowing
+    class Local {};
+
+    final LogAfterThrowing annotation = Local.class.getAnnotation(LogAfterThrowing.class);
+    assertThat(annotation.stackTraceExcludePackages()).isEmpty();
+  }
+
+  @Test
+  void stackTraceExcludePackages_givenAttributeValue() {
+    @LogAfterThrowing(stackTraceExcludePackages = "org.junit.")
+    class Local {};
+
+    final LogAfterThrowing annotation = Local.class.getAnnotation(LogAfterThrowing.class);
+    assertThat(annotation.stackTraceExcludePackages()).containsExactly("org.junit.");
+  }
+
+  @Test
+  void metricsOnly_defaultValue() {
+    @LogAfterThrowing
+    class Local {};
+
+    final LogAfterThrowing annotation = Local.class.getAnnotation(LogAfterThrowing.class);
+    assertThat(annotation.metricsOnly()).isFalse();
+  }
+
+  @Test
+  void metricsOnly_givenAttributeValue() {
+    @LogAfterThrowing(metricsOnly = true)
+    class Local {};
+
+    final LogAfterThrowing annotation = Local.class.getAnnotation(LogAfterThrowing.class);
+    assertThat(annotation.metricsOnly()).isTrue();
+  }
 }
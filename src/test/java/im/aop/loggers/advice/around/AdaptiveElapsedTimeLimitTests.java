@@ -0,0 +1,95 @@
+package im.aop.loggers.advice.around;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link AdaptiveElapsedTimeLimit}.
+ *
+ * @author Andy Lian
+ */
+class AdaptiveElapsedTimeLimitTests {
+
+  private static final long NOW = 1_000_000_000L;
+
+  private static final long WINDOW = Duration.ofMinutes(1).toNanos();
+
+  private static final long MILLI = Duration.ofMillis(1).toNanos();
+
+  @Test
+  void noLimit_beforeFirstWindow() {
+    final AdaptiveElapsedTimeLimit limit = new AdaptiveElapsedTimeLimit(99, 2, 0, WINDOW, NOW);
+    record(limit, 1_000, MILLI, NOW);
+
+    assertThat(limit.getLimit()).isNull();
+    assertThat(limit.isExceededBy(Long.MAX_VALUE)).isFalse();
+  }
+
+  @Test
+  void minimum_beforeFirstWindow() {
+    final AdaptiveElapsedTimeLimit limit =
+        new AdaptiveElapsedTimeLimit(99, 2, 5 * MILLI, WINDOW, NOW);
+
+    assertThat(limit.getLimit()).isEqualTo(Duration.ofMillis(5));
+    assertThat(limit.isExceededBy(5 * MILLI)).isFalse();
+    assertThat(limit.isExceededBy(5 * MILLI + 1)).isTrue();
+  }
+
+  @Test
+  void tracksPercentileTimesFactor() {
+    final AdaptiveElapsedTimeLimit limit = new AdaptiveElapsedTimeLimit(99, 2, 0, WINDOW, NOW);
+    record(limit, 1_000, MILLI, NOW);
+    limit.record(MILLI, NOW + WINDOW);
+
+    assertThat(limit.getLimit()).isEqualTo(Duration.ofMillis(2));
+    assertThat(limit.isExceededBy(2 * MILLI + 1)).isTrue();
+    assertThat(limit.isExceededBy(2 * MILLI)).isFalse();
+  }
+
+  @Test
+  void atLeastMinimum() {
+    final AdaptiveElapsedTimeLimit limit =
+        new AdaptiveElapsedTimeLimit(99, 2, 5 * MILLI, WINDOW, NOW);
+    record(limit, 1_000, MILLI, NOW);
+    limit.record(MILLI, NOW + WINDOW);
+
+    assertThat(limit.getLimit()).isEqualTo(Duration.ofMillis(5));
+  }
+
+  @Test
+  void keepsLimit_whenTooFewSamples() {
+    final AdaptiveElapsedTimeLimit limit = new AdaptiveElapsedTimeLimit(99, 2, 0, WINDOW, NOW);
+    record(limit, 1_000, MILLI, NOW);
+    limit.record(MILLI, NOW + WINDOW);
+
+    record(limit, (int) AdaptiveElapsedTimeLimit.MIN_SAMPLES - 2, 100 * MILLI, NOW + WINDOW);
+    limit.record(100 * MILLI, NOW + 2 * WINDOW);
+
+    assertThat(limit.getLimit()).isEqualTo(Duration.ofMillis(2));
+  }
+
+  @Test
+  void followsLatestWindow() {
+    final AdaptiveElapsedTimeLimit limit = new AdaptiveElapsedTimeLimit(99, 2, 0, WINDOW, NOW);
+    record(limit, 1_000, 100 * MILLI, NOW);
+    limit.record(MILLI, NOW + WINDOW);
+
+    record(limit, 1_000, MILLI, NOW + WINDOW);
+    limit.record(MILLI, NOW + 2 * WINDOW);
+
+    assertThat(limit.getLimit()).isEqualTo(Duration.ofMillis(2));
+  }
+
+  private static void record(
+      final AdaptiveElapsedTimeLimit limit,
+      final int count,
+      final long elapsedTime,
+      final long now) {
+    for (int index = 0; index < count; index++) {
+      limit.record(elapsedTime, now);
+    }
+  }
+}
@@ -0,0 +1,191 @@
+package im.aop.loggers.advice.around;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.slf4j.Logger;
+import org.springframework.boot.logging.LogLevel;
+import org.springframework.boot.logging.LoggingSystem;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.util.StringUtils;
+
+import im.aop.loggers.AopLoggersProperties.Summary;
+import im.aop.loggers.logging.Level;
+import im.aop.loggers.logging.SyncLogDispatcher;
+import im.aop.loggers.logging.message.MessageTemplate;
+import im.aop.loggers.logging.message.StringSupplierLookup;
+import im.aop.loggers.metrics.LatencyRecorder;
+
+/**
+ * Tests for {@link LatencySummaryReporter}.
+ *
+ * @author Andy Lian
+ */
+@ExtendWith(OutputCaptureExtension.class)
+class LatencySummaryReporterTests {
+
+  static class Foo {
+
+    String foo(String bar) {
+      return bar;
+    }
+  }
+
+  private Method method;
+
+  private Summary summary;
+
+  private LatencySummaryReporter reporter;
+
+  @BeforeEach
+  void beforeEach() throws NoSuchMethodException {
+    method = Foo.class.getDeclaredMethod("foo", String.class);
+    summary = new Summary();
+    summary.setInterval(Duration.ofHours(1));
+    LoggingSystem.get(ClassLoader.getSystemClassLoader())
+        .setLogLevel(Foo.class.getName(), LogLevel.INFO);
+  }
+
+  @AfterEach
+  void afterEach() {
+    if (reporter != null) {
+      reporter.close();
+    }
+  }
+
+  @Test
+  void report(final CapturedOutput capturedOutput) {
+    reporter = new LatencySummaryReporter(summary, new SyncLogDispatcher());
+    final LatencyRecorder recorder = reporter.recorder(method, void.class);
+    recorder.record(Duration.ofMillis(1).toNanos(), false);
+    recorder.record(Duration.ofMillis(1).toNanos(), true);
+
+    reporter.report();
+
+    assertThat(capturedOutput)
+        .contains(
+            "INFO "
+                + Foo.class.getName()
+                + " - [String foo(String)] count [2] errors [1] min [PT0.001S]");
+  }
+
+  @Test
+  void report_customLevelAndMessage(final CapturedOutput capturedOutput) {
+    summary.setLevel(Level.WARN);
+    summary.setMessage("{method} called {count} times");
+    reporter = new LatencySummaryReporter(summary, new SyncLogDispatcher());
+    reporter.recorder(method, void.class).record(1, false);
+
+    reporter.report();
+
+    assertThat(capturedOutput)
+        .contains("WARN " + Foo.class.getName() + " - String foo(String) called 1 times");
+  }
+
+  @Test
+  void report_givenDeclaringClass(final CapturedOutput capturedOutput) {
+    reporter = new LatencySummaryReporter(summary, new SyncLogDispatcher());
+    reporter.recorder(method, LatencySummaryReporterTests.class).record(1, false);
+    LoggingSystem.get(ClassLoader.getSystemClassLoader())
+        .setLogLevel(LatencySummaryReporterTests.class.getName(), LogLevel.INFO);
+
+    reporter.report();
+
+    assertThat(capturedOutput)
+        .contains("INFO " + LatencySummaryReporterTests.class.getName() + " - [String foo");
+  }
+
+  @Test
+  void report_sameRecorderPerMethod() {
+    reporter = new LatencySummaryReporter(summary, new SyncLogDispatcher());
+
+    assertThat(reporter.recorder(method, void.class))
+        .isSameAs(reporter.recorder(method, void.class));
+  }
+
+  @Test
+  void doesNotReport_whenNotCalled(final CapturedOutput capturedOutput) {
+    reporter = new LatencySummaryReporter(summary, new SyncLogDispatcher());
+    final LatencyRecorder recorder = reporter.recorder(method, void.class);
+    recorder.record(1, false);
+    reporter.report();
+
+    reporter.report();
+
+    assertThat(StringUtils.countOccurrencesOf(capturedOutput.toString(), "[String foo(String)]"))
+        .isEqualTo(1);
+  }
+
+  @Test
+  void doesNotReport_whenLoggerLevelDisabled(final CapturedOutput capturedOutput) {
+    summary.setLevel(Level.DEBUG);
+    reporter = new LatencySummaryReporter(summary, new SyncLogDispatcher());
+    reporter.recorder(method, void.class).record(1, false);
+
+    reporter.report();
+
+    assertThat(capturedOutput).doesNotContain("[String foo(String)]");
+  }
+
+  @Test
+  void report_onSchedule(final CapturedOutput capturedOutput) throws InterruptedException {
+    summary.setInterval(Duration.ofMillis(50));
+    reporter = new LatencySummaryReporter(summary, new SyncLogDispatcher());
+    reporter.recorder(method, void.class).record(1, false);
+
+    Thread.sleep(300);
+
+    assertThat(capturedOutput).contains("[String foo(String)] count [1]");
+  }
+
+  @Test
+  void close_reportsCurrentInterval(final CapturedOutput capturedOutput) {
+    reporter = new LatencySummaryReporter(summary, new SyncLogDispatcher());
+    reporter.recorder(method, void.class).record(1, false);
+
+    reporter.close();
+    reporter = null;
+
+    assertThat(capturedOutput).contains("[String foo(String)] count [1]");
+  }
+
+  @Test
+  void report_logsFailureAndContinues(final CapturedOutput capturedOutput) {
+    reporter =
+        new LatencySummaryReporter(
+            summary,
+            new SyncLogDispatcher() {
+
+              @Override
+              public void log(
+                  final Logger logger,
+                  final Level level,
+                  final MessageTemplate template,
+                  final StringSupplierLookup stringLookup) {
+                throw new IllegalStateException("foo");
+              }
+            });
+    reporter.recorder(method, void.class).record(1, false);
+
+    reporter.report();
+
+    assertThat(capturedOutput).contains("Failed to log latency summary");
+  }
+
+  @Test
+  void nonPositiveInterval() {
+    summary.setInterval(Duration.ZERO);
+
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> new LatencySummaryReporter(summary, new SyncLogDispatcher()));
+  }
+}
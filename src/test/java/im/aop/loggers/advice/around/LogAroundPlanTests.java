@@ -0,0 +1,514 @@
+package im.aop.loggers.advice.around;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+import java.util.Collections;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import im.aop.loggers.AopLoggersProperties;
+import im.aop.loggers.AopLoggersProperties.Rendering;
+import im.aop.loggers.logging.Level;
+import im.aop.loggers.logging.message.MethodDescriptor;
+import im.aop.loggers.logging.message.ParameterSelection;
+import im.aop.loggers.logging.value.ValueWriter;
+import im.aop.loggers.metrics.LatencyRecorder;
+import im.aop.loggers.metrics.LatencySummary;
+import im.aop.loggers.metrics.MethodMetrics;
+
+/**
+ * Tests for {@link LogAroundPlan}.
+ *
+ * @author Andy Lian
+ */
+class LogAroundPlanTests {
+
+  static class Foo {
+
+    void foo() {}
+
+    void bar(String baz, int qux) {}
+
+    Mono<String> mono() {
+      return Mono.empty();
+    }
+
+    Flux<String> flux() {
+      return Flux.empty();
+    }
+  }
+
+  private Method method;
+
+  private AopLoggersProperties aopLoggersProperties;
+
+  @BeforeEach
+  void beforeEach() throws NoSuchMethodException {
+    method = Foo.class.getDeclaredMethod("foo");
+    aopLoggersProperties = new AopLoggersProperties();
+  }
+
+  @Test
+  void defaultValues() {
+    final LogAroundPlan plan =
+        new LogAroundPlan(method, mockLogAround(Level.DEFAULT, "", 0), aopLoggersProperties);
+
+    assertThat(plan.getEnteringLevel()).isEqualTo(aopLoggersProperties.getEnteringLevel());
+    assertThat(plan.isRateLimited()).isFalse();
+    assertThat(plan.getEnteringMessage().get().getTemplate())
+        .isEqualTo(aopLoggersProperties.getEnteringMessage());
+    assertThat(plan.getExitedLevel()).isEqualTo(aopLoggersProperties.getExitedLevel());
+    assertThat(plan.getExitedMessage().get().getTemplate())
+        .isEqualTo(aopLoggersProperties.getExitedMessage());
+    assertThat(plan.getExitedAbnormallyLevel())
+        .isEqualTo(aopLoggersProperties.getExitedAbnormallyLevel());
+    assertThat(plan.getExitedAbnormallyMessage().get().getTemplate())
+        .isEqualTo(aopLoggersProperties.getExitedAbnormallyMessage());
+    assertThat(plan.getElapsedLevel()).isEqualTo(aopLoggersProperties.getElapsedLevel());
+    assertThat(plan.getElapsedMessage().get().getTemplate())
+        .isEqualTo(aopLoggersProperties.getElapsedMessage());
+    assertThat(plan.getElapsedWarningLevel())
+        .isEqualTo(aopLoggersProperties.getElapsedWarningLevel());
+    assertThat(plan.getElapsedWarningMessage().get().getTemplate())
+        .isEqualTo(aopLoggersProperties.getElapsedWarningMessage());
+    assertThat(plan.isPrintStackTrace()).isTrue();
+    assertThat(plan.hasElapsedTimeLimit()).isFalse();
+    assertThat(plan.getElapsedTimeLimit()).isNull();
+    assertThat(plan.exceedsElapsedTimeLimit(Long.MAX_VALUE)).isFalse();
+  }
+
+  @Test
+  void customValues() {
+    final LogAroundPlan plan =
+        new LogAroundPlan(method, mockLogAround(Level.INFO, "foo", 10), aopLoggersProperties);
+
+    assertThat(plan.getEnteringLevel()).isEqualTo(Level.INFO);
+    assertThat(plan.getEnteringMessage().get().getTemplate()).isEqualTo("foo");
+    assertThat(plan.getExitedLevel()).isEqualTo(Level.INFO);
+    assertThat(plan.getExitedMessage().get().getTemplate()).isEqualTo("foo");
+    assertThat(plan.getExitedAbnormallyLevel()).isEqualTo(Level.INFO);
+    assertThat(plan.getExitedAbnormallyMessage().get().getTemplate()).isEqualTo("foo");
+    assertThat(plan.getElapsedLevel()).isEqualTo(Level.INFO);
+    assertThat(plan.getElapsedMessage().get().getTemplate()).isEqualTo("foo");
+    assertThat(plan.getElapsedWarningLevel()).isEqualTo(Level.INFO);
+    assertThat(plan.getElapsedWarningMessage().get().getTemplate()).isEqualTo("foo");
+    assertThat(plan.hasElapsedTimeLimit()).isTrue();
+    assertThat(plan.getElapsedTimeLimit()).isEqualTo(Duration.ofMillis(10));
+  }
+
+  @Test
+  void exceedsElapsedTimeLimit() {
+    final LogAroundPlan plan =
+        new LogAroundPlan(method, mockLogAround(Level.INFO, "foo", 10), aopLoggersProperties);
+
+    assertThat(plan.exceedsElapsedTimeLimit(Duration.ofMillis(10).toNanos())).isFalse();
+    assertThat(plan.exceedsElapsedTimeLimit(Duration.ofMillis(10).toNanos() + 1)).isTrue();
+  }
+
+  @Test
+  void isIgnoredException_mergesAnnotationAndProperties() {
+    final LogAround annotation = mockLogAround(Level.INFO, "foo", 0);
+    when(annotation.ignoreExceptions()).thenReturn(array(IllegalArgumentException.class));
+    aopLoggersProperties.setIgnoreExceptions(array(IllegalStateException.class));
+
+    final LogAroundPlan plan = new LogAroundPlan(method, annotation, aopLoggersProperties);
+
+    assertThat(plan.isIgnoredException(new IllegalArgumentException())).isTrue();
+    assertThat(plan.isIgnoredException(new IllegalStateException())).isTrue();
+    assertThat(plan.isIgnoredException(new RuntimeException())).isFalse();
+  }
+
+  @SuppressWarnings("unchecked")
+  private Class<? extends Throwable>[] array(final Class<? extends Throwable> exception) {
+    return new Class[] {exception};
+  }
+
+  @Test
+  void mostSevereLevel_withoutElapsedTimeLimit() {
+    final LogAround annotation = mockLogAround(Level.DEBUG, "foo", 0);
+    when(annotation.elapsedWarningLevel()).thenReturn(Level.ERROR);
+
+    final LogAroundPlan plan = new LogAroundPlan(method, annotation, aopLoggersProperties);
+
+    assertThat(plan.getMostSevereLevel()).isEqualTo(Level.DEBUG);
+  }
+
+  @Test
+  void mostSevereLevel_withElapsedTimeLimit() {
+    final LogAround annotation = mockLogAround(Level.DEBUG, "foo", 10);
+    when(annotation.elapsedWarningLevel()).thenReturn(Level.ERROR);
+
+    final LogAroundPlan plan = new LogAroundPlan(method, annotation, aopLoggersProperties);
+
+    assertThat(plan.getMostSevereLevel()).isEqualTo(Level.ERROR);
+  }
+
+  @Test
+  void mostSevereNormalExitLevel_excludesExitedAbnormallyLevel() {
+    final LogAround annotation = mockLogAround(Level.DEBUG, "foo", 0);
+    when(annotation.exitedAbnormallyLevel()).thenReturn(Level.ERROR);
+    when(annotation.elapsedWarningLevel()).thenReturn(Level.WARN);
+
+    final LogAroundPlan plan = new LogAroundPlan(method, annotation, aopLoggersProperties);
+
+    assertThat(plan.getMostSevereLevel()).isEqualTo(Level.ERROR);
+    assertThat(plan.getMostSevereNormalExitLevel()).isEqualTo(Level.DEBUG);
+  }
+
+  @Test
+  void mostSevereNormalExitLevel_withElapsedTimeLimit() {
+    final LogAround annotation = mockLogAround(Level.DEBUG, "foo", 10);
+    when(annotation.exitedAbnormallyLevel()).thenReturn(Level.ERROR);
+    when(annotation.elapsedWarningLevel()).thenReturn(Level.WARN);
+
+    final LogAroundPlan plan = new LogAroundPlan(method, annotation, aopLoggersProperties);
+
+    assertThat(plan.getMostSevereNormalExitLevel()).isEqualTo(Level.WARN);
+  }
+
+  @Test
+  void sampleRate_defaultValue() {
+    aopLoggersProperties.setSampleRate(0.5d);
+
+    final LogAroundPlan plan =
+        new LogAroundPlan(method, mockLogAround(Level.INFO, "foo", 0), aopLoggersProperties);
+
+    assertThat(plan.getSampleRate()).isEqualTo(0.5d);
+  }
+
+  @Test
+  void sampleRate_customValue() {
+    final LogAround annotation = mockLogAround(Level.INFO, "foo", 0);
+    when(annotation.sampleRate()).thenReturn(0.25d);
+    aopLoggersProperties.setSampleRate(0.5d);
+
+    final LogAroundPlan plan = new LogAroundPlan(method, annotation, aopLoggersProperties);
+
+    assertThat(plan.getSampleRate()).isEqualTo(0.25d);
+  }
+
+  @Test
+  void alwaysLogSlowOrFailed() {
+    final LogAround annotation = mockLogAround(Level.INFO, "foo", 0);
+    when(annotation.alwaysLogSlowOrFailed()).thenReturn(true);
+
+    final LogAroundPlan plan = new LogAroundPlan(method, annotation, aopLoggersProperties);
+
+    assertThat(plan.isAlwaysLogSlowOrFailed()).isTrue();
+  }
+
+  @Test
+  void logOnlySlowOrFailed_defaultValue() {
+    final LogAroundPlan plan =
+        new LogAroundPlan(method, mockLogAround(Level.INFO, "foo", 0), aopLoggersProperties);
+
+    assertThat(plan.isLogOnlySlowOrFailed()).isFalse();
+  }
+
+  @Test
+  void logOnlySlowOrFailed_givenAnnotation() {
+    final LogAround annotation = mockLogAround(Level.INFO, "foo", 0);
+    when(annotation.logOnlySlowOrFailed()).thenReturn(true);
+
+    final LogAroundPlan plan = new LogAroundPlan(method, annotation, aopLoggersProperties);
+
+    assertThat(plan.isLogOnlySlowOrFailed()).isTrue();
+  }
+
+  @Test
+  void logOnlySlowOrFailed_givenProperty() {
+    aopLoggersProperties.setLogOnlySlowOrFailed(true);
+
+    final LogAroundPlan plan =
+        new LogAroundPlan(method, mockLogAround(Level.INFO, "foo", 0), aopLoggersProperties);
+
+    assertThat(plan.isLogOnlySlowOrFailed()).isTrue();
+  }
+
+  @Test
+  void rateLimit_defaultValue() {
+    aopLoggersProperties.setRateLimit(10.0d);
+
+    final LogAroundPlan plan =
+        new LogAroundPlan(method, mockLogAround(Level.INFO, "foo", 0), aopLoggersProperties);
+
+    assertThat(plan.isRateLimited()).isTrue();
+  }
+
+  @Test
+  void rateLimit_customValue() {
+    final LogAround annotation = mockLogAround(Level.INFO, "foo", 0);
+    when(annotation.rateLimit()).thenReturn(10.0d);
+
+    final LogAroundPlan plan = new LogAroundPlan(method, annotation, aopLoggersProperties);
+
+    assertThat(plan.isRateLimited()).isTrue();
+  }
+
+  @Test
+  void stackTraceRenderer_defaultValue() {
+    final LogAroundPlan plan =
+        new LogAroundPlan(method, mockLogAround(Level.INFO, "foo", 0), aopLoggersProperties);
+
+    assertThat(plan.getStackTraceRenderer()).isNull();
+  }
+
+  @Test
+  void stackTraceRenderer_customValue() {
+    final LogAround annotation = mockLogAround(Level.INFO, "foo", 0);
+    when(annotation.stackTraceExcludePackages()).thenReturn(new String[] {"org.junit."});
+
+    final LogAroundPlan plan = new LogAroundPlan(method, annotation, aopLoggersProperties);
+
+    assertThat(plan.getStackTraceRenderer()).isNotNull();
+  }
+
+  @Test
+  void adaptiveElapsedTimeLimit_defaultValue() {
+    final LogAroundPlan plan =
+        new LogAroundPlan(method, mockLogAround(Level.INFO, "foo", 10), aopLoggersProperties);
+
+    assertThat(plan.isAdaptiveElapsedTimeLimit()).isFalse();
+  }
+
+  @Test
+  void adaptiveElapsedTimeLimit_givenAnnotation() {
+    final LogAround annotation = mockLogAround(Level.INFO, "foo", 10);
+    when(annotation.adaptiveElapsedTimeLimit()).thenReturn(true);
+
+    final LogAroundPlan plan = new LogAroundPlan(method, annotation, aopLoggersProperties);
+
+    assertThat(plan.isAdaptiveElapsedTimeLimit()).isTrue();
+    assertThat(plan.hasElapsedTimeLimit()).isTrue();
+    assertThat(plan.getElapsedTimeLimit()).isEqualTo(Duration.ofMillis(10));
+    assertThat(plan.exceedsElapsedTimeLimit(Duration.ofMillis(10).toNanos())).isFalse();
+    assertThat(plan.exceedsElapsedTimeLimit(Duration.ofMillis(10).toNanos() + 1)).isTrue();
+  }
+
+  @Test
+  void adaptiveElapsedTimeLimit_givenProperty() {
+    aopLoggersProperties.setAdaptiveElapsedTimeLimit(true);
+    final LogAround annotation = mockLogAround(Level.INFO, "foo", 0);
+    when(annotation.elapsedWarningLevel()).thenReturn(Level.ERROR);
+
+    final LogAroundPlan plan = new LogAroundPlan(method, annotation, aopLoggersProperties);
+
+    assertThat(plan.isAdaptiveElapsedTimeLimit()).isTrue();
+    assertThat(plan.hasElapsedTimeLimit()).isTrue();
+    assertThat(plan.getElapsedTimeLimit()).isNull();
+    assertThat(plan.exceedsElapsedTimeLimit(Long.MAX_VALUE)).isFalse();
+    assertThat(plan.getMostSevereLevel()).isEqualTo(Level.ERROR);
+  }
+
+  @Test
+  void recordElapsedTime_derivesAdaptiveElapsedTimeLimit() throws InterruptedException {
+    aopLoggersProperties.setElapsedTimeLimitWindow(Duration.ofMillis(500));
+    final LogAround annotation = mockLogAround(Level.INFO, "foo", 0);
+    when(annotation.adaptiveElapsedTimeLimit()).thenReturn(true);
+    when(annotation.elapsedTimeLimitPercentile()).thenReturn(50.0d);
+    when(annotation.elapsedTimeLimitFactor()).thenReturn(3.0d);
+
+    final LogAroundPlan plan = new LogAroundPlan(method, annotation, aopLoggersProperties);
+    for (int call = 0; call < AdaptiveElapsedTimeLimit.MIN_SAMPLES; call++) {
+      plan.recordElapsedTime(Duration.ofMillis(1).toNanos(), null);
+    }
+    Thread.sleep(600);
+    plan.recordElapsedTime(Duration.ofMillis(1).toNanos(), null);
+
+    assertThat(plan.getElapsedTimeLimit()).isEqualTo(Duration.ofMillis(3));
+  }
+
+  @Test
+  void recordElapsedTime_whenFixedElapsedTimeLimit() {
+    final LogAroundPlan plan =
+        new LogAroundPlan(method, mockLogAround(Level.INFO, "foo", 10), aopLoggersProperties);
+    plan.recordElapsedTime(Duration.ofMillis(100).toNanos(), null);
+
+    assertThat(plan.getElapsedTimeLimit()).isEqualTo(Duration.ofMillis(10));
+  }
+
+  @Test
+  void isRecordingElapsedTime_defaultValue() {
+    final LogAroundPlan plan =
+        new LogAroundPlan(method, mockLogAround(Level.INFO, "foo", 10), aopLoggersProperties);
+
+    assertThat(plan.isRecordingElapsedTime()).isFalse();
+  }
+
+  @Test
+  void recordElapsedTime_givenLatencyRecorder() {
+    final LatencyRecorder latencyRecorder = new LatencyRecorder();
+    final LogAroundPlan plan =
+        new LogAroundPlan(
+            method,
+            mockLogAround(Level.INFO, "foo", 0),
+            aopLoggersProperties,
+            latencyRecorder,
+            null,
+            ValueWriter.DEFAULT);
+    plan.recordElapsedTime(10, null);
+    plan.recordElapsedTime(20, new IllegalStateException());
+
+    assertThat(plan.isRecordingElapsedTime()).isTrue();
+    final LatencySummary latencySummary = latencyRecorder.summarize();
+    assertThat(latencySummary.getCount()).isEqualTo(2);
+    assertThat(latencySummary.getErrors()).isEqualTo(1);
+  }
+
+  @Test
+  void recordElapsedTime_givenMethodMetrics() {
+    final MethodMetrics methodMetrics = mock(MethodMetrics.class);
+    final LogAroundPlan plan =
+        new LogAroundPlan(
+            method,
+            mockLogAround(Level.INFO, "foo", 0),
+            aopLoggersProperties,
+            null,
+            methodMetrics,
+            ValueWriter.DEFAULT);
+    final IllegalStateException exception = new IllegalStateException();
+    plan.recordElapsedTime(10, null);
+    plan.recordElapsedTime(20, exception);
+
+    assertThat(plan.isRecordingElapsedTime()).isTrue();
+    verify(methodMetrics).recordElapsedTime(10, null);
+    verify(methodMetrics).recordElapsedTime(20, exception);
+  }
+
+  @Test
+  void metricsOnly_defaultValue() {
+    final LogAroundPlan plan =
+        new LogAroundPlan(method, mockLogAround(Level.INFO, "foo", 0), aopLoggersProperties);
+
+    assertThat(plan.isMetricsOnly()).isFalse();
+  }
+
+  @Test
+  void metricsOnly_givenAnnotation() {
+    final LogAround annotation = mockLogAround(Level.INFO, "foo", 0);
+    when(annotation.metricsOnly()).thenReturn(true);
+
+    final LogAroundPlan plan = new LogAroundPlan(method, annotation, aopLoggersProperties);
+
+    assertThat(plan.isMetricsOnly()).isTrue();
+  }
+
+  @Test
+  void metricsOnly_givenProperty() {
+    aopLoggersProperties.setMetricsOnly(true);
+
+    final LogAroundPlan plan =
+        new LogAroundPlan(method, mockLogAround(Level.INFO, "foo", 0), aopLoggersProperties);
+
+    assertThat(plan.isMetricsOnly()).isTrue();
+  }
+
+  @Test
+  void parameterSelection_defaultValue() {
+    final LogAroundPlan plan =
+        new LogAroundPlan(method, mockLogAround(Level.INFO, "foo", 0), aopLoggersProperties);
+
+    assertThat(plan.getParameterSelection()).isSameAs(ParameterSelection.ALL);
+  }
+
+  @Test
+  void parameterSelection_customValue() throws NoSuchMethodException {
+    final LogAround annotation = mockLogAround(Level.INFO, "foo", 0);
+    when(annotation.includeParameters()).thenReturn(new String[] {"1"});
+
+    final LogAroundPlan plan =
+        new LogAroundPlan(
+            Foo.class.getDeclaredMethod("bar", String.class, int.class),
+            annotation,
+            aopLoggersProperties);
+
+    assertThat(plan.getParameterSelection().isSelected(0)).isFalse();
+    assertThat(plan.getParameterSelection().isSelected(1)).isTrue();
+  }
+
+  @Test
+  void maskingPlan_defaultValue() {
+    final LogAroundPlan plan =
+        new LogAroundPlan(method, mockLogAround(Level.INFO, "foo", 0), aopLoggersProperties);
+
+    assertThat(plan.getMaskingPlan())
+        .isSameAs(MethodDescriptor.of(method).getMaskingPlan(ValueWriter.DEFAULT));
+  }
+
+  @Test
+  void maskingPlan_compiledWhenBuilt() throws NoSuchMethodException {
+    final Rendering rendering = new Rendering();
+    rendering.setMaskedNames(Collections.singleton("qux"));
+    final ValueWriter valueWriter = new ValueWriter(rendering);
+    final Method bar = Foo.class.getDeclaredMethod("bar", String.class, int.class);
+
+    final LogAroundPlan plan =
+        new LogAroundPlan(
+            bar,
+            mockLogAround(Level.INFO, "foo", 0),
+            aopLoggersProperties,
+            null,
+            null,
+            valueWriter);
+
+    assertThat(plan.getMaskingPlan().isMasked(0)).isFalse();
+    assertThat(plan.getMaskingPlan().isMasked(1)).isTrue();
+    assertThat(MethodDescriptor.of(bar).getMaskingPlan(valueWriter))
+        .isSameAs(plan.getMaskingPlan());
+  }
+
+  @Test
+  void reactive_defaultValue() {
+    final LogAroundPlan plan =
+        new LogAroundPlan(method, mockLogAround(Level.INFO, "foo", 0), aopLoggersProperties);
+
+    assertThat(plan.isReactive()).isFalse();
+  }
+
+  @Test
+  void reactive_givenMonoOrFlux() throws NoSuchMethodException {
+    final LogAroundPlan monoPlan =
+        new LogAroundPlan(
+            Foo.class.getDeclaredMethod("mono"),
+            mockLogAround(Level.INFO, "foo", 0),
+            aopLoggersProperties);
+    final LogAroundPlan fluxPlan =
+        new LogAroundPlan(
+            Foo.class.getDeclaredMethod("flux"),
+            mockLogAround(Level.INFO, "foo", 0),
+            aopLoggersProperties);
+
+    assertThat(monoPlan.isReactive()).isTrue();
+    assertThat(fluxPlan.isReactive()).isTrue();
+  }
+
+  private LogAround mockLogAround(
+      final Level level, final String message, final long elapsedTimeLimit) {
+    final LogAround annotation = mock(LogAround.class);
+
+    when(annotation.level()).thenReturn(level);
+    when(annotation.exitedAbnormallyLevel()).thenReturn(level);
+    when(annotation.elapsedWarningLevel()).thenReturn(level);
+
+    when(annotation.enteringMessage()).thenReturn(message);
+    when(annotation.exitedMessage()).thenReturn(message);
+    when(annotation.exitedAbnormallyMessage()).thenReturn(message);
+    when(annotation.elapsedMessage()).thenReturn(message);
+    when(annotation.elapsedWarningMessage()).thenReturn(message);
+
+    when(annotation.printStackTrace()).thenReturn(true);
+    when(annotation.elapsedTimeLimit()).thenReturn(elapsedTimeLimit);
+    when(annotation.elapsedTimeUnit()).thenReturn(ChronoUnit.MILLIS);
+
+    return annotation;
+  }
+}
@@ -2,17 +2,30 @@ package im.aop.loggers.advice.around;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
+import java.lang.management.ManagementFactory;
 import java.time.temporal.ChronoUnit;
+import java.util.concurrent.TimeUnit;
 
+import javax.management.JMException;
+import javax.management.ObjectName;
+import javax.management.openmbean.TabularData;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.reflect.MethodSignature;
 import org.assertj.core.util.Arrays;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.slf4j.Logger;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.boot.logging.LogLevel;
 import org.springframework.boot.logging.LoggingSystem;
@@ -20,9 +33,19 @@ import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.boot.test.context.runner.ApplicationContextRunner;
 import org.springframework.boot.test.system.CapturedOutput;
 import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.util.StringUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 import im.aop.loggers.AopLoggersProperties;
 import im.aop.loggers.logging.Level;
+import im.aop.loggers.logging.JsonLogDispatcher;
+import im.aop.loggers.logging.LogDispatcher;
+import im.aop.loggers.logging.SyncLogDispatcher;
+import im.aop.loggers.logging.message.StringSupplierLookup;
+import im.aop.loggers.metrics.AdviceOverhead;
+import im.aop.loggers.metrics.MetricsRecorder;
+import im.aop.loggers.metrics.micrometer.MicrometerMetricsRecorder;
 
 /**
  * Tests for {@link LogAroundService}.
@@ -35,7 +58,7 @@ class LogAroundServiceTests {
   private final ApplicationContextRunner runner =
       new ApplicationContextRunner()
           .withUserConfiguration(AopLoggersPropertiesTestConfiguration.class)
-          .withBean(LogAroundService.class);
+          .withUserConfiguration(LogAroundConfiguration.class);
 
   @TestConfiguration(proxyBeanMethods = false)
   @EnableConfigurationProperties({AopLoggersProperties.class})
@@ -44,6 +67,14 @@ class LogAroundServiceTests {
   static class Foo {
 
     void foo() {}
+
+    Mono<String> mono() {
+      return Mono.empty();
+    }
+
+    Flux<String> flux() {
+      return Flux.empty();
+    }
   }
 
   private MethodSignature methodSignature;
@@ -186,6 +217,29 @@ class LogAroundServiceTests {
             });
   }
 
+  @Test
+  void logEnteringMessage_withLogDispatcher() {
+    final LogDispatcher logDispatcher = mock(LogDispatcher.class);
+    runner
+        .withBean(LogDispatcher.class, () -> logDispatcher)
+        .run(
+            (context) -> {
+              final LogAround annotation = mockLogAroundForEntering(Level.INFO, "foo");
+              LoggingSystem.get(ClassLoader.getSystemClassLoader())
+                  .setLogLevel(Foo.class.getName(), LogLevel.INFO);
+
+              final LogAroundService service = context.getBean(LogAroundService.class);
+              service.logAround(joinPoint, annotation);
+
+              verify(logDispatcher)
+                  .log(
+                      any(Logger.class),
+                      eq(Level.INFO),
+                      argThat((template) -> "foo".equals(template.getTemplate())),
+                      any(StringSupplierLookup.class));
+            });
+  }
+
   private LogAround mockLogAroundForEntering(final Level level, final String enteringMessage) {
     final LogAround annotation = mock(LogAround.class);
 
@@ -848,6 +902,32 @@ class LogAroundServiceTests {
         });
   }
 
+  @Test
+  void logExitedAndElapsedMessage_asJson(final CapturedOutput capturedOutput) {
+    runner
+        .withBean(LogDispatcher.class, JsonLogDispatcher::new)
+        .run(
+            (context) -> {
+              when(joinPoint.proceed()).thenReturn("bar");
+              final LogAround annotation =
+                  mockLogAroundForExitedAndElapsed(
+                      Level.INFO, "[{method}] exited with [{return-value}]", "{elapsed}");
+              LoggingSystem.get(ClassLoader.getSystemClassLoader())
+                  .setLogLevel(Foo.class.getName(), LogLevel.DEBUG);
+
+              final LogAroundService service = context.getBean(LogAroundService.class);
+              service.logAround(joinPoint, annotation);
+
+              assertThat(capturedOutput)
+                  .containsSubsequence(
+                      "INFO "
+                          + Foo.class.getName()
+                          + " - {\"method\":\"void foo()\",\"returnValue\":\"bar\","
+                          + "\"outcome\":\"SUCCESS\"}",
+                      "INFO " + Foo.class.getName() + " - {\"elapsedNanos\":");
+            });
+  }
+
   private LogAround mockLogAroundForExitedAndElapsed(
       final Level level, final String exitedMessage, final String elapsedMessage) {
     final LogAround annotation = mock(LogAround.class);
@@ -1118,57 +1198,1217 @@ class LogAroundServiceTests {
   }
 
   @Test
-  void doesNotLogElapsed_whenDisabled(final CapturedOutput capturedOutput) {
+  void doesNotRecordOverhead_whenDisabled() {
     runner
-        .withPropertyValues(AopLoggersProperties.PREFIX + ".enabled=false")
+        .withPropertyValues(
+            AopLoggersProperties.PREFIX + ".enabled=false",
+            AopLoggersProperties.PREFIX + ".overhead.enabled=true")
         .run(
             (context) -> {
               final LogAround annotation = mockLogAroundForEntering(Level.INFO, "foo");
               LoggingSystem.get(ClassLoader.getSystemClassLoader())
                   .setLogLevel(Foo.class.getName(), LogLevel.INFO);
+
+              final LogAroundService service = context.getBean(LogAroundService.class);
+              service.logAround(joinPoint, annotation);
+
+              assertThat(overheadCalls("LogAround")).isEqualTo(0L);
+            });
+  }
+
+  @Test
+  void recordOverhead_whenLoggerLevelDisabled() {
+    runner
+        .withPropertyValues(AopLoggersProperties.PREFIX + ".overhead.enabled=true")
+        .run(
+            (context) -> {
+              final LogAround annotation = mockLogAroundForExitedNormally(Level.INFO, "foo");
               LoggingSystem.get(ClassLoader.getSystemClassLoader())
-                  .setLogLevel(LogAroundService.class.getName(), LogLevel.DEBUG);
+                  .setLogLevel(Foo.class.getName(), LogLevel.WARN);
 
               final LogAroundService service = context.getBean(LogAroundService.class);
               service.logAround(joinPoint, annotation);
 
-              assertThat(capturedOutput).doesNotContain("[logAround] elapsed [");
+              assertThat(overheadCalls("LogAround")).isEqualTo(1L);
             });
   }
 
   @Test
-  void logElapsed_whenExitedNormally(final CapturedOutput capturedOutput) {
+  void proceeds_whenLoggerLevelDisabled() throws Throwable {
     runner.run(
         (context) -> {
+          when(joinPoint.proceed()).thenReturn("foo");
+
           final LogAround annotation = mockLogAroundForExitedNormally(Level.INFO, "foo");
           LoggingSystem.get(ClassLoader.getSystemClassLoader())
-              .setLogLevel(Foo.class.getName(), LogLevel.INFO);
+              .setLogLevel(Foo.class.getName(), LogLevel.WARN);
+
+          final LogAroundService service = context.getBean(LogAroundService.class);
+          assertThat(service.logAround(joinPoint, annotation)).isEqualTo("foo");
+        });
+  }
+
+  @Test
+  void doesNotLog_whenOnlyExitedAbnormallyLevelEnabledAndExitedNormally() throws Throwable {
+    final LogDispatcher logDispatcher = mock(LogDispatcher.class);
+    runner
+        .withBean(LogDispatcher.class, () -> logDispatcher)
+        .run(
+            (context) -> {
+              when(joinPoint.proceed()).thenReturn("foo");
+
+              final LogAround annotation = mockLogAroundForExitAbnormally(Level.ERROR, "foo", null);
+              LoggingSystem.get(ClassLoader.getSystemClassLoader())
+                  .setLogLevel(Foo.class.getName(), LogLevel.INFO);
+
+              final LogAroundService service = context.getBean(LogAroundService.class);
+              assertThat(service.logAround(joinPoint, annotation)).isEqualTo("foo");
+
+              verifyNoInteractions(logDispatcher);
+            });
+  }
+
+  @Test
+  void logExitedAbnormallyMessage_whenOnlyExitedAbnormallyLevelEnabled() throws Throwable {
+    final LogDispatcher logDispatcher = mock(LogDispatcher.class);
+    runner
+        .withBean(LogDispatcher.class, () -> logDispatcher)
+        .run(
+            (context) -> {
+              when(joinPoint.proceed()).thenThrow(new RuntimeException("foo"));
+
+              final LogAround annotation = mockLogAroundForExitAbnormally(Level.ERROR, "foo", null);
+              LoggingSystem.get(ClassLoader.getSystemClassLoader())
+                  .setLogLevel(Foo.class.getName(), LogLevel.INFO);
+
+              final LogAroundService service = context.getBean(LogAroundService.class);
+              assertThrows(RuntimeException.class, () -> service.logAround(joinPoint, annotation));
+
+              verify(logDispatcher)
+                  .logException(
+                      any(Logger.class),
+                      eq(Level.ERROR),
+                      argThat((template) -> "foo".equals(template.getTemplate())),
+                      any(StringSupplierLookup.class),
+                      any(RuntimeException.class));
+            });
+  }
+
+  @Test
+  void recordOverhead_whenOnlyExitedAbnormallyLevelEnabled() {
+    runner
+        .withPropertyValues(AopLoggersProperties.PREFIX + ".overhead.enabled=true")
+        .run(
+            (context) -> {
+              final LogAround annotation = mockLogAroundForExitAbnormally(Level.ERROR, "foo", null);
+              LoggingSystem.get(ClassLoader.getSystemClassLoader())
+                  .setLogLevel(Foo.class.getName(), LogLevel.INFO);
+
+              final LogAroundService service = context.getBean(LogAroundService.class);
+              service.logAround(joinPoint, annotation);
+
+              assertThat(overheadCalls("LogAround")).isEqualTo(1L);
+            });
+  }
+
+  @Test
+  void logElapsedWarningMessage_whenOnlyElapsedWarningLevelEnabled(
+      final CapturedOutput capturedOutput) {
+    runner.run(
+        (context) -> {
+          final LogAround annotation =
+              mockLogAroundForElapsedWarning(Level.WARN, "elapsed-warning", 1, ChronoUnit.NANOS);
           LoggingSystem.get(ClassLoader.getSystemClassLoader())
-              .setLogLevel(LogAroundService.class.getName(), LogLevel.DEBUG);
+              .setLogLevel(Foo.class.getName(), LogLevel.WARN);
 
           final LogAroundService service = context.getBean(LogAroundService.class);
           service.logAround(joinPoint, annotation);
 
-          assertThat(capturedOutput).contains("[logAround] elapsed [");
+          assertThat(capturedOutput).contains("WARN " + Foo.class.getName() + " - elapsed-warning");
         });
   }
 
   @Test
-  void logElapsed_whenExitedAbnormally(final CapturedOutput capturedOutput) {
+  void doesNotLogEnteringMessage_whenNotSampled(final CapturedOutput capturedOutput) {
+    runner
+        .withPropertyValues(AopLoggersProperties.PREFIX + ".sample-rate=0")
+        .run(
+            (context) -> {
+              final LogAround annotation = mockLogAroundForEntering(Level.INFO, "foo");
+              when(annotation.alwaysLogSlowOrFailed()).thenReturn(true);
+              LoggingSystem.get(ClassLoader.getSystemClassLoader())
+                  .setLogLevel(Foo.class.getName(), LogLevel.INFO);
+
+              final LogAroundService service = context.getBean(LogAroundService.class);
+              service.logAround(joinPoint, annotation);
+
+              assertThat(capturedOutput).doesNotContain("INFO " + Foo.class.getName() + " - foo");
+            });
+  }
+
+  @Test
+  void logEnteringMessage_whenSampledByAnnotation(final CapturedOutput capturedOutput) {
+    runner
+        .withPropertyValues(AopLoggersProperties.PREFIX + ".sample-rate=0")
+        .run(
+            (context) -> {
+              final LogAround annotation = mockLogAroundForEntering(Level.INFO, "foo");
+              when(annotation.sampleRate()).thenReturn(1.0d);
+              LoggingSystem.get(ClassLoader.getSystemClassLoader())
+                  .setLogLevel(Foo.class.getName(), LogLevel.INFO);
+
+              final LogAroundService service = context.getBean(LogAroundService.class);
+              service.logAround(joinPoint, annotation);
+
+              assertThat(capturedOutput).contains("INFO " + Foo.class.getName() + " - foo");
+            });
+  }
+
+  @Test
+  void proceeds_whenNotSampled() throws Throwable {
+    runner
+        .withPropertyValues(AopLoggersProperties.PREFIX + ".sample-rate=0")
+        .run(
+            (context) -> {
+              when(joinPoint.proceed()).thenReturn("foo");
+
+              final LogAround annotation = mockLogAroundForExitedNormally(Level.INFO, "foo");
+              when(annotation.alwaysLogSlowOrFailed()).thenReturn(true);
+              LoggingSystem.get(ClassLoader.getSystemClassLoader())
+                  .setLogLevel(Foo.class.getName(), LogLevel.INFO);
+
+              final LogAroundService service = context.getBean(LogAroundService.class);
+              assertThat(service.logAround(joinPoint, annotation)).isEqualTo("foo");
+            });
+  }
+
+  @Test
+  void logExitedAbnormallyMessage_whenNotSampled(final CapturedOutput capturedOutput) {
+    runner
+        .withPropertyValues(AopLoggersProperties.PREFIX + ".sample-rate=0")
+        .run(
+            (context) -> {
+              when(joinPoint.proceed()).thenThrow(new RuntimeException("foo"));
+
+              final LogAround annotation = mockLogAroundForExitAbnormally(Level.INFO, "foo", null);
+              when(annotation.alwaysLogSlowOrFailed()).thenReturn(true);
+              LoggingSystem.get(ClassLoader.getSystemClassLoader())
+                  .setLogLevel(Foo.class.getName(), LogLevel.INFO);
+
+              final LogAroundService service = context.getBean(LogAroundService.class);
+              assertThrows(RuntimeException.class, () -> service.logAround(joinPoint, annotation));
+
+              assertThat(capturedOutput).contains("INFO " + Foo.class.getName() + " - foo");
+            });
+  }
+
+  @Test
+  void doesNotLogExitedAbnormallyMessage_whenNotSampledAndNotAlwaysLogSlowOrFailed(
+      final CapturedOutput capturedOutput) {
+    runner
+        .withPropertyValues(AopLoggersProperties.PREFIX + ".sample-rate=0")
+        .run(
+            (context) -> {
+              when(joinPoint.proceed()).thenThrow(new RuntimeException("foo"));
+
+              final LogAround annotation = mockLogAroundForExitAbnormally(Level.INFO, "foo", null);
+              when(annotation.alwaysLogSlowOrFailed()).thenReturn(false);
+              LoggingSystem.get(ClassLoader.getSystemClassLoader())
+                  .setLogLevel(Foo.class.getName(), LogLevel.INFO);
+
+              final LogAroundService service = context.getBean(LogAroundService.class);
+              assertThrows(RuntimeException.class, () -> service.logAround(joinPoint, annotation));
+
+              assertThat(capturedOutput).doesNotContain("INFO " + Foo.class.getName() + " - foo");
+            });
+  }
+
+  @Test
+  void logElapsedWarningMessage_whenNotSampled(final CapturedOutput capturedOutput) {
+    runner
+        .withPropertyValues(AopLoggersProperties.PREFIX + ".sample-rate=0")
+        .run(
+            (context) -> {
+              final LogAround annotation =
+                  mockLogAroundForElapsedWarning(
+                      Level.WARN, "elapsed-warning", 1, ChronoUnit.NANOS);
+              when(annotation.alwaysLogSlowOrFailed()).thenReturn(true);
+              LoggingSystem.get(ClassLoader.getSystemClassLoader())
+                  .setLogLevel(Foo.class.getName(), LogLevel.WARN);
+
+              final LogAroundService service = context.getBean(LogAroundService.class);
+              service.logAround(joinPoint, annotation);
+
+              assertThat(capturedOutput)
+                  .contains("WARN " + Foo.class.getName() + " - elapsed-warning");
+            });
+  }
+
+  @Test
+  void doesNotLogElapsedWarningMessage_whenNotSampledAndNotExceedLimit(
+      final CapturedOutput capturedOutput) {
+    runner
+        .withPropertyValues(AopLoggersProperties.PREFIX + ".sample-rate=0")
+        .run(
+            (context) -> {
+              final LogAround annotation =
+                  mockLogAroundForElapsedWarning(
+                      Level.WARN, "elapsed-warning", 1, ChronoUnit.DAYS);
+              when(annotation.alwaysLogSlowOrFailed()).thenReturn(true);
+              LoggingSystem.get(ClassLoader.getSystemClassLoader())
+                  .setLogLevel(Foo.class.getName(), LogLevel.WARN);
+
+              final LogAroundService service = context.getBean(LogAroundService.class);
+              service.logAround(joinPoint, annotation);
+
+              assertThat(capturedOutput)
+                  .doesNotContain("WARN " + Foo.class.getName() + " - elapsed-warning");
+            });
+  }
+
+  @Test
+  void doesNotLogEnteringMessage_whenThrottled(final CapturedOutput capturedOutput) {
+    runner
+        .withPropertyValues(AopLoggersProperties.PREFIX + ".rate-limit=1")
+        .run(
+            (context) -> {
+              final LogAround annotation = mockLogAroundForEntering(Level.INFO, "foo");
+              LoggingSystem.get(ClassLoader.getSystemClassLoader())
+                  .setLogLevel(Foo.class.getName(), LogLevel.INFO);
+
+              final LogAroundService service = context.getBean(LogAroundService.class);
+              service.logAround(joinPoint, annotation);
+              service.logAround(joinPoint, annotation);
+
+              assertThat(
+                      StringUtils.countOccurrencesOf(
+                          capturedOutput.toString(), "INFO " + Foo.class.getName() + " - foo"))
+                  .isEqualTo(1);
+            });
+  }
+
+  @Test
+  void proceeds_whenThrottled() throws Throwable {
+    runner
+        .withPropertyValues(AopLoggersProperties.PREFIX + ".rate-limit=1")
+        .run(
+            (context) -> {
+              when(joinPoint.proceed()).thenReturn("foo");
+
+              final LogAround annotation = mockLogAroundForExitedNormally(Level.INFO, "foo");
+              LoggingSystem.get(ClassLoader.getSystemClassLoader())
+                  .setLogLevel(Foo.class.getName(), LogLevel.INFO);
+
+              final LogAroundService service = context.getBean(LogAroundService.class);
+              assertThat(service.logAround(joinPoint, annotation)).isEqualTo("foo");
+              assertThat(service.logAround(joinPoint, annotation)).isEqualTo("foo");
+            });
+  }
+
+  @Test
+  void logSuppressedCount_onFirstMessageOnly(final CapturedOutput capturedOutput) {
     runner.run(
         (context) -> {
-          when(joinPoint.proceed()).thenThrow(new RuntimeException());
-
-          final LogAround annotation = mockLogAroundForExitAbnormally(Level.ERROR, "foo", null);
-          LoggingSystem.get(ClassLoader.getSystemClassLoader())
-              .setLogLevel(Foo.class.getName(), LogLevel.ERROR);
+          final LogAround annotation =
+              mockLogAroundForExitedAndElapsed(Level.INFO, "exited", "elapsed");
+          when(annotation.rateLimit()).thenReturn(1.0d);
           LoggingSystem.get(ClassLoader.getSystemClassLoader())
-              .setLogLevel(LogAroundService.class.getName(), LogLevel.DEBUG);
+              .setLogLevel(Foo.class.getName(), LogLevel.INFO);
 
           final LogAroundService service = context.getBean(LogAroundService.class);
-          assertThrows(RuntimeException.class, () -> service.logAround(joinPoint, annotation));
+          service.logAround(joinPoint, annotation);
+          service.logAround(joinPoint, annotation);
+          Thread.sleep(1100);
+          service.logAround(joinPoint, annotation);
 
-          assertThat(capturedOutput).contains("[logAround] elapsed [");
-        });
+          assertThat(capturedOutput)
+              .containsSubsequence(
+                  "with parameters [none] [1 calls suppressed by rate limit]",
+                  "INFO " + Foo.class.getName() + " - exited" + System.lineSeparator(),
+                  "INFO " + Foo.class.getName() + " - elapsed" + System.lineSeparator());
+        });
+  }
+
+  @Test
+  void doesNotLogExitedAbnormallyMessage_whenNotSampledAndThrottled(
+      final CapturedOutput capturedOutput) {
+    runner
+        .withPropertyValues(
+            AopLoggersProperties.PREFIX + ".sample-rate=0",
+            AopLoggersProperties.PREFIX + ".rate-limit=1")
+        .run(
+            (context) -> {
+              when(joinPoint.proceed()).thenThrow(new RuntimeException("foo"));
+
+              final LogAround annotation = mockLogAroundForExitAbnormally(Level.INFO, "foo", null);
+              when(annotation.alwaysLogSlowOrFailed()).thenReturn(true);
+              LoggingSystem.get(ClassLoader.getSystemClassLoader())
+                  .setLogLevel(Foo.class.getName(), LogLevel.INFO);
+
+              final LogAroundService service = context.getBean(LogAroundService.class);
+              assertThrows(RuntimeException.class, () -> service.logAround(joinPoint, annotation));
+              assertThrows(RuntimeException.class, () -> service.logAround(joinPoint, annotation));
+
+              assertThat(
+                      StringUtils.countOccurrencesOf(
+                          capturedOutput.toString(), "INFO " + Foo.class.getName() + " - foo"))
+                  .isEqualTo(1);
+            });
+  }
+
+  @Test
+  void logExitedAbnormallyMessage_withFingerprint(final CapturedOutput capturedOutput) {
+    runner
+        .withPropertyValues(AopLoggersProperties.PREFIX + ".exception-dedup.enabled=true")
+        .run(
+            (context) -> {
+              when(joinPoint.proceed()).thenThrow(new RuntimeException("foo"));
+
+              final LogAround annotation = mockLogAroundForExitAbnormally(Level.INFO, "foo", true);
+              LoggingSystem.get(ClassLoader.getSystemClassLoader())
+                  .setLogLevel(Foo.class.getName(), LogLevel.INFO);
+
+              final LogAroundService service = context.getBean(LogAroundService.class);
+              for (int call = 0; call < 2; call++) {
+                assertThrows(
+                    RuntimeException.class, () -> service.logAround(joinPoint, annotation));
+              }
+
+              assertThat(capturedOutput)
+                  .containsSubsequence(
+                      "INFO " + Foo.class.getName() + " - foo [fingerprint ",
+                      "java.lang.RuntimeException: foo",
+                      "INFO " + Foo.class.getName() + " - foo [occurrence 2 of fingerprint ");
+              assertThat(
+                      StringUtils.countOccurrencesOf(
+                          capturedOutput.toString(), "java.lang.RuntimeException: foo"))
+                  .isEqualTo(1);
+            });
+  }
+
+  @Test
+  void doesNotLogDuplicateExitedAbnormallyMessage_whenDropDuplicates(
+      final CapturedOutput capturedOutput) {
+    runner
+        .withPropertyValues(
+            AopLoggersProperties.PREFIX + ".exception-dedup.enabled=true",
+            AopLoggersProperties.PREFIX + ".exception-dedup.duplicate-policy=DROP")
+        .run(
+            (context) -> {
+              when(joinPoint.proceed()).thenThrow(new RuntimeException("foo"));
+
+              final LogAround annotation = mockLogAroundForExitAbnormally(Level.INFO, "foo", false);
+              LoggingSystem.get(ClassLoader.getSystemClassLoader())
+                  .setLogLevel(Foo.class.getName(), LogLevel.INFO);
+
+              final LogAroundService service = context.getBean(LogAroundService.class);
+              for (int call = 0; call < 2; call++) {
+                assertThrows(
+                    RuntimeException.class, () -> service.logAround(joinPoint, annotation));
+              }
+
+              assertThat(
+                      StringUtils.countOccurrencesOf(
+                          capturedOutput.toString(), "INFO " + Foo.class.getName() + " - foo"))
+                  .isEqualTo(1);
+            });
+  }
+
+  @Test
+  void logDroppedDuplicates_whenWindowCloses(final CapturedOutput capturedOutput) {
+    runner
+        .withPropertyValues(
+            AopLoggersProperties.PREFIX + ".exception-dedup.enabled=true",
+            AopLoggersProperties.PREFIX + ".exception-dedup.duplicate-policy=DROP",
+            AopLoggersProperties.PREFIX + ".exception-dedup.window=50ms")
+        .run(
+            (context) -> {
+              when(joinPoint.proceed()).thenThrow(new RuntimeException("foo"));
+
+              final LogAround annotation = mockLogAroundForExitAbnormally(Level.INFO, "foo", false);
+              LoggingSystem.get(ClassLoader.getSystemClassLoader())
+                  .setLogLevel(Foo.class.getName(), LogLevel.INFO);
+
+              final LogAroundService service = context.getBean(LogAroundService.class);
+              for (int call = 0; call < 3; call++) {
+                assertThrows(
+                    RuntimeException.class, () -> service.logAround(joinPoint, annotation));
+              }
+
+              final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+              while (capturedOutput.toString().contains(" dropped 2 duplicate occurrences") == false
+                  && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+              }
+              assertThat(capturedOutput)
+                  .contains("INFO " + Foo.class.getName() + " - [")
+                  .contains("] dropped 2 duplicate occurrences of fingerprint ");
+            });
+  }
+
+  @Test
+  void logCompactStackTrace_whenStackTraceMaxDepth(final CapturedOutput capturedOutput) {
+    runner
+        .withPropertyValues(AopLoggersProperties.PREFIX + ".stack-trace-max-depth=1")
+        .run(
+            (context) -> {
+              when(joinPoint.proceed()).thenThrow(new RuntimeException("foo"));
+
+              final LogAround annotation =
+                  mockLogAroundForExitedAbnormallyAndElapsed(Level.INFO, Level.INFO, "foo", "bar");
+              when(annotation.printStackTrace()).thenReturn(true);
+              LoggingSystem.get(ClassLoader.getSystemClassLoader())
+                  .setLogLevel(Foo.class.getName(), LogLevel.INFO);
+
+              final LogAroundService service = context.getBean(LogAroundService.class);
+              assertThrows(RuntimeException.class, () -> service.logAround(joinPoint, annotation));
+
+              assertThat(capturedOutput)
+                  .containsSubsequence(
+                      "INFO " + Foo.class.getName() + " - foo" + System.lineSeparator(),
+                      "java.lang.RuntimeException: foo" + System.lineSeparator(),
+                      "\tat ",
+                      " more" + System.lineSeparator(),
+                      "INFO " + Foo.class.getName() + " - bar" + System.lineSeparator());
+              final String output = capturedOutput.toString();
+              final int stackTraceStart = output.indexOf("java.lang.RuntimeException: foo");
+              final String stackTrace =
+                  output.substring(stackTraceStart, output.indexOf(" more", stackTraceStart));
+              assertThat(StringUtils.countOccurrencesOf(stackTrace, "\tat ")).isEqualTo(1);
+            });
+  }
+
+  @Test
+  void doesNotLogCall_whenLogOnlySlowOrFailedAndNotSlow(final CapturedOutput capturedOutput) {
+    runner.run(
+        (context) -> {
+          final LogAround annotation = mockLogAroundForLogOnlySlowOrFailed(1, ChronoUnit.DAYS);
+          LoggingSystem.get(ClassLoader.getSystemClassLoader())
+              .setLogLevel(Foo.class.getName(), LogLevel.INFO);
+
+          final LogAroundService service = context.getBean(LogAroundService.class);
+          service.logAround(joinPoint, annotation);
+
+          assertThat(capturedOutput).doesNotContain(Foo.class.getName() + " - ");
+        });
+  }
+
+  @Test
+  void logCall_whenLogOnlySlowOrFailedAndSlow(final CapturedOutput capturedOutput) {
+    runner.run(
+        (context) -> {
+          when(joinPoint.proceed()).thenReturn("foo");
+
+          final LogAround annotation = mockLogAroundForLogOnlySlowOrFailed(1, ChronoUnit.NANOS);
+          LoggingSystem.get(ClassLoader.getSystemClassLoader())
+              .setLogLevel(Foo.class.getName(), LogLevel.INFO);
+
+          final LogAroundService service = context.getBean(LogAroundService.class);
+          assertThat(service.logAround(joinPoint, annotation)).isEqualTo("foo");
+
+          assertThat(capturedOutput)
+              .containsSubsequence(
+                  "INFO " + Foo.class.getName() + " - entering",
+                  "INFO " + Foo.class.getName() + " - exited normally",
+                  "INFO " + Foo.class.getName() + " - elapsed",
+                  "INFO " + Foo.class.getName() + " - reached limit");
+        });
+  }
+
+  @Test
+  void logCall_whenLogOnlySlowOrFailedAndFailed(final CapturedOutput capturedOutput) {
+    runner.run(
+        (context) -> {
+          when(joinPoint.proceed()).thenThrow(new RuntimeException("foo"));
+
+          final LogAround annotation = mockLogAroundForLogOnlySlowOrFailed(1, ChronoUnit.DAYS);
+          LoggingSystem.get(ClassLoader.getSystemClassLoader())
+              .setLogLevel(Foo.class.getName(), LogLevel.INFO);
+
+          final LogAroundService service = context.getBean(LogAroundService.class);
+          assertThrows(RuntimeException.class, () -> service.logAround(joinPoint, annotation));
+
+          assertThat(capturedOutput)
+              .containsSubsequence(
+                  "INFO " + Foo.class.getName() + " - entering",
+                  "INFO " + Foo.class.getName() + " - exited abnormally",
+                  "INFO " + Foo.class.getName() + " - elapsed")
+              .doesNotContain("reached limit");
+        });
+  }
+
+  @Test
+  void doesNotLogCall_whenLogOnlySlowOrFailedAndIgnoredException(
+      final CapturedOutput capturedOutput) {
+    runner.run(
+        (context) -> {
+          when(joinPoint.proceed()).thenThrow(new IllegalStateException("foo"));
+
+          final LogAround annotation = mockLogAroundForLogOnlySlowOrFailed(1, ChronoUnit.DAYS);
+          when(annotation.ignoreExceptions())
+              .thenReturn(Arrays.array(IllegalStateException.class));
+          LoggingSystem.get(ClassLoader.getSystemClassLoader())
+              .setLogLevel(Foo.class.getName(), LogLevel.INFO);
+
+          final LogAroundService service = context.getBean(LogAroundService.class);
+          assertThrows(IllegalStateException.class, () -> service.logAround(joinPoint, annotation));
+
+          assertThat(capturedOutput).doesNotContain(Foo.class.getName() + " - ");
+        });
+  }
+
+  @Test
+  void logCall_whenLogOnlySlowOrFailedByProperty(final CapturedOutput capturedOutput) {
+    runner
+        .withPropertyValues(AopLoggersProperties.PREFIX + ".log-only-slow-or-failed=true")
+        .run(
+            (context) -> {
+              final LogAround annotation = mockLogAroundForLogOnlySlowOrFailed(1, ChronoUnit.DAYS);
+              when(annotation.logOnlySlowOrFailed()).thenReturn(false);
+              LoggingSystem.get(ClassLoader.getSystemClassLoader())
+                  .setLogLevel(Foo.class.getName(), LogLevel.INFO);
+
+              final LogAroundService service = context.getBean(LogAroundService.class);
+              service.logAround(joinPoint, annotation);
+
+              assertThat(capturedOutput).doesNotContain(Foo.class.getName() + " - ");
+            });
+  }
+
+  @Test
+  void doesNotLogCall_whenLogOnlySlowOrFailedAndNotSampled(final CapturedOutput capturedOutput) {
+    runner
+        .withPropertyValues(AopLoggersProperties.PREFIX + ".sample-rate=0")
+        .run(
+            (context) -> {
+              when(joinPoint.proceed()).thenThrow(new RuntimeException("foo"));
+
+              final LogAround annotation = mockLogAroundForLogOnlySlowOrFailed(1, ChronoUnit.DAYS);
+              when(annotation.alwaysLogSlowOrFailed()).thenReturn(false);
+              LoggingSystem.get(ClassLoader.getSystemClassLoader())
+                  .setLogLevel(Foo.class.getName(), LogLevel.INFO);
+
+              final LogAroundService service = context.getBean(LogAroundService.class);
+              assertThrows(RuntimeException.class, () -> service.logAround(joinPoint, annotation));
+
+              assertThat(capturedOutput).doesNotContain(Foo.class.getName() + " - ");
+            });
+  }
+
+  @Test
+  void doesNotLogCall_whenLogOnlySlowOrFailedAndThrottled(final CapturedOutput capturedOutput) {
+    runner
+        .withPropertyValues(AopLoggersProperties.PREFIX + ".rate-limit=1")
+        .run(
+            (context) -> {
+              when(joinPoint.proceed()).thenThrow(new RuntimeException("foo"));
+
+              final LogAround annotation = mockLogAroundForLogOnlySlowOrFailed(1, ChronoUnit.DAYS);
+              LoggingSystem.get(ClassLoader.getSystemClassLoader())
+                  .setLogLevel(Foo.class.getName(), LogLevel.INFO);
+
+              final LogAroundService service = context.getBean(LogAroundService.class);
+              for (int call = 0; call < 2; call++) {
+                assertThrows(
+                    RuntimeException.class, () -> service.logAround(joinPoint, annotation));
+              }
+
+              assertThat(
+                      StringUtils.countOccurrencesOf(
+                          capturedOutput.toString(), "INFO " + Foo.class.getName() + " - entering"))
+                  .isEqualTo(1);
+            });
+  }
+
+  @Test
+  void logElapsedWarningMessage_adaptiveElapsedTimeLimitStartsAtMinimum(
+      final CapturedOutput capturedOutput) {
+    runner.run(
+        (context) -> {
+          final LogAround annotation =
+              mockLogAroundForElapsedWarning(
+                  Level.INFO, "limit [{elapsed-time-limit}]", 1, ChronoUnit.NANOS);
+          when(annotation.adaptiveElapsedTimeLimit()).thenReturn(true);
+          LoggingSystem.get(ClassLoader.getSystemClassLoader())
+              .setLogLevel(Foo.class.getName(), LogLevel.INFO);
+
+          final LogAroundService service = context.getBean(LogAroundService.class);
+          service.logAround(joinPoint, annotation);
+
+          assertThat(capturedOutput)
+              .contains("INFO " + Foo.class.getName() + " - limit [PT0.000000001S]");
+        });
+  }
+
+  @Test
+  void logElapsedWarningMessage_adaptiveElapsedTimeLimitTracksElapsedTimes(
+      final CapturedOutput capturedOutput) {
+    runner
+        .withPropertyValues(
+            AopLoggersProperties.PREFIX + ".adaptive-elapsed-time-limit=true",
+            AopLoggersProperties.PREFIX + ".elapsed-time-limit-window=1s")
+        .run(
+            (context) -> {
+              final LogAround annotation =
+                  mockLogAroundForElapsedWarning(
+                      Level.INFO, "limit [{elapsed-time-limit}]", 20, ChronoUnit.MILLIS);
+              LoggingSystem.get(ClassLoader.getSystemClassLoader())
+                  .setLogLevel(Foo.class.getName(), LogLevel.INFO);
+
+              final LogAroundService service = context.getBean(LogAroundService.class);
+              for (int call = 0; call < 100; call++) {
+                service.logAround(joinPoint, annotation);
+              }
+              Thread.sleep(1100);
+              service.logAround(joinPoint, annotation);
+              assertThat(capturedOutput).doesNotContain("limit [");
+
+              when(joinPoint.proceed())
+                  .thenAnswer(
+                      (invocation) -> {
+                        Thread.sleep(200);
+                        return null;
+                      });
+              service.logAround(joinPoint, annotation);
+
+              assertThat(capturedOutput).contains("INFO " + Foo.class.getName() + " - limit [PT");
+            });
+  }
+
+  @Test
+  void logLatencySummary_countsCallsNotLogged(final CapturedOutput capturedOutput) {
+    runner
+        .withPropertyValues(
+            AopLoggersProperties.PREFIX + ".latency-summary.enabled=true",
+            AopLoggersProperties.PREFIX + ".latency-summary.interval=1h")
+        .run(
+            (context) -> {
+              final LogAround annotation =
+                  mockLogAroundForElapsedWarning(Level.DEBUG, "foo", 1, ChronoUnit.DAYS);
+              LoggingSystem.get(ClassLoader.getSystemClassLoader())
+                  .setLogLevel(Foo.class.getName(), LogLevel.INFO);
+
+              final LogAroundService service = context.getBean(LogAroundService.class);
+              for (int call = 0; call < 3; call++) {
+                service.logAround(joinPoint, annotation);
+              }
+              when(joinPoint.proceed()).thenThrow(new RuntimeException("foo"));
+              assertThrows(RuntimeException.class, () -> service.logAround(joinPoint, annotation));
+              service.close();
+
+              assertThat(capturedOutput)
+                  .contains(
+                      "INFO " + Foo.class.getName() + " - [void foo()] count [4] errors [1]");
+            });
+  }
+
+  @Test
+  void logLatencySummary_countsCallsLogged(final CapturedOutput capturedOutput) {
+    runner
+        .withPropertyValues(
+            AopLoggersProperties.PREFIX + ".latency-summary.enabled=true",
+            AopLoggersProperties.PREFIX + ".latency-summary.interval=1h")
+        .run(
+            (context) -> {
+              final LogAround annotation = mockLogAroundForLogOnlySlowOrFailed(1, ChronoUnit.DAYS);
+              when(annotation.logOnlySlowOrFailed()).thenReturn(false);
+              LoggingSystem.get(ClassLoader.getSystemClassLoader())
+                  .setLogLevel(Foo.class.getName(), LogLevel.INFO);
+
+              final LogAroundService service = context.getBean(LogAroundService.class);
+              service.logAround(joinPoint, annotation);
+              service.close();
+
+              assertThat(capturedOutput)
+                  .contains("INFO " + Foo.class.getName() + " - entering")
+                  .contains("INFO " + Foo.class.getName() + " - [void foo()] count [1]");
+            });
+  }
+
+  @Test
+  void doesNotLogLatencySummary_whenDisabled(final CapturedOutput capturedOutput) {
+    runner.run(
+        (context) -> {
+          final LogAround annotation =
+              mockLogAroundForElapsedWarning(Level.DEBUG, "foo", 1, ChronoUnit.DAYS);
+          LoggingSystem.get(ClassLoader.getSystemClassLoader())
+              .setLogLevel(Foo.class.getName(), LogLevel.INFO);
+
+          final LogAroundService service = context.getBean(LogAroundService.class);
+          service.logAround(joinPoint, annotation);
+          service.close();
+
+          assertThat(capturedOutput).doesNotContain("count [");
+        });
+  }
+
+  @Test
+  void recordTimerMetrics_whenLoggerLevelDisabled() {
+    final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    runner
+        .withBean(LogDispatcher.class, SyncLogDispatcher::new)
+        .withBean(MetricsRecorder.class, () -> new MicrometerMetricsRecorder(meterRegistry))
+        .run(
+            (context) -> {
+              final LogAround annotation = mockLogAroundForEntering(Level.DEBUG, "foo");
+              LoggingSystem.get(ClassLoader.getSystemClassLoader())
+                  .setLogLevel(Foo.class.getName(), LogLevel.INFO);
+
+              final LogAroundService service = context.getBean(LogAroundService.class);
+              service.logAround(joinPoint, annotation);
+              service.logAround(joinPoint, annotation);
+              when(joinPoint.proceed()).thenThrow(new IllegalStateException("foo"));
+              assertThrows(
+                  IllegalStateException.class, () -> service.logAround(joinPoint, annotation));
+
+              assertThat(
+                      meterRegistry
+                          .get(MicrometerMetricsRecorder.CALLS_METRIC)
+                          .tag(MicrometerMetricsRecorder.CLASS_TAG, Foo.class.getName())
+                          .tag(MicrometerMetricsRecorder.METHOD_TAG, "foo")
+                          .tag(
+                              MicrometerMetricsRecorder.OUTCOME_TAG,
+                              MicrometerMetricsRecorder.SUCCESS_OUTCOME)
+                          .timer()
+                          .count())
+                  .isEqualTo(2);
+              assertThat(
+                      meterRegistry
+                          .get(MicrometerMetricsRecorder.CALLS_METRIC)
+                          .tag(
+                              MicrometerMetricsRecorder.OUTCOME_TAG,
+                              MicrometerMetricsRecorder.ERROR_OUTCOME)
+                          .timer()
+                          .count())
+                  .isEqualTo(1);
+              assertThat(
+                      meterRegistry
+                          .get(MicrometerMetricsRecorder.EXCEPTIONS_METRIC)
+                          .tag(MicrometerMetricsRecorder.EXCEPTION_TAG, "IllegalStateException")
+                          .counter()
+                          .count())
+                  .isEqualTo(1.0d);
+            });
+  }
+
+  @Test
+  void recordTimerMetrics_whenOnlyExitedAbnormallyLevelEnabled() {
+    final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    runner
+        .withBean(LogDispatcher.class, SyncLogDispatcher::new)
+        .withBean(MetricsRecorder.class, () -> new MicrometerMetricsRecorder(meterRegistry))
+        .run(
+            (context) -> {
+              final LogAround annotation = mockLogAroundForExitAbnormally(Level.ERROR, "foo", null);
+              LoggingSystem.get(ClassLoader.getSystemClassLoader())
+                  .setLogLevel(Foo.class.getName(), LogLevel.INFO);
+
+              final LogAroundService service = context.getBean(LogAroundService.class);
+              service.logAround(joinPoint, annotation);
+              when(joinPoint.proceed()).thenThrow(new IllegalStateException("foo"));
+              assertThrows(
+                  IllegalStateException.class, () -> service.logAround(joinPoint, annotation));
+
+              assertThat(
+                      meterRegistry
+                          .get(MicrometerMetricsRecorder.CALLS_METRIC)
+                          .tag(
+                              MicrometerMetricsRecorder.OUTCOME_TAG,
+                              MicrometerMetricsRecorder.SUCCESS_OUTCOME)
+                          .timer()
+                          .count())
+                  .isEqualTo(1);
+              assertThat(
+                      meterRegistry
+                          .get(MicrometerMetricsRecorder.CALLS_METRIC)
+                          .tag(
+                              MicrometerMetricsRecorder.OUTCOME_TAG,
+                              MicrometerMetricsRecorder.ERROR_OUTCOME)
+                          .timer()
+                          .count())
+                  .isEqualTo(1);
+            });
+  }
+
+  @Test
+  void recordTimerMetrics_whenLogged(final CapturedOutput capturedOutput) {
+    final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    runner
+        .withBean(LogDispatcher.class, SyncLogDispatcher::new)
+        .withBean(MetricsRecorder.class, () -> new MicrometerMetricsRecorder(meterRegistry))
+        .run(
+            (context) -> {
+              final LogAround annotation = mockLogAroundForEntering(Level.INFO, "foo");
+              LoggingSystem.get(ClassLoader.getSystemClassLoader())
+                  .setLogLevel(Foo.class.getName(), LogLevel.INFO);
+
+              final LogAroundService service = context.getBean(LogAroundService.class);
+              service.logAround(joinPoint, annotation);
+
+              assertThat(capturedOutput).contains("INFO " + Foo.class.getName() + " - foo");
+              assertThat(meterRegistry.get(MicrometerMetricsRecorder.CALLS_METRIC).timer().count())
+                  .isEqualTo(1);
+            });
+  }
+
+  @Test
+  void doesNotLog_whenMetricsOnly() {
+    final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    final LogDispatcher logDispatcher = mock(LogDispatcher.class);
+    runner
+        .withBean(LogDispatcher.class, () -> logDispatcher)
+        .withBean(MetricsRecorder.class, () -> new MicrometerMetricsRecorder(meterRegistry))
+        .run(
+            (context) -> {
+              final LogAround annotation = mockLogAroundForEntering(Level.INFO, "foo");
+              when(annotation.metricsOnly()).thenReturn(true);
+              LoggingSystem.get(ClassLoader.getSystemClassLoader())
+                  .setLogLevel(Foo.class.getName(), LogLevel.INFO);
+
+              final LogAroundService service = context.getBean(LogAroundService.class);
+              service.logAround(joinPoint, annotation);
+
+              verifyNoInteractions(logDispatcher);
+              assertThat(meterRegistry.get(MicrometerMetricsRecorder.CALLS_METRIC).timer().count())
+                  .isEqualTo(1);
+            });
+  }
+
+  @Test
+  void doesNotLog_whenMetricsOnlyWithoutMetrics() throws Throwable {
+    final LogDispatcher logDispatcher = mock(LogDispatcher.class);
+    runner
+        .withPropertyValues(AopLoggersProperties.PREFIX + ".metrics-only=true")
+        .withBean(LogDispatcher.class, () -> logDispatcher)
+        .run(
+            (context) -> {
+              final LogAround annotation = mockLogAroundForEntering(Level.INFO, "foo");
+              LoggingSystem.get(ClassLoader.getSystemClassLoader())
+                  .setLogLevel(Foo.class.getName(), LogLevel.INFO);
+
+              final LogAroundService service = context.getBean(LogAroundService.class);
+              service.logAround(joinPoint, annotation);
+
+              verifyNoInteractions(logDispatcher);
+            });
+    verify(joinPoint).proceed();
+  }
+
+  private LogAround mockLogAroundForLogOnlySlowOrFailed(
+      final long elapsedTimeLimit, final ChronoUnit elapsedTimeUnit) {
+    final LogAround annotation = mock(LogAround.class);
+
+    when(annotation.level()).thenReturn(Level.INFO);
+    when(annotation.exitedAbnormallyLevel()).thenReturn(Level.INFO);
+    when(annotation.elapsedWarningLevel()).thenReturn(Level.INFO);
+
+    when(annotation.enteringMessage()).thenReturn("entering");
+    when(annotation.exitedMessage()).thenReturn("exited normally");
+    when(annotation.exitedAbnormallyMessage()).thenReturn("exited abnormally");
+    when(annotation.elapsedMessage()).thenReturn("elapsed");
+    when(annotation.elapsedWarningMessage()).thenReturn("reached limit");
+
+    when(annotation.ignoreExceptions()).thenReturn(null);
+
+    when(annotation.elapsedTimeLimit()).thenReturn(elapsedTimeLimit);
+    when(annotation.elapsedTimeUnit()).thenReturn(elapsedTimeUnit);
+
+    when(annotation.alwaysLogSlowOrFailed()).thenReturn(true);
+    when(annotation.logOnlySlowOrFailed()).thenReturn(true);
+
+    return annotation;
+  }
+
+  @Test
+  void recordOverhead_whenExitedNormally() {
+    runner
+        .withPropertyValues(AopLoggersProperties.PREFIX + ".overhead.enabled=true")
+        .run(
+            (context) -> {
+              final LogAround annotation = mockLogAroundForExitedNormally(Level.INFO, "foo");
+              LoggingSystem.get(ClassLoader.getSystemClassLoader())
+                  .setLogLevel(Foo.class.getName(), LogLevel.INFO);
+
+              final LogAroundService service = context.getBean(LogAroundService.class);
+              service.logAround(joinPoint, annotation);
+
+              assertThat(overheadCalls("LogAround")).isEqualTo(1L);
+            });
+  }
+
+  @Test
+  void recordOverhead_whenExitedAbnormally() {
+    runner
+        .withPropertyValues(AopLoggersProperties.PREFIX + ".overhead.enabled=true")
+        .run(
+            (context) -> {
+              when(joinPoint.proceed()).thenThrow(new RuntimeException());
+
+              final LogAround annotation = mockLogAroundForExitAbnormally(Level.ERROR, "foo", null);
+              LoggingSystem.get(ClassLoader.getSystemClassLoader())
+                  .setLogLevel(Foo.class.getName(), LogLevel.ERROR);
+
+              final LogAroundService service = context.getBean(LogAroundService.class);
+              assertThrows(RuntimeException.class, () -> service.logAround(joinPoint, annotation));
+
+              assertThat(overheadCalls("LogAround")).isEqualTo(1L);
+            });
+  }
+
+  @Test
+  void recordOverhead_whenNotSampled() {
+    runner
+        .withPropertyValues(
+            AopLoggersProperties.PREFIX + ".sample-rate=0",
+            AopLoggersProperties.PREFIX + ".overhead.enabled=true")
+        .run(
+            (context) -> {
+              final LogAround annotation = mockLogAroundForEntering(Level.INFO, "foo");
+              when(annotation.alwaysLogSlowOrFailed()).thenReturn(true);
+              LoggingSystem.get(ClassLoader.getSystemClassLoader())
+                  .setLogLevel(Foo.class.getName(), LogLevel.INFO);
+
+              final LogAroundService service = context.getBean(LogAroundService.class);
+              service.logAround(joinPoint, annotation);
+              when(joinPoint.proceed()).thenThrow(new RuntimeException());
+              assertThrows(RuntimeException.class, () -> service.logAround(joinPoint, annotation));
+
+              assertThat(overheadCalls("LogAround")).isEqualTo(2L);
+            });
+  }
+
+  @Test
+  void recordOverhead_whenLogOnlySlowOrFailed() {
+    runner
+        .withPropertyValues(AopLoggersProperties.PREFIX + ".overhead.enabled=true")
+        .run(
+            (context) -> {
+              final LogAround annotation = mockLogAroundForLogOnlySlowOrFailed(1, ChronoUnit.DAYS);
+              LoggingSystem.get(ClassLoader.getSystemClassLoader())
+                  .setLogLevel(Foo.class.getName(), LogLevel.INFO);
+
+              final LogAroundService service = context.getBean(LogAroundService.class);
+              service.logAround(joinPoint, annotation);
+              when(joinPoint.proceed()).thenThrow(new RuntimeException());
+              assertThrows(RuntimeException.class, () -> service.logAround(joinPoint, annotation));
+
+              assertThat(overheadCalls("LogAround")).isEqualTo(2L);
+            });
+  }
+
+  @Test
+  void recordOverhead_perMethod() {
+    runner
+        .withPropertyValues(
+            AopLoggersProperties.PREFIX + ".overhead.enabled=true",
+            AopLoggersProperties.PREFIX + ".overhead.per-method=true")
+        .run(
+            (context) -> {
+              final LogAround annotation = mockLogAroundForEntering(Level.INFO, "foo");
+              LoggingSystem.get(ClassLoader.getSystemClassLoader())
+                  .setLogLevel(Foo.class.getName(), LogLevel.INFO);
+
+              final LogAroundService service = context.getBean(LogAroundService.class);
+              service.logAround(joinPoint, annotation);
+
+              final TabularData methodOverheads =
+                  (TabularData)
+                      ManagementFactory.getPlatformMBeanServer()
+                          .getAttribute(overheadObjectName("LogAround"), "MethodOverheads");
+              assertThat(methodOverheads.get(new Object[] {Foo.class.getName() + " void foo()"}))
+                  .isNotNull();
+            });
+  }
+
+  @Test
+  void doesNotRecordOverhead_whenOverheadDisabled() {
+    runner.run(
+        (context) -> {
+          assertThat(
+                  ManagementFactory.getPlatformMBeanServer()
+                      .isRegistered(overheadObjectName("LogAround")))
+              .isFalse();
+        });
+  }
+
+  @Test
+  void logExitedMessage_whenMonoTerminates(final CapturedOutput capturedOutput)
+      throws Throwable {
+    final ProceedingJoinPoint monoJoinPoint =
+        mockJoinPoint(mockMethodSignature(Foo.class, "mono"));
+    when(monoJoinPoint.proceed()).thenReturn(Mono.just("bar"));
+    runner.run(
+        (context) -> {
+          final LogAround annotation =
+              mockLogAroundForExitedAndElapsed(Level.INFO, "exited [{return-value}]", "elapsed");
+          LoggingSystem.get(ClassLoader.getSystemClassLoader())
+              .setLogLevel(Foo.class.getName(), LogLevel.INFO);
+
+          final LogAroundService service = context.getBean(LogAroundService.class);
+          final Mono<?> mono = (Mono<?>) service.logAround(monoJoinPoint, annotation);
+
+          assertThat(capturedOutput).doesNotContain("exited [");
+          assertThat(mono.block()).isEqualTo("bar");
+          assertThat(capturedOutput)
+              .containsSubsequence(
+                  "INFO " + Foo.class.getName() + " - exited [bar]",
+                  "INFO " + Foo.class.getName() + " - elapsed");
+        });
+  }
+
+  @Test
+  void logExitedMessage_whenFluxTerminates(final CapturedOutput capturedOutput)
+      throws Throwable {
+    final ProceedingJoinPoint fluxJoinPoint =
+        mockJoinPoint(mockMethodSignature(Foo.class, "flux"));
+    when(fluxJoinPoint.proceed()).thenReturn(Flux.just("foo", "bar", "baz"));
+    runner.run(
+        (context) -> {
+          final LogAround annotation =
+              mockLogAroundForExitedAndElapsed(Level.INFO, "exited [{return-value}]", "elapsed");
+          LoggingSystem.get(ClassLoader.getSystemClassLoader())
+              .setLogLevel(Foo.class.getName(), LogLevel.INFO);
+
+          final LogAroundService service = context.getBean(LogAroundService.class);
+          final Flux<?> flux = (Flux<?>) service.logAround(fluxJoinPoint, annotation);
+
+          assertThat(capturedOutput).doesNotContain("exited [");
+          assertThat(flux.cast(Object.class).collectList().block())
+              .containsExactly("foo", "bar", "baz");
+          assertThat(capturedOutput).contains("INFO " + Foo.class.getName() + " - exited [3]");
+        });
+  }
+
+  @Test
+  void logExitedAbnormallyMessage_whenMonoSignalsError(final CapturedOutput capturedOutput)
+      throws Throwable {
+    final ProceedingJoinPoint monoJoinPoint =
+        mockJoinPoint(mockMethodSignature(Foo.class, "mono"));
+    when(monoJoinPoint.proceed()).thenReturn(Mono.error(new IllegalStateException("bar")));
+    runner.run(
+        (context) -> {
+          final LogAround annotation =
+              mockLogAroundForExitAbnormally(Level.INFO, "failed [{exception}]", false);
+          LoggingSystem.get(ClassLoader.getSystemClassLoader())
+              .setLogLevel(Foo.class.getName(), LogLevel.INFO);
+
+          final LogAroundService service = context.getBean(LogAroundService.class);
+          final Mono<?> mono = (Mono<?>) service.logAround(monoJoinPoint, annotation);
+
+          assertThat(capturedOutput).doesNotContain("failed [");
+          assertThrows(IllegalStateException.class, mono::block);
+          assertThat(capturedOutput)
+              .contains(
+                  "INFO "
+                      + Foo.class.getName()
+                      + " - failed [type=IllegalStateException, message=bar]");
+        });
+  }
+
+  @Test
+  void logExitedAbnormallyMessage_whenNotSampledAndMonoSignalsError(
+      final CapturedOutput capturedOutput) throws Throwable {
+    final ProceedingJoinPoint monoJoinPoint =
+        mockJoinPoint(mockMethodSignature(Foo.class, "mono"));
+    when(monoJoinPoint.proceed()).thenReturn(Mono.error(new IllegalStateException("bar")));
+    runner
+        .withPropertyValues(AopLoggersProperties.PREFIX + ".sample-rate=0")
+        .run(
+            (context) -> {
+              final LogAround annotation = mockLogAroundForExitAbnormally(Level.INFO, "foo", null);
+              when(annotation.alwaysLogSlowOrFailed()).thenReturn(true);
+              LoggingSystem.get(ClassLoader.getSystemClassLoader())
+                  .setLogLevel(Foo.class.getName(), LogLevel.INFO);
+
+              final LogAroundService service = context.getBean(LogAroundService.class);
+              final Mono<?> mono = (Mono<?>) service.logAround(monoJoinPoint, annotation);
+
+              assertThat(capturedOutput).doesNotContain(Foo.class.getName() + " - ");
+              assertThrows(IllegalStateException.class, mono::block);
+              assertThat(capturedOutput).contains("INFO " + Foo.class.getName() + " - foo");
+            });
+  }
+
+  @Test
+  void logCall_whenLogOnlySlowOrFailedAndMonoSignalsError(final CapturedOutput capturedOutput)
+      throws Throwable {
+    final ProceedingJoinPoint monoJoinPoint =
+        mockJoinPoint(mockMethodSignature(Foo.class, "mono"));
+    when(monoJoinPoint.proceed()).thenReturn(Mono.error(new RuntimeException("foo")));
+    runner.run(
+        (context) -> {
+          final LogAround annotation = mockLogAroundForLogOnlySlowOrFailed(1, ChronoUnit.DAYS);
+          LoggingSystem.get(ClassLoader.getSystemClassLoader())
+              .setLogLevel(Foo.class.getName(), LogLevel.INFO);
+
+          final LogAroundService service = context.getBean(LogAroundService.class);
+          final Mono<?> mono = (Mono<?>) service.logAround(monoJoinPoint, annotation);
+
+          assertThat(capturedOutput).doesNotContain(Foo.class.getName() + " - ");
+          assertThrows(RuntimeException.class, mono::block);
+          assertThat(capturedOutput)
+              .containsSubsequence(
+                  "INFO " + Foo.class.getName() + " - entering",
+                  "INFO " + Foo.class.getName() + " - exited abnormally",
+                  "INFO " + Foo.class.getName() + " - elapsed")
+              .doesNotContain("reached limit");
+        });
+  }
+
+  @Test
+  void doesNotLogCall_whenLogOnlySlowOrFailedAndMonoNotSlow(final CapturedOutput capturedOutput)
+      throws Throwable {
+    final ProceedingJoinPoint monoJoinPoint =
+        mockJoinPoint(mockMethodSignature(Foo.class, "mono"));
+    when(monoJoinPoint.proceed()).thenReturn(Mono.just("foo"));
+    runner.run(
+        (context) -> {
+          final LogAround annotation = mockLogAroundForLogOnlySlowOrFailed(1, ChronoUnit.DAYS);
+          LoggingSystem.get(ClassLoader.getSystemClassLoader())
+              .setLogLevel(Foo.class.getName(), LogLevel.INFO);
+
+          final LogAroundService service = context.getBean(LogAroundService.class);
+          assertThat(((Mono<?>) service.logAround(monoJoinPoint, annotation)).block())
+              .isEqualTo("foo");
+
+          assertThat(capturedOutput).doesNotContain(Foo.class.getName() + " - ");
+        });
+  }
+
+  @Test
+  void recordTimerMetrics_whenFluxTerminates() throws Throwable {
+    final ProceedingJoinPoint fluxJoinPoint =
+        mockJoinPoint(mockMethodSignature(Foo.class, "flux"));
+    when(fluxJoinPoint.proceed()).thenReturn(Flux.just("foo", "bar"));
+    final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    runner
+        .withBean(LogDispatcher.class, SyncLogDispatcher::new)
+        .withBean(MetricsRecorder.class, () -> new MicrometerMetricsRecorder(meterRegistry))
+        .run(
+            (context) -> {
+              final LogAround annotation = mockLogAroundForEntering(Level.INFO, "foo");
+              when(annotation.metricsOnly()).thenReturn(true);
+
+              final LogAroundService service = context.getBean(LogAroundService.class);
+              final Flux<?> flux = (Flux<?>) service.logAround(fluxJoinPoint, annotation);
+
+              assertThat(meterRegistry.find(MicrometerMetricsRecorder.CALLS_METRIC).timer())
+                  .satisfiesAnyOf(
+                      (timer) -> assertThat(timer).isNull(),
+                      (timer) -> assertThat(timer.count()).isZero());
+              flux.blockLast();
+              assertThat(meterRegistry.get(MicrometerMetricsRecorder.CALLS_METRIC).timer().count())
+                  .isEqualTo(1);
+            });
+  }
+
+  private static ObjectName overheadObjectName(final String advice) throws JMException {
+    return new ObjectName(AdviceOverhead.DOMAIN + ":type=AdviceOverhead,advice=" + advice);
+  }
+
+  private static long overheadCalls(final String advice) throws JMException {
+    return (Long)
+        ManagementFactory.getPlatformMBeanServer()
+            .getAttribute(overheadObjectName(advice), "Calls");
   }
 }
@@ -249,4 +249,238 @@ class LogAroundTests {
     final LogAround annotation = Local.class.getAnnotation(LogAround.class);
     assertThat(annotation.elapsedTimeUnit()).isEqualTo(ChronoUnit.SECONDS);
   }
+
+  @Test
+  void sampleRate_defaultValue() {
+    @LogAround
+    class Local {};
+
+    final LogAround annotation = Local.class.getAnnotation(LogAround.class);
+    assertThat(annotation.sampleRate()).isZero();
+  }
+
+  @Test
+  void sampleRate_givenAttributeValue() {
+    @LogAround(sampleRate = 0.5d)
+    class Local {};
+
+    final LogAround annotation = Local.class.getAnnotation(LogAround.class);
+    assertThat(annotation.sampleRate()).isEqualTo(0.5d);
+  }
+
+  @Test
+  void alwaysLogSlowOrFailed_defaultValue() {
+    @LogAround
+    class Local {};
+
+    final LogAround annotation = Local.class.getAnnotation(LogAround.class);
+    assertThat(annotation.alwaysLogSlowOrFailed()).isTrue();
+  }
+
+  @Test
+  void alwaysLogSlowOrFailed_givenAttributeValue() {
+    @LogAround(alwaysLogSlowOrFailed = false)
+    class Local {};
+
+    final LogAround annotation = Local.class.getAnnotation(LogAround.class);
+    assertThat(annotation.alwaysLogSlowOrFailed()).isFalse();
+  }
+
+  @Test
+  void logOnlySlowOrFailed_defaultValue() {
+    @LogAround
+    class Local {};
+
+    final LogAround annotation = Local.class.getAnnotation(LogAround.class);
+    assertThat(annotation.logOnlySlowOrFailed()).isFalse();
+  }
+
+  @Test
+  void logOnlySlowOrFailed_givenAttributeValue() {
+    @LogAround(logOnlySlowOrFailed = true)
+    class Local {};
+
+    final LogAround annotation = Local.class.getAnnotation(LogAround.class);
+    assertThat(annotation.logOnlySlowOrFailed()).isTrue();
+  }
+
+  @Test
+  void metricsOnly_defaultValue() {
+    @LogAround
+    class Local {};
+
+    final LogAround annotation = Local.class.getAnnotation(LogAround.class);
+    assertThat(annotation.metricsOnly()).isFalse();
+  }
+
+  @Test
+  void metricsOnly_givenAttributeValue() {
+    @LogAround(metricsOnly = true)
+    class Local {};
+
+    final LogAround annotation = Local.class.getAnnotation(LogAround.class);
+    assertThat(annotation.metricsOnly()).isTrue();
+  }
+
+  @Test
+  void adaptiveElapsedTimeLimit_defaultValue() {
+    @LogAround
+    class Local {};
+
+    final LogAround annotation = Local.class.getAnnotation(LogAround.class);
+    assertThat(annotation.adaptiveElapsedTimeLimit()).isFalse();
+  }
+
+  @Test
+  void adaptiveElapsedTimeLimit_givenAttributeValue() {
+    @LogAround(adaptiveElapsedTimeLimit = true)
+    class Local {};
+
+    final LogAround annotation = Local.class.getAnnotation(LogAround.class);
+    assertThat(annotation.adaptiveElapsedTimeLimit()).isTrue();
+  }
+
+  @Test
+  void elapsedTimeLimitPercentile_defaultValue() {
+    @LogAround
+    class Local {};
+
+    final LogAround annotation = Local.class.getAnnotation(LogAround.class);
+    assertThat(annotation.elapsedTimeLimitPercentile()).isZero();
+  }
+
+  @Test
+  void elapsedTimeLimitPercentile_givenAttributeValue() {
+    @LogAround(elapsedTimeLimitPercentile = 95)
+    class Local {};
+
+    final LogAround annotation = Local.class.getAnnotation(LogAround.class);
+    assertThat(annotation.elapsedTimeLimitPercentile()).isEqualTo(95.0d);
+  }
+
+  @Test
+  void elapsedTimeLimitFactor_defaultValue() {
+    @LogAround
+    class Local {};
+
+    final LogAround annotation = Local.class.getAnnotation(LogAround.class);
+    assertThat(annotation.elapsedTimeLimitFactor()).isZero();
+  }
+
+  @Test
+  void elapsedTimeLimitFactor_givenAttributeValue() {
+    @LogAround(elapsedTimeLimitFactor = 1.5)
+    class Local {};
+
+    final LogAround annotation = Local.class.getAnnotation(LogAround.class);
+    assertThat(annotation.elapsedTimeLimitFactor()).isEqualTo(1.5d);
+  }
+
+  @Test
+  void rateLimit_defaultValue() {
+    @LogAround
+    class Local {};
+
+    final LogAround annotation = Local.class.getAnnotation(LogAround.class);
+    assertThat(annotation.rateLimit()).isZero();
+  }
+
+  @Test
+  void rateLimit_givenAttributeValue() {
+    @LogAround(rateLimit = 10)
+    class Local {};
+
+    final LogAround annotation = Local.class.getAnnotation(LogAround.class);
+    assertThat(annotation.rateLimit()).isEqualTo(10.0d);
+  }
+
+  @Test
+  void stackTraceMaxDepth_defaultValue() {
+    @LogAround
+    class Local {};
+
+    final LogAround annotation = Local.class.getAnnotation(LogAround.class);
+    assertThat(annotation.stackTraceMaxDepth()).isZero();
+  }
+
+  @Test
+  void stackTraceMaxDepth_givenAttributeValue() {
+    @LogAround(stackTraceMaxDepth = 10)
+    class Local {};
+
+    final LogAround annotation = Local.class.getAnnotation(LogAround.class);
+    assertThat(annotation.stackTraceMaxDepth()).isEqualTo(10);
+  }
+
+  @Test
+  void stackTraceIncludePackages_defaultValue() {
+    @LogAround
+    class Local {};
+
+    final LogAround annotation = Local.class.getAnnotation(LogAround.class);
+    assertThat(annotation.stackTraceIncludePackages()).isEmpty();
+  }
+
+  @Test
+  void stackTraceIncludePackages_givenAttributeValue() {
+    @LogAround(stackTraceIncludePackages = "im.aop.")
+    class Local {};
+
+    final LogAround annotation = Local.class.getAnnotation(LogAround.class);
+    assertThat(annotation.stackTraceIncludePackages()).containsExactly("im.aop.");
+  }
+
+  @Test
+  void stackTraceExcludePackages_defaultValue() {
+    @LogAround
+    class Local {};
+
+    final LogAround annotation = Local.class.getAnnotation(LogAround.class);
+    assertThat(annotation.stackTraceExcludePackages()).isEmpty();
+  }
+
+  @Test
+  void stackTraceExcludePackages_givenAttributeValue() {
+    @LogAround(stackTraceExcludePackages = "org.junit.")
+    class Local {};
+
+    final LogAround annotation = Local.class.getAnnotation(LogAround.class);
+    assertThat(annotation.stackTraceExcludePackages()).containsExactly("org.junit.");
+  }
+
+  @Test
+  void includeParameters_defaultValue() {
+    @LogAround
+    class Local {};
+
+    final LogAround annotation = Local.class.getAnnotation(LogAround.class);
+    assertThat(annotation.includeParameters()).isEmpty();
+  }
+
+  @Test
+  void includeParameters_givenAttributeValue() {
+    @LogAround(includeParameters = {"foo", "1"})
+    class Local {};
+
+    final LogAround annotation = Local.class.getAnnotation(LogAround.class);
+    assertThat(annotation.includeParameters()).containsExactly("foo", "1");
+  }
+
+  @Test
+  void excludeParameters_defaultValue() {
+    @LogAround
+    class Local {};
+
+    final LogAround annotation = Local.class.getAnnotation(LogAround.class);
+    assertThat(annotation.excludeParameters()).isEmpty();
+  }
+
+  @Test
+  void excludeParameters_givenAttributeValue() {
+    @LogAround(excludeParameters = "bar")
+    class Local {};
+
+    final LogAround annotation = Local.class.getAnnotation(LogAround.class);
+    assertThat(annotation.excludeParameters()).containsExactly("bar");
+  }
 }
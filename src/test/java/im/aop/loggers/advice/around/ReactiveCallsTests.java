@@ -0,0 +1,122 @@
+package im.aop.loggers.advice.around;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Tests for {@link ReactiveCalls}.
+ *
+ * @author Andy Lian
+ */
+class ReactiveCallsTests {
+
+  private final List<Object> values = new ArrayList<Object>();
+
+  private final List<Throwable> exceptions = new ArrayList<Throwable>();
+
+  private final ReactiveCalls.Terminal terminal =
+      (value, exception, elapsedTime) -> {
+        assertThat(elapsedTime).isNotNegative();
+        values.add(value);
+        exceptions.add(exception);
+      };
+
+  @Test
+  void isReactive() {
+    assertThat(ReactiveCalls.isReactive(Mono.class)).isTrue();
+    assertThat(ReactiveCalls.isReactive(Flux.class)).isTrue();
+    assertThat(ReactiveCalls.isReactive(String.class)).isFalse();
+    assertThat(ReactiveCalls.isReactive(void.class)).isFalse();
+  }
+
+  @Test
+  void hook_notPublisher() {
+    assertThat(ReactiveCalls.hook("foo", terminal)).isEqualTo("foo");
+    assertThat(ReactiveCalls.hook(null, terminal)).isNull();
+    assertThat(values).isEmpty();
+  }
+
+  @Test
+  void hook_monoEmittingValue() {
+    final Mono<?> mono = (Mono<?>) ReactiveCalls.hook(Mono.just("foo"), terminal);
+
+    assertThat(values).isEmpty();
+    assertThat(mono.block()).isEqualTo("foo");
+    assertThat(values).containsExactly("foo");
+    assertThat(exceptions).containsOnlyNulls();
+  }
+
+  @Test
+  void hook_monoEmpty() {
+    final Mono<?> mono = (Mono<?>) ReactiveCalls.hook(Mono.empty(), terminal);
+
+    assertThat(mono.block()).isNull();
+    assertThat(values).containsOnlyNulls().hasSize(1);
+    assertThat(exceptions).containsOnlyNulls();
+  }
+
+  @Test
+  void hook_monoSignallingError() {
+    final IllegalStateException error = new IllegalStateException("foo");
+    final Mono<?> mono = (Mono<?>) ReactiveCalls.hook(Mono.error(error), terminal);
+
+    assertThrows(IllegalStateException.class, mono::block);
+    assertThat(values).containsOnlyNulls().hasSize(1);
+    assertThat(exceptions).containsExactly(error);
+  }
+
+  @Test
+  void hook_fluxCountingElements() {
+    final Flux<?> flux = (Flux<?>) ReactiveCalls.hook(Flux.just("foo", "bar", "baz"), terminal);
+
+    assertThat(values).isEmpty();
+    assertThat(flux.cast(Object.class).collectList().block()).containsExactly("foo", "bar", "baz");
+    assertThat(values).containsExactly(3L);
+    assertThat(exceptions).containsOnlyNulls();
+  }
+
+  @Test
+  void hook_fluxSignallingError() {
+    final IllegalStateException error = new IllegalStateException("foo");
+    final Flux<?> flux =
+        (Flux<?>) ReactiveCalls.hook(Flux.just("foo").concatWith(Flux.error(error)), terminal);
+
+    assertThrows(IllegalStateException.class, flux::blockLast);
+    assertThat(values).containsOnlyNulls().hasSize(1);
+    assertThat(exceptions).containsExactly(error);
+  }
+
+  @Test
+  void hook_terminatesEachSubscription() {
+    final Flux<?> flux = (Flux<?>) ReactiveCalls.hook(Flux.just("foo", "bar"), terminal);
+
+    flux.blockLast();
+    flux.take(1).blockLast();
+    flux.blockLast();
+
+    assertThat(values).containsExactly(2L, 2L);
+  }
+
+  @Test
+  void hook_terminatesOnce_whenTerminalFails() {
+    final List<Throwable> terminated = new ArrayList<Throwable>();
+    final Mono<?> mono =
+        (Mono<?>)
+            ReactiveCalls.hook(
+                Mono.just("foo"),
+                (value, exception, elapsedTime) -> {
+                  terminated.add(exception);
+                  throw new IllegalStateException("bar");
+                });
+
+    assertThrows(IllegalStateException.class, mono::block);
+    assertThat(terminated).containsOnlyNulls().hasSize(1);
+  }
+}
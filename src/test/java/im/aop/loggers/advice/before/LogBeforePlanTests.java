@@ -0,0 +1,164 @@
+package im.aop.loggers.advice.before;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.lang.reflect.Method;
+import java.util.Collections;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import im.aop.loggers.AopLoggersProperties;
+import im.aop.loggers.AopLoggersProperties.Rendering;
+import im.aop.loggers.logging.Level;
+import im.aop.loggers.logging.message.MethodDescriptor;
+import im.aop.loggers.logging.message.ParameterSelection;
+import im.aop.loggers.logging.value.ValueWriter;
+
+/**
+ * Tests for {@link LogBeforePlan}.
+ *
+ * @author Andy Lian
+ */
+class LogBeforePlanTests {
+
+  static class Foo {
+
+    void foo() {}
+
+    void bar(String baz, int qux) {}
+  }
+
+  private Method method;
+
+  private AopLoggersProperties aopLoggersProperties;
+
+  @BeforeEach
+  void beforeEach() throws NoSuchMethodException {
+    method = Foo.class.getDeclaredMethod("foo");
+    aopLoggersProperties = new AopLoggersProperties();
+  }
+
+  @Test
+  void defaultValues() {
+    final LogBeforePlan plan =
+        new LogBeforePlan(method, mockLogBefore(Level.DEFAULT, ""), aopLoggersProperties);
+
+    assertThat(plan.getEnteringLevel()).isEqualTo(aopLoggersProperties.getEnteringLevel());
+    assertThat(plan.isRateLimited()).isFalse();
+    assertThat(plan.getEnteringMessage().get().getTemplate())
+        .isEqualTo(aopLoggersProperties.getEnteringMessage());
+  }
+
+  @Test
+  void customValues() {
+    final LogBeforePlan plan =
+        new LogBeforePlan(method, mockLogBefore(Level.INFO, "foo"), aopLoggersProperties);
+
+    assertThat(plan.getEnteringLevel()).isEqualTo(Level.INFO);
+    assertThat(plan.getEnteringMessage().get().getTemplate()).isEqualTo("foo");
+    assertThat(plan.getEnteringMessage().get(true).getTemplate())
+        .isEqualTo("foo [{suppressed} calls suppressed by rate limit]");
+  }
+
+  @Test
+  void sampleRate_defaultValue() {
+    aopLoggersProperties.setSampleRate(0.5d);
+
+    final LogBeforePlan plan =
+        new LogBeforePlan(method, mockLogBefore(Level.INFO, "foo"), aopLoggersProperties);
+
+    assertThat(plan.getSampleRate()).isEqualTo(0.5d);
+  }
+
+  @Test
+  void sampleRate_customValue() {
+    final LogBefore annotation = mockLogBefore(Level.INFO, "foo");
+    when(annotation.sampleRate()).thenReturn(0.25d);
+    aopLoggersProperties.setSampleRate(0.5d);
+
+    final LogBeforePlan plan = new LogBeforePlan(method, annotation, aopLoggersProperties);
+
+    assertThat(plan.getSampleRate()).isEqualTo(0.25d);
+  }
+
+  @Test
+  void rateLimit_defaultValue() {
+    aopLoggersProperties.setRateLimit(10.0d);
+
+    final LogBeforePlan plan =
+        new LogBeforePlan(method, mockLogBefore(Level.INFO, "foo"), aopLoggersProperties);
+
+    assertThat(plan.isRateLimited()).isTrue();
+  }
+
+  @Test
+  void rateLimit_customValue() {
+    final LogBefore annotation = mockLogBefore(Level.INFO, "foo");
+    when(annotation.rateLimit()).thenReturn(10.0d);
+
+    final LogBeforePlan plan = new LogBeforePlan(method, annotation, aopLoggersProperties);
+
+    assertThat(plan.isRateLimited()).isTrue();
+  }
+
+  @Test
+  void parameterSelection_defaultValue() {
+    final LogBeforePlan plan =
+        new LogBeforePlan(method, mockLogBefore(Level.INFO, "foo"), aopLoggersProperties);
+
+    assertThat(plan.getParameterSelection()).isSameAs(ParameterSelection.ALL);
+  }
+
+  @Test
+  void parameterSelection_customValue() throws NoSuchMethodException {
+    final LogBefore annotation = mockLogBefore(Level.INFO, "foo");
+    when(annotation.includeParameters()).thenReturn(new String[0]);
+    when(annotation.excludeParameters()).thenReturn(new String[] {"baz"});
+
+    final LogBeforePlan plan =
+        new LogBeforePlan(
+            Foo.class.getDeclaredMethod("bar", String.class, int.class),
+            annotation,
+            aopLoggersProperties);
+
+    assertThat(plan.getParameterSelection().isSelected(0)).isFalse();
+    assertThat(plan.getParameterSelection().isSelected(1)).isTrue();
+  }
+
+  @Test
+  void maskingPlan_defaultValue() {
+    final LogBeforePlan plan =
+        new LogBeforePlan(method, mockLogBefore(Level.INFO, "foo"), aopLoggersProperties);
+
+    assertThat(plan.getMaskingPlan())
+        .isSameAs(MethodDescriptor.of(method).getMaskingPlan(ValueWriter.DEFAULT));
+  }
+
+  @Test
+  void maskingPlan_compiledWhenBuilt() throws NoSuchMethodException {
+    final Rendering rendering = new Rendering();
+    rendering.setMaskedNames(Collections.singleton("qux"));
+    final ValueWriter valueWriter = new ValueWriter(rendering);
+    final Method bar = Foo.class.getDeclaredMethod("bar", String.class, int.class);
+
+    final LogBeforePlan plan =
+        new LogBeforePlan(bar, mockLogBefore(Level.INFO, "foo"), aopLoggersProperties, valueWriter);
+
+    assertThat(plan.getMaskingPlan().isMasked(0)).isFalse();
+    assertThat(plan.getMaskingPlan().isMasked(1)).isTrue();
+    assertThat(MethodDescriptor.of(bar).getMaskingPlan(valueWriter))
+        .isSameAs(plan.getMaskingPlan());
+  }
+
+  private LogBefore mockLogBefore(final Level level, final String message) {
+    final LogBefore annotation = mock(LogBefore.class);
+
+    when(annotation.level()).thenReturn(level);
+    when(annotation.enteringMessage()).thenReturn(message);
+
+    return annotation;
+  }
+}
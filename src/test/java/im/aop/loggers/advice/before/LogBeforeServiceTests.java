@@ -1,14 +1,24 @@
 package im.aop.loggers.advice.before;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.lang.management.ManagementFactory;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
 import org.aspectj.lang.JoinPoint;
 import org.aspectj.lang.reflect.MethodSignature;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.slf4j.Logger;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.boot.logging.LogLevel;
 import org.springframework.boot.logging.LoggingSystem;
@@ -16,9 +26,13 @@ import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.boot.test.context.runner.ApplicationContextRunner;
 import org.springframework.boot.test.system.CapturedOutput;
 import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.util.StringUtils;
 
 import im.aop.loggers.AopLoggersProperties;
 import im.aop.loggers.logging.Level;
+import im.aop.loggers.logging.LogDispatcher;
+import im.aop.loggers.logging.message.StringSupplierLookup;
+import im.aop.loggers.metrics.AdviceOverhead;
 
 /**
  * Tests for {@link LogBeforeService}.
@@ -31,7 +45,7 @@ class LogBeforeServiceTests {
   private final ApplicationContextRunner runner =
       new ApplicationContextRunner()
           .withUserConfiguration(AopLoggersPropertiesTestConfiguration.class)
-          .withBean(LogBeforeService.class);
+          .withUserConfiguration(LogBeforeConfiguration.class);
 
   @TestConfiguration(proxyBeanMethods = false)
   @EnableConfigurationProperties({AopLoggersProperties.class})
@@ -40,6 +54,8 @@ class LogBeforeServiceTests {
   static class Foo {
 
     void foo() {}
+
+    void bar(String baz, String qux) {}
   }
 
   private MethodSignature methodSignature;
@@ -151,55 +167,155 @@ class LogBeforeServiceTests {
   }
 
   @Test
-  void doesNotLogElapsed_whenDisabled(final CapturedOutput capturedOutput) {
+  void doesNotLogEnteringMessage_whenNotSampled(final CapturedOutput capturedOutput) {
     runner
-        .withPropertyValues(AopLoggersProperties.PREFIX + ".enabled=false")
+        .withPropertyValues(AopLoggersProperties.PREFIX + ".sample-rate=0")
         .run(
             (context) -> {
               final LogBefore annotation = mockLogBefore(Level.INFO, "foo");
               LoggingSystem.get(ClassLoader.getSystemClassLoader())
                   .setLogLevel(Foo.class.getName(), LogLevel.INFO);
+
+              final LogBeforeService service = context.getBean(LogBeforeService.class);
+              service.logBefore(joinPoint, annotation);
+
+              assertThat(capturedOutput).doesNotContain("INFO " + Foo.class.getName() + " - foo");
+            });
+  }
+
+  @Test
+  void logEnteringMessage_whenSampledByAnnotation(final CapturedOutput capturedOutput) {
+    runner
+        .withPropertyValues(AopLoggersProperties.PREFIX + ".sample-rate=0")
+        .run(
+            (context) -> {
+              final LogBefore annotation = mockLogBefore(Level.INFO, "foo");
+              when(annotation.sampleRate()).thenReturn(1.0d);
+              LoggingSystem.get(ClassLoader.getSystemClassLoader())
+                  .setLogLevel(Foo.class.getName(), LogLevel.INFO);
+
+              final LogBeforeService service = context.getBean(LogBeforeService.class);
+              service.logBefore(joinPoint, annotation);
+
+              assertThat(capturedOutput).contains("INFO " + Foo.class.getName() + " - foo");
+            });
+  }
+
+  @Test
+  void doesNotLogEnteringMessage_whenThrottled(final CapturedOutput capturedOutput) {
+    runner
+        .withPropertyValues(AopLoggersProperties.PREFIX + ".rate-limit=1")
+        .run(
+            (context) -> {
+              final LogBefore annotation = mockLogBefore(Level.INFO, "foo");
               LoggingSystem.get(ClassLoader.getSystemClassLoader())
-                  .setLogLevel(LogBeforeService.class.getName(), LogLevel.DEBUG);
+                  .setLogLevel(Foo.class.getName(), LogLevel.INFO);
 
               final LogBeforeService service = context.getBean(LogBeforeService.class);
               service.logBefore(joinPoint, annotation);
+              service.logBefore(joinPoint, annotation);
 
-              assertThat(capturedOutput).doesNotContain("[logBefore] elapsed [");
+              assertThat(
+                      StringUtils.countOccurrencesOf(
+                          capturedOutput.toString(), "INFO " + Foo.class.getName() + " - foo"))
+                  .isEqualTo(1);
             });
   }
 
   @Test
-  void logElapsed_whenLoggerLevelDisabled(final CapturedOutput capturedOutput) {
+  void logEnteringMessage_withSuppressedCount(final CapturedOutput capturedOutput) {
     runner.run(
         (context) -> {
-          final LogBefore annotation = mockLogBefore(Level.DEBUG, "foo");
+          final LogBefore annotation = mockLogBefore(Level.INFO, "foo");
+          when(annotation.rateLimit()).thenReturn(1.0d);
           LoggingSystem.get(ClassLoader.getSystemClassLoader())
               .setLogLevel(Foo.class.getName(), LogLevel.INFO);
-          LoggingSystem.get(ClassLoader.getSystemClassLoader())
-              .setLogLevel(LogBeforeService.class.getName(), LogLevel.DEBUG);
 
           final LogBeforeService service = context.getBean(LogBeforeService.class);
           service.logBefore(joinPoint, annotation);
+          service.logBefore(joinPoint, annotation);
+          service.logBefore(joinPoint, annotation);
+          Thread.sleep(1100);
+          service.logBefore(joinPoint, annotation);
 
-          assertThat(capturedOutput).contains("[logBefore] elapsed [");
+          assertThat(capturedOutput)
+              .contains(
+                  "INFO " + Foo.class.getName() + " - foo [2 calls suppressed by rate limit]");
         });
   }
 
   @Test
-  void logElapsed_whenEnabled(final CapturedOutput capturedOutput) {
+  void doesNotRecordOverhead_whenDisabled() {
+    runner
+        .withPropertyValues(
+            AopLoggersProperties.PREFIX + ".enabled=false",
+            AopLoggersProperties.PREFIX + ".overhead.enabled=true")
+        .run(
+            (context) -> {
+              final LogBefore annotation = mockLogBefore(Level.INFO, "foo");
+              LoggingSystem.get(ClassLoader.getSystemClassLoader())
+                  .setLogLevel(Foo.class.getName(), LogLevel.INFO);
+
+              final LogBeforeService service = context.getBean(LogBeforeService.class);
+              service.logBefore(joinPoint, annotation);
+
+              assertThat(overheadCalls("LogBefore")).isEqualTo(0L);
+            });
+  }
+
+  @Test
+  void recordOverhead_whenLoggerLevelDisabled() {
+    runner
+        .withPropertyValues(AopLoggersProperties.PREFIX + ".overhead.enabled=true")
+        .run(
+            (context) -> {
+              final LogBefore annotation = mockLogBefore(Level.DEBUG, "foo");
+              LoggingSystem.get(ClassLoader.getSystemClassLoader())
+                  .setLogLevel(Foo.class.getName(), LogLevel.INFO);
+
+              final LogBeforeService service = context.getBean(LogBeforeService.class);
+              service.logBefore(joinPoint, annotation);
+
+              assertThat(overheadCalls("LogBefore")).isEqualTo(1L);
+            });
+  }
+
+  @Test
+  void recordOverhead_whenEnabled() {
+    runner
+        .withPropertyValues(AopLoggersProperties.PREFIX + ".overhead.enabled=true")
+        .run(
+            (context) -> {
+              final LogBefore annotation = mockLogBefore(Level.INFO, "foo");
+              LoggingSystem.get(ClassLoader.getSystemClassLoader())
+                  .setLogLevel(Foo.class.getName(), LogLevel.INFO);
+
+              final LogBeforeService service = context.getBean(LogBeforeService.class);
+              service.logBefore(joinPoint, annotation);
+
+              assertThat(overheadCalls("LogBefore")).isEqualTo(1L);
+            });
+  }
+
+  @Test
+  void logEnteringMessage_selectedParameters(final CapturedOutput capturedOutput) {
     runner.run(
         (context) -> {
-          final LogBefore annotation = mockLogBefore(Level.INFO, "foo");
+          final LogBefore annotation =
+              mockLogBefore(Level.INFO, "{parameters} and {parameters.baz}");
+          when(annotation.excludeParameters()).thenReturn(new String[] {"baz"});
+          final MethodSignature methodSignature =
+              mockMethodSignature(Foo.class, "bar", String.class, String.class);
+          when(methodSignature.getParameterNames()).thenReturn(new String[] {"baz", "qux"});
+          final JoinPoint joinPoint = mockJoinPoint(methodSignature);
+          when(joinPoint.getArgs()).thenReturn(new Object[] {"a", "b"});
           LoggingSystem.get(ClassLoader.getSystemClassLoader())
               .setLogLevel(Foo.class.getName(), LogLevel.INFO);
-          LoggingSystem.get(ClassLoader.getSystemClassLoader())
-              .setLogLevel(LogBeforeService.class.getName(), LogLevel.DEBUG);
 
           final LogBeforeService service = context.getBean(LogBeforeService.class);
           service.logBefore(joinPoint, annotation);
 
-          assertThat(capturedOutput).contains("[logBefore] elapsed [");
+          assertThat(capturedOutput).contains("INFO " + Foo.class.getName() + " - qux=b and a");
         });
   }
 
@@ -223,6 +339,29 @@ class LogBeforeServiceTests {
     return joinPoint;
   }
 
+  @Test
+  void logEnteringMessage_withLogDispatcher() {
+    final LogDispatcher logDispatcher = mock(LogDispatcher.class);
+    runner
+        .withBean(LogDispatcher.class, () -> logDispatcher)
+        .run(
+            (context) -> {
+              final LogBefore annotation = mockLogBefore(Level.INFO, "foo");
+              LoggingSystem.get(ClassLoader.getSystemClassLoader())
+                  .setLogLevel(Foo.class.getName(), LogLevel.INFO);
+
+              final LogBeforeService service = context.getBean(LogBeforeService.class);
+              service.logBefore(joinPoint, annotation);
+
+              verify(logDispatcher)
+                  .log(
+                      any(Logger.class),
+                      eq(Level.INFO),
+                      argThat((template) -> "foo".equals(template.getTemplate())),
+                      any(StringSupplierLookup.class));
+            });
+  }
+
   private LogBefore mockLogBefore(final Level level, final String message) {
     final LogBefore annotation = mock(LogBefore.class);
 
@@ -231,4 +370,12 @@ class LogBeforeServiceTests {
 
     return annotation;
   }
+
+  private static long overheadCalls(final String advice) throws JMException {
+    return (Long)
+        ManagementFactory.getPlatformMBeanServer()
+            .getAttribute(
+                new ObjectName(AdviceOverhead.DOMAIN + ":type=AdviceOverhead,advice=" + advice),
+                "Calls");
+  }
 }
@@ -66,4 +66,76 @@ class LogBeforeTests {
     final LogBefore annotation = Local.class.getAnnotation(LogBefore.class);
     assertThat(annotation.enteringMessage()).isEqualTo("foo");
   }
+
+  @Test
+  void sampleRate_defaultValue() {
+    @LogBefore
+    class Local {};
+
+    final LogBefore annotation = Local.class.getAnnotation(LogBefore.class);
+    assertThat(annotation.sampleRate()).isZero();
+  }
+
+  @Test
+  void sampleRate_givenAttributeValue() {
+    @LogBefore(sampleRate = 0.5d)
+    class Local {};
+
+    final LogBefore annotation = Local.class.getAnnotation(LogBefore.class);
+    assertThat(annotation.sampleRate()).isEqualTo(0.5d);
+  }
+
+  @Test
+  void rateLimit_defaultValue() {
+    @LogBefore
+    class Local {};
+
+    final LogBefore annotation = Local.class.getAnnotation(LogBefore.class);
+    assertThat(annotation.rateLimit()).isZero();
+  }
+
+  @Test
+  void rateLimit_givenAttributeValue() {
+    @LogBefore(rateLimit = 10)
+    class Local {};
+
+    final LogBefore annotation = Local.class.getAnnotation(LogBefore.class);
+    assertThat(annotation.rateLimit()).isEqualTo(10.0d);
+  }
+
+  @Test
+  void includeParameters_defaultValue() {
+    @LogBefore
+    class Local {};
+
+    final LogBefore annotation = Local.class.getAnnotation(LogBefore.class);
+    assertThat(annotation.includeParameters()).isEmpty();
+  }
+
+  @Test
+  void includeParameters_givenAttributeValue() {
+    @LogBefore(includeParameters = {"foo", "1"})
+    class Local {};
+
+    final LogBefore annotation = Local.class.getAnnotation(LogBefore.class);
+    assertThat(annotation.includeParameters()).containsExactly("foo", "1");
+  }
+
+  @Test
+  void excludeParameters_defaultValue() {
+    @LogBefore
+    class Local {};
+
+    final LogBefore annotation = Local.class.getAnnotation(LogBefore.class);
+    assertThat(annotation.excludeParameters()).isEmpty();
+  }
+
+  @Test
+  void excludeParameters_givenAttributeValue() {
+    @LogBefore(excludeParameters = "bar")
+    class Local {};
+
+    final LogBefore annotation = Local.class.getAnnotation(LogBefore.class);
+    assertThat(annotation.excludeParameters()).containsExactly("bar");
+  }
 }
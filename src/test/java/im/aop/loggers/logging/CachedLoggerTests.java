@@ -0,0 +1,66 @@
+package im.aop.loggers.logging;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.logging.LogLevel;
+import org.springframework.boot.logging.LoggingSystem;
+
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.util.ContextInitializer;
+import ch.qos.logback.core.joran.spi.JoranException;
+
+/**
+ * Tests for {@link CachedLogger}.
+ *
+ * @author Andy Lian
+ */
+class CachedLoggerTests {
+
+  @Test
+  void get_returnsLoggerByName() {
+    final CachedLogger cachedLogger = new CachedLogger("foo");
+
+    assertThat(cachedLogger.getName()).isEqualTo("foo");
+    assertThat(cachedLogger.get().getName()).isEqualTo("foo");
+  }
+
+  @Test
+  void get_returnsSameLogger() {
+    final CachedLogger cachedLogger = new CachedLogger("foo");
+
+    assertThat(cachedLogger.get()).isSameAs(cachedLogger.get());
+  }
+
+  @Test
+  void invalidateAll_resolvesLoggerAgain() {
+    final CachedLogger cachedLogger = new CachedLogger("foo");
+    final int generation = CachedLogger.getGeneration();
+    cachedLogger.get();
+
+    CachedLogger.invalidateAll();
+
+    assertThat(CachedLogger.getGeneration()).isEqualTo(generation + 1);
+    assertThat(cachedLogger.get()).isSameAs(LoggerFactory.getLogger("foo"));
+  }
+
+  @Test
+  void get_afterLoggerContextReset() throws JoranException {
+    final CachedLogger cachedLogger = new CachedLogger("foo");
+    LoggingSystem.get(ClassLoader.getSystemClassLoader()).setLogLevel("foo", LogLevel.ERROR);
+    assertThat(cachedLogger.get().isInfoEnabled()).isFalse();
+
+    final LoggerContext loggerContext = (LoggerContext) LoggerFactory.getILoggerFactory();
+    try {
+      loggerContext.reset();
+      LoggingSystem.get(ClassLoader.getSystemClassLoader()).setLogLevel("foo", LogLevel.INFO);
+
+      assertThat(cachedLogger.get()).isSameAs(LoggerFactory.getLogger("foo"));
+      assertThat(cachedLogger.get().isInfoEnabled()).isTrue();
+    } finally {
+      loggerContext.reset();
+      new ContextInitializer(loggerContext).autoConfig();
+    }
+  }
+}
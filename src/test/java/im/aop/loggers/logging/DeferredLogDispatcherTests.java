@@ -0,0 +1,139 @@
+package im.aop.loggers.logging;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.filter.ThresholdFilter;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import im.aop.loggers.logging.message.MessageTemplate;
+import im.aop.loggers.logging.message.StringSupplierLookup;
+
+/**
+ * Tests for {@link DeferredLogDispatcher}.
+ *
+ * @author Andy Lian
+ */
+class DeferredLogDispatcherTests {
+
+  private final DeferredLogDispatcher logDispatcher = new DeferredLogDispatcher();
+
+  private final AtomicInteger renderings = new AtomicInteger();
+
+  private Logger logger;
+
+  private ListAppender<ILoggingEvent> appender;
+
+  private StringSupplierLookup stringLookup;
+
+  @BeforeEach
+  void beforeEach() {
+    final LoggerContext loggerContext = (LoggerContext) LoggerFactory.getILoggerFactory();
+
+    final ThresholdFilter filter = new ThresholdFilter();
+    filter.setLevel("WARN");
+    filter.start();
+
+    appender = new ListAppender<ILoggingEvent>();
+    appender.setContext(loggerContext);
+    appender.addFilter(filter);
+    appender.start();
+
+    logger = loggerContext.getLogger(DeferredLogDispatcherTests.class);
+    logger.setLevel(ch.qos.logback.classic.Level.TRACE);
+    logger.setAdditive(false);
+    logger.addAppender(appender);
+
+    stringLookup = new StringSupplierLookup();
+    stringLookup.addStringSupplier("foo", () -> "foo" + renderings.incrementAndGet());
+  }
+
+  @AfterEach
+  void afterEach() {
+    logger.detachAppender(appender);
+    logger.setAdditive(true);
+    logger.setLevel(null);
+    appender.stop();
+  }
+
+  @Test
+  void log_rendersAcceptedEvent() {
+    logDispatcher.log(logger, Level.WARN, MessageTemplate.of("{foo} bar"), stringLookup);
+
+    assertThat(appender.list).hasSize(1);
+    assertThat(appender.list.get(0).getFormattedMessage()).isEqualTo("foo1 bar");
+    assertThat(renderings).hasValue(1);
+  }
+
+  @Test
+  void log_doesNotRenderFilteredEvent() {
+    logDispatcher.log(logger, Level.DEBUG, MessageTemplate.of("{foo} bar"), stringLookup);
+
+    assertThat(appender.list).isEmpty();
+    assertThat(renderings).hasValue(0);
+  }
+
+  @Test
+  void logException_rendersAcceptedEvent() {
+    final RuntimeException exception = new RuntimeException("baz");
+    logDispatcher.logException(
+        logger, Level.ERROR, MessageTemplate.of("{foo} bar"), stringLookup, exception);
+
+    assertThat(appender.list).hasSize(1);
+    assertThat(appender.list.get(0).getFormattedMessage()).isEqualTo("foo1 bar");
+    assertThat(appender.list.get(0).getThrowableProxy().getMessage()).isEqualTo("baz");
+  }
+
+  @Test
+  void logException_doesNotRenderFilteredEvent() {
+    logDispatcher.logException(
+        logger,
+        Level.INFO,
+        MessageTemplate.of("{foo} bar"),
+        stringLookup,
+        new RuntimeException("baz"));
+
+    assertThat(appender.list).isEmpty();
+    assertThat(renderings).hasValue(0);
+  }
+
+  @Test
+  void log_writesJsonOfAcceptedEvent() {
+    new DeferredLogDispatcher(OutputFormat.JSON)
+        .log(logger, Level.WARN, MessageTemplate.of("{foo} bar"), stringLookup);
+
+    assertThat(appender.list).hasSize(1);
+    assertThat(appender.list.get(0).getFormattedMessage()).isEqualTo("{\"foo\":\"foo1\"}");
+    assertThat(renderings).hasValue(1);
+  }
+
+  @Test
+  void log_doesNotWriteJsonOfFilteredEvent() {
+    new DeferredLogDispatcher(OutputFormat.JSON)
+        .log(logger, Level.DEBUG, MessageTemplate.of("{foo} bar"), stringLookup);
+
+    assertThat(appender.list).isEmpty();
+    assertThat(renderings).hasValue(0);
+  }
+
+  @Test
+  void log_rendersAfterLookupReleased() {
+    final StringSupplierLookup pooledStringLookup = StringSupplierLookup.acquire();
+    try {
+      pooledStringLookup.addStringSupplier("foo", () -> "foo");
+      logDispatcher.log(logger, Level.WARN, MessageTemplate.of("{foo} bar"), pooledStringLookup);
+    } finally {
+      pooledStringLookup.release();
+    }
+
+    assertThat(appender.list.get(0).getFormattedMessage()).isEqualTo("foo bar");
+  }
+}
@@ -8,6 +8,8 @@ import org.aspectj.lang.JoinPoint;
 import org.aspectj.lang.reflect.MethodSignature;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.logging.LogLevel;
@@ -59,6 +61,24 @@ class LoggerServiceTests {
     assertThat(logger.getName()).isEqualTo(TestFoo.class.getName());
   }
 
+  @Test
+  void getCachedLogger_givenDeclaringClass() {
+    final CachedLogger cachedLogger = LOGGER_SERVICE.getCachedLogger(TestBar.class, TestFoo.class);
+    assertThat(cachedLogger.get().getName()).isEqualTo(TestBar.class.getName());
+  }
+
+  @Test
+  void getCachedLogger_givenDeclaringClassEqualsVoid() {
+    final CachedLogger cachedLogger = LOGGER_SERVICE.getCachedLogger(void.class, TestFoo.class);
+    assertThat(cachedLogger.get().getName()).isEqualTo(TestFoo.class.getName());
+  }
+
+  @Test
+  void getCachedLogger_givenDeclaringClassEqualsNull() {
+    final CachedLogger cachedLogger = LOGGER_SERVICE.getCachedLogger(null, TestFoo.class);
+    assertThat(cachedLogger.get().getName()).isEqualTo(TestFoo.class.getName());
+  }
+
   @Test
   void isEnabled_givenLevelEqualsTrace() {
     LoggingSystem.get(ClassLoader.getSystemClassLoader()).setLogLevel("foo", LogLevel.TRACE);
@@ -237,6 +257,52 @@ class LoggerServiceTests {
         .doesNotContain("java.lang.RuntimeException: foo");
   }
 
+  @ParameterizedTest
+  @EnumSource(value = Level.class, names = "DEFAULT", mode = EnumSource.Mode.EXCLUDE)
+  @ExtendWith(OutputCaptureExtension.class)
+  void log_givenFormatAndArgument(final Level level, final CapturedOutput capturedOutput) {
+    LoggingSystem.get(ClassLoader.getSystemClassLoader()).setLogLevel("foo", LogLevel.TRACE);
+
+    final Logger logger = LoggerFactory.getLogger("foo");
+    LOGGER_SERVICE.log(logger, level, "{} bar", "foo");
+    assertThat(capturedOutput).containsOnlyOnce(level + " foo - foo bar");
+  }
+
+  @Test
+  @ExtendWith(OutputCaptureExtension.class)
+  void log_givenFormatAndArgumentAndLevelEqualsDefault(final CapturedOutput capturedOutput) {
+    LoggingSystem.get(ClassLoader.getSystemClassLoader()).setLogLevel("foo", LogLevel.TRACE);
+
+    final Logger logger = LoggerFactory.getLogger("foo");
+    LOGGER_SERVICE.log(logger, Level.DEFAULT, "{} bar", "foo");
+    assertThat(capturedOutput).doesNotContain("foo - foo bar");
+  }
+
+  @ParameterizedTest
+  @EnumSource(value = Level.class, names = "DEFAULT", mode = EnumSource.Mode.EXCLUDE)
+  @ExtendWith(OutputCaptureExtension.class)
+  void logException_givenFormatAndArgument(
+      final Level level, final CapturedOutput capturedOutput) {
+    LoggingSystem.get(ClassLoader.getSystemClassLoader()).setLogLevel("foo", LogLevel.TRACE);
+
+    final Logger logger = LoggerFactory.getLogger("foo");
+    LOGGER_SERVICE.logException(logger, level, "{} bar", "foo", new RuntimeException("foo"));
+    assertThat(capturedOutput)
+        .containsOnlyOnce(level + " foo - foo bar")
+        .containsOnlyOnce("java.lang.RuntimeException: foo");
+  }
+
+  @Test
+  @ExtendWith(OutputCaptureExtension.class)
+  void logException_givenFormatAndArgumentAndLevelEqualsDefault(
+      final CapturedOutput capturedOutput) {
+    LoggingSystem.get(ClassLoader.getSystemClassLoader()).setLogLevel("foo", LogLevel.TRACE);
+
+    final Logger logger = LoggerFactory.getLogger("foo");
+    LOGGER_SERVICE.logException(logger, Level.DEFAULT, "{} bar", "foo", new RuntimeException());
+    assertThat(capturedOutput).doesNotContain("foo - foo bar");
+  }
+
   private MethodSignature mockMethodSignature(
       final Class<?> declaringClass, final String methodName, Class<?>... methodParameterTypes)
       throws NoSuchMethodException {
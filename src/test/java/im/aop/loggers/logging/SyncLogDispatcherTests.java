@@ -0,0 +1,58 @@
+package im.aop.loggers.logging;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.logging.LogLevel;
+import org.springframework.boot.logging.LoggingSystem;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+
+import im.aop.loggers.logging.message.MessageTemplate;
+import im.aop.loggers.logging.message.StringSupplierLookup;
+
+/**
+ * Tests for {@link SyncLogDispatcher}.
+ *
+ * @author Andy Lian
+ */
+@ExtendWith(OutputCaptureExtension.class)
+class SyncLogDispatcherTests {
+
+  private final SyncLogDispatcher logDispatcher = new SyncLogDispatcher();
+
+  @Test
+  void log_rendersTemplate(final CapturedOutput capturedOutput) {
+    LoggingSystem.get(ClassLoader.getSystemClassLoader()).setLogLevel("foo", LogLevel.INFO);
+
+    final Logger logger = LoggerFactory.getLogger("foo");
+    final StringSupplierLookup stringLookup = new StringSupplierLookup();
+    stringLookup.addStringSupplier("bar", () -> "bar");
+
+    logDispatcher.log(logger, Level.INFO, MessageTemplate.of("foo {bar}"), stringLookup);
+
+    assertThat(capturedOutput).containsOnlyOnce("INFO foo - foo bar");
+  }
+
+  @Test
+  void logException_rendersTemplateAndStackTrace(final CapturedOutput capturedOutput) {
+    LoggingSystem.get(ClassLoader.getSystemClassLoader()).setLogLevel("foo", LogLevel.INFO);
+
+    final Logger logger = LoggerFactory.getLogger("foo");
+    final StringSupplierLookup stringLookup = new StringSupplierLookup();
+    stringLookup.addStringSupplier("bar", () -> "bar");
+
+    logDispatcher.logException(
+        logger,
+        Level.ERROR,
+        MessageTemplate.of("foo {bar}"),
+        stringLookup,
+        new IllegalStateException("baz"));
+
+    assertThat(capturedOutput)
+        .containsSubsequence("ERROR foo - foo bar", "java.lang.IllegalStateException: baz");
+  }
+}
@@ -0,0 +1,321 @@
+package im.aop.loggers.logging.async;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import im.aop.loggers.logging.Level;
+import im.aop.loggers.logging.LogDispatcher;
+import im.aop.loggers.logging.message.MessageTemplate;
+import im.aop.loggers.logging.message.StringSupplierLookup;
+import im.aop.loggers.metrics.AdviceOverhead;
+
+/**
+ * Tests for {@link AsyncLogDispatcher}.
+ *
+ * @author Andy Lian
+ */
+class AsyncLogDispatcherTests {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger("foo");
+
+  private static final MessageTemplate TEMPLATE = MessageTemplate.of("{foo}");
+
+  private final RecordingLogDispatcher delegate = new RecordingLogDispatcher();
+
+  private AsyncLogDispatcher logDispatcher;
+
+  static class RecordingLogDispatcher implements LogDispatcher {
+
+    final List<String> messages = Collections.synchronizedList(new ArrayList<String>());
+
+    final List<String> threads = Collections.synchronizedList(new ArrayList<String>());
+
+    final CountDownLatch consuming = new CountDownLatch(1);
+
+    volatile CountDownLatch blocking = new CountDownLatch(0);
+
+    @Override
+    public void log(
+        final Logger logger,
+        final Level level,
+        final MessageTemplate template,
+        final StringSupplierLookup stringLookup) {
+      consuming.countDown();
+      try {
+        blocking.await(10, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+
+      final String message = template.render(stringLookup);
+      if ("fail".equals(message)) {
+        throw new IllegalStateException(message);
+      }
+      messages.add(level + " " + message);
+      threads.add(Thread.currentThread().getName());
+    }
+
+    @Override
+    public void logException(
+        final Logger logger,
+        final Level level,
+        final MessageTemplate template,
+        final StringSupplierLookup stringLookup,
+        final Throwable exception) {
+      log(logger, level, template, stringLookup);
+      messages.add(exception.getMessage());
+    }
+  }
+
+  @AfterEach
+  void afterEach() {
+    delegate.blocking.countDown();
+    if (logDispatcher != null) {
+      logDispatcher.close();
+    }
+  }
+
+  private static StringSupplierLookup stringLookup(final String foo) {
+    final StringSupplierLookup stringLookup = new StringSupplierLookup();
+    stringLookup.addStringSupplier("foo", () -> foo);
+    return stringLookup;
+  }
+
+  @Test
+  void consumerCount_mustBePositive() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> new AsyncLogDispatcher(delegate, 1, 0, OverflowPolicy.BLOCK, Level.WARN));
+  }
+
+  @Test
+  void log_onBackgroundThread() {
+    logDispatcher = new AsyncLogDispatcher(delegate, 16, 1, OverflowPolicy.BLOCK, Level.WARN);
+
+    final StringSupplierLookup stringLookup = StringSupplierLookup.acquire();
+    try {
+      stringLookup.addStringSupplier("foo", () -> "foo");
+      logDispatcher.log(LOGGER, Level.INFO, TEMPLATE, stringLookup);
+    } finally {
+      stringLookup.release();
+    }
+    logDispatcher.close();
+
+    assertThat(delegate.messages).containsExactly("INFO foo");
+    assertThat(delegate.threads).containsExactly("aop-loggers-async-1");
+  }
+
+  @Test
+  void logException_onBackgroundThread() {
+    logDispatcher = new AsyncLogDispatcher(delegate, 16, 1, OverflowPolicy.BLOCK, Level.WARN);
+
+    logDispatcher.logException(
+        LOGGER, Level.ERROR, TEMPLATE, stringLookup("foo"), new IllegalStateException("bar"));
+    logDispatcher.close();
+
+    assertThat(delegate.messages).containsExactly("ERROR foo", "bar");
+  }
+
+  @Test
+  void log_afterClose_onCallingThread() {
+    logDispatcher = new AsyncLogDispatcher(delegate, 16, 1, OverflowPolicy.BLOCK, Level.WARN);
+    logDispatcher.close();
+
+    logDispatcher.log(LOGGER, Level.INFO, TEMPLATE, stringLookup("foo"));
+
+    assertThat(delegate.messages).containsExactly("INFO foo");
+    assertThat(delegate.threads).containsExactly(Thread.currentThread().getName());
+  }
+
+  @Test
+  void log_whileClosing_notLost() throws InterruptedException {
+    logDispatcher = new AsyncLogDispatcher(delegate, 1024, 1, OverflowPolicy.BLOCK, Level.WARN);
+
+    final CountDownLatch publishing = new CountDownLatch(1);
+    final Thread publisher =
+        new Thread(
+            () -> {
+              for (int index = 0; index < 1000; index++) {
+                logDispatcher.log(LOGGER, Level.INFO, TEMPLATE, stringLookup("foo"));
+                publishing.countDown();
+              }
+            });
+    publisher.start();
+    assertThat(publishing.await(10, TimeUnit.SECONDS)).isTrue();
+    logDispatcher.close();
+    publisher.join(TimeUnit.SECONDS.toMillis(10));
+
+    assertThat(delegate.messages).hasSize(1000);
+    assertThat(logDispatcher.getQueueDepth()).isZero();
+  }
+
+  @Test
+  void log_wakesUpIdleConsumers() throws InterruptedException {
+    logDispatcher = new AsyncLogDispatcher(delegate, 16, 2, OverflowPolicy.BLOCK, Level.WARN);
+
+    for (int index = 0; index < 10; index++) {
+      Thread.sleep(10);
+      logDispatcher.log(LOGGER, Level.INFO, TEMPLATE, stringLookup("foo"));
+    }
+
+    final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (delegate.messages.size() < 10 && System.nanoTime() < deadline) {
+      Thread.sleep(1);
+    }
+    assertThat(delegate.messages).hasSize(10);
+    assertThat(logDispatcher.getQueueDepth()).isZero();
+  }
+
+  @Test
+  void log_continuesAfterFailedEvent() {
+    logDispatcher = new AsyncLogDispatcher(delegate, 16, 1, OverflowPolicy.BLOCK, Level.WARN);
+
+    logDispatcher.log(LOGGER, Level.INFO, TEMPLATE, stringLookup("fail"));
+    logDispatcher.log(LOGGER, Level.INFO, TEMPLATE, stringLookup("foo"));
+    logDispatcher.close();
+
+    assertThat(delegate.messages).containsExactly("INFO foo");
+  }
+
+  @Test
+  void overflow_drop() throws InterruptedException {
+    logDispatcher = blockedLogDispatcher(OverflowPolicy.DROP);
+
+    logDispatcher.log(LOGGER, Level.WARN, TEMPLATE, stringLookup("dropped"));
+    assertThat(logDispatcher.getDroppedEvents()).isEqualTo(1);
+    assertThat(logDispatcher.getQueueDepth()).isEqualTo(2);
+    assertThat(logDispatcher.getCapacity()).isEqualTo(2);
+
+    delegate.blocking.countDown();
+    logDispatcher.close();
+
+    assertThat(delegate.messages).containsExactly("INFO consumed", "INFO queued", "INFO queued");
+  }
+
+  @Test
+  void registerMBean() throws JMException, InterruptedException {
+    logDispatcher = blockedLogDispatcher(OverflowPolicy.DROP);
+    logDispatcher.registerMBean();
+    logDispatcher.log(LOGGER, Level.WARN, TEMPLATE, stringLookup("dropped"));
+
+    final MBeanServer mbeanServer = ManagementFactory.getPlatformMBeanServer();
+    final ObjectName objectName =
+        new ObjectName(AdviceOverhead.DOMAIN + ":type=AsyncLogDispatcher");
+    assertThat(logDispatcher.isMBeanRegistered()).isTrue();
+    assertThat(mbeanServer.getAttribute(objectName, "QueueDepth")).isEqualTo(2);
+    assertThat(mbeanServer.getAttribute(objectName, "Capacity")).isEqualTo(2);
+    assertThat(mbeanServer.getAttribute(objectName, "DroppedEvents")).isEqualTo(1L);
+
+    delegate.blocking.countDown();
+    logDispatcher.close();
+
+    assertThat(logDispatcher.isMBeanRegistered()).isFalse();
+    assertThat(mbeanServer.isRegistered(objectName)).isFalse();
+  }
+
+  @Test
+  void registerMBean_whenAlreadyRegistered() {
+    logDispatcher = new AsyncLogDispatcher(delegate, 16, 1, OverflowPolicy.BLOCK, Level.WARN);
+    logDispatcher.registerMBean();
+
+    final AsyncLogDispatcher other =
+        new AsyncLogDispatcher(delegate, 16, 1, OverflowPolicy.BLOCK, Level.WARN);
+    other.registerMBean();
+    other.close();
+
+    assertThat(other.isMBeanRegistered()).isFalse();
+    assertThat(logDispatcher.isMBeanRegistered()).isTrue();
+  }
+
+  @Test
+  void overflow_dropBelowLevel() throws InterruptedException {
+    logDispatcher = blockedLogDispatcher(OverflowPolicy.DROP_BELOW_LEVEL);
+
+    logDispatcher.log(LOGGER, Level.DEBUG, TEMPLATE, stringLookup("dropped"));
+    assertThat(logDispatcher.getDroppedEvents()).isEqualTo(1);
+
+    final Thread publisher =
+        new Thread(() -> logDispatcher.log(LOGGER, Level.WARN, TEMPLATE, stringLookup("kept")));
+    publisher.start();
+    publisher.join(100);
+    assertThat(publisher.isAlive()).isTrue();
+
+    delegate.blocking.countDown();
+    publisher.join(TimeUnit.SECONDS.toMillis(10));
+    logDispatcher.close();
+
+    assertThat(logDispatcher.getDroppedEvents()).isEqualTo(1);
+    assertThat(delegate.messages)
+        .containsExactly("INFO consumed", "INFO queued", "INFO queued", "WARN kept");
+  }
+
+  @Test
+  void overflow_neverDropsError() throws InterruptedException {
+    logDispatcher = blockedLogDispatcher(OverflowPolicy.DROP);
+
+    final Thread publisher =
+        new Thread(() -> logDispatcher.log(LOGGER, Level.ERROR, TEMPLATE, stringLookup("kept")));
+    publisher.start();
+    publisher.join(100);
+    assertThat(publisher.isAlive()).isTrue();
+
+    delegate.blocking.countDown();
+    publisher.join(TimeUnit.SECONDS.toMillis(10));
+    logDispatcher.close();
+
+    assertThat(logDispatcher.getDroppedEvents()).isZero();
+    assertThat(delegate.messages)
+        .containsExactly("INFO consumed", "INFO queued", "INFO queued", "ERROR kept");
+  }
+
+  @Test
+  void overflow_block() throws InterruptedException {
+    logDispatcher = blockedLogDispatcher(OverflowPolicy.BLOCK);
+
+    final Thread publisher =
+        new Thread(() -> logDispatcher.log(LOGGER, Level.TRACE, TEMPLATE, stringLookup("kept")));
+    publisher.start();
+    publisher.join(100);
+    assertThat(publisher.isAlive()).isTrue();
+
+    delegate.blocking.countDown();
+    publisher.join(TimeUnit.SECONDS.toMillis(10));
+    logDispatcher.close();
+
+    assertThat(logDispatcher.getDroppedEvents()).isZero();
+    assertThat(delegate.messages)
+        .containsExactly("INFO consumed", "INFO queued", "INFO queued", "TRACE kept");
+  }
+
+  /**
+   * @return dispatcher with its only consumer blocked on an event and its buffer full
+   */
+  private AsyncLogDispatcher blockedLogDispatcher(final OverflowPolicy overflowPolicy)
+      throws InterruptedException {
+    delegate.blocking = new CountDownLatch(1);
+
+    final AsyncLogDispatcher logDispatcher =
+        new AsyncLogDispatcher(delegate, 1, 1, overflowPolicy, Level.WARN);
+    logDispatcher.log(LOGGER, Level.INFO, TEMPLATE, stringLookup("consumed"));
+    assertThat(delegate.consuming.await(10, TimeUnit.SECONDS)).isTrue();
+    logDispatcher.log(LOGGER, Level.INFO, TEMPLATE, stringLookup("queued"));
+    logDispatcher.log(LOGGER, Level.INFO, TEMPLATE, stringLookup("queued"));
+    return logDispatcher;
+  }
+}
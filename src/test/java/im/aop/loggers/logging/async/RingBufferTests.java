@@ -0,0 +1,105 @@
+package im.aop.loggers.logging.async;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link RingBuffer}.
+ *
+ * @author Andy Lian
+ */
+class RingBufferTests {
+
+  @Test
+  void capacity_roundedUpToPowerOfTwo() {
+    assertThat(new RingBuffer<String>(1).capacity()).isEqualTo(2);
+    assertThat(new RingBuffer<String>(8).capacity()).isEqualTo(8);
+    assertThat(new RingBuffer<String>(9).capacity()).isEqualTo(16);
+  }
+
+  @Test
+  void capacity_mustBePositive() {
+    assertThrows(IllegalArgumentException.class, () -> new RingBuffer<String>(0));
+  }
+
+  @Test
+  void poll_inOfferOrder() {
+    final RingBuffer<String> ringBuffer = new RingBuffer<String>(4);
+    assertThat(ringBuffer.offer("foo")).isTrue();
+    assertThat(ringBuffer.offer("bar")).isTrue();
+
+    assertThat(ringBuffer.size()).isEqualTo(2);
+    assertThat(ringBuffer.poll()).isEqualTo("foo");
+    assertThat(ringBuffer.poll()).isEqualTo("bar");
+    assertThat(ringBuffer.poll()).isNull();
+    assertThat(ringBuffer.size()).isZero();
+  }
+
+  @Test
+  void offer_whenFull() {
+    final RingBuffer<String> ringBuffer = new RingBuffer<String>(2);
+    assertThat(ringBuffer.offer("foo")).isTrue();
+    assertThat(ringBuffer.offer("bar")).isTrue();
+    assertThat(ringBuffer.offer("baz")).isFalse();
+
+    assertThat(ringBuffer.poll()).isEqualTo("foo");
+    assertThat(ringBuffer.offer("baz")).isTrue();
+    assertThat(ringBuffer.poll()).isEqualTo("bar");
+    assertThat(ringBuffer.poll()).isEqualTo("baz");
+  }
+
+  @Test
+  void concurrentProducersAndConsumers() throws InterruptedException {
+    final int producers = 4;
+    final int elementsPerProducer = 10000;
+    final RingBuffer<Integer> ringBuffer = new RingBuffer<Integer>(64);
+    final Set<Integer> consumed = new HashSet<Integer>();
+    final CountDownLatch consumedLatch = new CountDownLatch(producers * elementsPerProducer);
+
+    final ExecutorService executorService = Executors.newFixedThreadPool(producers + 2);
+    try {
+      for (int consumer = 0; consumer < 2; consumer++) {
+        executorService.execute(
+            () -> {
+              while (consumedLatch.getCount() > 0) {
+                final Integer element = ringBuffer.poll();
+                if (element == null) {
+                  Thread.yield();
+                  continue;
+                }
+                synchronized (consumed) {
+                  consumed.add(element);
+                }
+                consumedLatch.countDown();
+              }
+            });
+      }
+      for (int producer = 0; producer < producers; producer++) {
+        final int offset = producer * elementsPerProducer;
+        executorService.execute(
+            () -> {
+              for (int index = 0; index < elementsPerProducer; index++) {
+                while (ringBuffer.offer(offset + index) == false) {
+                  Thread.yield();
+                }
+              }
+            });
+      }
+
+      assertThat(consumedLatch.await(30, TimeUnit.SECONDS)).isTrue();
+    } finally {
+      executorService.shutdownNow();
+    }
+
+    assertThat(consumed).hasSize(producers * elementsPerProducer);
+  }
+}
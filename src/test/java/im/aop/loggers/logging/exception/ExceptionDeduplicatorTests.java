@@ -0,0 +1,242 @@
+package im.aop.loggers.logging.exception;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import im.aop.loggers.logging.exception.ExceptionDeduplicator.Occurrence;
+
+/**
+ * Tests for {@link ExceptionDeduplicator}.
+ *
+ * @author Andy Lian
+ */
+class ExceptionDeduplicatorTests {
+
+  private static final long NOW = 1_000_000_000L;
+
+  private static final long WINDOW = Duration.ofSeconds(1).toNanos();
+
+  private final RuntimeException foo = new IllegalStateException("foo");
+
+  private final RuntimeException bar = new IllegalArgumentException("bar");
+
+  @Test
+  void capacity_roundedUpToPowerOfTwo() {
+    assertThat(new ExceptionDeduplicator<Object>(1).capacity()).isEqualTo(1);
+    assertThat(new ExceptionDeduplicator<Object>(3).capacity()).isEqualTo(4);
+    assertThat(new ExceptionDeduplicator<Object>(1024).capacity()).isEqualTo(1024);
+    assertThat(new ExceptionDeduplicator<Object>(Integer.MAX_VALUE).capacity())
+        .isEqualTo(ExceptionDeduplicator.MAX_CAPACITY);
+  }
+
+  @Test
+  void capacity_mustBePositive() {
+    assertThrows(IllegalArgumentException.class, () -> new ExceptionDeduplicator<Object>(0));
+  }
+
+  @Test
+  void record_firstOccurrence() {
+    final Occurrence occurrence =
+        new ExceptionDeduplicator<Object>(16).record(foo, 5, WINDOW, NOW, null);
+
+    assertThat(occurrence.getFingerprint()).isEqualTo(ExceptionFingerprint.of(foo, 5));
+    assertThat(occurrence.getCount()).isEqualTo(1);
+    assertThat(occurrence.isDuplicate()).isFalse();
+    assertThat(occurrence.getPreviousDuplicates()).isZero();
+  }
+
+  @Test
+  void record_duplicatesWithinWindow() {
+    final ExceptionDeduplicator<Object> deduplicator = new ExceptionDeduplicator<Object>(16);
+    deduplicator.record(foo, 5, WINDOW, NOW, null);
+
+    final Occurrence second = deduplicator.record(foo, 5, WINDOW, NOW + 1, null);
+    final Occurrence third = deduplicator.record(foo, 5, WINDOW, NOW + WINDOW - 1, null);
+
+    assertThat(second.isDuplicate()).isTrue();
+    assertThat(second.getCount()).isEqualTo(2);
+    assertThat(third.getCount()).isEqualTo(3);
+  }
+
+  @Test
+  void record_firstOccurrenceOfNextWindow() {
+    final ExceptionDeduplicator<Object> deduplicator = new ExceptionDeduplicator<Object>(16);
+    deduplicator.record(foo, 5, WINDOW, NOW, null);
+    deduplicator.record(foo, 5, WINDOW, NOW, null);
+    deduplicator.record(foo, 5, WINDOW, NOW, null);
+
+    final Occurrence occurrence = deduplicator.record(foo, 5, WINDOW, NOW + WINDOW, null);
+
+    assertThat(occurrence.isDuplicate()).isFalse();
+    assertThat(occurrence.getPreviousDuplicates()).isEqualTo(2);
+    assertThat(deduplicator.record(foo, 5, WINDOW, NOW + WINDOW, null).getCount()).isEqualTo(2);
+  }
+
+  @Test
+  void record_perFingerprint() {
+    final ExceptionDeduplicator<Object> deduplicator = new ExceptionDeduplicator<Object>(1024);
+    deduplicator.record(foo, 5, WINDOW, NOW, null);
+
+    assertThat(deduplicator.record(bar, 5, WINDOW, NOW, null).isDuplicate()).isFalse();
+    assertThat(deduplicator.record(foo, 5, WINDOW, NOW, null).isDuplicate()).isTrue();
+  }
+
+  @Test
+  void record_replacesCollidingFingerprint() {
+    final ExceptionDeduplicator<Object> deduplicator = new ExceptionDeduplicator<Object>(1);
+    deduplicator.record(foo, 5, WINDOW, NOW, null);
+    deduplicator.record(bar, 5, WINDOW, NOW, null);
+
+    final Occurrence occurrence = deduplicator.record(foo, 5, WINDOW, NOW, null);
+    assertThat(occurrence.isDuplicate()).isFalse();
+    assertThat(occurrence.getPreviousDuplicates()).isZero();
+  }
+
+  @Test
+  void record_replacingCollidingFingerprint_reportsDuplicates() {
+    final List<Object> sources = new ArrayList<Object>();
+    final List<Occurrence> dropped = new ArrayList<Occurrence>();
+    final ExceptionDeduplicator<Object> deduplicator =
+        new ExceptionDeduplicator<Object>(
+            1,
+            null,
+            (source, occurrence) -> {
+              sources.add(source);
+              dropped.add(occurrence);
+            });
+    deduplicator.record(foo, 5, WINDOW, NOW, "foo");
+    deduplicator.record(foo, 5, WINDOW, NOW, "duplicate");
+    deduplicator.record(foo, 5, WINDOW, NOW, "duplicate");
+
+    deduplicator.record(bar, 5, WINDOW, NOW, "bar");
+    deduplicator.record(foo, 5, WINDOW, NOW, "foo");
+
+    assertThat(sources).containsExactly("foo");
+    assertThat(dropped.get(0).getFingerprint()).isEqualTo(ExceptionFingerprint.of(foo, 5));
+    assertThat(dropped.get(0).isDuplicate()).isFalse();
+    assertThat(dropped.get(0).getPreviousDuplicates()).isEqualTo(2);
+  }
+
+  @Test
+  void closeExpiredWindows() {
+    final List<Occurrence> dropped = new ArrayList<Occurrence>();
+    final ExceptionDeduplicator<Object> deduplicator =
+        new ExceptionDeduplicator<Object>(
+            1024, null, (source, occurrence) -> dropped.add(occurrence));
+    deduplicator.record(foo, 5, WINDOW, NOW, null);
+    deduplicator.record(foo, 5, WINDOW, NOW, null);
+    deduplicator.record(bar, 5, WINDOW, NOW, null);
+
+    deduplicator.closeExpiredWindows(NOW + 2 * WINDOW - 1);
+    assertThat(dropped).isEmpty();
+
+    deduplicator.closeExpiredWindows(NOW + 2 * WINDOW);
+    assertThat(dropped).hasSize(1);
+    assertThat(dropped.get(0).getFingerprint()).isEqualTo(ExceptionFingerprint.of(foo, 5));
+    assertThat(dropped.get(0).getPreviousDuplicates()).isEqualTo(1);
+
+    final Occurrence occurrence = deduplicator.record(foo, 5, WINDOW, NOW + 2 * WINDOW, null);
+    assertThat(occurrence.isDuplicate()).isFalse();
+    assertThat(occurrence.getPreviousDuplicates()).isZero();
+  }
+
+  @Test
+  void closeExpiredWindows_failedListener() {
+    final ExceptionDeduplicator<Object> deduplicator =
+        new ExceptionDeduplicator<Object>(
+            16,
+            null,
+            (source, occurrence) -> {
+              throw new IllegalStateException("foo");
+            });
+    deduplicator.record(foo, 5, WINDOW, NOW, null);
+    deduplicator.record(foo, 5, WINDOW, NOW, null);
+
+    deduplicator.closeExpiredWindows(NOW + 2 * WINDOW);
+
+    assertThat(deduplicator.record(foo, 5, WINDOW, NOW + 2 * WINDOW, null).getPreviousDuplicates())
+        .isZero();
+  }
+
+  @Test
+  void sweepInterval_closesExpiredWindows() throws InterruptedException {
+    final CountDownLatch dropped = new CountDownLatch(1);
+    try (ExceptionDeduplicator<Object> deduplicator =
+        new ExceptionDeduplicator<Object>(
+            16, Duration.ofMillis(10), (source, occurrence) -> dropped.countDown())) {
+      deduplicator.record(foo, 5, Duration.ofMillis(10), null);
+      deduplicator.record(foo, 5, Duration.ofMillis(10), null);
+
+      assertThat(dropped.await(10, TimeUnit.SECONDS)).isTrue();
+    }
+  }
+
+  @Test
+  void sweepInterval_notPositive() {
+    try (ExceptionDeduplicator<Object> deduplicator =
+        new ExceptionDeduplicator<Object>(16, Duration.ZERO, (source, occurrence) -> {})) {
+      assertThat(deduplicator.record(foo, 5, Duration.ofDays(1)).isDuplicate()).isFalse();
+    }
+  }
+
+  @Test
+  void record_withDuration() {
+    final ExceptionDeduplicator<Object> deduplicator = new ExceptionDeduplicator<Object>(16);
+
+    assertThat(deduplicator.record(foo, 5, Duration.ofDays(1)).isDuplicate()).isFalse();
+    assertThat(deduplicator.record(foo, 5, Duration.ofDays(1)).isDuplicate()).isTrue();
+    assertThat(deduplicator.record(bar, 5, Duration.ofSeconds(Long.MAX_VALUE)).isDuplicate())
+        .isFalse();
+    assertThat(deduplicator.record(bar, 5, Duration.ofSeconds(Long.MAX_VALUE)).isDuplicate())
+        .isTrue();
+  }
+
+  @Test
+  void record_concurrently() throws Exception {
+    final ExceptionDeduplicator<Object> deduplicator = new ExceptionDeduplicator<Object>(16);
+    final int threads = 4;
+    final int calls = 1000;
+    final CountDownLatch start = new CountDownLatch(1);
+    final ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      final List<Future<Integer>> futures = new ArrayList<Future<Integer>>();
+      for (int thread = 0; thread < threads; thread++) {
+        final Callable<Integer> task =
+            () -> {
+              start.await();
+              int firstOccurrences = 0;
+              for (int call = 0; call < calls; call++) {
+                if (deduplicator.record(foo, 5, WINDOW, NOW, null).isDuplicate() == false) {
+                  firstOccurrences++;
+                }
+              }
+              return firstOccurrences;
+            };
+        futures.add(executor.submit(task));
+      }
+      start.countDown();
+
+      int firstOccurrences = 0;
+      for (Future<Integer> future : futures) {
+        firstOccurrences += future.get();
+      }
+      assertThat(firstOccurrences).isEqualTo(1);
+      assertThat(deduplicator.record(foo, 5, WINDOW, NOW, null).getCount())
+          .isEqualTo(threads * calls + 1);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+}
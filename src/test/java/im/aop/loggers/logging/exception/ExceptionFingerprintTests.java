@@ -0,0 +1,95 @@
+package im.aop.loggers.logging.exception;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link ExceptionFingerprint}.
+ *
+ * @author Andy Lian
+ */
+class ExceptionFingerprintTests {
+
+  private static RuntimeException fromFoo() {
+    return new IllegalStateException("foo");
+  }
+
+  private static RuntimeException fromBar() {
+    return new IllegalStateException("bar");
+  }
+
+  @Test
+  void of_sameTypeAndStackTrace() {
+    final RuntimeException[] exceptions = new RuntimeException[2];
+    for (int index = 0; index < exceptions.length; index++) {
+      exceptions[index] = fromFoo();
+    }
+
+    assertThat(ExceptionFingerprint.of(exceptions[0], 5))
+        .isEqualTo(ExceptionFingerprint.of(exceptions[1], 5));
+  }
+
+  @Test
+  void of_ignoresMessage() {
+    final RuntimeException foo = new IllegalStateException("foo");
+    final RuntimeException bar = new IllegalStateException("bar");
+    foo.setStackTrace(bar.getStackTrace());
+
+    assertThat(ExceptionFingerprint.of(foo, 5)).isEqualTo(ExceptionFingerprint.of(bar, 5));
+  }
+
+  @Test
+  void of_differentType() {
+    final RuntimeException foo = new IllegalStateException();
+    final RuntimeException bar = new IllegalArgumentException();
+    bar.setStackTrace(foo.getStackTrace());
+
+    assertThat(ExceptionFingerprint.of(foo, 5)).isNotEqualTo(ExceptionFingerprint.of(bar, 5));
+  }
+
+  @Test
+  void of_sameExceptionFingerprintedOnce() {
+    final RuntimeException foo = fromFoo();
+    final long fingerprint = ExceptionFingerprint.of(foo, 5);
+    foo.setStackTrace(fromBar().getStackTrace());
+
+    assertThat(ExceptionFingerprint.of(foo, 5)).isEqualTo(fingerprint);
+    assertThat(ExceptionFingerprint.of(foo, 1)).isNotEqualTo(fingerprint);
+  }
+
+  @Test
+  void of_differentStackTrace() {
+    assertThat(ExceptionFingerprint.of(fromFoo(), 5))
+        .isNotEqualTo(ExceptionFingerprint.of(fromBar(), 5));
+  }
+
+  @Test
+  void of_onlyTopFrames() {
+    final RuntimeException foo = new IllegalStateException();
+    final RuntimeException bar = new IllegalStateException();
+    final StackTraceElement frame = new StackTraceElement("Foo", "foo", "Foo.java", 1);
+    foo.setStackTrace(
+        new StackTraceElement[] {frame, new StackTraceElement("Bar", "bar", "Bar.java", 1)});
+    bar.setStackTrace(
+        new StackTraceElement[] {frame, new StackTraceElement("Baz", "baz", "Baz.java", 1)});
+
+    assertThat(ExceptionFingerprint.of(foo, 1)).isEqualTo(ExceptionFingerprint.of(bar, 1));
+    assertThat(ExceptionFingerprint.of(foo, 2)).isNotEqualTo(ExceptionFingerprint.of(bar, 2));
+  }
+
+  @Test
+  void of_withoutStackTrace() {
+    final RuntimeException foo = new IllegalStateException();
+    foo.setStackTrace(new StackTraceElement[0]);
+
+    assertThat(ExceptionFingerprint.of(foo, 5))
+        .isEqualTo(ExceptionFingerprint.of(new IllegalStateException(), 0));
+  }
+
+  @Test
+  void toString_fixedLength() {
+    assertThat(ExceptionFingerprint.toString(0xabcL)).isEqualTo("0000000000000abc");
+    assertThat(ExceptionFingerprint.toString(-1L)).isEqualTo("ffffffffffffffff");
+  }
+}
@@ -0,0 +1,247 @@
+package im.aop.loggers.logging.exception;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link StackTraceRenderer}.
+ *
+ * @author Andy Lian
+ */
+class StackTraceRendererTests {
+
+  private static final String LINE_SEPARATOR = System.lineSeparator();
+
+  private static RuntimeException exception(final String message, final String... classNames) {
+    final RuntimeException exception = new IllegalStateException(message);
+    final StackTraceElement[] frames = new StackTraceElement[classNames.length];
+    for (int index = 0; index < classNames.length; index++) {
+      frames[index] = new StackTraceElement(classNames[index], "foo", "Foo.java", index + 1);
+    }
+    exception.setStackTrace(frames);
+    return exception;
+  }
+
+  private static String frame(final String className, final int lineNumber) {
+    return LINE_SEPARATOR + "\tat " + className + ".foo(Foo.java:" + lineNumber + ")";
+  }
+
+  @Test
+  void render_everyFrame() {
+    final StackTraceRenderer renderer = new StackTraceRenderer(0, null, null, null);
+
+    assertThat(renderer.render(exception("foo", "im.Foo", "org.Bar")))
+        .isEqualTo(
+            LINE_SEPARATOR
+                + "java.lang.IllegalStateException: foo"
+                + frame("im.Foo", 1)
+                + frame("org.Bar", 2));
+  }
+
+  @Test
+  void render_maxDepth() {
+    final StackTraceRenderer renderer = new StackTraceRenderer(1, null, null, null);
+
+    assertThat(renderer.render(exception("foo", "im.Foo", "org.Bar", "org.Baz")))
+        .isEqualTo(
+            LINE_SEPARATOR
+                + "java.lang.IllegalStateException: foo"
+                + frame("im.Foo", 1)
+                + LINE_SEPARATOR
+                + "\t... 2 more");
+  }
+
+  @Test
+  void render_includePackages() {
+    final StackTraceRenderer renderer = new StackTraceRenderer(0, new String[] {"im."}, null, null);
+
+    assertThat(renderer.render(exception("foo", "im.Foo", "org.Bar", "org.Baz", "im.Qux")))
+        .isEqualTo(
+            LINE_SEPARATOR
+                + "java.lang.IllegalStateException: foo"
+                + frame("im.Foo", 1)
+                + LINE_SEPARATOR
+                + "\t... 2 frames omitted"
+                + frame("im.Qux", 4));
+  }
+
+  @Test
+  void render_excludePackages() {
+    final StackTraceRenderer renderer =
+        new StackTraceRenderer(0, null, new String[] {"org."}, null);
+
+    assertThat(renderer.render(exception("foo", "im.Foo", "org.Bar")))
+        .isEqualTo(
+            LINE_SEPARATOR
+                + "java.lang.IllegalStateException: foo"
+                + frame("im.Foo", 1)
+                + LINE_SEPARATOR
+                + "\t... 1 frame omitted");
+  }
+
+  @Test
+  void render_collapseFrameworkFrames() {
+    final StackTraceRenderer renderer =
+        new StackTraceRenderer(0, null, null, new String[] {"org.springframework."});
+
+    assertThat(
+            renderer.render(
+                exception(
+                    "foo",
+                    "im.Foo",
+                    "im.Foo$$EnhancerBySpringCGLIB$$1",
+                    "org.springframework.Bar",
+                    "im.Baz")))
+        .isEqualTo(
+            LINE_SEPARATOR
+                + "java.lang.IllegalStateException: foo"
+                + frame("im.Foo", 1)
+                + LINE_SEPARATOR
+                + "\t... 2 frames omitted"
+                + frame("im.Baz", 4));
+  }
+
+  @Test
+  void render_maxDepthCountsRenderedFramesOnly() {
+    final StackTraceRenderer renderer =
+        new StackTraceRenderer(1, null, new String[] {"org."}, null);
+
+    assertThat(renderer.render(exception("foo", "org.Bar", "im.Foo", "im.Baz")))
+        .isEqualTo(
+            LINE_SEPARATOR
+                + "java.lang.IllegalStateException: foo"
+                + LINE_SEPARATOR
+                + "\t... 1 frame omitted"
+                + frame("im.Foo", 2)
+                + LINE_SEPARATOR
+                + "\t... 1 more");
+  }
+
+  @Test
+  void render_causes() {
+    final StackTraceRenderer renderer = new StackTraceRenderer(0, null, null, null);
+    final RuntimeException exception = exception("foo", "im.Foo");
+    exception.initCause(exception("bar", "im.Bar"));
+
+    assertThat(renderer.render(exception))
+        .isEqualTo(
+            LINE_SEPARATOR
+                + "java.lang.IllegalStateException: foo"
+                + frame("im.Foo", 1)
+                + LINE_SEPARATOR
+                + "Caused by: java.lang.IllegalStateException: bar"
+                + frame("im.Bar", 1));
+  }
+
+  @Test
+  void render_causeFramesInCommonWithEnclosing() {
+    final StackTraceRenderer renderer = new StackTraceRenderer(0, null, null, null);
+    final RuntimeException exception = exception("foo", "im.Foo", "im.Baz", "im.Qux");
+    exception.initCause(exception("bar", "im.Bar", "im.Baz", "im.Qux"));
+
+    assertThat(renderer.render(exception))
+        .isEqualTo(
+            LINE_SEPARATOR
+                + "java.lang.IllegalStateException: foo"
+                + frame("im.Foo", 1)
+                + frame("im.Baz", 2)
+                + frame("im.Qux", 3)
+                + LINE_SEPARATOR
+                + "Caused by: java.lang.IllegalStateException: bar"
+                + frame("im.Bar", 1)
+                + LINE_SEPARATOR
+                + "\t... 2 more");
+  }
+
+  @Test
+  void render_maxDepthCountsFramesInCommonWithEnclosing() {
+    final StackTraceRenderer renderer = new StackTraceRenderer(1, null, null, null);
+    final RuntimeException exception = exception("foo", "im.Foo", "im.Qux");
+    exception.initCause(exception("bar", "im.Bar", "im.Baz", "im.Qux"));
+
+    assertThat(renderer.render(exception))
+        .endsWith(
+            LINE_SEPARATOR
+                + "Caused by: java.lang.IllegalStateException: bar"
+                + frame("im.Bar", 1)
+                + LINE_SEPARATOR
+                + "\t... 2 more");
+  }
+
+  @Test
+  void render_suppressed() {
+    final StackTraceRenderer renderer = new StackTraceRenderer(0, null, null, null);
+    final RuntimeException exception = exception("foo", "im.Foo", "im.Qux");
+    final RuntimeException suppressed = exception("bar", "im.Bar", "im.Qux");
+    suppressed.initCause(exception("baz", "im.Baz", "im.Qux"));
+    exception.addSuppressed(suppressed);
+    exception.initCause(exception("qux", "im.Baz", "im.Qux"));
+
+    assertThat(renderer.render(exception))
+        .isEqualTo(
+            LINE_SEPARATOR
+                + "java.lang.IllegalStateException: foo"
+                + frame("im.Foo", 1)
+                + frame("im.Qux", 2)
+                + LINE_SEPARATOR
+                + "\tSuppressed: java.lang.IllegalStateException: bar"
+                + LINE_SEPARATOR
+                + "\t"
+                + frame("im.Bar", 1).substring(LINE_SEPARATOR.length())
+                + LINE_SEPARATOR
+                + "\t\t... 1 more"
+                + LINE_SEPARATOR
+                + "\tCaused by: java.lang.IllegalStateException: baz"
+                + LINE_SEPARATOR
+                + "\t"
+                + frame("im.Baz", 1).substring(LINE_SEPARATOR.length())
+                + LINE_SEPARATOR
+                + "\t\t... 1 more"
+                + LINE_SEPARATOR
+                + "Caused by: java.lang.IllegalStateException: qux"
+                + frame("im.Baz", 1)
+                + LINE_SEPARATOR
+                + "\t... 1 more");
+  }
+
+  @Test
+  void render_circularCauses() {
+    final StackTraceRenderer renderer = new StackTraceRenderer(0, null, null, null);
+    final RuntimeException foo = exception("foo");
+    final RuntimeException bar = exception("bar");
+    foo.initCause(bar);
+    bar.initCause(foo);
+
+    assertThat(renderer.render(foo))
+        .isEqualTo(
+            LINE_SEPARATOR
+                + "java.lang.IllegalStateException: foo"
+                + LINE_SEPARATOR
+                + "Caused by: java.lang.IllegalStateException: bar"
+                + LINE_SEPARATOR
+                + "Caused by: [CIRCULAR REFERENCE: java.lang.IllegalStateException: foo]");
+  }
+
+  @Test
+  void render_sameStackTraceWithDifferentMessages() {
+    final StackTraceRenderer renderer = new StackTraceRenderer(1, null, null, null);
+
+    assertThat(renderer.render(exception("foo", "im.Foo", "im.Bar")))
+        .contains("java.lang.IllegalStateException: foo");
+    assertThat(renderer.render(exception("bar", "im.Foo", "im.Bar")))
+        .contains("java.lang.IllegalStateException: bar");
+  }
+
+  @Test
+  void frames_cachedPerStackTrace() {
+    final StackTraceRenderer renderer = new StackTraceRenderer(1, null, null, null);
+    final String frames = renderer.frames(exception("foo", "im.Foo", "im.Bar"));
+
+    assertThat(renderer.frames(exception("bar", "im.Foo", "im.Bar"))).isSameAs(frames);
+    assertThat(renderer.frames(exception("foo", "im.Foo", "im.Baz")))
+        .isNotSameAs(frames)
+        .isEqualTo(frames);
+    assertThat(renderer.frames(exception("foo", "im.Qux", "im.Bar"))).isNotEqualTo(frames);
+  }
+}
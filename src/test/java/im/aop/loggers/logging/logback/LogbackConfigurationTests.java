@@ -0,0 +1,46 @@
+package im.aop.loggers.logging.logback;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.test.context.FilteredClassLoader;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import ch.qos.logback.classic.LoggerContext;
+
+/**
+ * Tests for {@link LogbackConfiguration}.
+ *
+ * @author Andy Lian
+ */
+class LogbackConfigurationTests {
+
+  private final ApplicationContextRunner runner =
+      new ApplicationContextRunner().withUserConfiguration(LogbackConfiguration.class);
+
+  @Test
+  void logbackResetListener() {
+    final LoggerContext loggerContext = (LoggerContext) LoggerFactory.getILoggerFactory();
+    final LogbackResetListener[] listener = new LogbackResetListener[1];
+    runner.run(
+        (context) -> {
+          listener[0] = context.getBean(LogbackResetListener.class);
+
+          assertThat(listener[0].isListening()).isTrue();
+          assertThat(loggerContext.getCopyOfListenerList()).contains(listener[0]);
+        });
+
+    assertThat(loggerContext.getCopyOfListenerList()).doesNotContain(listener[0]);
+  }
+
+  @Test
+  void logbackResetListener_whenLogbackMissing() {
+    runner
+        .withClassLoader(new FilteredClassLoader(LoggerContext.class))
+        .run(
+            (context) -> {
+              assertThat(context).doesNotHaveBean(LogbackResetListener.class);
+            });
+  }
+}
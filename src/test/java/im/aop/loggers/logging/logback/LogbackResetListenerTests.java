@@ -0,0 +1,56 @@
+package im.aop.loggers.logging.logback;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.ILoggerFactory;
+import org.slf4j.LoggerFactory;
+
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.util.ContextInitializer;
+import ch.qos.logback.core.joran.spi.JoranException;
+
+import im.aop.loggers.logging.CachedLogger;
+
+/**
+ * Tests for {@link LogbackResetListener}.
+ *
+ * @author Andy Lian
+ */
+class LogbackResetListenerTests {
+
+  @Test
+  void invalidatesCachedLoggers_whenLoggerContextReset() throws JoranException {
+    final LoggerContext loggerContext = (LoggerContext) LoggerFactory.getILoggerFactory();
+    try (LogbackResetListener listener = new LogbackResetListener()) {
+      final int generation = CachedLogger.getGeneration();
+
+      loggerContext.reset();
+      new ContextInitializer(loggerContext).autoConfig();
+
+      assertThat(listener.isListening()).isTrue();
+      assertThat(listener.isResetResistant()).isTrue();
+      assertThat(loggerContext.getCopyOfListenerList()).contains(listener);
+      assertThat(CachedLogger.getGeneration()).isGreaterThan(generation);
+    }
+  }
+
+  @Test
+  void close_stopsListening() {
+    final LoggerContext loggerContext = (LoggerContext) LoggerFactory.getILoggerFactory();
+    final LogbackResetListener listener = new LogbackResetListener();
+
+    listener.close();
+
+    assertThat(loggerContext.getCopyOfListenerList()).doesNotContain(listener);
+  }
+
+  @Test
+  void doesNotListen_givenOtherLoggerFactory() {
+    final LogbackResetListener listener = new LogbackResetListener(mock(ILoggerFactory.class));
+    listener.close();
+
+    assertThat(listener.isListening()).isFalse();
+  }
+}
@@ -0,0 +1,46 @@
+package im.aop.loggers.logging.message;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+
+import im.aop.loggers.logging.exception.ExceptionDeduplicator;
+import im.aop.loggers.logging.exception.ExceptionFingerprint;
+
+/**
+ * Tests for {@link ExceptionOccurrenceStringSupplierRegistrar}.
+ *
+ * @author Andy Lian
+ */
+class ExceptionOccurrenceStringSupplierRegistrarTests {
+
+  private static final ExceptionOccurrenceStringSupplierRegistrar REGISTRAR =
+      new ExceptionOccurrenceStringSupplierRegistrar();
+
+  private static final Duration WINDOW = Duration.ofDays(1);
+
+  private final RuntimeException exception = new IllegalStateException("foo");
+
+  private final ExceptionDeduplicator<Object> deduplicator = new ExceptionDeduplicator<Object>(16);
+
+  @Test
+  void firstOccurrence() {
+    final StringSupplierLookup stringSupplierLookup = new StringSupplierLookup();
+    REGISTRAR.register(stringSupplierLookup, deduplicator.record(exception, 5, WINDOW));
+    assertThat(stringSupplierLookup.lookup("fingerprint"))
+        .isEqualTo(ExceptionFingerprint.toString(ExceptionFingerprint.of(exception, 5)));
+    assertThat(stringSupplierLookup.lookup("occurrences")).isEqualTo("0");
+  }
+
+  @Test
+  void duplicate() {
+    deduplicator.record(exception, 5, WINDOW);
+    deduplicator.record(exception, 5, WINDOW);
+
+    final StringSupplierLookup stringSupplierLookup = new StringSupplierLookup();
+    REGISTRAR.register(stringSupplierLookup, deduplicator.record(exception, 5, WINDOW));
+    assertThat(stringSupplierLookup.lookup("occurrences")).isEqualTo("3");
+  }
+}
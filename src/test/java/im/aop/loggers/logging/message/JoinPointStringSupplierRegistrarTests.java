@@ -4,12 +4,21 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
+import java.lang.reflect.Method;
+import java.util.Collections;
+
 import org.aspectj.lang.JoinPoint;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.reflect.MethodSignature;
 import org.assertj.core.util.Arrays;
 import org.junit.jupiter.api.Test;
 
+import im.aop.loggers.AopLoggersProperties.Rendering;
+import im.aop.loggers.logging.value.LogExclude;
+import im.aop.loggers.logging.value.LogMask;
+import im.aop.loggers.logging.value.MaskingPlan;
+import im.aop.loggers.logging.value.ValueWriter;
+
 /**
  * Tests for {@link JoinPointStringSupplierRegistrar}.
  *
@@ -28,6 +37,15 @@ class JoinPointStringSupplierRegistrarTests {
 
     public void methodWithTwoParameter(String foo, String bar) {}
 
+    public void methodWithArrayParameter(long[] foo) {}
+
+    public void methodWithMaskedParameters(
+        @LogMask String foo, String password, @LogExclude String bar) {}
+
+    public void methodWithExcludedParameter(@LogExclude String foo) {}
+
+    public void methodWithSelectedParameters(String foo, int bar) {}
+
     public String methodWithResult() {
       return "foo";
     }
@@ -127,6 +145,154 @@ class JoinPointStringSupplierRegistrarTests {
     assertThat(stringSupplierLookup.lookup("parameters")).isEqualTo("foo=a, bar=b");
   }
 
+  @Test
+  void methodParameters_methodWithArrayParameter()
+      throws NoSuchMethodException, SecurityException {
+    final MethodSignature methodSignature =
+        mockMethodSignature(
+            TestClass.class,
+            "methodWithArrayParameter",
+            Arrays.array(long[].class),
+            Arrays.array("foo"));
+    final JoinPoint joinPoint =
+        mockJoinPoint(methodSignature, Arrays.array((Object) new long[] {1L, 2L}));
+
+    final StringSupplierLookup stringSupplierLookup = new StringSupplierLookup();
+    REGISTRAR.register(stringSupplierLookup, joinPoint);
+    assertThat(stringSupplierLookup.lookup("parameters")).isEqualTo("foo=[1, 2]");
+  }
+
+  @Test
+  void methodParameters_maxLengthSharedByParameters()
+      throws NoSuchMethodException, SecurityException {
+    final MethodSignature methodSignature =
+        mockMethodSignature(
+            TestClass.class,
+            "methodWithTwoParameter",
+            Arrays.array(String.class, String.class),
+            Arrays.array("foo", "bar"));
+    final JoinPoint joinPoint = mockJoinPoint(methodSignature, Arrays.array("abc", "def"));
+    final Rendering rendering = new Rendering();
+    rendering.setMaxLength(10);
+
+    final StringSupplierLookup stringSupplierLookup = new StringSupplierLookup();
+    stringSupplierLookup.setValueWriter(new ValueWriter(rendering));
+    REGISTRAR.register(stringSupplierLookup, joinPoint);
+    assertThat(stringSupplierLookup.lookup("parameters")).isEqualTo("foo=abc, b...");
+  }
+
+  @Test
+  void methodParameters_maskedAndExcludedParameters()
+      throws NoSuchMethodException, SecurityException {
+    final MethodSignature methodSignature =
+        mockMethodSignature(
+            TestClass.class,
+            "methodWithMaskedParameters",
+            Arrays.array(String.class, String.class, String.class),
+            Arrays.array("foo", "password", "bar"));
+    final JoinPoint joinPoint = mockJoinPoint(methodSignature, Arrays.array("a", "b", "c"));
+    final Rendering rendering = new Rendering();
+    rendering.setMaskedNames(Collections.singleton("PASSWORD"));
+    rendering.setMask("***");
+
+    final StringSupplierLookup stringSupplierLookup = new StringSupplierLookup();
+    REGISTRAR.register(stringSupplierLookup, joinPoint);
+    assertThat(stringSupplierLookup.lookup("parameters")).isEqualTo("foo=******, password=b");
+
+    stringSupplierLookup.setValueWriter(new ValueWriter(rendering));
+    assertThat(stringSupplierLookup.lookup("parameters")).isEqualTo("foo=***, password=***");
+  }
+
+  @Test
+  void methodParameters_allParametersExcluded() throws NoSuchMethodException, SecurityException {
+    final MethodSignature methodSignature =
+        mockMethodSignature(
+            TestClass.class,
+            "methodWithExcludedParameter",
+            Arrays.array(String.class),
+            Arrays.array("foo"));
+    final JoinPoint joinPoint = mockJoinPoint(methodSignature, Arrays.array("a"));
+
+    final StringSupplierLookup stringSupplierLookup = new StringSupplierLookup();
+    REGISTRAR.register(stringSupplierLookup, joinPoint);
+    assertThat(stringSupplierLookup.lookup("parameters")).isEqualTo("none");
+  }
+
+  @Test
+  void methodParameters_parameterSelection() throws NoSuchMethodException, SecurityException {
+    final Method method =
+        TestClass.class.getDeclaredMethod("methodWithSelectedParameters", String.class, int.class);
+    final MethodSignature methodSignature =
+        mockMethodSignature(
+            TestClass.class,
+            "methodWithSelectedParameters",
+            Arrays.array(String.class, int.class),
+            Arrays.array("foo", "bar"));
+    final JoinPoint joinPoint = mockJoinPoint(methodSignature, Arrays.array("a", 1));
+
+    final StringSupplierLookup stringSupplierLookup = new StringSupplierLookup();
+    REGISTRAR.register(
+        stringSupplierLookup,
+        joinPoint,
+        ParameterSelection.of(method, new String[0], new String[] {"foo"}));
+    assertThat(stringSupplierLookup.lookup("parameters")).isEqualTo("bar=1");
+
+    stringSupplierLookup.setParameterSelection(
+        ParameterSelection.of(method, new String[] {"foo"}, new String[] {"foo"}));
+    assertThat(stringSupplierLookup.lookup("parameters")).isEqualTo("none");
+  }
+
+  @Test
+  void methodParameters_maskingPlan() throws NoSuchMethodException, SecurityException {
+    final Method method =
+        TestClass.class.getDeclaredMethod("methodWithSelectedParameters", String.class, int.class);
+    final MethodSignature methodSignature =
+        mockMethodSignature(
+            TestClass.class,
+            "methodWithSelectedParameters",
+            Arrays.array(String.class, int.class),
+            Arrays.array("foo", "bar"));
+    final JoinPoint joinPoint = mockJoinPoint(methodSignature, Arrays.array("a", 1));
+    final Rendering rendering = new Rendering();
+    rendering.setMaskedNames(Collections.singleton("foo"));
+    final MaskingPlan maskingPlan =
+        new ValueWriter(rendering).getMaskingPlan(method, new String[] {"foo", "bar"});
+
+    final StringSupplierLookup stringSupplierLookup = new StringSupplierLookup();
+    REGISTRAR.register(stringSupplierLookup, joinPoint, ParameterSelection.ALL, maskingPlan);
+
+    assertThat(stringSupplierLookup.getMaskingPlan()).isSameAs(maskingPlan);
+    assertThat(stringSupplierLookup.lookup("parameters")).isEqualTo("foo=******, bar=1");
+    assertThat(stringSupplierLookup.lookup("parameters.foo")).isEqualTo("******");
+  }
+
+  @Test
+  void methodParameter() throws NoSuchMethodException, SecurityException {
+    final MethodSignature methodSignature =
+        mockMethodSignature(
+            TestClass.class,
+            "methodWithMaskedParameters",
+            Arrays.array(String.class, String.class, String.class),
+            Arrays.array("foo", "password", "bar"));
+    final JoinPoint joinPoint =
+        mockJoinPoint(methodSignature, Arrays.array("a", Arrays.array(1L), "c"));
+
+    final StringSupplierLookup stringSupplierLookup = new StringSupplierLookup();
+    REGISTRAR.register(stringSupplierLookup, joinPoint);
+    stringSupplierLookup.addStringSupplier("parameters.qux", () -> "d");
+    assertThat(stringSupplierLookup.lookup("parameters.password")).isEqualTo("[1]");
+    assertThat(stringSupplierLookup.lookup("parameters.foo")).isEqualTo("******");
+    assertThat(stringSupplierLookup.lookup("parameters.bar")).isNull();
+    assertThat(stringSupplierLookup.lookup("parameters.baz")).isNull();
+    assertThat(stringSupplierLookup.lookup("parameters.qux")).isEqualTo("d");
+  }
+
+  @Test
+  void methodParameter_withoutJoinPoint() {
+    final StringSupplierLookup stringSupplierLookup = new StringSupplierLookup();
+    assertThat(stringSupplierLookup.lookup("parameters.foo")).isNull();
+  }
+
   private MethodSignature mockMethodSignature(
       final Class<?> declaringClass,
       final String methodName,
@@ -0,0 +1,302 @@
+package im.aop.loggers.logging.message;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.junit.jupiter.api.Test;
+
+import im.aop.loggers.AopLoggersProperties.Rendering;
+import im.aop.loggers.logging.exception.StackTrace;
+import im.aop.loggers.logging.exception.StackTraceRenderer;
+import im.aop.loggers.logging.value.LogExclude;
+import im.aop.loggers.logging.value.LogMask;
+import im.aop.loggers.logging.value.ValueWriter;
+import im.aop.loggers.metrics.LatencyRecorder;
+
+/**
+ * Tests for {@link JsonMessageWriter}.
+ *
+ * @author Andy Lian
+ */
+class JsonMessageWriterTests {
+
+  static class Foo {
+
+    String foo(String foo, int bar, Object baz) {
+      return foo;
+    }
+
+    void qux() {}
+
+    void quux(@LogMask String foo, @LogExclude int bar, long baz) {}
+  }
+
+  @Test
+  void write_withoutVariables() {
+    assertThat(JsonMessageWriter.write(MessageTemplate.of("foo"), new StringSupplierLookup()))
+        .isEqualTo("{}");
+  }
+
+  @Test
+  void write_methodAndParameters() throws NoSuchMethodException {
+    final StringSupplierLookup stringLookup = new StringSupplierLookup();
+    new JoinPointStringSupplierRegistrar()
+        .register(stringLookup, mockFooJoinPoint("abc", 1, Arrays.asList(true, null)));
+
+    assertThat(
+            JsonMessageWriter.write(
+                MessageTemplate.of("Entering [{method}] with parameters [{parameters}]"),
+                stringLookup))
+        .isEqualTo(
+            "{\"method\":\"String foo(String, int, Object)\","
+                + "\"parameters\":{\"foo\":\"abc\",\"bar\":1,\"baz\":\"[true, null]\"}}");
+  }
+
+  @Test
+  void write_parametersTypedValues() throws NoSuchMethodException {
+    final StringSupplierLookup stringLookup = new StringSupplierLookup();
+    new JoinPointStringSupplierRegistrar()
+        .register(stringLookup, mockFooJoinPoint(null, 1, Double.NaN));
+
+    assertThat(JsonMessageWriter.write(MessageTemplate.of("{parameters}"), stringLookup))
+        .isEqualTo("{\"parameters\":{\"foo\":null,\"bar\":1,\"baz\":\"NaN\"}}");
+  }
+
+  @Test
+  void write_parametersWithinMaxLength() throws NoSuchMethodException {
+    final Rendering rendering = new Rendering();
+    rendering.setMaxLength(5);
+    final StringSupplierLookup stringLookup = new StringSupplierLookup();
+    stringLookup.setValueWriter(new ValueWriter(rendering));
+    new JoinPointStringSupplierRegistrar()
+        .register(stringLookup, mockFooJoinPoint("abc", 1, "defgh"));
+
+    assertThat(JsonMessageWriter.write(MessageTemplate.of("{parameters}"), stringLookup))
+        .isEqualTo("{\"parameters\":{\"foo\":\"abc\",\"bar\":1,\"baz\":\"de...\"}}");
+  }
+
+  @Test
+  void write_maskedAndExcludedParameters() throws NoSuchMethodException {
+    final JoinPoint joinPoint =
+        mockJoinPoint("quux", void.class, String.class, int.class, long.class);
+    when(((MethodSignature) joinPoint.getSignature()).getParameterNames())
+        .thenReturn(new String[] {"foo", "bar", "baz"});
+    when(joinPoint.getArgs()).thenReturn(new Object[] {"abc", 1, 2L});
+    final StringSupplierLookup stringLookup = new StringSupplierLookup();
+    new JoinPointStringSupplierRegistrar().register(stringLookup, joinPoint);
+
+    assertThat(JsonMessageWriter.write(MessageTemplate.of("{parameters}"), stringLookup))
+        .isEqualTo("{\"parameters\":{\"foo\":\"******\",\"baz\":2}}");
+  }
+
+  @Test
+  void write_selectedParameters() throws NoSuchMethodException {
+    final StringSupplierLookup stringLookup = new StringSupplierLookup();
+    new JoinPointStringSupplierRegistrar()
+        .register(
+            stringLookup,
+            mockFooJoinPoint("abc", 1, 2L),
+            ParameterSelection.of(
+                Foo.class.getDeclaredMethod("foo", String.class, int.class, Object.class),
+                new String[] {"0", "2"},
+                new String[0]));
+
+    assertThat(
+            JsonMessageWriter.write(
+                MessageTemplate.of("{parameters} {parameters.bar}"), stringLookup))
+        .isEqualTo("{\"parameters\":{\"foo\":\"abc\",\"baz\":2},\"parameters.bar\":\"1\"}");
+  }
+
+  @Test
+  void write_returnValue() throws NoSuchMethodException {
+    final StringSupplierLookup stringLookup = new StringSupplierLookup();
+    new ReturnValueStringSupplierRegistrar()
+        .register(stringLookup, mockJoinPoint("qux", Object.class), 1L);
+
+    assertThat(JsonMessageWriter.write(MessageTemplate.of("{return-value}"), stringLookup))
+        .isEqualTo("{\"returnValue\":1,\"outcome\":\"SUCCESS\"}");
+  }
+
+  @Test
+  void write_noReturnValue() throws NoSuchMethodException {
+    final StringSupplierLookup stringLookup = new StringSupplierLookup();
+    new ReturnValueStringSupplierRegistrar()
+        .register(stringLookup, mockJoinPoint("qux", void.class), null);
+
+    assertThat(JsonMessageWriter.write(MessageTemplate.of("{return-value}"), stringLookup))
+        .isEqualTo("{\"outcome\":\"SUCCESS\"}");
+  }
+
+  @Test
+  void write_exception() {
+    final StringSupplierLookup stringLookup = new StringSupplierLookup();
+    stringLookup.addSource(StringVariable.EXCEPTION, new IllegalArgumentException("foo"));
+
+    assertThat(JsonMessageWriter.write(MessageTemplate.of("{exception}"), stringLookup))
+        .isEqualTo(
+            "{\"exception\":{\"type\":\"java.lang.IllegalArgumentException\","
+                + "\"message\":\"foo\"},\"outcome\":\"ERROR\"}");
+  }
+
+  @Test
+  void write_exceptionWithoutMessage() {
+    final StringSupplierLookup stringLookup = new StringSupplierLookup();
+    stringLookup.addSource(StringVariable.EXCEPTION, new IllegalStateException());
+    stringLookup.addSource(StringVariable.RETURN_VALUE, "foo");
+
+    assertThat(JsonMessageWriter.write(MessageTemplate.of("{exception}"), stringLookup))
+        .isEqualTo(
+            "{\"exception\":{\"type\":\"java.lang.IllegalStateException\","
+                + "\"message\":null},\"outcome\":\"ERROR\"}");
+  }
+
+  @Test
+  void write_numbers() {
+    final StringSupplierLookup stringLookup = new StringSupplierLookup();
+    stringLookup.addSource(StringVariable.ELAPSED, 1_500L);
+    stringLookup.addSource(StringVariable.ELAPSED_TIME_LIMIT, Duration.ofMillis(1));
+    stringLookup.addSource(StringVariable.SUPPRESSED, 2L);
+    stringLookup.addSource(StringVariable.OCCURRENCES, 3L);
+    stringLookup.addSource(StringVariable.FINGERPRINT, 0xabcL);
+
+    assertThat(
+            JsonMessageWriter.write(
+                MessageTemplate.of(
+                    "{elapsed} {elapsed-time-limit} {suppressed} {occurrences} {fingerprint}"),
+                stringLookup))
+        .isEqualTo(
+            "{\"elapsedNanos\":1500,\"elapsedTimeLimitNanos\":1000000,\"suppressed\":2,"
+                + "\"occurrences\":3,\"fingerprint\":\"0000000000000abc\"}");
+  }
+
+  @Test
+  void write_latencySummary() {
+    final LatencyRecorder recorder = new LatencyRecorder();
+    recorder.record(1000L, true);
+    final StringSupplierLookup stringLookup = new StringSupplierLookup();
+    new LatencySummaryStringSupplierRegistrar().register(stringLookup, recorder.summarize());
+
+    assertThat(
+            JsonMessageWriter.write(
+                MessageTemplate.of("{count} {errors} {min} {p50} {p90} {p99} {max}"),
+                stringLookup))
+        .isEqualTo(
+            "{\"count\":1,\"errors\":1,\"minNanos\":1000,\"p50Nanos\":1000,\"p90Nanos\":1000,"
+                + "\"p99Nanos\":1000,\"maxNanos\":1000}");
+  }
+
+  @Test
+  void write_stackTrace() {
+    final StringSupplierLookup stringLookup = new StringSupplierLookup();
+    stringLookup.addSource(
+        StringVariable.STACK_TRACE,
+        new StackTrace(new RuntimeException("foo"), new StackTraceRenderer(1, null, null, null)));
+
+    assertThat(JsonMessageWriter.write(MessageTemplate.of("{stack-trace}"), stringLookup))
+        .startsWith("{\"stackTrace\":\"java.lang.RuntimeException: foo\\n\\tat ");
+  }
+
+  @Test
+  void write_escapesStrings() {
+    final StringSupplierLookup stringLookup = new StringSupplierLookup();
+    stringLookup.addSource(StringVariable.RETURN_VALUE, "\"a\\b\"\r\n\t\u0001");
+
+    assertThat(JsonMessageWriter.write(MessageTemplate.of("{return-value}"), stringLookup))
+        .isEqualTo(
+            "{\"returnValue\":\"\\\"a\\\\b\\\"\\r\\n\\t\\u0001\",\"outcome\":\"SUCCESS\"}");
+  }
+
+  @Test
+  void write_eachVariableOnce() {
+    final StringSupplierLookup stringLookup = new StringSupplierLookup();
+    stringLookup.addSource(StringVariable.SUPPRESSED, 1L);
+    stringLookup.addStringSupplier("foo", () -> "bar");
+
+    assertThat(
+            JsonMessageWriter.write(
+                MessageTemplate.of("{suppressed} {foo} {suppressed} {foo}"), stringLookup))
+        .isEqualTo("{\"suppressed\":1,\"foo\":\"bar\"}");
+  }
+
+  @Test
+  void write_skipsVariablesNotFound() {
+    assertThat(
+            JsonMessageWriter.write(
+                MessageTemplate.of("{elapsed} {foo}"), new StringSupplierLookup()))
+        .isEqualTo("{}");
+  }
+
+  @Test
+  void write_stringSupplierOverridesSource() {
+    final StringSupplierLookup stringLookup = new StringSupplierLookup();
+    stringLookup.addSource(StringVariable.ELAPSED, 1L);
+    stringLookup.addStringSupplier("elapsed", () -> "foo");
+
+    assertThat(JsonMessageWriter.write(MessageTemplate.of("{elapsed}"), stringLookup))
+        .isEqualTo("{\"elapsedNanos\":\"foo\"}");
+  }
+
+  @Test
+  void write_nested() {
+    final StringSupplierLookup nestedLookup = new StringSupplierLookup();
+    nestedLookup.addSource(StringVariable.SUPPRESSED, 1L);
+    final Object value =
+        new Object() {
+
+          @Override
+          public String toString() {
+            return JsonMessageWriter.write(MessageTemplate.of("{suppressed}"), nestedLookup);
+          }
+        };
+    final StringSupplierLookup stringLookup = new StringSupplierLookup();
+    stringLookup.addSource(StringVariable.RETURN_VALUE, value);
+
+    assertThat(JsonMessageWriter.write(MessageTemplate.of("{return-value}"), stringLookup))
+        .isEqualTo("{\"returnValue\":\"{\\\"suppressed\\\":1}\",\"outcome\":\"SUCCESS\"}");
+  }
+
+  @Test
+  void write_reusesBuffersAfterLargeMessage() {
+    final char[] chars = new char[100_000];
+    Arrays.fill(chars, 'a');
+    final Rendering rendering = new Rendering();
+    rendering.setMaxLength(0);
+    final StringSupplierLookup stringLookup = new StringSupplierLookup();
+    stringLookup.setValueWriter(new ValueWriter(rendering));
+    stringLookup.addSource(StringVariable.RETURN_VALUE, new String(chars));
+
+    assertThat(JsonMessageWriter.write(MessageTemplate.of("{return-value}"), stringLookup))
+        .hasSize(100_000 + "{\"returnValue\":\"\",\"outcome\":\"SUCCESS\"}".length());
+    assertThat(JsonMessageWriter.write(MessageTemplate.of("foo"), stringLookup))
+        .isEqualTo("{\"outcome\":\"SUCCESS\"}");
+  }
+
+  private JoinPoint mockFooJoinPoint(final Object... args) throws NoSuchMethodException {
+    final JoinPoint joinPoint =
+        mockJoinPoint("foo", String.class, String.class, int.class, Object.class);
+    when(((MethodSignature) joinPoint.getSignature()).getParameterNames())
+        .thenReturn(new String[] {"foo", "bar", "baz"});
+    when(joinPoint.getArgs()).thenReturn(args);
+    return joinPoint;
+  }
+
+  private JoinPoint mockJoinPoint(
+      final String methodName, final Class<?> returnType, final Class<?>... parameterTypes)
+      throws NoSuchMethodException {
+    final MethodSignature methodSignature = mock(MethodSignature.class);
+    when(methodSignature.getDeclaringType()).thenReturn(Foo.class);
+    when(methodSignature.getMethod())
+        .thenReturn(Foo.class.getDeclaredMethod(methodName, parameterTypes));
+    when(methodSignature.getReturnType()).thenReturn(returnType);
+
+    final JoinPoint joinPoint = mock(JoinPoint.class);
+    when(joinPoint.getSignature()).thenReturn(methodSignature);
+    return joinPoint;
+  }
+}
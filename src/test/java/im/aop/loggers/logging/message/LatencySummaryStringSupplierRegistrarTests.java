@@ -0,0 +1,35 @@
+package im.aop.loggers.logging.message;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+import im.aop.loggers.metrics.LatencyRecorder;
+
+/**
+ * Tests for {@link LatencySummaryStringSupplierRegistrar}.
+ *
+ * @author Andy Lian
+ */
+class LatencySummaryStringSupplierRegistrarTests {
+
+  private static final LatencySummaryStringSupplierRegistrar REGISTRAR =
+      new LatencySummaryStringSupplierRegistrar();
+
+  @Test
+  void latencySummary() {
+    final LatencyRecorder recorder = new LatencyRecorder();
+    recorder.record(1_000_000L, false);
+    recorder.record(2_000_000L, true);
+
+    final StringSupplierLookup stringSupplierLookup = new StringSupplierLookup();
+    REGISTRAR.register(stringSupplierLookup, recorder.summarize());
+    assertThat(stringSupplierLookup.lookup("count")).isEqualTo("2");
+    assertThat(stringSupplierLookup.lookup("errors")).isEqualTo("1");
+    assertThat(stringSupplierLookup.lookup("min")).isEqualTo("PT0.001S");
+    assertThat(stringSupplierLookup.lookup("p50")).startsWith("PT0.001");
+    assertThat(stringSupplierLookup.lookup("p90")).isEqualTo("PT0.002S");
+    assertThat(stringSupplierLookup.lookup("p99")).isEqualTo("PT0.002S");
+    assertThat(stringSupplierLookup.lookup("max")).isEqualTo("PT0.002S");
+  }
+}
@@ -0,0 +1,55 @@
+package im.aop.loggers.logging.message;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import im.aop.loggers.logging.OutputFormat;
+
+/**
+ * Tests for {@link LazyMessage}.
+ *
+ * @author Andy Lian
+ */
+class LazyMessageTests {
+
+  @Test
+  void toString_rendersOnce() {
+    final AtomicInteger renderings = new AtomicInteger();
+    final StringSupplierLookup stringLookup = new StringSupplierLookup();
+    stringLookup.addStringSupplier("foo", () -> "foo" + renderings.incrementAndGet());
+
+    final LazyMessage lazyMessage = new LazyMessage(MessageTemplate.of("{foo} bar"), stringLookup);
+    assertThat(lazyMessage.isRendered()).isFalse();
+    assertThat(renderings).hasValue(0);
+
+    assertThat(lazyMessage).hasToString("foo1 bar");
+    assertThat(lazyMessage).hasToString("foo1 bar");
+    assertThat(lazyMessage.isRendered()).isTrue();
+    assertThat(renderings).hasValue(1);
+  }
+
+  @Test
+  void toString_writesJsonOnce() {
+    final AtomicInteger renderings = new AtomicInteger();
+    final StringSupplierLookup stringLookup = new StringSupplierLookup();
+    stringLookup.addStringSupplier("foo", () -> "foo" + renderings.incrementAndGet());
+
+    final LazyMessage lazyMessage =
+        new LazyMessage(MessageTemplate.of("{foo} bar"), stringLookup, OutputFormat.JSON);
+    assertThat(renderings).hasValue(0);
+
+    assertThat(lazyMessage).hasToString("{\"foo\":\"foo1\"}");
+    assertThat(lazyMessage).hasToString("{\"foo\":\"foo1\"}");
+    assertThat(renderings).hasValue(1);
+  }
+
+  @Test
+  void getTemplate() {
+    final MessageTemplate template = MessageTemplate.of("{foo} bar");
+    assertThat(new LazyMessage(template, new StringSupplierLookup()).getTemplate())
+        .isSameAs(template);
+  }
+}
@@ -0,0 +1,100 @@
+package im.aop.loggers.logging.message;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link MessageTemplate}.
+ *
+ * @author Andy Lian
+ */
+class MessageTemplateTests {
+
+  private static final StringSupplierLookup STRING_LOOKUP = new StringSupplierLookup();
+
+  @BeforeAll
+  static void configure() {
+    STRING_LOOKUP.addStringSupplier("foo", () -> "foo");
+    STRING_LOOKUP.addStringSupplier("bar", () -> "bar");
+  }
+
+  @Test
+  void of_returnsCachedTemplate() {
+    assertThat(MessageTemplate.of("{foo} bar")).isSameAs(MessageTemplate.of("{foo} bar"));
+  }
+
+  @Test
+  void compile_returnsNewTemplate() {
+    assertThat(MessageTemplate.compile("{foo} bar"))
+        .isNotSameAs(MessageTemplate.compile("{foo} bar"));
+  }
+
+  @Test
+  void compile_withoutVariable() {
+    final MessageTemplate template = MessageTemplate.compile("foo bar");
+    assertThat(template.getVariableCount()).isZero();
+    assertThat(template.render(STRING_LOOKUP)).isEqualTo("foo bar");
+  }
+
+  @Test
+  void compile_withVariables() {
+    final MessageTemplate template = MessageTemplate.compile("{foo} and {bar}");
+    assertThat(template.getVariableCount()).isEqualTo(2);
+    assertThat(template.getVariableKey(0)).isEqualTo("foo");
+    assertThat(template.getVariableKey(1)).isEqualTo("bar");
+  }
+
+  @Test
+  void compile_resolvesVariables() {
+    final MessageTemplate template = MessageTemplate.compile("{method} {foo}");
+    assertThat(template.getVariable(0)).isEqualTo(StringVariable.METHOD);
+    assertThat(template.getVariable(1)).isNull();
+  }
+
+  @Test
+  void render_bySlot() {
+    final StringSupplierLookup stringLookup = new StringSupplierLookup();
+    stringLookup.addSource(StringVariable.RETURN_VALUE, "foo");
+    stringLookup.addStringSupplier("bar", () -> "bar");
+
+    final MessageTemplate template = MessageTemplate.compile("{return-value} {bar} [{qux}]");
+    assertThat(template.render(stringLookup)).isEqualTo("foo bar []");
+  }
+
+  @Test
+  void render_bySlotWithoutVariable() {
+    final MessageTemplate template = MessageTemplate.compile("foo bar");
+    assertThat(template.render(new StringSupplierLookup())).isEqualTo("foo bar");
+  }
+
+  @Test
+  void render_consecutiveVariables() {
+    final MessageTemplate template = MessageTemplate.compile("{foo}{bar}");
+    assertThat(template.render(STRING_LOOKUP)).isEqualTo("foobar");
+  }
+
+  @Test
+  void render_variableNotFound() {
+    final MessageTemplate template = MessageTemplate.compile("foo [{qux}]");
+    assertThat(template.render(STRING_LOOKUP)).isEqualTo("foo []");
+  }
+
+  @Test
+  void renderTo_appendsToBuilder() {
+    final StringBuilder builder = new StringBuilder("foo ");
+    MessageTemplate.compile("{bar} baz").renderTo(builder, STRING_LOOKUP);
+    assertThat(builder).hasToString("foo bar baz");
+  }
+
+  @Test
+  void toString_returnsTemplate() {
+    assertThat(MessageTemplate.compile("{foo} bar")).hasToString("{foo} bar");
+  }
+
+  @Test
+  void getTemplate_returnsTemplate() {
+    assertThat(MessageTemplate.compile("{foo} bar").getTemplate()).isEqualTo("{foo} bar");
+  }
+}
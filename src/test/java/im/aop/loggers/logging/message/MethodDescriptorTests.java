@@ -0,0 +1,135 @@
+package im.aop.loggers.logging.message;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+
+import org.aspectj.lang.reflect.MethodSignature;
+import org.junit.jupiter.api.Test;
+
+import im.aop.loggers.AopLoggersProperties.Rendering;
+import im.aop.loggers.logging.value.MaskingPlan;
+import im.aop.loggers.logging.value.ValueWriter;
+
+/**
+ * Tests for {@link MethodDescriptor}.
+ *
+ * @author Andy Lian
+ */
+class MethodDescriptorTests {
+
+  static class TestClass {
+
+    public void methodWithoutParameter() {}
+
+    public String methodWithTwoParameter(String foo, int bar) {
+      return foo;
+    }
+
+    public void methodWithUnnamedParameter(String foo) {}
+  }
+
+  @Test
+  void of_returnsCachedDescriptor() throws NoSuchMethodException {
+    final MethodSignature methodSignature =
+        mockMethodSignature("methodWithoutParameter", null, new Class<?>[0]);
+
+    assertThat(MethodDescriptor.of(methodSignature)).isSameAs(MethodDescriptor.of(methodSignature));
+  }
+
+  @Test
+  void of_keepsCachedDescriptor_afterGarbageCollection() throws NoSuchMethodException {
+    final MethodSignature methodSignature =
+        mockMethodSignature("methodWithoutParameter", null, new Class<?>[0]);
+    final MethodDescriptor descriptor = MethodDescriptor.of(methodSignature);
+
+    System.gc();
+
+    assertThat(MethodDescriptor.of(methodSignature)).isSameAs(descriptor);
+  }
+
+  @Test
+  void of_givenMethod_sharesCachedDescriptor() throws NoSuchMethodException {
+    final MethodSignature methodSignature =
+        mockMethodSignature("methodWithoutParameter", null, new Class<?>[0]);
+
+    assertThat(MethodDescriptor.of(TestClass.class.getDeclaredMethod("methodWithoutParameter")))
+        .isSameAs(MethodDescriptor.of(methodSignature));
+  }
+
+  @Test
+  void getMaskingPlan_keptPerValueWriter() throws NoSuchMethodException {
+    final MethodDescriptor descriptor =
+        MethodDescriptor.of(
+            TestClass.class.getDeclaredMethod("methodWithUnnamedParameter", String.class));
+    final Rendering rendering = new Rendering();
+    rendering.setMaskedNames(Collections.singleton("foo"));
+    final ValueWriter valueWriter = new ValueWriter(rendering);
+
+    final MaskingPlan maskingPlan = descriptor.getMaskingPlan(valueWriter);
+
+    assertThat(maskingPlan.isMasked(0)).isTrue();
+    assertThat(descriptor.getMaskingPlan(ValueWriter.DEFAULT).isMasked(0)).isFalse();
+    assertThat(descriptor.getMaskingPlan(valueWriter)).isSameAs(maskingPlan);
+  }
+
+  @Test
+  void getMethod() throws NoSuchMethodException {
+    final MethodSignature methodSignature =
+        mockMethodSignature("methodWithoutParameter", null, new Class<?>[0]);
+
+    assertThat(MethodDescriptor.of(methodSignature).getMethod())
+        .isEqualTo(TestClass.class.getDeclaredMethod("methodWithoutParameter"));
+  }
+
+  @Test
+  void getSignature_withoutParameter() throws NoSuchMethodException {
+    final MethodSignature methodSignature =
+        mockMethodSignature("methodWithoutParameter", null, new Class<?>[0]);
+
+    final MethodDescriptor descriptor = MethodDescriptor.of(methodSignature);
+    assertThat(descriptor.getSignature()).isEqualTo("void methodWithoutParameter()");
+    assertThat(descriptor.getParameterCount()).isZero();
+  }
+
+  @Test
+  void getSignature_withTwoParameter() throws NoSuchMethodException {
+    final MethodSignature methodSignature =
+        mockMethodSignature(
+            "methodWithTwoParameter",
+            new String[] {"foo", "bar"},
+            new Class<?>[] {String.class, int.class});
+
+    final MethodDescriptor descriptor = MethodDescriptor.of(methodSignature);
+    assertThat(descriptor.getSignature()).isEqualTo("String methodWithTwoParameter(String, int)");
+    assertThat(descriptor.getParameterCount()).isEqualTo(2);
+    assertThat(descriptor.getParameterName(0)).isEqualTo("foo");
+    assertThat(descriptor.getParameterName(1)).isEqualTo("bar");
+  }
+
+  @Test
+  void getParameterName_fallbackToReflection() throws NoSuchMethodException {
+    final MethodSignature methodSignature =
+        mockMethodSignature("methodWithUnnamedParameter", null, new Class<?>[] {String.class});
+
+    final MethodDescriptor descriptor = MethodDescriptor.of(methodSignature);
+    assertThat(descriptor.getParameterCount()).isEqualTo(1);
+    assertThat(descriptor.getParameterName(0)).isEqualTo("foo");
+  }
+
+  private MethodSignature mockMethodSignature(
+      final String methodName,
+      final String[] methodParameterNames,
+      final Class<?>[] methodParameterTypes)
+      throws NoSuchMethodException {
+    final MethodSignature methodSignature = mock(MethodSignature.class);
+
+    when(methodSignature.getMethod())
+        .thenReturn(TestClass.class.getDeclaredMethod(methodName, methodParameterTypes));
+    when(methodSignature.getParameterNames()).thenReturn(methodParameterNames);
+
+    return methodSignature;
+  }
+}
@@ -0,0 +1,84 @@
+package im.aop.loggers.logging.message;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.reflect.Method;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link ParameterSelection}.
+ *
+ * @author Andy Lian
+ */
+class ParameterSelectionTests {
+
+  static class Foo {
+
+    void foo(String bar, int baz, Object qux) {}
+  }
+
+  private Method method;
+
+  @BeforeEach
+  void beforeEach() throws NoSuchMethodException {
+    method = Foo.class.getDeclaredMethod("foo", String.class, int.class, Object.class);
+  }
+
+  @Test
+  void of_withoutIncludeAndExcludeParameters() {
+    assertThat(ParameterSelection.of(method, new String[0], new String[0]))
+        .isSameAs(ParameterSelection.ALL);
+    assertThat(ParameterSelection.of(method, null, null)).isSameAs(ParameterSelection.ALL);
+  }
+
+  @Test
+  void of_includeParameters() {
+    final ParameterSelection parameterSelection =
+        ParameterSelection.of(method, new String[] {"bar", "2"}, new String[0]);
+
+    assertThat(parameterSelection.isSelected(0)).isTrue();
+    assertThat(parameterSelection.isSelected(1)).isFalse();
+    assertThat(parameterSelection.isSelected(2)).isTrue();
+  }
+
+  @Test
+  void of_excludeParameters() {
+    final ParameterSelection parameterSelection =
+        ParameterSelection.of(method, new String[0], new String[] {"1", " qux "});
+
+    assertThat(parameterSelection.isSelected(0)).isTrue();
+    assertThat(parameterSelection.isSelected(1)).isFalse();
+    assertThat(parameterSelection.isSelected(2)).isFalse();
+  }
+
+  @Test
+  void of_excludeParametersOverridesIncludeParameters() {
+    final ParameterSelection parameterSelection =
+        ParameterSelection.of(method, new String[] {"bar", "baz"}, new String[] {"bar"});
+
+    assertThat(parameterSelection.isSelected(0)).isFalse();
+    assertThat(parameterSelection.isSelected(1)).isTrue();
+    assertThat(parameterSelection.isSelected(2)).isFalse();
+  }
+
+  @Test
+  void of_ignoresUnknownParameters() {
+    assertThat(ParameterSelection.of(method, new String[0], new String[] {"quux", "3", "-1"}))
+        .isSameAs(ParameterSelection.ALL);
+
+    final ParameterSelection parameterSelection =
+        ParameterSelection.of(method, new String[] {"quux"}, new String[0]);
+
+    assertThat(parameterSelection.isSelected(0)).isFalse();
+    assertThat(parameterSelection.isSelected(1)).isFalse();
+    assertThat(parameterSelection.isSelected(2)).isFalse();
+  }
+
+  @Test
+  void isSelected_all() {
+    assertThat(ParameterSelection.ALL.isSelected(0)).isTrue();
+    assertThat(ParameterSelection.ALL.isSelected(100)).isTrue();
+  }
+}
@@ -4,10 +4,15 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
+import java.util.Collections;
+
 import org.aspectj.lang.JoinPoint;
 import org.aspectj.lang.reflect.MethodSignature;
 import org.junit.jupiter.api.Test;
 
+import im.aop.loggers.AopLoggersProperties.Rendering;
+import im.aop.loggers.logging.value.ValueWriter;
+
 /**
  * Tests for {@link ReturnValueStringSupplierRegistrar}.
  *
@@ -54,6 +59,27 @@ class ReturnValueStringSupplierRegistrarTests {
     assertThat(stringSupplierLookup.lookup("return-value")).isEqualTo("[foo, bar]");
   }
 
+  @Test
+  void returnValue_primitiveArray() throws NoSuchMethodException, SecurityException {
+    final JoinPoint joinPoint = mockJoinPoint(mockMethodSignature(int[].class));
+
+    final StringSupplierLookup stringSupplierLookup = new StringSupplierLookup();
+    REGISTRAR.register(stringSupplierLookup, joinPoint, new int[] {1, 2});
+    assertThat(stringSupplierLookup.lookup("return-value")).isEqualTo("[1, 2]");
+  }
+
+  @Test
+  void returnValue_maxCollectionElements() throws NoSuchMethodException, SecurityException {
+    final JoinPoint joinPoint = mockJoinPoint(mockMethodSignature(Object.class));
+    final Rendering rendering = new Rendering();
+    rendering.setMaxCollectionElements(2);
+
+    final StringSupplierLookup stringSupplierLookup = new StringSupplierLookup();
+    stringSupplierLookup.setValueWriter(new ValueWriter(rendering));
+    REGISTRAR.register(stringSupplierLookup, joinPoint, Collections.nCopies(50_000, "foo"));
+    assertThat(stringSupplierLookup.lookup("return-value")).isEqualTo("[foo, foo, ...]");
+  }
+
   private MethodSignature mockMethodSignature(final Class<?> returnType)
       throws NoSuchMethodException {
     final MethodSignature methodSignature = mock(MethodSignature.class);
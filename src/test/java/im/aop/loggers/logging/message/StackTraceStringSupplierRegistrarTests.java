@@ -0,0 +1,31 @@
+package im.aop.loggers.logging.message;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+import im.aop.loggers.logging.exception.StackTrace;
+import im.aop.loggers.logging.exception.StackTraceRenderer;
+
+/**
+ * Tests for {@link StackTraceStringSupplierRegistrar}.
+ *
+ * @author Andy Lian
+ */
+class StackTraceStringSupplierRegistrarTests {
+
+  private static final StackTraceStringSupplierRegistrar REGISTRAR =
+      new StackTraceStringSupplierRegistrar();
+
+  @Test
+  void stackTrace() {
+    final StackTraceRenderer renderer = new StackTraceRenderer(1, null, null, null);
+    final RuntimeException exception = new IllegalStateException("foo");
+
+    final StringSupplierLookup stringSupplierLookup = new StringSupplierLookup();
+    REGISTRAR.register(stringSupplierLookup, new StackTrace(exception, renderer));
+    assertThat(stringSupplierLookup.lookup("stack-trace"))
+        .isEqualTo(renderer.render(exception))
+        .startsWith(System.lineSeparator() + "java.lang.IllegalStateException: foo");
+  }
+}
@@ -81,4 +81,23 @@ class StringSubstitutorTests {
     final String result = STRING_SUBSTITUTOR.substitute("{qux}", STRING_LOOKUP);
     assertThat(result).isEmpty();
   }
+
+  @Test
+  void substitute_withStringLookup() {
+    final StringLookup stringLookup = (key) -> key.toUpperCase();
+    assertThat(STRING_SUBSTITUTOR.substitute("foo {bar} baz", stringLookup))
+        .isEqualTo("foo BAR baz");
+  }
+
+  @Test
+  void substitute_withStringLookup_nullTemplate() {
+    final StringLookup stringLookup = (key) -> key;
+    assertThat(STRING_SUBSTITUTOR.substitute(null, stringLookup)).isNull();
+  }
+
+  @Test
+  void substitute_withStringLookup_emptyTemplate() {
+    final StringLookup stringLookup = (key) -> key;
+    assertThat(STRING_SUBSTITUTOR.substitute("", stringLookup)).isEmpty();
+  }
 }
@@ -2,8 +2,19 @@ package im.aop.loggers.logging.message;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
 import org.junit.jupiter.api.Test;
 
+import im.aop.loggers.AopLoggersProperties.Rendering;
+import im.aop.loggers.logging.exception.StackTrace;
+import im.aop.loggers.logging.exception.StackTraceRenderer;
+import im.aop.loggers.logging.value.MaskingPlan;
+import im.aop.loggers.logging.value.ValueWriter;
+import im.aop.loggers.metrics.LatencyRecorder;
+
 /**
  * Tests for {@link StringSupplierLookup}.
  *
@@ -23,4 +34,231 @@ class StringSupplierLookupTests {
     final StringSupplierLookup stringSupplierLookup = new StringSupplierLookup();
     assertThat(stringSupplierLookup.lookup("foo")).isNull();
   }
+
+  @Test
+  void lookup_withSource() {
+    final StringSupplierLookup stringSupplierLookup = new StringSupplierLookup();
+    stringSupplierLookup.addSource(StringVariable.ELAPSED, 1000L);
+    assertThat(stringSupplierLookup.isRegistered(StringVariable.ELAPSED)).isTrue();
+    assertThat(stringSupplierLookup.getSource(StringVariable.ELAPSED)).isEqualTo(1000L);
+    assertThat(stringSupplierLookup.lookup(StringVariable.ELAPSED)).isEqualTo("PT0.000001S");
+    assertThat(stringSupplierLookup.lookup("elapsed")).isEqualTo("PT0.000001S");
+  }
+
+  @Test
+  void lookup_withoutSource() {
+    final StringSupplierLookup stringSupplierLookup = new StringSupplierLookup();
+    assertThat(stringSupplierLookup.isRegistered(StringVariable.ELAPSED)).isFalse();
+    assertThat(stringSupplierLookup.lookup(StringVariable.ELAPSED)).isNull();
+    assertThat(stringSupplierLookup.lookup("elapsed")).isNull();
+  }
+
+  @Test
+  void removeSource() {
+    final StringSupplierLookup stringSupplierLookup = new StringSupplierLookup();
+    stringSupplierLookup.addSource(StringVariable.SUPPRESSED, 1L);
+    stringSupplierLookup.removeSource(StringVariable.SUPPRESSED);
+    assertThat(stringSupplierLookup.isRegistered(StringVariable.SUPPRESSED)).isFalse();
+    assertThat(stringSupplierLookup.getSource(StringVariable.SUPPRESSED)).isNull();
+    assertThat(stringSupplierLookup.lookup(StringVariable.SUPPRESSED)).isNull();
+  }
+
+  @Test
+  void lookup_stringSupplierOverridesSource() {
+    final StringSupplierLookup stringSupplierLookup = new StringSupplierLookup();
+    stringSupplierLookup.addSource(StringVariable.ELAPSED, 1000L);
+    stringSupplierLookup.addStringSupplier("elapsed", () -> "foo");
+    assertThat(stringSupplierLookup.lookup(StringVariable.ELAPSED)).isEqualTo("foo");
+  }
+
+  @Test
+  void lookup_eachVariable() {
+    final StringSupplierLookup stringSupplierLookup = new StringSupplierLookup();
+    stringSupplierLookup.addSource(StringVariable.EXCEPTION, new RuntimeException("foo"));
+    stringSupplierLookup.addSource(StringVariable.RETURN_VALUE, "bar");
+    stringSupplierLookup.addSource(StringVariable.ELAPSED_TIME_LIMIT, Duration.ofMillis(1));
+    stringSupplierLookup.addSource(StringVariable.SUPPRESSED, 2L);
+    stringSupplierLookup.addSource(StringVariable.FINGERPRINT, 0xabcL);
+    stringSupplierLookup.addSource(StringVariable.OCCURRENCES, 3L);
+    stringSupplierLookup.addSource(
+        StringVariable.STACK_TRACE,
+        new StackTrace(new RuntimeException("foo"), new StackTraceRenderer(1, null, null, null)));
+    assertThat(stringSupplierLookup.lookup(StringVariable.EXCEPTION))
+        .isEqualTo("type=RuntimeException, message=foo");
+    assertThat(stringSupplierLookup.lookup(StringVariable.RETURN_VALUE)).isEqualTo("bar");
+    assertThat(stringSupplierLookup.lookup(StringVariable.ELAPSED_TIME_LIMIT))
+        .isEqualTo("PT0.001S");
+    assertThat(stringSupplierLookup.lookup(StringVariable.SUPPRESSED)).isEqualTo("2");
+    assertThat(stringSupplierLookup.lookup(StringVariable.FINGERPRINT))
+        .isEqualTo("0000000000000abc");
+    assertThat(stringSupplierLookup.lookup(StringVariable.OCCURRENCES)).isEqualTo("3");
+    assertThat(stringSupplierLookup.lookup(StringVariable.STACK_TRACE))
+        .contains("java.lang.RuntimeException: foo");
+  }
+
+  @Test
+  void lookup_latencySummaryVariables() {
+    final LatencyRecorder recorder = new LatencyRecorder();
+    recorder.record(1000L, true);
+
+    final StringSupplierLookup stringSupplierLookup = new StringSupplierLookup();
+    new LatencySummaryStringSupplierRegistrar()
+        .register(stringSupplierLookup, recorder.summarize());
+    assertThat(stringSupplierLookup.lookup(StringVariable.COUNT)).isEqualTo("1");
+    assertThat(stringSupplierLookup.lookup(StringVariable.ERRORS)).isEqualTo("1");
+    assertThat(stringSupplierLookup.lookup(StringVariable.MIN)).isEqualTo("PT0.000001S");
+    assertThat(stringSupplierLookup.lookup(StringVariable.P50)).isEqualTo("PT0.000001S");
+    assertThat(stringSupplierLookup.lookup(StringVariable.P90)).isEqualTo("PT0.000001S");
+    assertThat(stringSupplierLookup.lookup(StringVariable.P99)).isEqualTo("PT0.000001S");
+    assertThat(stringSupplierLookup.lookup(StringVariable.MAX)).isEqualTo("PT0.000001S");
+  }
+
+  @Test
+  void acquire_reusesReleasedLookup() {
+    final StringSupplierLookup stringSupplierLookup = StringSupplierLookup.acquire();
+    stringSupplierLookup.addSource(StringVariable.ELAPSED, 1000L);
+    stringSupplierLookup.addStringSupplier("foo", () -> "bar");
+    stringSupplierLookup.release();
+
+    final StringSupplierLookup reusedStringSupplierLookup = StringSupplierLookup.acquire();
+    try {
+      assertThat(reusedStringSupplierLookup).isSameAs(stringSupplierLookup);
+      assertThat(reusedStringSupplierLookup.isRegistered(StringVariable.ELAPSED)).isFalse();
+      assertThat(reusedStringSupplierLookup.getSource(StringVariable.ELAPSED)).isNull();
+      assertThat(reusedStringSupplierLookup.lookup("foo")).isNull();
+    } finally {
+      reusedStringSupplierLookup.release();
+    }
+  }
+
+  @Test
+  void acquire_nestedReturnsDistinctLookup() {
+    final StringSupplierLookup outerStringSupplierLookup = StringSupplierLookup.acquire();
+    try {
+      outerStringSupplierLookup.addSource(StringVariable.ELAPSED, 1000L);
+
+      final StringSupplierLookup innerStringSupplierLookup = StringSupplierLookup.acquire();
+      try {
+        assertThat(innerStringSupplierLookup).isNotSameAs(outerStringSupplierLookup);
+        assertThat(innerStringSupplierLookup.isRegistered(StringVariable.ELAPSED)).isFalse();
+      } finally {
+        innerStringSupplierLookup.release();
+      }
+
+      assertThat(outerStringSupplierLookup.isRegistered(StringVariable.ELAPSED)).isTrue();
+    } finally {
+      outerStringSupplierLookup.release();
+    }
+  }
+
+  @Test
+  void acquire_beyondPoolDepthReturnsUnpooledLookup() {
+    final List<StringSupplierLookup> stringSupplierLookups = new ArrayList<>();
+    try {
+      for (int index = 0; index < 10; index++) {
+        stringSupplierLookups.add(StringSupplierLookup.acquire());
+      }
+      assertThat(stringSupplierLookups).doesNotHaveDuplicates();
+    } finally {
+      for (int index = stringSupplierLookups.size() - 1; index >= 0; index--) {
+        stringSupplierLookups.get(index).release();
+      }
+    }
+
+    final StringSupplierLookup stringSupplierLookup = StringSupplierLookup.acquire();
+    stringSupplierLookup.release();
+    assertThat(stringSupplierLookup).isSameAs(stringSupplierLookups.get(0));
+  }
+
+  @Test
+  void snapshot_survivesRelease() {
+    final StringSupplierLookup stringSupplierLookup = StringSupplierLookup.acquire();
+    final StringSupplierLookup snapshot;
+    try {
+      stringSupplierLookup.addSource(StringVariable.RETURN_VALUE, "bar");
+      stringSupplierLookup.addStringSupplier("foo", () -> "foo");
+      snapshot = stringSupplierLookup.snapshot();
+    } finally {
+      stringSupplierLookup.release();
+    }
+
+    assertThat(snapshot).isNotSameAs(stringSupplierLookup);
+    assertThat(snapshot.lookup(StringVariable.RETURN_VALUE)).isEqualTo("bar");
+    assertThat(snapshot.lookup("foo")).isEqualTo("foo");
+  }
+
+  @Test
+  void snapshot_isNotPooled() {
+    final StringSupplierLookup stringSupplierLookup = StringSupplierLookup.acquire();
+    final StringSupplierLookup snapshot = stringSupplierLookup.snapshot();
+    snapshot.release();
+    stringSupplierLookup.release();
+
+    final StringSupplierLookup reusedStringSupplierLookup = StringSupplierLookup.acquire();
+    reusedStringSupplierLookup.release();
+    assertThat(reusedStringSupplierLookup).isSameAs(stringSupplierLookup);
+  }
+
+  @Test
+  void acquire_withValueWriter() {
+    final Rendering rendering = new Rendering();
+    rendering.setMaxLength(2);
+    final ValueWriter valueWriter = new ValueWriter(rendering);
+
+    final StringSupplierLookup stringSupplierLookup = StringSupplierLookup.acquire(valueWriter);
+    final StringSupplierLookup snapshot;
+    try {
+      stringSupplierLookup.addSource(StringVariable.RETURN_VALUE, "foo");
+      snapshot = stringSupplierLookup.snapshot();
+      assertThat(stringSupplierLookup.getValueWriter()).isSameAs(valueWriter);
+      assertThat(stringSupplierLookup.lookup(StringVariable.RETURN_VALUE)).isEqualTo("fo...");
+    } finally {
+      stringSupplierLookup.release();
+    }
+
+    assertThat(snapshot.lookup(StringVariable.RETURN_VALUE)).isEqualTo("fo...");
+    assertThat(stringSupplierLookup.getValueWriter()).isSameAs(ValueWriter.DEFAULT);
+  }
+
+  @Test
+  void setParameterSelection() throws NoSuchMethodException {
+    final ParameterSelection parameterSelection =
+        ParameterSelection.of(
+            StringSupplierLookupTests.class.getDeclaredMethod("setParameterSelection"),
+            new String[] {"0"},
+            new String[0]);
+
+    final StringSupplierLookup stringSupplierLookup = StringSupplierLookup.acquire();
+    final StringSupplierLookup snapshot;
+    try {
+      stringSupplierLookup.setParameterSelection(parameterSelection);
+      snapshot = stringSupplierLookup.snapshot();
+      assertThat(stringSupplierLookup.getParameterSelection()).isSameAs(parameterSelection);
+    } finally {
+      stringSupplierLookup.release();
+    }
+
+    assertThat(snapshot.getParameterSelection()).isSameAs(parameterSelection);
+    assertThat(stringSupplierLookup.getParameterSelection()).isSameAs(ParameterSelection.ALL);
+  }
+
+  @Test
+  void setMaskingPlan() throws NoSuchMethodException {
+    final MaskingPlan maskingPlan =
+        ValueWriter.DEFAULT.getMaskingPlan(
+            StringSupplierLookupTests.class.getDeclaredMethod("setMaskingPlan"), new String[0]);
+
+    final StringSupplierLookup stringSupplierLookup = StringSupplierLookup.acquire();
+    final StringSupplierLookup snapshot;
+    try {
+      stringSupplierLookup.setMaskingPlan(maskingPlan);
+      snapshot = stringSupplierLookup.snapshot();
+      assertThat(stringSupplierLookup.getMaskingPlan()).isSameAs(maskingPlan);
+    } finally {
+      stringSupplierLookup.release();
+    }
+
+    assertThat(snapshot.getMaskingPlan()).isSameAs(maskingPlan);
+    assertThat(stringSupplierLookup.getMaskingPlan()).isNull();
+  }
 }
@@ -0,0 +1,25 @@
+package im.aop.loggers.logging.message;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link StringVariable}.
+ *
+ * @author Andy Lian
+ */
+class StringVariableTests {
+
+  @Test
+  void of_supportedKey() {
+    for (StringVariable variable : StringVariable.values()) {
+      assertThat(StringVariable.of(variable.getKey())).isSameAs(variable);
+    }
+  }
+
+  @Test
+  void of_unsupportedKey() {
+    assertThat(StringVariable.of("foo")).isNull();
+  }
+}
@@ -0,0 +1,23 @@
+package im.aop.loggers.logging.message;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link SuppressedStringSupplierRegistrar}.
+ *
+ * @author Andy Lian
+ */
+class SuppressedStringSupplierRegistrarTests {
+
+  private static final SuppressedStringSupplierRegistrar REGISTRAR =
+      new SuppressedStringSupplierRegistrar();
+
+  @Test
+  void suppressed() {
+    final StringSupplierLookup stringSupplierLookup = new StringSupplierLookup();
+    REGISTRAR.register(stringSupplierLookup, 3L);
+    assertThat(stringSupplierLookup.lookup("suppressed")).isEqualTo("3");
+  }
+}
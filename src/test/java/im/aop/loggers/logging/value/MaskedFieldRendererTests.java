@@ -0,0 +1,102 @@
+package im.aop.loggers.logging.value;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.net.PasswordAuthentication;
+import java.util.Collections;
+
+import org.junit.jupiter.api.Test;
+
+import im.aop.loggers.AopLoggersProperties.Rendering;
+
+/**
+ * Tests for {@link MaskedFieldRenderer}.
+ *
+ * @author Andy Lian
+ */
+class MaskedFieldRendererTests {
+
+  static class Account {
+
+    static final String TYPE = "foo";
+
+    String name = "bar";
+
+    @LogMask String token = "baz";
+
+    @LogExclude Object secret = "qux";
+  }
+
+  static class SavingsAccount extends Account {
+
+    String password = "quux";
+
+    Object self = this;
+  }
+
+  static class Plain {
+
+    String name = "foo";
+
+    @Override
+    public String toString() {
+      return "Plain";
+    }
+  }
+
+  private final MaskedFieldRenderer renderer =
+      new MaskedFieldRenderer(Collections.singleton("password"));
+
+  @Test
+  void supports() {
+    assertThat(renderer.supports(Account.class)).isTrue();
+    assertThat(renderer.supports(SavingsAccount.class)).isTrue();
+    assertThat(renderer.supports(Plain.class)).isFalse();
+    assertThat(renderer.supports(String.class)).isFalse();
+    assertThat(renderer.supports(Account[].class)).isFalse();
+  }
+
+  @Test
+  void render() {
+    assertThat(render(new Account())).isEqualTo("Account[name=bar, token=******]");
+  }
+
+  @Test
+  void render_inheritedFieldsFirst() {
+    assertThat(render(new SavingsAccount()))
+        .isEqualTo(
+            "SavingsAccount[name=bar, token=******, password=******, self=(this Object)]");
+  }
+
+  @Test
+  void render_maxDepth() {
+    final Rendering rendering = new Rendering();
+    rendering.setMaxDepth(1);
+
+    assertThat(new ValueWriter(rendering).write(Collections.singletonList(new Account())))
+        .isEqualTo("[Account[...]]");
+  }
+
+  @Test
+  void render_inaccessibleFields() {
+    final MaskedFieldRenderer renderer =
+        new MaskedFieldRenderer(Collections.singleton("password"));
+
+    assertThat(renderer.supports(PasswordAuthentication.class)).isTrue();
+
+    final StringBuilder builder = new StringBuilder();
+    renderer.render(
+        new PasswordAuthentication("foo", new char[] {'b', 'a', 'r'}),
+        ValueWriter.DEFAULT.output(builder));
+
+    assertThat(builder).hasToString("PasswordAuthentication");
+  }
+
+  private String render(final Object value) {
+    final StringBuilder builder = new StringBuilder();
+    new ValueWriter(new Rendering(), Collections.singletonList(renderer))
+        .output(builder)
+        .value(value);
+    return builder.toString();
+  }
+}
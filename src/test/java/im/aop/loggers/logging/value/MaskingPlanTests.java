@@ -0,0 +1,68 @@
+package im.aop.loggers.logging.value;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.reflect.Method;
+import java.util.Collections;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link MaskingPlan}.
+ *
+ * @author Andy Lian
+ */
+class MaskingPlanTests {
+
+  static class Foo {
+
+    void foo(@LogMask String foo, @LogExclude @LogMask String bar, String baz, String qux) {}
+
+    void bar(String foo) {}
+  }
+
+  @Test
+  void of() throws NoSuchMethodException {
+    final Method method =
+        Foo.class.getDeclaredMethod("foo", String.class, String.class, String.class, String.class);
+
+    final MaskingPlan maskingPlan =
+        MaskingPlan.of(
+            method.getParameters(),
+            new String[] {"foo", "bar", "baz", "qux"},
+            Collections.singleton("baz"));
+
+    assertThat(maskingPlan.isMasked(0)).isTrue();
+    assertThat(maskingPlan.isExcluded(0)).isFalse();
+    assertThat(maskingPlan.isMasked(1)).isFalse();
+    assertThat(maskingPlan.isExcluded(1)).isTrue();
+    assertThat(maskingPlan.isMasked(2)).isTrue();
+    assertThat(maskingPlan.isExcluded(2)).isFalse();
+    assertThat(maskingPlan.isMasked(3)).isFalse();
+    assertThat(maskingPlan.isExcluded(3)).isFalse();
+  }
+
+  @Test
+  void of_withoutMaskedParameters() throws NoSuchMethodException {
+    final Method method = Foo.class.getDeclaredMethod("bar", String.class);
+
+    final MaskingPlan maskingPlan =
+        MaskingPlan.of(
+            method.getParameters(), new String[] {"foo"}, Collections.singleton("baz"));
+
+    assertThat(maskingPlan).isSameAs(MaskingPlan.NONE);
+    assertThat(maskingPlan.isMasked(0)).isFalse();
+    assertThat(maskingPlan.isExcluded(0)).isFalse();
+  }
+
+  @Test
+  void of_namesLowerCase() throws NoSuchMethodException {
+    final Method method = Foo.class.getDeclaredMethod("bar", String.class);
+
+    final MaskingPlan maskingPlan =
+        MaskingPlan.of(
+            method.getParameters(), new String[] {"Foo"}, Collections.singleton("foo"));
+
+    assertThat(maskingPlan.isMasked(0)).isTrue();
+  }
+}
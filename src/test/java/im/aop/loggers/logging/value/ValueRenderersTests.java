@@ -0,0 +1,120 @@
+package im.aop.loggers.logging.value;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+
+import im.aop.loggers.AopLoggersProperties.Rendering;
+
+/**
+ * Tests for {@link ValueRenderers}.
+ *
+ * @author Andy Lian
+ */
+class ValueRenderersTests {
+
+  @Test
+  void charSequences() {
+    assertThat(ValueRenderers.charSequences().supports(String.class)).isTrue();
+    assertThat(ValueRenderers.charSequences().supports(StringBuilder.class)).isTrue();
+    assertThat(ValueRenderers.charSequences().supports(Object.class)).isFalse();
+    assertThat(render(ValueRenderers.charSequences(), new StringBuilder("foo"))).isEqualTo("foo");
+  }
+
+  @Test
+  void collections() {
+    assertThat(ValueRenderers.collections().supports(ArrayList.class)).isTrue();
+    assertThat(ValueRenderers.collections().supports(HashMap.class)).isFalse();
+    assertThat(render(ValueRenderers.collections(), Collections.singleton("foo")))
+        .isEqualTo("[foo]");
+  }
+
+  @Test
+  void maps() {
+    assertThat(ValueRenderers.maps().supports(HashMap.class)).isTrue();
+    assertThat(ValueRenderers.maps().supports(ArrayList.class)).isFalse();
+    assertThat(render(ValueRenderers.maps(), Collections.singletonMap("foo", "bar")))
+        .isEqualTo("{foo=bar}");
+  }
+
+  @Test
+  void optionals() {
+    assertThat(ValueRenderers.optionals().supports(Optional.class)).isTrue();
+    assertThat(ValueRenderers.optionals().supports(Object.class)).isFalse();
+    assertThat(render(ValueRenderers.optionals(), Optional.of("foo")))
+        .isEqualTo(Optional.of("foo").toString());
+    assertThat(render(ValueRenderers.optionals(), Optional.empty()))
+        .isEqualTo(Optional.empty().toString());
+  }
+
+  @Test
+  void objectArrays() {
+    assertThat(ValueRenderers.objectArrays().supports(String[].class)).isTrue();
+    assertThat(ValueRenderers.objectArrays().supports(int[].class)).isFalse();
+    assertThat(render(ValueRenderers.objectArrays(), new String[] {"foo", null}))
+        .isEqualTo("[foo, null]");
+  }
+
+  @Test
+  void primitiveArrays() {
+    assertThat(ValueRenderers.primitiveArrays().supports(int[].class)).isTrue();
+    assertThat(ValueRenderers.primitiveArrays().supports(byte[].class)).isTrue();
+    assertThat(ValueRenderers.primitiveArrays().supports(Integer[].class)).isFalse();
+    assertThat(ValueRenderers.primitiveArrays().supports(int.class)).isFalse();
+    assertThat(render(ValueRenderers.primitiveArrays(), new byte[] {1, 2})).isEqualTo("[1, 2]");
+  }
+
+  @Test
+  void byteArrays() {
+    assertThat(ValueRenderers.byteArrays().supports(byte[].class)).isTrue();
+    assertThat(ValueRenderers.byteArrays().supports(int[].class)).isFalse();
+    assertThat(render(ValueRenderers.byteArrays(), new byte[] {-1})).isEqualTo("[-1]");
+  }
+
+  @Test
+  void byteArrayLengths() {
+    assertThat(ValueRenderers.byteArrayLengths().supports(byte[].class)).isTrue();
+    assertThat(ValueRenderers.byteArrayLengths().supports(int[].class)).isFalse();
+    assertThat(render(ValueRenderers.byteArrayLengths(), new byte[3])).isEqualTo("byte[3]");
+  }
+
+  @Test
+  void classNameOnly() {
+    final ValueRenderer renderer = ValueRenderers.classNameOnly(InputStream.class, List.class);
+
+    assertThat(renderer.supports(ByteArrayInputStream.class)).isTrue();
+    assertThat(renderer.supports(ArrayList.class)).isTrue();
+    assertThat(renderer.supports(HashMap.class)).isFalse();
+    assertThat(render(renderer, new ArrayList<Object>())).isEqualTo("java.util.ArrayList");
+  }
+
+  @Test
+  void classNameOnly_copiesTypes() {
+    final Class<?>[] types = {String.class};
+    final ValueRenderer renderer = ValueRenderers.classNameOnly(types);
+    types[0] = Integer.class;
+
+    assertThat(renderer.supports(String.class)).isTrue();
+    assertThat(renderer.supports(Integer.class)).isFalse();
+  }
+
+  @Test
+  void toStrings() {
+    assertThat(ValueRenderers.toStrings().supports(Object.class)).isTrue();
+    assertThat(render(ValueRenderers.toStrings(), 1L)).isEqualTo("1");
+  }
+
+  private static String render(final ValueRenderer renderer, final Object value) {
+    final StringBuilder builder = new StringBuilder();
+    renderer.render(value, new ValueWriter(new Rendering()).output(builder));
+    return builder.toString();
+  }
+}
@@ -0,0 +1,461 @@
+package im.aop.loggers.logging.value;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.lang.reflect.Method;
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import im.aop.loggers.AopLoggersProperties.Rendering;
+
+/**
+ * Tests for {@link ValueWriter}.
+ *
+ * @author Andy Lian
+ */
+class ValueWriterTests {
+
+  @Test
+  void write_null() {
+    assertThat(ValueWriter.DEFAULT.write(null)).isEqualTo("null");
+  }
+
+  @Test
+  void write_object() {
+    assertThat(ValueWriter.DEFAULT.write(1)).isEqualTo("1");
+  }
+
+  @Test
+  void write_sameAsToString() {
+    final Map<String, Object> map = new LinkedHashMap<String, Object>();
+    map.put("foo", Arrays.asList("bar", null));
+    map.put("baz", Collections.singletonMap(1, 2));
+
+    assertThat(ValueWriter.DEFAULT.write(map)).isEqualTo(map.toString());
+    assertThat(ValueWriter.DEFAULT.write(Arrays.asList(map, "qux")))
+        .isEqualTo(Arrays.asList(map, "qux").toString());
+  }
+
+  @Test
+  void write_objectArray() {
+    final Object[] array = {"foo", new String[] {"bar", "baz"}, null};
+
+    assertThat(ValueWriter.DEFAULT.write(array)).isEqualTo(Arrays.deepToString(array));
+  }
+
+  @Test
+  void write_primitiveArrays() {
+    final byte[] bytes = {Byte.MIN_VALUE, 0, Byte.MAX_VALUE};
+    final short[] shorts = {Short.MIN_VALUE, Short.MAX_VALUE};
+    final int[] ints = {Integer.MIN_VALUE, 0, Integer.MAX_VALUE};
+    final long[] longs = {Long.MIN_VALUE, Long.MAX_VALUE};
+    final char[] chars = {'f', 'o', 'o'};
+    final boolean[] booleans = {true, false};
+    final float[] floats = {1.5f, Float.NaN};
+    final double[] doubles = {-0.25d, Double.MAX_VALUE};
+
+    assertThat(ValueWriter.DEFAULT.write(bytes)).isEqualTo(Arrays.toString(bytes));
+    assertThat(ValueWriter.DEFAULT.write(shorts)).isEqualTo(Arrays.toString(shorts));
+    assertThat(ValueWriter.DEFAULT.write(ints)).isEqualTo(Arrays.toString(ints));
+    assertThat(ValueWriter.DEFAULT.write(longs)).isEqualTo(Arrays.toString(longs));
+    assertThat(ValueWriter.DEFAULT.write(chars)).isEqualTo(Arrays.toString(chars));
+    assertThat(ValueWriter.DEFAULT.write(booleans)).isEqualTo(Arrays.toString(booleans));
+    assertThat(ValueWriter.DEFAULT.write(floats)).isEqualTo(Arrays.toString(floats));
+    assertThat(ValueWriter.DEFAULT.write(doubles)).isEqualTo(Arrays.toString(doubles));
+    assertThat(ValueWriter.DEFAULT.write(new int[0])).isEqualTo("[]");
+  }
+
+  @Test
+  void write_nestedPrimitiveArrays() {
+    final Object[] array = {new int[] {1, 2}, new long[][] {{3L}}};
+
+    assertThat(ValueWriter.DEFAULT.write(array)).isEqualTo(Arrays.deepToString(array));
+    assertThat(ValueWriter.DEFAULT.write(Arrays.asList(new byte[] {1})))
+        .isEqualTo("[[1]]");
+  }
+
+  @Test
+  void write_selfReferences() {
+    final List<Object> list = new ArrayList<Object>();
+    list.add(list);
+    final Map<Object, Object> map = new LinkedHashMap<Object, Object>();
+    map.put("foo", map);
+    final Object[] array = new Object[1];
+    array[0] = array;
+
+    assertThat(ValueWriter.DEFAULT.write(list)).isEqualTo("[(this Collection)]");
+    assertThat(ValueWriter.DEFAULT.write(map)).isEqualTo("{foo=(this Map)}");
+    assertThat(ValueWriter.DEFAULT.write(array)).isEqualTo("[[...]]");
+  }
+
+  @Test
+  void write_maxLength() {
+    final Rendering rendering = new Rendering();
+    rendering.setMaxLength(5);
+
+    final ValueWriter valueWriter = new ValueWriter(rendering);
+
+    assertThat(valueWriter.write("foobar")).isEqualTo("fooba...");
+    assertThat(valueWriter.write("fooba")).isEqualTo("fooba");
+    assertThat(valueWriter.write(Arrays.asList("foo", "bar"))).isEqualTo("[foo,...");
+  }
+
+  @Test
+  void write_maxLengthKeepsSurrogatePairs() {
+    final Rendering rendering = new Rendering();
+    rendering.setMaxLength(2);
+
+    assertThat(new ValueWriter(rendering).write("f\uD83D\uDE00")).isEqualTo("f...");
+  }
+
+  @Test
+  void write_maxLengthStopsWalk() {
+    final Rendering rendering = new Rendering();
+    rendering.setMaxLength(10);
+    rendering.setMaxCollectionElements(0);
+    final CountingCollection elements = new CountingCollection(1_000_000);
+
+    assertThat(new ValueWriter(rendering).write(elements)).isEqualTo("[0, 1, 2, ...");
+    assertThat(elements.rendered).isEqualTo(4);
+  }
+
+  @Test
+  void write_maxCollectionElements() {
+    final Rendering rendering = new Rendering();
+    rendering.setMaxCollectionElements(2);
+    final CountingCollection elements = new CountingCollection(1_000_000);
+
+    assertThat(new ValueWriter(rendering).write(elements)).isEqualTo("[0, 1, ...]");
+    assertThat(elements.rendered).isEqualTo(2);
+    assertThat(new ValueWriter(rendering).write(Arrays.asList(0, 1))).isEqualTo("[0, 1]");
+  }
+
+  @Test
+  void write_maxMapEntries() {
+    final Rendering rendering = new Rendering();
+    rendering.setMaxMapEntries(1);
+    final Map<String, String> map = new LinkedHashMap<String, String>();
+    map.put("foo", "bar");
+    map.put("baz", "qux");
+
+    assertThat(new ValueWriter(rendering).write(map)).isEqualTo("{foo=bar, ...}");
+  }
+
+  @Test
+  void write_maxArrayElements() {
+    final Rendering rendering = new Rendering();
+    rendering.setMaxArrayElements(1);
+
+    assertThat(new ValueWriter(rendering).write(new String[] {"foo", "bar"}))
+        .isEqualTo("[foo, ...]");
+  }
+
+  @Test
+  void write_maxArrayElements_primitiveArrays() {
+    final Rendering rendering = new Rendering();
+    rendering.setMaxArrayElements(2);
+    final ValueWriter valueWriter = new ValueWriter(rendering);
+
+    assertThat(valueWriter.write(new byte[1 << 20])).isEqualTo("[0, 0, ...]");
+    assertThat(valueWriter.write(new long[] {1L, 2L})).isEqualTo("[1, 2]");
+    assertThat(valueWriter.write(new double[] {1d, 2d, 3d})).isEqualTo("[1.0, 2.0, ...]");
+  }
+
+  @Test
+  void write_maxLength_primitiveArrays() {
+    final Rendering rendering = new Rendering();
+    rendering.setMaxLength(8);
+    final ValueWriter valueWriter = new ValueWriter(rendering);
+
+    assertThat(valueWriter.write(new int[] {123, 456789})).isEqualTo("[123, 45...");
+    assertThat(valueWriter.write(new long[] {123L, 456789L})).isEqualTo("[123, 45...");
+    assertThat(valueWriter.write(new char[] {'a', 'b', 'c'})).isEqualTo("[a, b, c...");
+    assertThat(valueWriter.write(new boolean[] {false, true})).isEqualTo("[false, ...");
+    assertThat(valueWriter.write(new float[] {1.5f, 0.125f})).isEqualTo("[1.5, 0....");
+    assertThat(valueWriter.write(new double[] {1.5d, Double.MIN_VALUE}))
+        .isEqualTo("[1.5, 4....");
+  }
+
+  @Test
+  void write_floatingPointArraysWithinMaxLength() {
+    final float[] floats = {-Float.MIN_NORMAL, Float.MAX_VALUE, -0.0f, Float.NEGATIVE_INFINITY};
+    final double[] doubles = {-Double.MIN_NORMAL, Double.MAX_VALUE, -0.0d, Double.NaN};
+
+    assertThat(ValueWriter.DEFAULT.write(floats)).isEqualTo(Arrays.toString(floats));
+    assertThat(ValueWriter.DEFAULT.write(doubles)).isEqualTo(Arrays.toString(doubles));
+  }
+
+  @Test
+  void write_byteArrayLengthOnly() {
+    final Rendering rendering = new Rendering();
+    rendering.setByteArrayLengthOnly(true);
+    final ValueWriter valueWriter = new ValueWriter(rendering);
+
+    assertThat(valueWriter.write(new byte[1024])).isEqualTo("byte[1024]");
+    assertThat(valueWriter.write(new Object[] {new byte[2]})).isEqualTo("[byte[2]]");
+    assertThat(valueWriter.write(new int[] {1})).isEqualTo("[1]");
+  }
+
+  @Test
+  void write_maxDepth() {
+    final Rendering rendering = new Rendering();
+    rendering.setMaxDepth(2);
+    final Object value =
+        Arrays.asList(
+            Collections.singletonMap("foo", Arrays.asList("bar")),
+            Collections.singletonList(Collections.singletonMap("baz", "qux")),
+            new Object[] {new Object[] {"quux"}},
+            new Object[] {new int[] {1}});
+
+    assertThat(new ValueWriter(rendering).write(value))
+        .isEqualTo("[{foo=[...]}, [{...}], [[...]], [[...]]]");
+  }
+
+  @Test
+  void write_noLimits() {
+    final Rendering rendering = new Rendering();
+    rendering.setMaxLength(0);
+    rendering.setMaxCollectionElements(0);
+    rendering.setMaxDepth(0);
+    final List<Integer> list = new ArrayList<Integer>();
+    for (int index = 0; index < 10_000; index++) {
+      list.add(index);
+    }
+
+    assertThat(new ValueWriter(rendering).write(list)).isEqualTo(list.toString());
+  }
+
+  @Test
+  void write_optional() {
+    assertThat(ValueWriter.DEFAULT.write(Optional.of(Arrays.asList("foo"))))
+        .isEqualTo("Optional[[foo]]");
+    assertThat(ValueWriter.DEFAULT.write(Optional.empty())).isEqualTo("Optional.empty");
+  }
+
+  @Test
+  void write_classNameOnlyTypes() {
+    final Rendering rendering = new Rendering();
+    rendering.setClassNameOnlyTypes(new Class<?>[] {InputStream.class});
+    final ValueWriter valueWriter = new ValueWriter(rendering);
+
+    assertThat(valueWriter.write(new ByteArrayInputStream(new byte[0])))
+        .isEqualTo("java.io.ByteArrayInputStream");
+    assertThat(valueWriter.write(Arrays.asList("foo"))).isEqualTo("[foo]");
+  }
+
+  @Test
+  void write_givenRenderersFirst() {
+    final ValueRenderer renderer =
+        new ValueRenderer() {
+
+          @Override
+          public boolean supports(final Class<?> type) {
+            return List.class.isAssignableFrom(type);
+          }
+
+          @Override
+          public void render(final Object value, final ValueWriter.Output output) {
+            output.append("list of ").value(((List<?>) value).size());
+          }
+        };
+    final ValueWriter valueWriter =
+        new ValueWriter(new Rendering(), Collections.singletonList(renderer));
+
+    assertThat(valueWriter.write(Arrays.asList("foo", "bar"))).isEqualTo("list of 2");
+    assertThat(valueWriter.write(Collections.singleton(Arrays.asList("foo"))))
+        .isEqualTo("[list of 1]");
+    assertThat(valueWriter.write(Collections.singleton("foo"))).isEqualTo("[foo]");
+  }
+
+  @Test
+  void write_maskedFields() {
+    final Rendering rendering = new Rendering();
+    rendering.setMaskedNames(Collections.singleton("Password"));
+    rendering.setMask("***");
+
+    assertThat(new ValueWriter(rendering).write(Arrays.asList(new Credentials())))
+        .isEqualTo("[Credentials[user=foo, password=***]]");
+    assertThat(ValueWriter.DEFAULT.write(new Credentials())).isEqualTo("Credentials");
+  }
+
+  @Test
+  void compileMaskingPlan() throws NoSuchMethodException {
+    final Rendering rendering = new Rendering();
+    rendering.setMaskedNames(Collections.singleton("password"));
+    final ValueWriter valueWriter = new ValueWriter(rendering);
+    final Method method = Credentials.class.getDeclaredMethod("login", String.class, String.class);
+
+    final MaskingPlan maskingPlan =
+        valueWriter.compileMaskingPlan(method, new String[] {"user", "password"});
+
+    assertThat(maskingPlan.isMasked(0)).isFalse();
+    assertThat(maskingPlan.isMasked(1)).isTrue();
+    assertThat(ValueWriter.DEFAULT.compileMaskingPlan(method, new String[] {"user", "password"}))
+        .isSameAs(MaskingPlan.NONE);
+  }
+
+  @Test
+  void getMaskingPlan_keptPerMethod() throws NoSuchMethodException {
+    final Rendering rendering = new Rendering();
+    rendering.setMaskedNames(Collections.singleton("password"));
+    final ValueWriter valueWriter = new ValueWriter(rendering);
+    final Method method = Credentials.class.getDeclaredMethod("login", String.class, String.class);
+    final String[] parameterNames = new String[] {"user", "password"};
+
+    final MaskingPlan maskingPlan = valueWriter.getMaskingPlan(method, parameterNames);
+
+    assertThat(maskingPlan.isMasked(1)).isTrue();
+    assertThat(ValueWriter.DEFAULT.getMaskingPlan(method, parameterNames))
+        .isSameAs(MaskingPlan.NONE);
+    assertThat(valueWriter.getMaskingPlan(method, parameterNames)).isSameAs(maskingPlan);
+  }
+
+  @Test
+  void getRenderer() {
+    final ValueWriter valueWriter = new ValueWriter(new Rendering());
+
+    assertThat(valueWriter.getRenderer(ArrayList.class)).isSameAs(ValueRenderers.collections());
+    assertThat(valueWriter.getRenderer(byte[].class)).isSameAs(ValueRenderers.byteArrays());
+    assertThat(valueWriter.getRenderer(Object.class)).isSameAs(ValueRenderers.toStrings());
+  }
+
+  @Test
+  void getRenderer_resolvesOncePerType() {
+    final AtomicInteger resolutions = new AtomicInteger();
+    final ValueRenderer renderer =
+        new ValueRenderer() {
+
+          @Override
+          public boolean supports(final Class<?> type) {
+            resolutions.incrementAndGet();
+            return false;
+          }
+
+          @Override
+          public void render(final Object value, final ValueWriter.Output output) {}
+        };
+    final ValueWriter valueWriter =
+        new ValueWriter(new Rendering(), Collections.singletonList(renderer));
+
+    valueWriter.write("foo");
+    valueWriter.write("bar");
+    valueWriter.write(1);
+
+    assertThat(resolutions).hasValue(2);
+  }
+
+  @Test
+  void output_exceedsMaxDepth() {
+    final Rendering rendering = new Rendering();
+    rendering.setMaxDepth(1);
+    final List<Boolean> exceedsMaxDepth = new ArrayList<Boolean>();
+    final ValueRenderer renderer =
+        new ValueRenderer() {
+
+          @Override
+          public boolean supports(final Class<?> type) {
+            return type == Integer.class;
+          }
+
+          @Override
+          public void render(final Object value, final ValueWriter.Output output) {
+            exceedsMaxDepth.add(output.exceedsMaxDepth());
+          }
+        };
+
+    final ValueWriter valueWriter = new ValueWriter(rendering, Collections.singletonList(renderer));
+
+    assertThat(valueWriter.write(Arrays.asList(1, Arrays.asList(2)))).isEqualTo("[, [...]]");
+
+    valueWriter.write(3);
+
+    assertThat(exceedsMaxDepth).containsExactly(true, false);
+  }
+
+  @Test
+  void output_sharesMaxLength() {
+    final Rendering rendering = new Rendering();
+    rendering.setMaxLength(9);
+    final StringBuilder builder = new StringBuilder("foo=");
+
+    final ValueWriter.Output output = new ValueWriter(rendering).output(builder);
+    output.value("bar").append(", ").append("baz=");
+
+    assertThat(output.isTruncated()).isFalse();
+
+    output.value("qux");
+
+    assertThat(output.isTruncated()).isTrue();
+    assertThat(builder).hasToString("foo=bar, baz=...");
+  }
+
+  @Test
+  void output_appendsNothingOnceTruncated() {
+    final Rendering rendering = new Rendering();
+    rendering.setMaxLength(1);
+    final StringBuilder builder = new StringBuilder();
+
+    new ValueWriter(rendering).output(builder).append('f').append('o').append('o').value("bar");
+
+    assertThat(builder).hasToString("f...");
+  }
+
+  static class Credentials {
+
+    String user = "foo";
+
+    String password = "bar";
+
+    void login(String user, String password) {}
+
+    @Override
+    public String toString() {
+      return "Credentials";
+    }
+  }
+
+  /** Collection of increasing integers, counting the elements iterated. */
+  private static final class CountingCollection extends AbstractCollection<Integer> {
+
+    private final int size;
+
+    private int rendered;
+
+    CountingCollection(final int size) {
+      this.size = size;
+    }
+
+    @Override
+    public Iterator<Integer> iterator() {
+      return new Iterator<Integer>() {
+
+        @Override
+        public boolean hasNext() {
+          return rendered < size;
+        }
+
+        @Override
+        public Integer next() {
+          return rendered++;
+        }
+      };
+    }
+
+    @Override
+    public int size() {
+      return size;
+    }
+  }
+}
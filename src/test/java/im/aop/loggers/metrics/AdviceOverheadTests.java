@@ -0,0 +1,187 @@
+package im.aop.loggers.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Method;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import javax.management.openmbean.TabularData;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import im.aop.loggers.AopLoggersProperties;
+
+/**
+ * Tests for {@link AdviceOverhead}.
+ *
+ * @author Andy Lian
+ */
+class AdviceOverheadTests {
+
+  private static final String ADVICE = "Test";
+
+  static class Foo {
+
+    void foo() {}
+
+    void bar(String bar) {}
+  }
+
+  private final MBeanServer mbeanServer = ManagementFactory.getPlatformMBeanServer();
+
+  private ObjectName objectName;
+
+  private Method foo;
+
+  private Method bar;
+
+  private AdviceOverhead overhead;
+
+  @BeforeEach
+  void beforeEach() throws Exception {
+    objectName = new ObjectName(AdviceOverhead.DOMAIN + ":type=AdviceOverhead,advice=" + ADVICE);
+    foo = Foo.class.getDeclaredMethod("foo");
+    bar = Foo.class.getDeclaredMethod("bar", String.class);
+  }
+
+  @AfterEach
+  void afterEach() {
+    if (overhead != null) {
+      overhead.close();
+    }
+  }
+
+  @Test
+  void empty() {
+    overhead = new AdviceOverhead(ADVICE, false);
+
+    assertThat(overhead.getAdvice()).isEqualTo(ADVICE);
+    assertThat(overhead.getCalls()).isZero();
+    assertThat(overhead.getTotalOverheadNanos()).isZero();
+    assertThat(overhead.getMaxOverheadNanos()).isZero();
+    assertThat(overhead.getMeanOverheadNanos()).isZero();
+    assertThat(overhead.getMethodOverheads()).isEmpty();
+  }
+
+  @Test
+  void record() {
+    overhead = new AdviceOverhead(ADVICE, false);
+    overhead.record(foo, 10);
+    overhead.record(bar, 30);
+
+    assertThat(overhead.getCalls()).isEqualTo(2);
+    assertThat(overhead.getTotalOverheadNanos()).isEqualTo(40);
+    assertThat(overhead.getMaxOverheadNanos()).isEqualTo(30);
+    assertThat(overhead.getMeanOverheadNanos()).isEqualTo(20.0d);
+    assertThat(overhead.getMethodOverheads()).isEmpty();
+  }
+
+  @Test
+  void record_perMethod() {
+    overhead = new AdviceOverhead(ADVICE, true);
+    overhead.record(foo, 10);
+    overhead.record(foo, 20);
+    overhead.record(bar, 30);
+
+    assertThat(overhead.getCalls()).isEqualTo(3);
+    assertThat(overhead.getMethodOverheads())
+        .containsOnlyKeys(
+            Foo.class.getName() + " void foo()", Foo.class.getName() + " void bar(String)");
+    final OverheadCounter fooOverhead =
+        overhead.getMethodOverheads().get(Foo.class.getName() + " void foo()");
+    assertThat(fooOverhead.getCalls()).isEqualTo(2);
+    assertThat(fooOverhead.getTotalOverheadNanos()).isEqualTo(30);
+    assertThat(fooOverhead.getMaxOverheadNanos()).isEqualTo(20);
+  }
+
+  @Test
+  void reset() {
+    overhead = new AdviceOverhead(ADVICE, true);
+    overhead.record(foo, 10);
+
+    overhead.reset();
+
+    assertThat(overhead.getCalls()).isZero();
+    assertThat(overhead.getMethodOverheads()).isEmpty();
+  }
+
+  @Test
+  void registerMBean() throws JMException {
+    overhead = new AdviceOverhead(ADVICE, true);
+    overhead.registerMBean();
+    overhead.record(foo, 10);
+
+    assertThat(overhead.isMBeanRegistered()).isTrue();
+    assertThat(mbeanServer.getAttribute(objectName, "Calls")).isEqualTo(1L);
+    assertThat(mbeanServer.getAttribute(objectName, "TotalOverheadNanos")).isEqualTo(10L);
+    final TabularData methodOverheads =
+        (TabularData) mbeanServer.getAttribute(objectName, "MethodOverheads");
+    final CompositeData fooOverhead =
+        (CompositeData)
+            methodOverheads
+                .get(new Object[] {Foo.class.getName() + " void foo()"})
+                .get("value");
+    assertThat(fooOverhead.get("calls")).isEqualTo(1L);
+
+    mbeanServer.invoke(objectName, "reset", new Object[0], new String[0]);
+
+    assertThat(overhead.getCalls()).isZero();
+  }
+
+  @Test
+  void registerMBean_onlyOnce() {
+    overhead = new AdviceOverhead(ADVICE, false);
+    overhead.registerMBean();
+    overhead.registerMBean();
+
+    assertThat(overhead.isMBeanRegistered()).isTrue();
+  }
+
+  @Test
+  void registerMBean_whenAlreadyRegistered() {
+    overhead = new AdviceOverhead(ADVICE, false);
+    overhead.registerMBean();
+
+    final AdviceOverhead other = new AdviceOverhead(ADVICE, false);
+    other.registerMBean();
+
+    assertThat(other.isMBeanRegistered()).isFalse();
+    other.close();
+    assertThat(mbeanServer.isRegistered(objectName)).isTrue();
+  }
+
+  @Test
+  void close() {
+    overhead = new AdviceOverhead(ADVICE, false);
+    overhead.registerMBean();
+
+    overhead.close();
+
+    assertThat(overhead.isMBeanRegistered()).isFalse();
+    assertThat(mbeanServer.isRegistered(objectName)).isFalse();
+  }
+
+  @Test
+  void create_whenEnabled() {
+    final AopLoggersProperties.Overhead properties = new AopLoggersProperties.Overhead();
+    properties.setEnabled(true);
+    properties.setPerMethod(true);
+
+    overhead = AdviceOverhead.create(ADVICE, properties);
+    overhead.record(foo, 10);
+
+    assertThat(overhead.isMBeanRegistered()).isTrue();
+    assertThat(overhead.getMethodOverheads()).hasSize(1);
+  }
+
+  @Test
+  void create_whenDisabled() {
+    assertThat(AdviceOverhead.create(ADVICE, new AopLoggersProperties.Overhead())).isNull();
+  }
+}
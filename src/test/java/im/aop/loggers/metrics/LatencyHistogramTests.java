@@ -0,0 +1,154 @@
+package im.aop.loggers.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link LatencyHistogram}.
+ *
+ * @author Andy Lian
+ */
+class LatencyHistogramTests {
+
+  @Test
+  void bucketIndex_exactBelowSubBucketCount() {
+    for (int value = 0; value < LatencyHistogram.SUB_BUCKET_COUNT; value++) {
+      assertThat(LatencyHistogram.bucketIndex(value)).isEqualTo(value);
+      assertThat(LatencyHistogram.highestValue(value)).isEqualTo(value);
+    }
+  }
+
+  @Test
+  void bucketIndex_holdsValueWithinBucketRange() {
+    for (long value = 1; value <= LatencyHistogram.MAX_TRACKABLE_VALUE; value = value * 3 + 1) {
+      final int index = LatencyHistogram.bucketIndex(value);
+      assertThat(LatencyHistogram.highestValue(index)).isGreaterThanOrEqualTo(value);
+      if (index > 0) {
+        assertThat(LatencyHistogram.highestValue(index - 1)).isLessThan(value);
+      }
+    }
+  }
+
+  @Test
+  void bucketIndex_lastBucketBeyondMaxTrackableValue() {
+    assertThat(LatencyHistogram.bucketIndex(LatencyHistogram.MAX_TRACKABLE_VALUE))
+        .isEqualTo(LatencyHistogram.BUCKET_COUNT - 1);
+    assertThat(LatencyHistogram.bucketIndex(Long.MAX_VALUE))
+        .isEqualTo(LatencyHistogram.BUCKET_COUNT - 1);
+    assertThat(LatencyHistogram.highestValue(LatencyHistogram.BUCKET_COUNT - 1))
+        .isEqualTo(LatencyHistogram.MAX_TRACKABLE_VALUE);
+  }
+
+  @Test
+  void empty() {
+    final LatencyHistogram histogram = new LatencyHistogram();
+
+    assertThat(histogram.getCount()).isZero();
+    assertThat(histogram.getMin()).isZero();
+    assertThat(histogram.getMax()).isZero();
+    assertThat(histogram.getValueAtPercentile(99)).isZero();
+  }
+
+  @Test
+  void record() {
+    final LatencyHistogram histogram = new LatencyHistogram();
+    histogram.record(5);
+    histogram.record(1_000);
+    histogram.record(-1);
+
+    assertThat(histogram.getCount()).isEqualTo(3);
+    assertThat(histogram.getMin()).isZero();
+    assertThat(histogram.getMax()).isEqualTo(1_000);
+  }
+
+  @Test
+  void getValueAtPercentile_withinRelativeError() {
+    final LatencyHistogram histogram = new LatencyHistogram();
+    for (long value = 1; value <= 10_000; value++) {
+      histogram.record(value * 1_000);
+    }
+
+    assertThat((double) histogram.getValueAtPercentile(50)).isCloseTo(5_000_000, within(320_000d));
+    assertThat((double) histogram.getValueAtPercentile(99)).isCloseTo(9_900_000, within(620_000d));
+    assertThat(histogram.getValueAtPercentile(0)).isBetween(1_000L, 1_063L);
+    assertThat(histogram.getValueAtPercentile(100)).isEqualTo(10_000_000);
+  }
+
+  @Test
+  void getValueAtPercentile_atMostMax() {
+    final LatencyHistogram histogram = new LatencyHistogram();
+    histogram.record(1_000_001);
+
+    assertThat(histogram.getValueAtPercentile(99)).isEqualTo(1_000_001);
+  }
+
+  @Test
+  void getValueAtPercentile_outOfRange() {
+    final LatencyHistogram histogram = new LatencyHistogram();
+    histogram.record(10);
+    histogram.record(20);
+
+    assertThat(histogram.getValueAtPercentile(-1)).isEqualTo(10);
+    assertThat(histogram.getValueAtPercentile(50)).isEqualTo(10);
+    assertThat(histogram.getValueAtPercentile(101)).isEqualTo(20);
+  }
+
+  @Test
+  void add() {
+    final LatencyHistogram histogram = new LatencyHistogram();
+    histogram.record(10);
+    final LatencyHistogram other = new LatencyHistogram();
+    other.record(5);
+    other.record(20);
+
+    histogram.add(other);
+    histogram.add(new LatencyHistogram());
+
+    assertThat(histogram.getCount()).isEqualTo(3);
+    assertThat(histogram.getMin()).isEqualTo(5);
+    assertThat(histogram.getMax()).isEqualTo(20);
+    assertThat(histogram.getValueAtPercentile(50)).isEqualTo(10);
+  }
+
+  @Test
+  void record_concurrently() throws Exception {
+    final LatencyHistogram histogram = new LatencyHistogram();
+    final int threads = 4;
+    final int values = 10_000;
+    final CountDownLatch start = new CountDownLatch(1);
+    final ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      final List<Future<?>> futures = new ArrayList<Future<?>>();
+      for (int thread = 0; thread < threads; thread++) {
+        futures.add(
+            executor.submit(
+                () -> {
+                  start.await();
+                  for (int value = 1; value <= values; value++) {
+                    histogram.record(value);
+                  }
+                  return null;
+                }));
+      }
+      start.countDown();
+      for (Future<?> future : futures) {
+        future.get();
+      }
+
+      assertThat(histogram.getCount()).isEqualTo(threads * values);
+      assertThat(histogram.getMin()).isEqualTo(1);
+      assertThat(histogram.getMax()).isEqualTo(values);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+}
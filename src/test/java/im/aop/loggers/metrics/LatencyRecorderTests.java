@@ -0,0 +1,88 @@
+package im.aop.loggers.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link LatencyRecorder}.
+ *
+ * @author Andy Lian
+ */
+class LatencyRecorderTests {
+
+  @Test
+  void stripes_powerOfTwo() {
+    assertThat(LatencyRecorder.STRIPES).isBetween(1, 8);
+    assertThat(Integer.bitCount(LatencyRecorder.STRIPES)).isEqualTo(1);
+  }
+
+  @Test
+  void summarize() {
+    final LatencyRecorder recorder = new LatencyRecorder();
+    recorder.record(10, false);
+    recorder.record(20, true);
+    recorder.record(30, false);
+
+    final LatencySummary summary = recorder.summarize();
+    assertThat(summary.getCount()).isEqualTo(3);
+    assertThat(summary.getErrors()).isEqualTo(1);
+    assertThat(summary.getMin()).isEqualTo(10);
+    assertThat(summary.getP50()).isEqualTo(20);
+    assertThat(summary.getMax()).isEqualTo(30);
+  }
+
+  @Test
+  void summarize_startsNewInterval() {
+    final LatencyRecorder recorder = new LatencyRecorder();
+    recorder.record(10, true);
+    recorder.summarize();
+
+    final LatencySummary summary = recorder.summarize();
+    assertThat(summary.getCount()).isZero();
+    assertThat(summary.getErrors()).isZero();
+    assertThat(summary.getMax()).isZero();
+  }
+
+  @Test
+  void record_concurrently() throws Exception {
+    final LatencyRecorder recorder = new LatencyRecorder();
+    final int threads = 4;
+    final int calls = 10_000;
+    final CountDownLatch start = new CountDownLatch(1);
+    final ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      final List<Future<?>> futures = new ArrayList<Future<?>>();
+      for (int thread = 0; thread < threads; thread++) {
+        futures.add(
+            executor.submit(
+                () -> {
+                  start.await();
+                  for (int call = 1; call <= calls; call++) {
+                    recorder.record(call, call % 10 == 0);
+                  }
+                  return null;
+                }));
+      }
+      start.countDown();
+      for (Future<?> future : futures) {
+        future.get();
+      }
+
+      final LatencySummary summary = recorder.summarize();
+      assertThat(summary.getCount()).isEqualTo(threads * calls);
+      assertThat(summary.getErrors()).isEqualTo(threads * calls / 10);
+      assertThat(summary.getMin()).isEqualTo(1);
+      assertThat(summary.getMax()).isEqualTo(calls);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+}
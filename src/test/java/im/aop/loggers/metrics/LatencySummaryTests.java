@@ -0,0 +1,39 @@
+package im.aop.loggers.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link LatencySummary}.
+ *
+ * @author Andy Lian
+ */
+class LatencySummaryTests {
+
+  @Test
+  void percentiles() {
+    final LatencyHistogram histogram = new LatencyHistogram();
+    for (long value = 1; value <= 100; value++) {
+      histogram.record(value);
+    }
+
+    final LatencySummary summary = new LatencySummary(histogram, 2);
+    assertThat(summary.getCount()).isEqualTo(100);
+    assertThat(summary.getErrors()).isEqualTo(2);
+    assertThat(summary.getMin()).isEqualTo(1);
+    assertThat(summary.getP50()).isBetween(50L, 51L);
+    assertThat(summary.getP90()).isBetween(90L, 95L);
+    assertThat(summary.getP99()).isBetween(99L, 100L);
+    assertThat(summary.getMax()).isEqualTo(100);
+  }
+
+  @Test
+  void empty() {
+    final LatencySummary summary = new LatencySummary(new LatencyHistogram(), 0);
+    assertThat(summary.getCount()).isZero();
+    assertThat(summary.getMin()).isZero();
+    assertThat(summary.getP50()).isZero();
+    assertThat(summary.getMax()).isZero();
+  }
+}
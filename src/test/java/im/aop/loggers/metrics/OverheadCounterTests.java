@@ -0,0 +1,87 @@
+package im.aop.loggers.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link OverheadCounter}.
+ *
+ * @author Andy Lian
+ */
+class OverheadCounterTests {
+
+  @Test
+  void empty() {
+    final OverheadCounter counter = new OverheadCounter();
+
+    assertThat(counter.getCalls()).isZero();
+    assertThat(counter.getTotalOverheadNanos()).isZero();
+    assertThat(counter.getMaxOverheadNanos()).isZero();
+  }
+
+  @Test
+  void record() {
+    final OverheadCounter counter = new OverheadCounter();
+    counter.record(10);
+    counter.record(30);
+    counter.record(20);
+
+    assertThat(counter.getCalls()).isEqualTo(3);
+    assertThat(counter.getTotalOverheadNanos()).isEqualTo(60);
+    assertThat(counter.getMaxOverheadNanos()).isEqualTo(30);
+  }
+
+  @Test
+  void reset() {
+    final OverheadCounter counter = new OverheadCounter();
+    counter.record(10);
+
+    counter.reset();
+
+    assertThat(counter.getCalls()).isZero();
+    assertThat(counter.getTotalOverheadNanos()).isZero();
+    assertThat(counter.getMaxOverheadNanos()).isZero();
+  }
+
+  @Test
+  void record_concurrently() throws Exception {
+    final OverheadCounter counter = new OverheadCounter();
+    final int threads = 4;
+    final int values = 10_000;
+    final CountDownLatch start = new CountDownLatch(1);
+    final ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      final List<Future<?>> futures = new ArrayList<Future<?>>();
+      for (int thread = 0; thread < threads; thread++) {
+        futures.add(
+            executor.submit(
+                () -> {
+                  start.await();
+                  for (int value = 1; value <= values; value++) {
+                    counter.record(value);
+                  }
+                  return null;
+                }));
+      }
+      start.countDown();
+      for (Future<?> future : futures) {
+        future.get();
+      }
+
+      assertThat(counter.getCalls()).isEqualTo(threads * values);
+      assertThat(counter.getTotalOverheadNanos())
+          .isEqualTo(threads * ((long) values * (values + 1) / 2));
+      assertThat(counter.getMaxOverheadNanos()).isEqualTo(values);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+}
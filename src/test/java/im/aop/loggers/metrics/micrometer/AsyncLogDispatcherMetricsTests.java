@@ -0,0 +1,47 @@
+package im.aop.loggers.metrics.micrometer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import im.aop.loggers.logging.Level;
+import im.aop.loggers.logging.SyncLogDispatcher;
+import im.aop.loggers.logging.async.AsyncLogDispatcher;
+import im.aop.loggers.logging.async.OverflowPolicy;
+
+/**
+ * Tests for {@link AsyncLogDispatcherMetrics}.
+ *
+ * @author Andy Lian
+ */
+class AsyncLogDispatcherMetricsTests {
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+  @Test
+  void bindTo_asyncLogDispatcher() {
+    try (AsyncLogDispatcher logDispatcher =
+        new AsyncLogDispatcher(new SyncLogDispatcher(), 16, 1, OverflowPolicy.DROP, Level.WARN)) {
+      new AsyncLogDispatcherMetrics(logDispatcher).bindTo(meterRegistry);
+
+      assertThat(meterRegistry.get(AsyncLogDispatcherMetrics.QUEUE_DEPTH_METRIC).gauge().value())
+          .isZero();
+      assertThat(meterRegistry.get(AsyncLogDispatcherMetrics.CAPACITY_METRIC).gauge().value())
+          .isEqualTo(16.0d);
+      assertThat(
+              meterRegistry
+                  .get(AsyncLogDispatcherMetrics.DROPPED_EVENTS_METRIC)
+                  .functionCounter()
+                  .count())
+          .isZero();
+    }
+  }
+
+  @Test
+  void bindTo_otherLogDispatcher() {
+    new AsyncLogDispatcherMetrics(new SyncLogDispatcher()).bindTo(meterRegistry);
+
+    assertThat(meterRegistry.getMeters()).isEmpty();
+  }
+}
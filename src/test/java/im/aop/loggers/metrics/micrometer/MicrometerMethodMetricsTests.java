@@ -0,0 +1,155 @@
+package im.aop.loggers.metrics.micrometer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Method;
+import java.util.ConcurrentModificationException;
+import java.util.NoSuchElementException;
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link MicrometerMethodMetrics}.
+ *
+ * @author Andy Lian
+ */
+class MicrometerMethodMetricsTests {
+
+  static class Foo {
+
+    void foo() {}
+  }
+
+  private SimpleMeterRegistry meterRegistry;
+
+  private MicrometerMethodMetrics methodMetrics;
+
+  @BeforeEach
+  void beforeEach() throws NoSuchMethodException {
+    final Method method = Foo.class.getDeclaredMethod("foo");
+    meterRegistry = new SimpleMeterRegistry();
+    methodMetrics = new MicrometerMethodMetrics(meterRegistry, method);
+  }
+
+  @Test
+  void recordElapsedTime_whenExitedNormally() {
+    methodMetrics.recordElapsedTime(TimeUnit.MILLISECONDS.toNanos(10), null);
+    methodMetrics.recordElapsedTime(TimeUnit.MILLISECONDS.toNanos(20), null);
+
+    final Timer timer =
+        meterRegistry
+            .get(MicrometerMetricsRecorder.CALLS_METRIC)
+            .tag(MicrometerMetricsRecorder.CLASS_TAG, Foo.class.getName())
+            .tag(MicrometerMetricsRecorder.METHOD_TAG, "foo")
+            .tag(MicrometerMetricsRecorder.OUTCOME_TAG, MicrometerMetricsRecorder.SUCCESS_OUTCOME)
+            .timer();
+    assertThat(timer.count()).isEqualTo(2);
+    assertThat(timer.totalTime(TimeUnit.MILLISECONDS)).isEqualTo(30.0d);
+    assertThat(meterRegistry.find(MicrometerMetricsRecorder.EXCEPTIONS_METRIC).counter())
+        .isNull();
+    assertThat(
+            meterRegistry
+                .find(MicrometerMetricsRecorder.CALLS_METRIC)
+                .tag(MicrometerMetricsRecorder.OUTCOME_TAG, MicrometerMetricsRecorder.ERROR_OUTCOME)
+                .timer())
+        .isNull();
+  }
+
+  @Test
+  void recordElapsedTime_whenExitedAbnormally() {
+    methodMetrics.recordElapsedTime(
+        TimeUnit.MILLISECONDS.toNanos(10), new IllegalStateException());
+
+    assertThat(
+            meterRegistry
+                .get(MicrometerMetricsRecorder.CALLS_METRIC)
+                .tag(MicrometerMetricsRecorder.OUTCOME_TAG, MicrometerMetricsRecorder.ERROR_OUTCOME)
+                .timer()
+                .count())
+        .isEqualTo(1);
+    assertThat(exceptionCount("IllegalStateException")).isEqualTo(1.0d);
+  }
+
+  @Test
+  void recordException() {
+    methodMetrics.recordException(new IllegalStateException());
+    methodMetrics.recordException(new IllegalStateException());
+    methodMetrics.recordException(new IllegalArgumentException());
+
+    assertThat(exceptionCount("IllegalStateException")).isEqualTo(2.0d);
+    assertThat(exceptionCount("IllegalArgumentException")).isEqualTo(1.0d);
+    assertThat(meterRegistry.find(MicrometerMetricsRecorder.CALLS_METRIC).timer()).isNull();
+  }
+
+  @Test
+  void recordException_anonymousType() {
+    final RuntimeException exception = new RuntimeException() {};
+
+    methodMetrics.recordException(exception);
+
+    assertThat(exceptionCount(exception.getClass().getName())).isEqualTo(1.0d);
+  }
+
+  @Test
+  void recordException_boundsExceptionTypes() {
+    final Class<?>[] exceptionTypes = {
+      IllegalStateException.class,
+      IllegalArgumentException.class,
+      UnsupportedOperationException.class,
+      NullPointerException.class,
+      ArithmeticException.class,
+      ArrayIndexOutOfBoundsException.class,
+      ClassCastException.class,
+      IndexOutOfBoundsException.class,
+      NegativeArraySizeException.class,
+      SecurityException.class,
+      StringIndexOutOfBoundsException.class,
+      ArrayStoreException.class,
+      IllegalMonitorStateException.class,
+      NumberFormatException.class,
+      RuntimeException.class,
+      NoSuchElementException.class,
+      ConcurrentModificationException.class,
+      UncheckedIOException.class
+    };
+    for (Class<?> exceptionType : exceptionTypes) {
+      methodMetrics.recordException(newException(exceptionType));
+    }
+    methodMetrics.recordException(new IllegalStateException());
+
+    assertThat(exceptionCount("IllegalStateException")).isEqualTo(2.0d);
+    assertThat(exceptionCount(MicrometerMetricsRecorder.OTHER_EXCEPTION))
+        .isEqualTo(exceptionTypes.length - MicrometerMetricsRecorder.MAX_EXCEPTION_TYPES);
+    assertThat(meterRegistry.find(MicrometerMetricsRecorder.EXCEPTIONS_METRIC).counters())
+        .hasSize(MicrometerMetricsRecorder.MAX_EXCEPTION_TYPES + 1);
+  }
+
+  private double exceptionCount(final String exception) {
+    final Counter counter =
+        meterRegistry
+            .get(MicrometerMetricsRecorder.EXCEPTIONS_METRIC)
+            .tag(MicrometerMetricsRecorder.CLASS_TAG, Foo.class.getName())
+            .tag(MicrometerMetricsRecorder.METHOD_TAG, "foo")
+            .tag(MicrometerMetricsRecorder.EXCEPTION_TAG, exception)
+            .counter();
+    return counter.count();
+  }
+
+  private static Throwable newException(final Class<?> exceptionType) {
+    if (exceptionType == UncheckedIOException.class) {
+      return new UncheckedIOException(new IOException());
+    }
+    try {
+      return (Throwable) exceptionType.getDeclaredConstructor().newInstance();
+    } catch (ReflectiveOperationException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
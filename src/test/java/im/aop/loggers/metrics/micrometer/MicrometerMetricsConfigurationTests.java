@@ -0,0 +1,99 @@
+package im.aop.loggers.metrics.micrometer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.FilteredClassLoader;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import im.aop.loggers.AopLoggersProperties;
+import im.aop.loggers.logging.LogDispatcher;
+import im.aop.loggers.logging.SyncLogDispatcher;
+import im.aop.loggers.metrics.MetricsRecorder;
+
+/**
+ * Tests for {@link MicrometerMetricsConfiguration}.
+ *
+ * @author Andy Lian
+ */
+class MicrometerMetricsConfigurationTests {
+
+  private final ApplicationContextRunner runner =
+      new ApplicationContextRunner()
+          .withBean(MeterRegistry.class, SimpleMeterRegistry::new)
+          .withUserConfiguration(MicrometerMetricsConfiguration.class);
+
+  @Test
+  void metricsRecorder() {
+    runner.run(
+        (context) -> {
+          assertThat(context.getBean(MetricsRecorder.class))
+              .isNotNull()
+              .isExactlyInstanceOf(MicrometerMetricsRecorder.class);
+        });
+  }
+
+  @Test
+  void metricsRecorder_whenMetricsDisabled() {
+    runner
+        .withPropertyValues(AopLoggersProperties.PREFIX + ".metrics-enabled=false")
+        .run(
+            (context) -> {
+              assertThat(context).doesNotHaveBean(MetricsRecorder.class);
+            });
+  }
+
+  @Test
+  void metricsRecorder_whenMicrometerMissing() {
+    runner
+        .withClassLoader(new FilteredClassLoader(MeterRegistry.class))
+        .run(
+            (context) -> {
+              assertThat(context).doesNotHaveBean(MetricsRecorder.class);
+            });
+  }
+
+  @Test
+  void metricsRecorder_whenMeterRegistryMissing() {
+    new ApplicationContextRunner()
+        .withUserConfiguration(MicrometerMetricsConfiguration.class)
+        .run(
+            (context) -> {
+              assertThat(context).doesNotHaveBean(MetricsRecorder.class);
+            });
+  }
+
+  @Test
+  void metricsRecorder_whenUserDefined() {
+    final MetricsRecorder metricsRecorder = (method) -> null;
+    runner
+        .withBean(MetricsRecorder.class, () -> metricsRecorder)
+        .run(
+            (context) -> {
+              assertThat(context.getBean(MetricsRecorder.class)).isSameAs(metricsRecorder);
+            });
+  }
+
+  @Test
+  void asyncLogDispatcherMetrics_whenAsyncEnabled() {
+    runner
+        .withBean(LogDispatcher.class, SyncLogDispatcher::new)
+        .withPropertyValues(AopLoggersProperties.PREFIX + ".async.enabled=true")
+        .run(
+            (context) -> {
+              assertThat(context).hasSingleBean(AsyncLogDispatcherMetrics.class);
+            });
+  }
+
+  @Test
+  void asyncLogDispatcherMetrics_whenAsyncDisabled() {
+    runner
+        .withBean(LogDispatcher.class, SyncLogDispatcher::new)
+        .run(
+            (context) -> {
+              assertThat(context).doesNotHaveBean(AsyncLogDispatcherMetrics.class);
+            });
+  }
+}
@@ -0,0 +1,38 @@
+package im.aop.loggers.metrics.micrometer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import im.aop.loggers.metrics.MethodMetrics;
+
+/**
+ * Tests for {@link MicrometerMetricsRecorder}.
+ *
+ * @author Andy Lian
+ */
+class MicrometerMetricsRecorderTests {
+
+  static class Foo {
+
+    void foo() {}
+  }
+
+  @Test
+  void forMethod() throws NoSuchMethodException {
+    final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    final MicrometerMetricsRecorder recorder = new MicrometerMetricsRecorder(meterRegistry);
+
+    final MethodMetrics methodMetrics = recorder.forMethod(Foo.class.getDeclaredMethod("foo"));
+
+    assertThat(methodMetrics).isExactlyInstanceOf(MicrometerMethodMetrics.class);
+    assertThat(meterRegistry.getMeters()).isEmpty();
+  }
+
+  @Test
+  void nullMeterRegistry() {
+    assertThrows(NullPointerException.class, () -> new MicrometerMetricsRecorder(null));
+  }
+}